@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request for the plain jar, the AOT context and AOT + CDS.
+# Expects the database from docker-compose (or DB_URL/DB_USERNAME/DB_PASSWORD) to be reachable.
+# The first request is a login (defaults to a DatasetGenerator user), which touches the
+# database, the password encoder and JWT signing.
+#
+#   ./mvnw -P fast-startup -DskipTests package
+#   ./scripts/measure-startup.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-8080}
+EMAIL=${EMAIL:-user1@load.test}
+PASSWORD=${PASSWORD:-password}
+JAR=$(ls target/*.jar | grep -v plain | head -n 1)
+WORK=target/startup
+rm -rf "$WORK" && mkdir -p "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/app" > /dev/null
+
+# Training run for the CDS archive
+(cd "$WORK/app" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -jar app.jar > ../training.log 2>&1) || true
+
+now_ms() { date +%s%3N; }
+
+measure() {
+    local mode=$1; shift
+    for run in $(seq 1 "$RUNS"); do
+        local start ready first pid
+        start=$(now_ms)
+        (cd "$WORK/app" && exec java "$@" -jar app.jar --server.port="$PORT" > "../$mode-$run.log" 2>&1) &
+        pid=$!
+        until curl -fs "http://localhost:$PORT/actuator/health/readiness" > /dev/null 2>&1; do
+            if ! kill -0 "$pid" 2>/dev/null; then echo "$mode: process exited, see $WORK/$mode-$run.log"; exit 1; fi
+            sleep 0.05
+        done
+        ready=$(now_ms)
+        curl -s -o /dev/null -H "Content-Type: application/json" \
+            -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" "http://localhost:$PORT/auth/login"
+        first=$(now_ms)
+        kill "$pid" && wait "$pid" 2>/dev/null || true
+        printf "%-8s run %d  ready %6d ms  first request %6d ms\n" "$mode" "$run" $((ready - start)) $((first - start))
+    done
+}
+
+measure plain
+measure aot -Dspring.aot.enabled=true
+measure aot-cds -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true
@@ -0,0 +1,100 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.audit.AuditAction;
+import com.resell.backend.audit.AuditJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Append throughput of the AuditJournal under target/bench-audit (put target on the disk
+// the service will use; tmpfs makes every fsync free).
+//
+//   append               record copied into the mapping, no durability
+//   appendDurable        one thread, every append waits for its fsync
+//   appendDurable16      16 threads (concurrent checkouts): waiters share fsyncs
+//
+// Segments are dropped after every iteration so the run does not fill the disk.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditJournalBenchmark {
+
+    @Param({ "1048576" })
+    private int segmentRecords;
+
+    private final Path dir = Paths.get("target", "bench-audit");
+    private AuditJournal journal;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        deleteSegments();
+        journal = new AuditJournal(dir, segmentRecords);
+    }
+
+    @TearDown(Level.Iteration)
+    public void trim() {
+        journal.deleteBefore(Long.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        deleteSegments();
+    }
+
+    @Benchmark
+    public long append() {
+        return nextRecord();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean appendDurable() {
+        return journal.awaitCommit(nextRecord(), 10_000);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public boolean appendDurable16() {
+        return journal.awaitCommit(nextRecord(), 10_000);
+    }
+
+    private long nextRecord() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return journal.append(AuditAction.PURCHASE, random.nextInt(100_000), random.nextInt(100_000),
+                random.nextInt(1_000_000), random.nextInt(100_000));
+    }
+
+    private void deleteSegments() throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+}
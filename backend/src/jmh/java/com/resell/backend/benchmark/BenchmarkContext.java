@@ -0,0 +1,86 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.BackendApplication;
+import com.resell.backend.model.Cart;
+import com.resell.backend.model.CartItem;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.CartRepository;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared Spring context for benchmarks that need real beans.
+// Runs on the embedded H2 database from src/test/resources/application.properties.
+public final class BenchmarkContext {
+
+    private static final AtomicInteger USER_COUNTER = new AtomicInteger();
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkContext() {
+    }
+
+    public static synchronized ConfigurableApplicationContext get() {
+        if (context == null) {
+            context = new SpringApplicationBuilder(BackendApplication.class)
+                    .run("--server.port=0", "--logging.level.root=WARN", "--spring.jpa.show-sql=false");
+        }
+        return context;
+    }
+
+    public static synchronized void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    public static <T> T bean(Class<T> type) {
+        return get().getBean(type);
+    }
+
+    // Create a user whose cart holds cartSize items listed by another seller.
+    // Returns a "Bearer ..." header value for the new user.
+    public static String seedBuyer(int cartSize) {
+        UserRepository users = bean(UserRepository.class);
+        ItemRepository items = bean(ItemRepository.class);
+        CartRepository carts = bean(CartRepository.class);
+
+        int n = USER_COUNTER.incrementAndGet();
+        User seller = users.save(User.builder()
+                .email("seller" + n + "@bench.local")
+                .password("x")
+                .fullname("Seller " + n)
+                .build());
+        User buyer = users.save(User.builder()
+                .email("buyer" + n + "@bench.local")
+                .password("x")
+                .fullname("Buyer " + n)
+                .build());
+
+        Cart cart = Cart.builder().user(buyer).items(new ArrayList<>()).build();
+        List<Item> listed = new ArrayList<>();
+        for (int i = 0; i < cartSize; i++) {
+            listed.add(Item.builder()
+                    .title("Item " + i)
+                    .description("Benchmark item number " + i + " with a realistic description")
+                    .price(10.0 + i)
+                    .imageUrl("https://example.com/img/" + i + ".jpg")
+                    .owner(seller)
+                    .build());
+        }
+        for (Item item : items.saveAll(listed)) {
+            cart.getItems().add(CartItem.builder().cart(cart).item(item).build());
+        }
+        carts.save(cart);
+
+        return "Bearer " + bean(JwtUtil.class).generateToken(buyer.getEmail());
+    }
+}
@@ -0,0 +1,119 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.dto.CartItemDTO;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Response formats offered through Accept (JSON, CBOR, Smile) on 1k-item catalog pages
+// and carts: encode and decode time per format. Setup prints the payload sizes, raw
+// and gzipped, since most clients also send Accept-Encoding: gzip.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final TypeReference<PageResponse<ItemDTO>> PAGE_TYPE = new TypeReference<>() {
+    };
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    private ObjectMapper mapper;
+    private PageResponse<ItemDTO> page;
+    private CartDTO cart;
+    private byte[] pageBytes;
+    private byte[] cartBytes;
+
+    @Setup
+    public void setup() {
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().build();
+            case "smile" -> SmileMapper.builder().build();
+            default -> JsonMapper.builder().build();
+        };
+
+        List<ItemDTO> items = new ArrayList<>();
+        List<CartItemDTO> cartItems = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            ItemDTO item = ItemDTO.builder()
+                    .id(100_000L + i)
+                    .title("Item " + i)
+                    .description("Benchmark item number " + i + " with a realistic description")
+                    .price(10.0 + i % 500 + 0.99)
+                    .imageUrl("https://example.com/img/" + i + ".jpg")
+                    .purchased(false)
+                    .ownerId(1L + i % 50)
+                    .build();
+            items.add(item);
+            cartItems.add(CartItemDTO.builder().id((long) i).item(item).build());
+        }
+        page = PageResponse.<ItemDTO>builder().content(items).page(0).size(SIZE).hasNext(true).build();
+        cart = CartDTO.builder().id(1L).items(cartItems).build();
+
+        pageBytes = mapper.writeValueAsBytes(page);
+        cartBytes = mapper.writeValueAsBytes(cart);
+        System.out.printf("%n%s: page %,d B (gzip %,d B), cart %,d B (gzip %,d B)%n", format,
+                pageBytes.length, gzipped(pageBytes), cartBytes.length, gzipped(cartBytes));
+    }
+
+    @Benchmark
+    public byte[] encodePage() {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageResponse<ItemDTO> decodePage() {
+        return mapper.readValue(pageBytes, PAGE_TYPE);
+    }
+
+    @Benchmark
+    public byte[] encodeCart() {
+        return mapper.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public CartDTO decodeCart() {
+        return mapper.readValue(cartBytes, CartDTO.class);
+    }
+
+    private static int gzipped(byte[] bytes) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(bytes);
+            }
+            return buffer.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.controller.CartController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// CartController.getCart end to end against the embedded DB: user lookup, cart load
+// and the entity -> CartDTO mapping, for a few cart sizes
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({ "1", "10", "50" })
+    private int cartSize;
+
+    private CartController cartController;
+    private TransactionTemplate transactionTemplate;
+    private String authorization;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cartController = BenchmarkContext.bean(CartController.class);
+        transactionTemplate = BenchmarkContext.bean(TransactionTemplate.class);
+        authorization = BenchmarkContext.seedBuyer(cartSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    // The transaction stands in for open-session-in-view, which lazy-loads cart items
+    @Benchmark
+    public Object getCart() {
+        return transactionTemplate.execute(status -> cartController.getCart(authorization));
+    }
+}
@@ -0,0 +1,97 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Cost of answering one catalog page request: serializing (and gzipping) the page per
+// request, as GET /items does, versus writing the bytes CatalogPageService precomputed.
+// Run with -prof gc to compare the allocation per request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogPageBenchmark {
+
+    @Param({ "24", "100" })
+    private int pageSize;
+
+    private JsonMapper mapper;
+    private PageResponse<ItemDTO> page;
+    private byte[] json;
+    private byte[] gzip;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = JsonMapper.builder().build();
+        List<ItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            items.add(ItemDTO.builder()
+                    .id((long) i)
+                    .title("Item " + i)
+                    .description("Benchmark item number " + i + " with a realistic description")
+                    .price(10.0 + i)
+                    .imageUrl("https://example.com/img/" + i + ".jpg")
+                    .ownerId(1L)
+                    .purchased(false)
+                    .build());
+        }
+        page = PageResponse.<ItemDTO>builder().content(items).page(0).size(pageSize).hasNext(true).build();
+        json = mapper.writeValueAsBytes(page);
+        gzip = gzip(json);
+    }
+
+    @Benchmark
+    public void serializePerRequest(Blackhole blackhole) {
+        blackhole.consume(mapper.writeValueAsBytes(page));
+    }
+
+    @Benchmark
+    public void serializeAndGzipPerRequest(Blackhole blackhole) throws IOException {
+        blackhole.consume(gzip(mapper.writeValueAsBytes(page)));
+    }
+
+    @Benchmark
+    public void writePrecomputed(Blackhole blackhole) throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        out.write(json);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public void writePrecomputedGzip(Blackhole blackhole) throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        out.write(gzip);
+        blackhole.consume(out);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+}
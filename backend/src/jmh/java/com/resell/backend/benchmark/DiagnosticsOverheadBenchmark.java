@@ -0,0 +1,91 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.diagnostics.ControllerEvent;
+import com.resell.backend.diagnostics.JwtFilterEvent;
+import com.resell.backend.diagnostics.StorageEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// What a running /admin/diagnostics recording costs, as DiagnosticsService configures it
+// (JFR settings plus the app events with no threshold, the worst case):
+//
+//   authenticatedRead   GET /cart through security, JwtRequestFilter, the controller
+//                       interceptor and JPA: the whole per-request overhead
+//   controllerEvent     one ControllerEvent begin/complete on its own; with recording=off
+//                       this is the price every request pays while nobody profiles
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiagnosticsOverheadBenchmark {
+
+    @Param({ "off", "default", "profile" })
+    private String recording;
+
+    private MockMvc mockMvc;
+    private String authorization;
+    private Recording jfr;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        WebApplicationContext context = (WebApplicationContext) BenchmarkContext.get();
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        authorization = BenchmarkContext.seedBuyer(5);
+
+        if (!"off".equals(recording)) {
+            jfr = new Recording(Configuration.getConfiguration(recording));
+            jfr.enable(JwtFilterEvent.class).withThreshold(Duration.ZERO);
+            jfr.enable(ControllerEvent.class).withThreshold(Duration.ZERO);
+            jfr.enable(StorageEvent.class).withThreshold(Duration.ZERO);
+            jfr.setToDisk(true);
+            jfr.setMaxSize(100L * 1024 * 1024);
+            jfr.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (jfr != null) {
+            jfr.close();
+        }
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public MvcResult authenticatedRead() throws Exception {
+        return mockMvc.perform(get("/cart").header("Authorization", authorization)).andReturn();
+    }
+
+    @Benchmark
+    public ControllerEvent controllerEvent() {
+        ControllerEvent event = new ControllerEvent();
+        event.begin();
+        event.complete("CartController.getCart", "GET", 200, false);
+        return event;
+    }
+}
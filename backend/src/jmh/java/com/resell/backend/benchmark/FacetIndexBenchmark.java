@@ -0,0 +1,134 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.index.PriceFacetIndex;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Price facet queries ("under $50": count, 10-bucket histogram, first page sorted by price)
+// on the columnar PriceFacetIndex versus scanning a List<Item>.
+//
+// Setup also prints the retained heap of both structures. The boxed figure is a lower
+// bound: items carry no title/description/imageUrl here, and owners are shared.
+// Run with -prof gc to confirm the index queries allocate nothing.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms8g", "-Xmx8g" })
+public class FacetIndexBenchmark {
+
+    private static final double UNDER = 50;
+
+    @Param({ "1000000", "10000000" })
+    private int size;
+
+    private PriceFacetIndex index;
+    private List<Item> items;
+    private final long[] histogram = new long[10];
+    private final long[] page = new long[20];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        User[] sellers = new User[1000];
+        for (int i = 0; i < sellers.length; i++) {
+            sellers[i] = User.builder().id((long) i + 1).build();
+        }
+
+        long before = usedHeap();
+        PriceFacetIndex.Builder builder = new PriceFacetIndex.Builder(size);
+        for (int i = 0; i < size; i++) {
+            builder.add(i + 1, price(random), random.nextInt(sellers.length) + 1);
+        }
+        index = new PriceFacetIndex(4096);
+        index.load(builder);
+        builder = null;
+        long columnar = usedHeap() - before;
+
+        random = new Random(42);
+        before = usedHeap();
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(Item.builder()
+                    .id((long) i + 1)
+                    .price(price(random))
+                    .owner(sellers[random.nextInt(sellers.length)])
+                    .purchased(false)
+                    .build());
+        }
+        long boxed = usedHeap() - before;
+
+        System.out.printf("%nFootprint at %,d items: columnar %,d MB (%d B/item), List<Item> %,d MB (%d B/item)%n",
+                size, columnar >> 20, columnar / size, boxed >> 20, boxed / size);
+    }
+
+    @Benchmark
+    public int indexCount() {
+        return index.count(0, UNDER, PriceFacetIndex.ANY_OWNER);
+    }
+
+    @Benchmark
+    public long[] indexHistogram() {
+        index.histogram(0, 1000, PriceFacetIndex.ANY_OWNER, histogram);
+        return histogram;
+    }
+
+    @Benchmark
+    public int indexFirstPage() {
+        return index.select(0, UNDER, PriceFacetIndex.ANY_OWNER, false, 0, page);
+    }
+
+    @Benchmark
+    public long listCount() {
+        long count = 0;
+        for (Item item : items) {
+            if (!item.getPurchased() && item.getPrice() < UNDER) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long[] listHistogram() {
+        Arrays.fill(histogram, 0);
+        for (Item item : items) {
+            if (!item.getPurchased()) {
+                int bucket = (int) Math.min(item.getPrice() / 100, histogram.length - 1);
+                histogram[bucket]++;
+            }
+        }
+        return histogram;
+    }
+
+    // Prices 0-1000 with most listings cheap, like a resale catalog
+    private static double price(Random random) {
+        return Math.round(1000 * Math.pow(random.nextDouble(), 3) * 100) / 100.0;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,113 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.index.GeoGridIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// /items/nearby queries (20 nearest listings within radiusKm of central Berlin) on the
+// GeoGridIndex versus scanning every location and sorting the matches, which is what
+// "order by distance limit 20" amounts to without a spatial index.
+//
+// Listings cluster in five German cities around a uniform background across the country,
+// so the query point sits in the densest part of the catalog.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoIndexBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final double LAT = 52.52;
+    private static final double LON = 13.40;
+    private static final double[][] CITIES = { { 52.52, 13.40 }, { 48.14, 11.58 }, { 50.94, 6.96 },
+            { 53.55, 10.00 }, { 50.11, 8.68 } };
+
+    @Param({ "1000000" })
+    private int size;
+
+    @Param({ "5", "25", "100" })
+    private double radiusKm;
+
+    @Param({ "0.05" })
+    private double cellDegrees;
+
+    private GeoGridIndex index;
+    private double[] lats;
+    private double[] lons;
+    private double deepDistance; // cursor after ten pages
+    private long deepId;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new GeoGridIndex(cellDegrees, size);
+        lats = new double[size];
+        lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(3) == 0) {
+                lats[i] = 47 + random.nextDouble() * 8;
+                lons[i] = 6 + random.nextDouble() * 9;
+            } else {
+                double[] city = CITIES[random.nextInt(CITIES.length)];
+                lats[i] = city[0] + random.nextGaussian() * 0.2;
+                lons[i] = city[1] + random.nextGaussian() * 0.3;
+            }
+            index.put(i + 1, lats[i], lons[i]);
+        }
+
+        double[] distance = { -1 };
+        long[] id = { 0 };
+        for (int page = 0; page < 10; page++) {
+            index.nearby(LAT, LON, radiusKm, distance[0], id[0], LIMIT, (hitId, hitDistance) -> {
+                id[0] = hitId;
+                distance[0] = hitDistance;
+            });
+        }
+        deepDistance = distance[0];
+        deepId = id[0];
+    }
+
+    @Benchmark
+    public int indexFirstPage(Blackhole blackhole) {
+        return index.nearby(LAT, LON, radiusKm, -1, 0, LIMIT, (id, distance) -> blackhole.consume(id));
+    }
+
+    @Benchmark
+    public int indexEleventhPage(Blackhole blackhole) {
+        return index.nearby(LAT, LON, radiusKm, deepDistance, deepId, LIMIT, (id, distance) -> blackhole.consume(id));
+    }
+
+    @Benchmark
+    public long[] scanFirstPage() {
+        // Matches as sortable longs: distance in millimetres above the point index (size < 2^20)
+        long[] matches = new long[1024];
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            double distance = GeoGridIndex.distanceKm(LAT, LON, lats[i], lons[i]);
+            if (distance <= radiusKm) {
+                if (found == matches.length) {
+                    matches = Arrays.copyOf(matches, found * 2);
+                }
+                matches[found++] = (long) (distance * 1e6) << 20 | i;
+            }
+        }
+        Arrays.sort(matches, 0, found);
+        return Arrays.copyOf(matches, Math.min(found, LIMIT));
+    }
+}
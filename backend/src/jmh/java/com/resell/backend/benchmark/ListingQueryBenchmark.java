@@ -0,0 +1,113 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.service.ItemArchiveService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Listing query latency as sales history grows: the same listed items with soldItems
+// sold rows interleaved in the items table, either left there or moved to archived_items
+// by ItemArchiveService. The catalog queries walk the id index past every sold row in
+// their range, so without archiving they slow down with history.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingQueryBenchmark {
+
+    private static final int LISTED = 5_000;
+    private static final int PAGE_SIZE = 24;
+
+    @Param({ "10000", "200000" })
+    private int soldItems;
+
+    @Param({ "false", "true" })
+    private boolean archived;
+
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty("archive.pause-ms", "0");
+        itemRepository = BenchmarkContext.bean(ItemRepository.class);
+        User seller = BenchmarkContext.bean(UserRepository.class).save(User.builder()
+                .email("history-seller@bench.local")
+                .password("x")
+                .fullname("History Seller")
+                .build());
+
+        Random random = new Random(42);
+        Instant soldAt = Instant.now().minus(Duration.ofDays(365));
+        int listed = 0;
+        int sold = 0;
+        List<Item> chunk = new ArrayList<>();
+        while (listed < LISTED || sold < soldItems) {
+            // Interleave sold and listed rows in the proportion of the totals, as years of trading would
+            boolean nextSold = listed == LISTED
+                    || (sold < soldItems && random.nextInt(LISTED + soldItems) < soldItems);
+            int n = nextSold ? sold++ : listed++;
+            chunk.add(Item.builder()
+                    .title("Item " + n)
+                    .description("Benchmark item number " + n + " with a realistic description")
+                    .price(10.0 + n % 500)
+                    .imageUrl("https://example.com/img/" + n + ".jpg")
+                    .owner(seller)
+                    .purchased(nextSold)
+                    .purchasedAt(nextSold ? soldAt : null)
+                    .build());
+            if (chunk.size() == 1000) {
+                itemRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        itemRepository.saveAll(chunk);
+
+        if (archived) {
+            ItemArchiveService archive = BenchmarkContext.bean(ItemArchiveService.class);
+            while (archive.archive() > 0) {
+                // max-batches-per-run caps each call
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+        System.clearProperty("archive.pause-ms");
+    }
+
+    @Benchmark
+    public void firstPage(Blackhole blackhole) {
+        blackhole.consume(itemRepository.findListedPage(PageRequest.of(0, PAGE_SIZE)));
+    }
+
+    @Benchmark
+    public void deepPage(Blackhole blackhole) {
+        blackhole.consume(itemRepository.findListedPage(PageRequest.of(100, PAGE_SIZE)));
+    }
+}
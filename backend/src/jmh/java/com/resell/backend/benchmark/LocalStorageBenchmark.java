@@ -0,0 +1,81 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.service.LocalStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// LocalStorageService.uploadFile throughput for small and large images, every upload new
+// content (see UploadDedupBenchmark for repeated photos).
+// Files are written to ./uploads and removed after each iteration.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalStorageBenchmark {
+
+    @Param({ "16384", "1048576" })
+    private int fileSize;
+
+    private LocalStorageService storage;
+    private byte[] content;
+    private long sequence;
+    private final List<String> written = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        storage = BenchmarkContext.bean(LocalStorageService.class);
+
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+
+        // uploadFile builds its URL from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws IOException {
+        for (String url : written) {
+            Files.deleteIfExists(Paths.get("uploads").resolve(url.substring(url.lastIndexOf('/') + 1)));
+        }
+        written.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public String upload() throws IOException {
+        ByteBuffer.wrap(content).putLong(sequence++); // uploads are content addressed: keep them distinct
+        String url = storage.uploadFile(new MockMultipartFile("file", "photo.jpg", "image/jpeg", content));
+        written.add(url);
+        return url;
+    }
+}
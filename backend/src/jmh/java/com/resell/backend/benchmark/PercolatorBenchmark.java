@@ -0,0 +1,74 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.index.Percolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Listings matched per second against N saved searches (1-3 keywords, half with a price
+// cap). Words are drawn with a skew towards common ones, so popular keywords have long
+// posting lists as they would in production. Text building is part of the measurement,
+// so the figure is a lower bound for the matcher itself.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class PercolatorBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+    private static final int WORDS_PER_LISTING = 30;
+
+    @Param({ "100000", "1000000" })
+    private int savedSearches;
+
+    private Percolator percolator;
+    private String[] words;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setup() {
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = "word" + i;
+        }
+        percolator = new Percolator(savedSearches);
+        Random setupRandom = new Random(42);
+        for (int i = 1; i <= savedSearches; i++) {
+            StringBuilder keywords = new StringBuilder();
+            int count = 1 + setupRandom.nextInt(3);
+            for (int k = 0; k < count; k++) {
+                keywords.append(word(setupRandom)).append(' ');
+            }
+            Double maxPrice = setupRandom.nextBoolean() ? null : (double) setupRandom.nextInt(1000);
+            percolator.put(i, i % 100_000 + 1, keywords.toString(), null, maxPrice);
+        }
+    }
+
+    @Benchmark
+    public int matchListing(Blackhole blackhole) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < WORDS_PER_LISTING; i++) {
+            text.append(word(random)).append(' ');
+        }
+        return percolator.match(text.toString(), random.nextInt(1000), (searchId, userId) -> blackhole.consume(searchId));
+    }
+
+    private String word(Random r) {
+        double x = r.nextDouble();
+        return words[(int) (VOCABULARY * x * x)];
+    }
+}
@@ -0,0 +1,82 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.dto.CartItemDTO;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson encoding of the two hottest response shapes: the item list (GET /items)
+// and the cart DTO (GET /cart)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int size;
+
+    private JsonMapper mapper;
+    private List<Item> items;
+    private CartDTO cart;
+
+    @Setup
+    public void setup() {
+        mapper = JsonMapper.builder().build();
+        User owner = User.builder().id(1L).email("seller@bench.local").password("x").fullname("Seller").build();
+
+        items = new ArrayList<>();
+        List<CartItemDTO> cartItems = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Item item = Item.builder()
+                    .id((long) i)
+                    .title("Item " + i)
+                    .description("Benchmark item number " + i + " with a realistic description")
+                    .price(10.0 + i)
+                    .imageUrl("https://example.com/img/" + i + ".jpg")
+                    .owner(owner)
+                    .build();
+            items.add(item);
+            cartItems.add(CartItemDTO.builder()
+                    .id((long) i)
+                    .item(ItemDTO.builder()
+                            .id(item.getId())
+                            .title(item.getTitle())
+                            .description(item.getDescription())
+                            .price(item.getPrice())
+                            .imageUrl(item.getImageUrl())
+                            .build())
+                    .build());
+        }
+        cart = CartDTO.builder().id(1L).items(cartItems).build();
+    }
+
+    @Benchmark
+    public byte[] itemList() {
+        return mapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] cartDto() {
+        return mapper.writeValueAsBytes(cart);
+    }
+}
@@ -0,0 +1,72 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.index.MinHashIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// /items/{id}/similar lookups (top 8) on the MinHash/LSH index, plus the cost of indexing
+// one listing (what an ItemCreated/ItemUpdated event pays)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+public class SimilarItemsBenchmark {
+
+    private static final String[] BRANDS = { "nike", "adidas", "apple", "samsung", "sony", "ikea", "lego", "canon" };
+    private static final String[] THINGS = { "shoes", "jacket", "phone", "laptop", "camera", "chair", "desk", "watch" };
+    private static final String[] WORDS = { "red", "blue", "black", "used", "new", "vintage", "large", "small", "mint",
+            "boxed", "with", "charger", "original", "receipt", "barely", "worn", "great", "condition" };
+
+    @Param({ "100000", "1000000" })
+    private int size;
+
+    private MinHashIndex index;
+    private final long[] ids = new long[8];
+    private final double[] scores = new double[8];
+    private long next;
+
+    @Setup
+    public void setup() {
+        index = new MinHashIndex(16, 4, 200, size);
+        for (int i = 1; i <= size; i++) {
+            index.put(i, listing(new Random(i)));
+        }
+    }
+
+    @Benchmark
+    public int similar() {
+        next = next % size + 1;
+        return index.similar(next * 7919 % size + 1, 0.2, ids, scores);
+    }
+
+    @Benchmark
+    public void put() {
+        next = next % size + 1;
+        index.put(next, listing(new Random(next + size)));
+    }
+
+    private static String listing(Random random) {
+        StringBuilder text = new StringBuilder()
+                .append(BRANDS[random.nextInt(BRANDS.length)]).append(' ')
+                .append(THINGS[random.nextInt(THINGS.length)]).append(' ')
+                .append("model ").append(random.nextInt(5000));
+        for (int i = 0; i < 12; i++) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.resell.backend.benchmark;
+
+import com.resell.backend.repository.StoredBlobRepository;
+import com.resell.backend.service.LocalStorageService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Upload latency and bytes stored when sellers re-post the same photos: the old
+// UUID_name scheme (every upload written) versus content-addressed LocalStorageService
+// (hash, then skip the write for known bytes). duplicateRatio of the uploads repeat one of
+// 50 hot photos. The bytesStored/bytesUploaded counters are per iteration.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadDedupBenchmark {
+
+    private static final int HOT_PHOTOS = 50;
+
+    @Param({ "0.0", "0.5", "0.9" })
+    private double duplicateRatio;
+
+    @Param({ "262144" })
+    private int fileSize;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytesUploaded;
+        public long bytesStored;
+    }
+
+    private LocalStorageService storage;
+    private StoredBlobRepository storedBlobRepository;
+    private final Path uuidDir = Paths.get("target", "bench-uploads-uuid");
+    private final Random random = new Random(42);
+    private byte[] content;
+    private long nextUnique = HOT_PHOTOS;
+    private final Set<String> storedKeys = new HashSet<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        storage = BenchmarkContext.bean(LocalStorageService.class);
+        storedBlobRepository = BenchmarkContext.bean(StoredBlobRepository.class);
+        Files.createDirectories(uuidDir);
+        content = new byte[fileSize];
+        random.nextBytes(content);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() throws IOException {
+        for (String key : storedKeys) {
+            Files.deleteIfExists(Paths.get("uploads").resolve(key));
+        }
+        storedKeys.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uuidDir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        storedBlobRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkContext.close();
+    }
+
+    @Benchmark
+    public Path uuidNamed(Bytes bytes) throws IOException {
+        MockMultipartFile file = nextUpload();
+        Path destination = uuidDir.resolve(UUID.randomUUID() + "_" + file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, destination);
+        }
+        bytes.bytesUploaded += fileSize;
+        bytes.bytesStored += fileSize;
+        return destination;
+    }
+
+    @Benchmark
+    public String contentAddressed(Bytes bytes) throws IOException {
+        String url = storage.uploadFile(nextUpload());
+        bytes.bytesUploaded += fileSize;
+        if (storedKeys.add(url.substring(url.lastIndexOf('/') + 1))) {
+            bytes.bytesStored += fileSize;
+        }
+        return url;
+    }
+
+    // A hot photo with probability duplicateRatio, otherwise a photo never seen before
+    private MockMultipartFile nextUpload() {
+        long photo = random.nextDouble() < duplicateRatio ? random.nextInt(HOT_PHOTOS) : nextUnique++;
+        ByteBuffer.wrap(content).putLong(photo);
+        return new MockMultipartFile("file", "photo.jpg", "image/jpeg", content);
+    }
+}
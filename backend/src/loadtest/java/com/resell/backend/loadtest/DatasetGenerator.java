@@ -0,0 +1,242 @@
+package com.resell.backend.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+// Bulk-loads a synthetic marketplace into MySQL: users, items, carts and cart_items.
+//
+// Rows are written with multi-row INSERTs (rows-per-statement at a time) with explicit
+// ids placed after the current maximum, so existing data is left alone. Seller activity
+// follows a Zipf distribution, cart sizes are geometric, and a configurable share of
+// items is already sold. Every user gets the password "password" so LoadHarness can log in.
+//
+// The schema must exist first: start the backend once against the target database.
+//
+// ./mvnw -P loadtest -DskipTests test-compile exec:java
+//     -Dexec.mainClass=com.resell.backend.loadtest.DatasetGenerator
+//     -Dexec.args="--users=1000000 --items=3000000 --seller-skew=1.1"
+public class DatasetGenerator {
+
+    public static final String PASSWORD = "password";
+    public static final String EMAIL_DOMAIN = "@load.test";
+
+    private final Options options;
+    private final Random random;
+
+    private final int users;
+    private final int items;
+    private final double sellerFraction;
+    private final double sellerSkew;
+    private final double purchaseRatio;
+    private final double cartFraction;
+    private final double meanCartSize;
+    private final int rowsPerStatement;
+
+    private DatasetGenerator(Options options) {
+        this.options = options;
+        this.random = new Random(options.getLong("seed", 42));
+        this.users = options.getInt("users", 100_000);
+        this.items = options.getInt("items", 300_000);
+        this.sellerFraction = options.getDouble("seller-fraction", 0.2);
+        this.sellerSkew = options.getDouble("seller-skew", 1.1);
+        this.purchaseRatio = options.getDouble("purchase-ratio", 0.3);
+        this.cartFraction = options.getDouble("cart-fraction", 0.5);
+        this.meanCartSize = options.getDouble("mean-cart-size", 3);
+        this.rowsPerStatement = options.getInt("rows-per-statement", 1000);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DatasetGenerator(new Options(args)).run();
+    }
+
+    private void run() throws SQLException {
+        String url = options.get("url", "jdbc:mysql://localhost:3307/resell?rewriteBatchedStatements=true");
+        try (Connection connection = DriverManager.getConnection(url,
+                options.get("user", "root"), options.get("password", ""))) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // Safe here: every id we write is fresh and every reference points at rows we wrote
+                statement.execute("SET unique_checks = 0");
+                statement.execute("SET foreign_key_checks = 0");
+            }
+
+            long started = System.nanoTime();
+            long firstUser = maxId(connection, "users") + 1;
+            long firstItem = maxId(connection, "items") + 1;
+            long firstCart = maxId(connection, "carts") + 1;
+            long firstCartItem = maxId(connection, "cart_items") + 1;
+
+            insertUsers(connection, firstUser);
+            BitSet sold = insertItems(connection, firstUser, firstItem);
+            long cartRows = insertCarts(connection, firstUser, firstItem, firstCart, firstCartItem, sold);
+
+            alignSequence(connection, "items_seq", "items");
+            alignSequence(connection, "cart_items_seq", "cart_items");
+            connection.commit();
+
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long total = users + items + cartRows;
+            System.out.printf("Inserted %d users, %d items (%d sold), %d cart items in %.1fs (%.0f rows/s)%n",
+                    users, items, sold.cardinality(), cartRows, seconds, total / seconds);
+            System.out.printf("Log in as user<N>%s / %s with N in [%d, %d]%n",
+                    EMAIL_DOMAIN, PASSWORD, firstUser, firstUser + users - 1);
+        }
+    }
+
+    private void insertUsers(Connection connection, long firstId) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD); // one hash for everyone
+        try (Batch batch = new Batch(connection, "users", "id, email, password, fullname, role", 5)) {
+            for (int i = 0; i < users; i++) {
+                long id = firstId + i;
+                batch.add(id, "user" + id + EMAIL_DOMAIN, hash, "Load User " + id, "ROLE_USER");
+            }
+        }
+    }
+
+    // Owners are drawn from the first sellerFraction of users with Zipf(sellerSkew) weights,
+    // so a handful of power sellers own a large share of the catalog
+    private BitSet insertItems(Connection connection, long firstUser, long firstItem) throws SQLException {
+        int sellers = Math.max(1, (int) (users * sellerFraction));
+        double[] cdf = zipfCdf(sellers, sellerSkew);
+        BitSet sold = new BitSet(items);
+
+        try (Batch batch = new Batch(connection, "items",
+                "id, title, description, price, image_url, user_id, purchased", 7)) {
+            for (int i = 0; i < items; i++) {
+                long owner = firstUser + sample(cdf);
+                boolean purchased = random.nextDouble() < purchaseRatio;
+                if (purchased) {
+                    sold.set(i);
+                }
+                double price = Math.round(Math.exp(2 + random.nextGaussian()) * 100) / 100.0; // log-normal, ~$7 median
+                batch.add(firstItem + i, "Item " + (firstItem + i), "Synthetic listing number " + i,
+                        price, "https://example.com/img/" + (i % 1000) + ".jpg", owner, purchased);
+            }
+        }
+        return sold;
+    }
+
+    // A cartFraction of users get a cart; sizes are geometric with mean meanCartSize
+    // and contents are unsold items, unique per cart
+    private long insertCarts(Connection connection, long firstUser, long firstItem, long firstCart,
+            long firstCartItem, BitSet sold) throws SQLException {
+        long cartItemId = firstCartItem;
+        long cartId = firstCart;
+        double p = 1.0 / Math.max(1.0, meanCartSize);
+
+        try (Batch carts = new Batch(connection, "carts", "id, user_id", 2);
+                Batch cartItems = new Batch(connection, "cart_items", "id, cart_id, item_id", 3)) {
+            for (int u = 0; u < users; u++) {
+                if (random.nextDouble() >= cartFraction) {
+                    continue;
+                }
+                carts.add(cartId, firstUser + u);
+                int size = 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+                long[] chosen = new long[Math.min(size, 50)];
+                int count = 0;
+                for (int attempt = 0; attempt < chosen.length * 4 && count < chosen.length; attempt++) {
+                    int index = random.nextInt(items);
+                    long itemId = firstItem + index;
+                    if (!sold.get(index) && Arrays.stream(chosen, 0, count).noneMatch(id -> id == itemId)) {
+                        chosen[count++] = itemId;
+                        cartItems.add(cartItemId++, cartId, itemId);
+                    }
+                }
+                cartId++;
+            }
+        }
+        return cartItemId - firstCartItem;
+    }
+
+    private int sample(double[] cdf) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Same adjustment IdSequenceInitializer makes at startup
+    private static void alignSequence(Connection connection, String sequenceTable, String table) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE " + sequenceTable + " SET next_val = "
+                    + "GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM " + table + "))");
+        } catch (SQLException e) {
+            System.out.println("Skipping " + sequenceTable + ": " + e.getMessage());
+        }
+    }
+
+    // Buffers rows and writes them as one multi-row INSERT per rowsPerStatement rows,
+    // committing after each statement to keep transactions (and undo logs) small
+    private final class Batch implements AutoCloseable {
+        private final Connection connection;
+        private final String table;
+        private final String columns;
+        private final int width;
+        private final Object[] buffer;
+        private int rows;
+
+        Batch(Connection connection, String table, String columns, int width) {
+            this.connection = connection;
+            this.table = table;
+            this.columns = columns;
+            this.width = width;
+            this.buffer = new Object[rowsPerStatement * width];
+        }
+
+        void add(Object... values) throws SQLException {
+            System.arraycopy(values, 0, buffer, rows * width, width);
+            if (++rows == rowsPerStatement) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (rows == 0) {
+                return;
+            }
+            String row = "(" + "?,".repeat(width - 1) + "?)";
+            String sql = "INSERT INTO " + table + " (" + columns + ") VALUES " + (row + ",").repeat(rows - 1) + row;
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < rows * width; i++) {
+                    statement.setObject(i + 1, buffer[i]);
+                }
+                statement.executeUpdate();
+            }
+            connection.commit();
+            rows = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.resell.backend.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+// TCP proxy that delays every packet from the backend to MySQL, to see how the backend
+// (and its concurrency limits) behave when the database slows down. Point DB_URL at the
+// proxy port, then run LoadHarness against the backend.
+//
+// Latency follows a schedule: --delay-ms for the first --spike-after seconds, then
+// --spike-delay-ms for --spike-duration seconds, then --delay-ms again.
+//
+// ./mvnw -P loadtest -DskipTests test-compile exec:java
+//     -Dexec.mainClass=com.resell.backend.loadtest.DbLatencyProxy
+//     -Dexec.args="--listen=3308 --target=localhost:3307 --spike-after=60 --spike-delay-ms=200 --spike-duration=60"
+public class DbLatencyProxy {
+
+    private final int listenPort;
+    private final String targetHost;
+    private final int targetPort;
+    private final long delayMillis;
+    private final long spikeDelayMillis;
+    private final long spikeFrom;
+    private final long spikeUntil;
+
+    private DbLatencyProxy(Options options) {
+        String target = options.get("target", "localhost:3307");
+        this.listenPort = options.getInt("listen", 3308);
+        this.targetHost = target.substring(0, target.lastIndexOf(':'));
+        this.targetPort = Integer.parseInt(target.substring(target.lastIndexOf(':') + 1));
+        this.delayMillis = options.getLong("delay-ms", 0);
+        this.spikeDelayMillis = options.getLong("spike-delay-ms", 200);
+        long start = System.currentTimeMillis();
+        this.spikeFrom = start + options.getLong("spike-after", 60) * 1000;
+        this.spikeUntil = spikeFrom + options.getLong("spike-duration", 60) * 1000;
+    }
+
+    public static void main(String[] args) throws IOException {
+        new DbLatencyProxy(new Options(args)).run();
+    }
+
+    private void run() throws IOException {
+        System.out.printf("Proxying :%d -> %s:%d, %d ms delay, %d ms from +%ds for %ds%n", listenPort, targetHost,
+                targetPort, delayMillis, spikeDelayMillis, (spikeFrom - System.currentTimeMillis() + 500) / 1000,
+                (spikeUntil - spikeFrom) / 1000);
+        try (ServerSocket server = new ServerSocket()) {
+            server.bind(new InetSocketAddress(listenPort));
+            while (true) {
+                Socket client = server.accept();
+                Socket upstream;
+                try {
+                    upstream = new Socket(targetHost, targetPort);
+                } catch (IOException e) {
+                    System.err.println("Cannot reach " + targetHost + ":" + targetPort + ": " + e.getMessage());
+                    client.close();
+                    continue;
+                }
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                pipe(client, upstream, true);
+                pipe(upstream, client, false);
+            }
+        }
+    }
+
+    // One thread per direction; only backend -> MySQL (queries) is delayed
+    private void pipe(Socket from, Socket to, boolean delayed) {
+        Thread thread = new Thread(() -> {
+            byte[] buffer = new byte[16384];
+            try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    long delay = delayed ? currentDelay() : 0;
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    out.write(buffer, 0, read);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // connection closed
+            } finally {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }, "proxy-" + from.getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private long currentDelay() {
+        long now = System.currentTimeMillis();
+        return now >= spikeFrom && now < spikeUntil ? spikeDelayMillis : delayMillis;
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+}
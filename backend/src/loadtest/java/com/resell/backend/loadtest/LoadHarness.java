@@ -0,0 +1,316 @@
+package com.resell.backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Replays a realistic user mix against a running backend and reports throughput and
+// latency percentiles per flow. Users come from DatasetGenerator (user<N>@load.test).
+//
+// Each virtual user logs in, then loops: pick a flow by weight, run it, think, repeat.
+// Defaults: browse 40%, item detail 35%, add to cart 15%, checkout 5%, re-login 5%.
+// Browse requests --browse-path (default /items; /items/catalog?page=0 for the
+// pre-encoded catalog pages).
+//
+// ./mvnw -P loadtest -DskipTests test-compile exec:java
+//     -Dexec.mainClass=com.resell.backend.loadtest.LoadHarness
+//     -Dexec.args="--base-url=http://localhost:8080 --users=50 --duration=120 --first-user=1 --user-count=100000"
+public class LoadHarness {
+
+    enum Flow {
+        LOGIN, BROWSE, ITEM_DETAIL, ADD_TO_CART, CHECKOUT
+    }
+
+    private static final Pattern ITEM_ID = Pattern.compile("\\{\"id\":(\\d+),\"title\"");
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl;
+    private final String browsePath;
+    private final int virtualUsers;
+    private final long durationMillis;
+    private final long warmupMillis;
+    private final long thinkMillis;
+    private final long firstUser;
+    private final int userCount;
+    private final Map<Flow, Integer> weights = new EnumMap<>(Flow.class);
+    private final String output;
+
+    private volatile long[] itemIds = new long[0];
+
+    private LoadHarness(Options options) {
+        this.baseUrl = options.get("base-url", "http://localhost:8080");
+        this.browsePath = options.get("browse-path", "/items");
+        this.virtualUsers = options.getInt("users", 20);
+        this.durationMillis = options.getLong("duration", 60) * 1000;
+        this.warmupMillis = options.getLong("warmup", 10) * 1000;
+        this.thinkMillis = options.getLong("think-ms", 0);
+        this.firstUser = options.getLong("first-user", 1);
+        this.userCount = options.getInt("user-count", 1000);
+        this.output = options.get("out", "target/loadtest-result.json");
+        weights.put(Flow.LOGIN, options.getInt("weight-login", 5));
+        weights.put(Flow.BROWSE, options.getInt("weight-browse", 40));
+        weights.put(Flow.ITEM_DETAIL, options.getInt("weight-detail", 35));
+        weights.put(Flow.ADD_TO_CART, options.getInt("weight-add", 15));
+        weights.put(Flow.CHECKOUT, options.getInt("weight-checkout", 5));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadHarness(new Options(args)).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Load test: %d virtual users, %ds warmup + %ds measured against %s%n",
+                virtualUsers, warmupMillis / 1000, durationMillis / 1000, baseUrl);
+
+        long start = System.currentTimeMillis();
+        long measureFrom = start + warmupMillis;
+        long end = measureFrom + durationMillis;
+
+        List<VirtualUser> vus = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(virtualUsers);
+        for (int i = 0; i < virtualUsers; i++) {
+            VirtualUser vu = new VirtualUser(i, measureFrom, end);
+            vus.add(vu);
+            Thread thread = new Thread(() -> {
+                try {
+                    vu.loop();
+                } finally {
+                    done.countDown();
+                }
+            }, "vu-" + i);
+            thread.start();
+        }
+        done.await();
+
+        report(vus, durationMillis / 1000.0);
+    }
+
+    private final class VirtualUser {
+        private final Random random;
+        private final long measureFrom;
+        private final long end;
+        private final Map<Flow, Recorder> recorders = new EnumMap<>(Flow.class);
+        private String token;
+        private int lastStatus;
+
+        VirtualUser(int index, long measureFrom, long end) {
+            this.random = new Random(index);
+            this.measureFrom = measureFrom;
+            this.end = end;
+            for (Flow flow : Flow.values()) {
+                recorders.put(flow, new Recorder());
+            }
+        }
+
+        void loop() {
+            timed(Flow.LOGIN);
+            while (System.currentTimeMillis() < end) {
+                timed(pick());
+                if (thinkMillis > 0) {
+                    sleep(thinkMillis);
+                }
+            }
+        }
+
+        private Flow pick() {
+            int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+            int roll = random.nextInt(total);
+            for (Map.Entry<Flow, Integer> entry : weights.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            return Flow.BROWSE;
+        }
+
+        private void timed(Flow flow) {
+            long started = System.nanoTime();
+            boolean ok;
+            lastStatus = 0;
+            try {
+                ok = execute(flow);
+            } catch (IOException | InterruptedException e) {
+                ok = false;
+            }
+            if (System.currentTimeMillis() >= measureFrom) {
+                recorders.get(flow).record(System.nanoTime() - started, ok, lastStatus == 503);
+            }
+        }
+
+        private boolean execute(Flow flow) throws IOException, InterruptedException {
+            switch (flow) {
+                case LOGIN -> {
+                    long n = firstUser + random.nextInt(userCount);
+                    HttpResponse<String> response = send(post("/auth/login", "{\"email\":\"user" + n
+                            + DatasetGenerator.EMAIL_DOMAIN + "\",\"password\":\"" + DatasetGenerator.PASSWORD + "\"}"));
+                    Matcher matcher = TOKEN.matcher(response.body());
+                    if (matcher.find()) {
+                        token = matcher.group(1);
+                    }
+                    return response.statusCode() == 200;
+                }
+                case BROWSE -> {
+                    HttpResponse<String> response = send(get(browsePath));
+                    if (itemIds.length == 0) {
+                        itemIds = ITEM_ID.matcher(response.body()).results()
+                                .mapToLong(m -> Long.parseLong(m.group(1)))
+                                .toArray();
+                    }
+                    return response.statusCode() == 200;
+                }
+                case ITEM_DETAIL -> {
+                    return send(get("/items/" + randomItem())).statusCode() == 200;
+                }
+                case ADD_TO_CART -> {
+                    HttpRequest request = authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/cart/add")))
+                            .header("Content-Type", "application/json")
+                            .header("Idempotency-Key", UUID.randomUUID().toString())
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"itemId\":" + randomItem() + "}"))
+                            .build();
+                    return send(request).statusCode() == 200;
+                }
+                case CHECKOUT -> {
+                    HttpRequest request = authorized(HttpRequest.newBuilder(URI.create(baseUrl + "/cart/checkout")))
+                            .header("Idempotency-Key", UUID.randomUUID().toString())
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    int status = send(request).statusCode();
+                    // 400 = empty cart, 409 = everything in it was sold first; both valid outcomes
+                    return status == 200 || status == 400 || status == 409;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+
+        private long randomItem() {
+            long[] ids = itemIds;
+            return ids.length == 0 ? 1 : ids[random.nextInt(ids.length)];
+        }
+
+        private HttpRequest get(String path) {
+            return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path))).GET().build();
+        }
+
+        private HttpRequest post(String path, String json) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder builder) {
+            return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+        }
+
+        private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            lastStatus = response.statusCode();
+            return response;
+        }
+    }
+
+    // Per-thread latency samples (nanoseconds); merged and sorted once at the end
+    private static final class Recorder {
+        private long[] samples = new long[1024];
+        private int count;
+        private int errors;
+        private int shed; // 503 from the concurrency limiter (also counted as errors)
+
+        void record(long nanos, boolean ok, boolean rejected) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+            if (rejected) {
+                shed++;
+            }
+        }
+    }
+
+    private void report(List<VirtualUser> vus, double seconds) throws IOException {
+        StringBuilder json = new StringBuilder("{\"durationSeconds\":").append(seconds)
+                .append(",\"virtualUsers\":").append(virtualUsers).append(",\"flows\":{");
+        System.out.printf("%n%-12s %9s %7s %7s %9s %8s %8s %8s %8s %8s%n",
+                "flow", "requests", "errors", "503s", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        long allRequests = 0;
+        boolean first = true;
+        for (Flow flow : Flow.values()) {
+            long[] merged = vus.stream()
+                    .map(vu -> vu.recorders.get(flow))
+                    .flatMapToLong(r -> Arrays.stream(r.samples, 0, r.count))
+                    .sorted()
+                    .toArray();
+            int errors = vus.stream().mapToInt(vu -> vu.recorders.get(flow).errors).sum();
+            int shed = vus.stream().mapToInt(vu -> vu.recorders.get(flow).shed).sum();
+            allRequests += merged.length;
+
+            double rate = merged.length / seconds;
+            System.out.printf("%-12s %9d %7d %7d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n", flow, merged.length, errors,
+                    shed, rate, ms(merged, 0.50), ms(merged, 0.90), ms(merged, 0.99), ms(merged, 0.999), ms(merged, 1.0));
+
+            json.append(first ? "" : ",").append('"').append(flow).append("\":{")
+                    .append("\"requests\":").append(merged.length)
+                    .append(",\"errors\":").append(errors)
+                    .append(",\"rejected\":").append(shed)
+                    .append(",\"throughput\":").append(rate)
+                    .append(",\"p50\":").append(ms(merged, 0.50))
+                    .append(",\"p90\":").append(ms(merged, 0.90))
+                    .append(",\"p99\":").append(ms(merged, 0.99))
+                    .append(",\"p999\":").append(ms(merged, 0.999))
+                    .append(",\"max\":").append(ms(merged, 1.0))
+                    .append('}');
+            first = false;
+        }
+        json.append("},\"totalThroughput\":").append(allRequests / seconds).append('}');
+        System.out.printf("%nTotal: %.1f req/s%n", allRequests / seconds);
+
+        Path out = Path.of(output);
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, json);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static double ms(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
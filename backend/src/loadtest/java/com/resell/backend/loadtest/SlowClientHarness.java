@@ -0,0 +1,372 @@
+package com.resell.backend.loadtest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Holds thousands of slow clients open against one endpoint and samples what the server
+// pays for them: live threads, heap, and database connections in use / waiting. Meant to
+// compare the servlet stack with the reactive one (profile "reactive") on GET /items.
+//
+// Every client sends one request with a small receive buffer and then reads at most
+// --read-bytes every --tick-ms, so responses stay in flight for a long time. All clients
+// run on one selector thread here, so the harness itself stays small.
+//
+// The backend must expose the metrics endpoint, e.g. run it with
+//     --management.endpoints.web.exposure.include=health,info,metrics
+// and this machine needs a file descriptor limit above --clients (ulimit -n).
+//
+// ./mvnw -P loadtest -DskipTests test-compile exec:java
+//     -Dexec.mainClass=com.resell.backend.loadtest.SlowClientHarness
+//     -Dexec.args="--base-url=http://localhost:8080 --clients=10000 --path=/items --duration=60"
+public class SlowClientHarness {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\":\"([^\"]+)\"");
+    private static final Pattern VALUE = Pattern.compile("\"value\":([-0-9.Ee+]+)");
+
+    // Gauges sampled from /actuator/metrics; whichever a stack does not have show as "-"
+    private static final Map<String, String> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("threads", "jvm.threads.live");
+        METRICS.put("heap MB", "jvm.memory.used?tag=area:heap");
+        METRICS.put("jdbc busy", "hikaricp.connections.active");
+        METRICS.put("jdbc wait", "hikaricp.connections.pending");
+        METRICS.put("r2dbc busy", "r2dbc.pool.acquired");
+        METRICS.put("r2dbc wait", "r2dbc.pool.pending");
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final URI baseUrl;
+    private final String authUrl;
+    private final String path;
+    private final String accept;
+    private final int clients;
+    private final long rampMillis;
+    private final long durationMillis;
+    private final int readBytes;
+    private final long tickMillis;
+    private final long sampleMillis;
+    private final String output;
+    private String token;
+
+    private final List<Slow> slows = new ArrayList<>();
+    private final Map<String, double[]> peaks = new LinkedHashMap<>(); // label -> {baseline, peak}
+
+    private SlowClientHarness(Options options) {
+        this.baseUrl = URI.create(options.get("base-url", "http://localhost:8080"));
+        this.authUrl = options.get("auth-url", baseUrl.toString()); // the reactive profile has no /auth
+        this.path = options.get("path", "/items");
+        this.accept = options.get("accept", "application/json");
+        this.clients = options.getInt("clients", 10000);
+        this.rampMillis = options.getLong("ramp", 10) * 1000;
+        this.durationMillis = options.getLong("duration", 60) * 1000;
+        this.readBytes = options.getInt("read-bytes", 256);
+        this.tickMillis = options.getLong("tick-ms", 100);
+        this.sampleMillis = options.getLong("sample-ms", 5000);
+        this.output = options.get("out", "target/slow-clients-result.json");
+        this.token = options.get("token", null);
+        if (token == null) {
+            token = login(options.get("email", "user1" + DatasetGenerator.EMAIL_DOMAIN),
+                    options.get("password", DatasetGenerator.PASSWORD));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SlowClientHarness(new Options(args)).run();
+    }
+
+    // One client: a socket that has sent its request and drains the response slowly
+    private static final class Slow {
+        final SocketChannel channel;
+        final long openedAt;
+        long firstByteAt;
+        long bytes;
+        boolean finished;
+        boolean failed;
+
+        Slow(SocketChannel channel, long openedAt) {
+            this.channel = channel;
+            this.openedAt = openedAt;
+        }
+    }
+
+    private void run() throws Exception {
+        System.out.printf("Slow clients: %d clients on %s%s over %ds, reading %d B every %d ms, for %ds%n",
+                clients, baseUrl, path, rampMillis / 1000, readBytes, tickMillis, durationMillis / 1000);
+
+        Map<String, Double> baseline = record(sample());
+        printHeader();
+        printSample(0, baseline);
+
+        byte[] request = ("GET " + path + " HTTP/1.1\r\n"
+                + "Host: " + baseUrl.getHost() + "\r\n"
+                + "Accept: " + accept + "\r\n"
+                + "Authorization: Bearer " + token + "\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        InetSocketAddress address = new InetSocketAddress(baseUrl.getHost(),
+                baseUrl.getPort() > 0 ? baseUrl.getPort() : 80);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(readBytes);
+
+        try (Selector selector = Selector.open()) {
+            long start = System.currentTimeMillis();
+            long end = start + rampMillis + durationMillis;
+            long nextSample = start + sampleMillis;
+            int opened = 0;
+
+            while (System.currentTimeMillis() < end) {
+                long now = System.currentTimeMillis();
+
+                // Ramp up linearly
+                int due = rampMillis == 0 ? clients
+                        : (int) Math.min(clients, (long) clients * (now - start) / rampMillis);
+                for (; opened < due; opened++) {
+                    open(selector, address);
+                }
+
+                // Finish connects and send requests
+                selector.selectNow();
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Slow slow = (Slow) key.attachment();
+                    try {
+                        if (slow.channel.finishConnect()) {
+                            ByteBuffer out = ByteBuffer.wrap(request);
+                            while (out.hasRemaining()) {
+                                slow.channel.write(out);
+                            }
+                            key.interestOps(0);
+                        }
+                    } catch (IOException e) {
+                        fail(slow, key);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                // Read a little from everyone
+                for (Slow slow : slows) {
+                    if (slow.finished || !slow.channel.isConnected()) {
+                        continue;
+                    }
+                    buffer.clear();
+                    try {
+                        int read = slow.channel.read(buffer);
+                        if (read > 0) {
+                            if (slow.firstByteAt == 0) {
+                                slow.firstByteAt = now;
+                            }
+                            slow.bytes += read;
+                        } else if (read < 0) {
+                            slow.finished = true;
+                            slow.channel.close();
+                        }
+                    } catch (IOException e) {
+                        fail(slow, null);
+                    }
+                }
+
+                if (now >= nextSample) {
+                    printSample((now - start) / 1000, record(sample()));
+                    nextSample += sampleMillis;
+                }
+                sleep(Math.max(1, tickMillis - (System.currentTimeMillis() - now)));
+            }
+        } finally {
+            for (Slow slow : slows) {
+                slow.channel.close();
+            }
+        }
+
+        report();
+    }
+
+    private void open(Selector selector, InetSocketAddress address) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096); // keeps the server's writes waiting on us
+            Slow slow = new Slow(channel, System.currentTimeMillis());
+            slows.add(slow);
+            channel.connect(address);
+            channel.register(selector, SelectionKey.OP_CONNECT, slow);
+        } catch (IOException e) {
+            System.out.println("Could not open a connection: " + e.getMessage());
+        }
+    }
+
+    private static void fail(Slow slow, SelectionKey key) {
+        slow.failed = true;
+        slow.finished = true;
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            slow.channel.close();
+        } catch (IOException ignored) {
+            // already broken
+        }
+    }
+
+    // ---- server-side samples ----
+
+    private Map<String, Double> sample() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        METRICS.forEach((label, metric) -> {
+            Double value = metric(metric);
+            if (value != null && label.startsWith("heap")) {
+                value = value / (1024 * 1024);
+            }
+            values.put(label, value);
+        });
+        return values;
+    }
+
+    private Map<String, Double> record(Map<String, Double> values) {
+        values.forEach((label, value) -> {
+            if (value != null) {
+                double[] peak = peaks.computeIfAbsent(label, l -> new double[] { value, value });
+                peak[1] = Math.max(peak[1], value);
+            }
+        });
+        return values;
+    }
+
+    // Null if the metric does not exist on this stack or the server did not answer in time
+    private Double metric(String metric) {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/actuator/metrics/" + metric))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = VALUE.matcher(response.body());
+            return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String login(String email, String password) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(authUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        try {
+            Matcher matcher = TOKEN.matcher(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            if (!matcher.find()) {
+                throw new IllegalStateException("Login failed for " + email + "; pass --token or --email/--password");
+            }
+            return matcher.group(1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Login failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ---- output ----
+
+    private void printHeader() {
+        System.out.printf("%n%6s %8s %8s", "t (s)", "open", "reading");
+        METRICS.keySet().forEach(label -> System.out.printf(" %10s", label));
+        System.out.println();
+    }
+
+    private void printSample(long seconds, Map<String, Double> values) {
+        long open = slows.stream().filter(s -> !s.finished).count();
+        long reading = slows.stream().filter(s -> !s.finished && s.firstByteAt > 0).count();
+        System.out.printf("%6d %8d %8d", seconds, open, reading);
+        values.values().forEach(value -> System.out.printf(" %10s", value == null ? "-" : String.format("%.0f", value)));
+        System.out.println();
+    }
+
+    private void report() throws IOException {
+        long[] firstByte = slows.stream()
+                .filter(s -> s.firstByteAt > 0)
+                .mapToLong(s -> s.firstByteAt - s.openedAt)
+                .sorted()
+                .toArray();
+        long failed = slows.stream().filter(s -> s.failed).count();
+        long completed = slows.stream().filter(s -> s.finished && !s.failed).count();
+        long bytes = slows.stream().mapToLong(s -> s.bytes).sum();
+
+        System.out.printf("%nClients: %d opened, %d got a first byte, %d completed, %d failed, %,d bytes read%n",
+                slows.size(), firstByte.length, completed, failed, bytes);
+        System.out.printf("Time to first byte: p50 %d ms, p99 %d ms, max %d ms%n",
+                quantile(firstByte, 0.50), quantile(firstByte, 0.99), quantile(firstByte, 1.0));
+
+        StringBuilder json = new StringBuilder("{\"path\":\"").append(path).append('"')
+                .append(",\"clients\":").append(slows.size())
+                .append(",\"firstByte\":").append(firstByte.length)
+                .append(",\"completed\":").append(completed)
+                .append(",\"failed\":").append(failed)
+                .append(",\"firstByteP50Ms\":").append(quantile(firstByte, 0.50))
+                .append(",\"firstByteP99Ms\":").append(quantile(firstByte, 0.99))
+                .append(",\"server\":{");
+        boolean first = true;
+        for (Map.Entry<String, double[]> entry : peaks.entrySet()) {
+            double baseline = entry.getValue()[0];
+            double peak = entry.getValue()[1];
+            System.out.printf("%-11s baseline %8.0f  peak %8.0f%n", entry.getKey(), baseline, peak);
+            json.append(first ? "" : ",").append('"').append(entry.getKey()).append("\":{\"baseline\":")
+                    .append(baseline).append(",\"peak\":").append(peak).append('}');
+            first = false;
+        }
+        if (peaks.containsKey("heap MB") && !slows.isEmpty()) {
+            double[] heap = peaks.get("heap MB");
+            double perClient = (heap[1] - heap[0]) * 1024 / slows.size();
+            System.out.printf("Heap per client: %.1f KB (peak minus baseline)%n", perClient);
+            json.append(",\"heapPerClientKb\":").append(perClient);
+        }
+        json.append("}}");
+
+        Path out = Path.of(output);
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, json);
+        System.out.println("Results written to " + out.toAbsolutePath());
+    }
+
+    private static long quantile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.resell.backend.audit;
+
+// What an audit record describes. The code is what lands on disk, so existing codes must
+// never change meaning; add new actions with new codes.
+public enum AuditAction {
+
+    // actor bought itemId from seller userId for value cents
+    PURCHASE(1),
+    // admin actor deleted itemId, listed by userId for value cents
+    ITEM_DELETED(2),
+    // admin actor changed userId's role; value 1 = now ROLE_ADMIN, 0 = now ROLE_USER
+    ROLE_CHANGED(3);
+
+    private final int code;
+
+    AuditAction(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static AuditAction fromCode(int code) {
+        for (AuditAction action : values()) {
+            if (action.code == code) {
+                return action;
+            }
+        }
+        throw new IllegalArgumentException("Unknown audit action code " + code);
+    }
+}
@@ -0,0 +1,527 @@
+package com.resell.backend.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+// Append-only journal of fixed-size binary records in memory-mapped segment files.
+//
+// An append copies 64 bytes into the mapped active segment under a lock and returns the
+// record's sequence number; nothing is written to disk on the caller's thread. A single
+// committer thread forces the active segment whenever records are pending and then
+// advances committedSeq, so one fsync covers every record appended while the previous one
+// ran (group commit). Callers that need durability wait for it with awaitCommit.
+//
+// Segments are named after their first sequence number and hold segmentRecords records;
+// a full segment is forced before the next one is created, so only the newest segment can
+// end in records that never reached the disk. On open that segment is scanned: a record
+// counts if its sequence number is the expected one and its CRC matches, and everything
+// from the first record that fails is zeroed. Records up to committedSeq always survive.
+//
+// Timestamps never go backwards (a clock step back reuses the last one), so a segment is
+// sorted by time and reads binary-search to the start of a time range. Reads only see
+// committed records and never take the lock. Retention deletes whole segments whose
+// newest record is older than the cutoff. One journal per directory: a second one
+// (another process on a shared volume) fails to open.
+public final class AuditJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    // A power of two, so a record never straddles a page
+    static final int RECORD_BYTES = 64;
+
+    // Record layout; bytes 52-59 are reserved and written as zero
+    private static final int SEQ = 0;
+    private static final int AT = 8;
+    private static final int ACTOR = 16;
+    private static final int USER = 24;
+    private static final int ITEM = 32;
+    private static final int VALUE = 40;
+    private static final int ACTION = 48;
+    private static final int RESERVED = 52;
+    private static final int CRC = 60;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{20})\\.log");
+
+    private record Segment(long firstSeq, Path path, MappedByteBuffer buffer, int capacity) {
+    }
+
+    private final Path dir;
+    private final FileChannel lockChannel;
+    private final int segmentRecords;
+    private final LongSupplier clock;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Thread committer;
+
+    // Guarded by lock
+    private final byte[] scratch = new byte[RECORD_BYTES];
+    private final CRC32C crc = new CRC32C();
+    private Segment active;
+    private int activeCount;
+    private long nextSeq;
+    private long lastTimestamp;
+    private boolean closed;
+    private boolean halted;
+    private RuntimeException failure;
+
+    private volatile long committedSeq;
+    private volatile long appended;
+    private volatile long commits;
+
+    public AuditJournal(Path dir, int segmentRecords) throws IOException {
+        this(dir, segmentRecords, System::currentTimeMillis);
+    }
+
+    AuditJournal(Path dir, int segmentRecords, LongSupplier clock) throws IOException {
+        if (segmentRecords < 1 || segmentRecords > Integer.MAX_VALUE / RECORD_BYTES) {
+            throw new IllegalArgumentException("segmentRecords must be between 1 and "
+                    + Integer.MAX_VALUE / RECORD_BYTES);
+        }
+        this.dir = Files.createDirectories(dir).toAbsolutePath();
+        this.segmentRecords = segmentRecords;
+        this.clock = clock;
+        lockChannel = lock(this.dir);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+
+        committer = new Thread(this::commitLoop, "audit-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Appends one record and returns its sequence number; durable once awaitCommit says so
+    public long append(AuditAction action, long actorId, long userId, long itemId, long value) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new IllegalStateException("Audit journal failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Audit journal is closed");
+            }
+            if (activeCount == active.capacity()) {
+                roll();
+            }
+
+            long seq = nextSeq;
+            long at = Math.max(clock.getAsLong(), lastTimestamp);
+            ByteBuffer record = ByteBuffer.wrap(scratch);
+            record.putLong(SEQ, seq)
+                    .putLong(AT, at)
+                    .putLong(ACTOR, actorId)
+                    .putLong(USER, userId)
+                    .putLong(ITEM, itemId)
+                    .putLong(VALUE, value)
+                    .putInt(ACTION, action.code())
+                    .putLong(RESERVED, 0L);
+            crc.reset();
+            crc.update(scratch, 0, CRC);
+            record.putInt(CRC, (int) crc.getValue());
+            active.buffer().put(activeCount * RECORD_BYTES, scratch);
+
+            activeCount++;
+            nextSeq++;
+            lastTimestamp = at;
+            appended++;
+            pending.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Waits until the record is on disk. False on timeout or if the journal was halted
+    // first; throws if forcing a segment failed (the record may be lost).
+    public boolean awaitCommit(long seq, long timeoutMs) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (committedSeq < seq) {
+                if (failure != null) {
+                    throw new IllegalStateException("Audit journal failed", failure);
+                }
+                if (halted || nanos <= 0) {
+                    return false;
+                }
+                nanos = durable.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Committed records in [fromMillis, toMillis] with seq > afterSeq, oldest first.
+    // userId null matches everyone; otherwise the user must be the actor or the other party.
+    public List<AuditRecord> read(Long userId, long fromMillis, long toMillis, long afterSeq, int limit) {
+        List<AuditRecord> records = new ArrayList<>();
+        long committed = committedSeq;
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Segment segment = entry.getValue();
+            Long nextFirst = segments.higherKey(entry.getKey());
+            long last = Math.min(committed, segment.firstSeq() + segment.capacity() - 1);
+            if (nextFirst != null) {
+                last = Math.min(last, nextFirst - 1);
+            }
+            if (last <= afterSeq || last < segment.firstSeq()) {
+                continue;
+            }
+
+            MappedByteBuffer buffer = segment.buffer();
+            int count = (int) (last - segment.firstSeq() + 1);
+            int start = (int) Math.max(0, afterSeq + 1 - segment.firstSeq());
+            for (int i = firstAtOrAfter(buffer, start, count, fromMillis); i < count; i++) {
+                int offset = i * RECORD_BYTES;
+                if (buffer.getLong(offset + AT) > toMillis) {
+                    return records;
+                }
+                AuditRecord record = decode(buffer, offset);
+                if (userId == null || record.involves(userId)) {
+                    records.add(record);
+                    if (records.size() >= limit) {
+                        return records;
+                    }
+                }
+            }
+        }
+        return records;
+    }
+
+    // Deletes the oldest segments whose newest record is older than cutoffMillis; the active
+    // segment is always kept. Readers already inside a deleted segment finish on its mapping.
+    public int deleteBefore(long cutoffMillis) {
+        int deleted = 0;
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                if (segment == active) {
+                    break;
+                }
+                long lastSeq = segments.higherKey(segment.firstSeq()) - 1;
+                int lastOffset = (int) (lastSeq - segment.firstSeq()) * RECORD_BYTES;
+                if (segment.buffer().getLong(lastOffset + AT) >= cutoffMillis) {
+                    break;
+                }
+                segments.remove(segment.firstSeq());
+                Files.deleteIfExists(segment.path());
+                deleted++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+        return deleted;
+    }
+
+    public long committedSeq() {
+        return committedSeq;
+    }
+
+    public long appended() {
+        return appended;
+    }
+
+    public long commits() {
+        return commits;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public Path dir() {
+        return dir;
+    }
+
+    // Commits whatever is pending, then stops the committer
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        joinCommitter();
+        closeQuietly(lockChannel);
+    }
+
+    // Crash stand-in for tests: the committer stops without forcing anything, appends still
+    // land in the mapping, and nothing after committedSeq is ever forced by this instance.
+    void halt() {
+        lock.lock();
+        try {
+            halted = true;
+            pending.signal();
+            durable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        joinCommitter();
+        closeQuietly(lockChannel); // a dead process holds no locks
+    }
+
+    private void commitLoop() {
+        while (true) {
+            long target;
+            MappedByteBuffer buffer;
+            lock.lock();
+            try {
+                while (!closed && !halted && failure == null && nextSeq - 1 == committedSeq) {
+                    pending.awaitUninterruptibly();
+                }
+                if (halted || failure != null || nextSeq - 1 == committedSeq) {
+                    durable.signalAll();
+                    return;
+                }
+                target = nextSeq - 1;
+                buffer = active.buffer();
+            } finally {
+                lock.unlock();
+            }
+
+            // Outside the lock: appends keep landing in the mapping while the disk catches up,
+            // and the next force picks them all up together. A segment rolled in the meantime
+            // was forced by roll(), so forcing the one seen above covers everything to target.
+            RuntimeException error = null;
+            try {
+                buffer.force();
+            } catch (UncheckedIOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+                if (target > committedSeq) {
+                    committedSeq = target;
+                }
+                commits++;
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Called with the lock held when the active segment is full
+    private void roll() {
+        try {
+            active.buffer().force();
+            Segment next = map(nextSeq);
+            syncDir();
+            segments.put(next.firstSeq(), next);
+            active = next;
+            activeCount = 0;
+            // Everything before the new segment was just forced
+            if (nextSeq - 1 > committedSeq) {
+                committedSeq = nextSeq - 1;
+                durable.signalAll();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            fail(e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e);
+            throw new IllegalStateException("Audit journal failed", failure);
+        }
+    }
+
+    // A failed fsync may have dropped dirty pages, so there is no safe retry: the journal
+    // stops accepting records and waiters get the error.
+    private void fail(RuntimeException error) {
+        if (failure == null) {
+            failure = error;
+            log.error("Audit journal failed; no further records are accepted", error);
+        }
+        pending.signal();
+        durable.signalAll();
+    }
+
+    private void recover() throws IOException {
+        List<Long> firsts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    firsts.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        Collections.sort(firsts);
+        if (firsts.isEmpty()) {
+            firsts.add(1L);
+        }
+        for (long first : firsts) {
+            segments.put(first, map(first));
+        }
+
+        active = segments.lastEntry().getValue();
+        activeCount = validRecords(active);
+        if (zeroFrom(active, activeCount)) {
+            active.buffer().force();
+        }
+        nextSeq = active.firstSeq() + activeCount;
+        committedSeq = nextSeq - 1;
+
+        Segment newest = activeCount > 0 ? active : previous(active);
+        if (newest != null) {
+            int count = newest == active ? activeCount : (int) (active.firstSeq() - newest.firstSeq());
+            lastTimestamp = newest.buffer().getLong((count - 1) * RECORD_BYTES + AT);
+        }
+    }
+
+    private Segment previous(Segment segment) {
+        Map.Entry<Long, Segment> entry = segments.lowerEntry(segment.firstSeq());
+        return entry != null ? entry.getValue() : null;
+    }
+
+    // Leading records with the expected sequence number and an intact CRC
+    private int validRecords(Segment segment) {
+        byte[] record = new byte[RECORD_BYTES];
+        CRC32C check = new CRC32C();
+        for (int i = 0; i < segment.capacity(); i++) {
+            segment.buffer().get(i * RECORD_BYTES, record);
+            ByteBuffer fields = ByteBuffer.wrap(record);
+            check.reset();
+            check.update(record, 0, CRC);
+            if (fields.getLong(SEQ) != segment.firstSeq() + i || fields.getInt(CRC) != (int) check.getValue()) {
+                return i;
+            }
+        }
+        return segment.capacity();
+    }
+
+    // Zeroes every non-blank slot from index on; a stale record after a torn one could
+    // otherwise carry exactly the sequence number the next append reuses
+    private static boolean zeroFrom(Segment segment, int index) {
+        byte[] blank = new byte[RECORD_BYTES];
+        boolean changed = false;
+        for (int i = index; i < segment.capacity(); i++) {
+            int offset = i * RECORD_BYTES;
+            for (int word = 0; word < RECORD_BYTES; word += Long.BYTES) {
+                if (segment.buffer().getLong(offset + word) != 0) {
+                    segment.buffer().put(offset, blank);
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private Segment map(long firstSeq) throws IOException {
+        Path path = dir.resolve(String.format("audit-%020d.log", firstSeq));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // An existing segment keeps its size even if segmentRecords changed since
+            long size = channel.size();
+            int capacity = size >= RECORD_BYTES ? (int) (size / RECORD_BYTES) : segmentRecords;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES);
+            return new Segment(firstSeq, path, buffer, capacity);
+        }
+    }
+
+    // Makes a new segment's directory entry durable; not every platform can open a directory
+    private void syncDir() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    private static FileChannel lock(Path dir) throws IOException {
+        FileChannel channel = FileChannel.open(dir.resolve("audit.lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = channel.tryLock();
+            if (fileLock != null) {
+                return channel;
+            }
+        } catch (OverlappingFileLockException e) {
+            // held by another journal in this JVM
+        }
+        channel.close();
+        throw new IllegalStateException("Audit journal " + dir + " is already open");
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // the lock goes with the process anyway
+        }
+    }
+
+    private void joinCommitter() {
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // First index in [start, count) whose timestamp is at least fromMillis
+    private static int firstAtOrAfter(MappedByteBuffer buffer, int start, int count, long fromMillis) {
+        int low = start;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(mid * RECORD_BYTES + AT) < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static AuditRecord decode(MappedByteBuffer buffer, int offset) {
+        return new AuditRecord(
+                buffer.getLong(offset + SEQ),
+                Instant.ofEpochMilli(buffer.getLong(offset + AT)),
+                AuditAction.fromCode(buffer.getInt(offset + ACTION)),
+                buffer.getLong(offset + ACTOR),
+                buffer.getLong(offset + USER),
+                buffer.getLong(offset + ITEM),
+                buffer.getLong(offset + VALUE));
+    }
+}
@@ -0,0 +1,14 @@
+package com.resell.backend.audit;
+
+import java.time.Instant;
+
+// One journal entry. userId is the other user involved (seller, or the user whose role
+// changed), itemId is 0 when no item is involved; see AuditAction for what value holds.
+public record AuditRecord(long seq, Instant at, AuditAction action, long actorId, long userId, long itemId,
+        long value) {
+
+    // True if the user acted or was acted upon
+    public boolean involves(long user) {
+        return actorId == user || userId == user;
+    }
+}
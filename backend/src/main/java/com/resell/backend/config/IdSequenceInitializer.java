@@ -0,0 +1,63 @@
+package com.resell.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Items and cart items used to get AUTO_INCREMENT ids. Their ids now come from pooled
+// sequences, which MySQL emulates with one-row tables (items_seq, cart_items_seq).
+// A freshly created sequence table starts at 1, so on startup we move it past the
+// highest existing id to avoid handing out ids that are already taken.
+//
+// A lifecycle bean in phase 0 rather than an ApplicationRunner: the web server starts in
+// a much later phase, so no request can allocate an id before the sequences are aligned.
+// Lifecycle beans are not started by the AOT/CDS training run (spring.context.exit=onRefresh),
+// which has no database.
+@Component
+public class IdSequenceInitializer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    private static final int ALLOCATION_SIZE = 50; // must match @SequenceGenerator
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("MySQL".equalsIgnoreCase(database)) {
+            align("items_seq", "items");
+            align("cart_items_seq", "cart_items");
+        } // native sequences elsewhere; nothing to align
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void align(String sequenceTable, String table) {
+        int updated = jdbcTemplate.update("UPDATE " + sequenceTable + " SET next_val = "
+                + "GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + " + (ALLOCATION_SIZE + 1) + " FROM " + table + "))");
+        log.info("Aligned {} with {} ({} row)", sequenceTable, table, updated);
+    }
+}
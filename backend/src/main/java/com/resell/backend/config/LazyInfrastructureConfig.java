@@ -0,0 +1,42 @@
+package com.resell.backend.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+@Configuration
+public class LazyInfrastructureConfig {
+
+    // The GCP starter eagerly creates credentials and a Storage client at startup, even
+    // with storage.type=local: reading the key or asking the metadata server, then opening
+    // the client. Only those beans are made lazy, so they are built on first use (the
+    // first upload, for GcpStorageService); the rest of the starter stays as it is.
+    private static final List<String> LAZY_TYPES = List.of(
+            "com.google.cloud.storage.Storage",
+            "com.google.api.gax.core.CredentialsProvider",
+            "com.google.cloud.spring.core.GcpProjectIdProvider");
+
+    @Bean
+    public static BeanFactoryPostProcessor lazyGoogleCloudBeans() {
+        return LazyInfrastructureConfig::markLazy;
+    }
+
+    private static void markLazy(ConfigurableListableBeanFactory beanFactory) {
+        ClassLoader classLoader = beanFactory.getBeanClassLoader();
+        for (String typeName : LAZY_TYPES) {
+            if (!ClassUtils.isPresent(typeName, classLoader)) {
+                continue;
+            }
+            Class<?> type = ClassUtils.resolveClassName(typeName, classLoader);
+            for (String name : beanFactory.getBeanNamesForType(type, true, false)) {
+                if (beanFactory.containsBeanDefinition(name)) {
+                    beanFactory.getBeanDefinition(name).setLazyInit(true);
+                }
+            }
+        }
+    }
+}
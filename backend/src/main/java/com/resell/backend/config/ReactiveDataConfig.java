@@ -0,0 +1,66 @@
+package com.resell.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+// Non-blocking database access for the reactive read stack (profile "reactive").
+//
+// The pool is deliberately not exposed as a ConnectionFactory bean: Spring Boot backs off
+// the JDBC DataSource when one exists, and JPA (writes, outbox relay, index rebuilds)
+// still runs on JDBC in this profile.
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDataConfig {
+
+    @Value("${reactive.r2dbc.url}")
+    private String url;
+
+    @Value("${reactive.r2dbc.username:}")
+    private String username;
+
+    @Value("${reactive.r2dbc.password:}")
+    private String password;
+
+    @Value("${reactive.r2dbc.pool-max-size:20}")
+    private int maxSize;
+
+    private ConnectionPool pool;
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+
+        // Connections in use and requests waiting for one (compare with hikaricp.connections.*)
+        pool.getMetrics().ifPresent(metrics -> {
+            Gauge.builder("r2dbc.pool.acquired", metrics, m -> m.acquiredSize()).register(meterRegistry);
+            Gauge.builder("r2dbc.pool.pending", metrics, m -> m.pendingAcquireSize()).register(meterRegistry);
+        });
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.resell.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Reactive counterpart of VaryAcceptAdvice: the reactive endpoints pick JSON, NDJSON,
+// CBOR or Smile by Accept, so those responses carry Vary: Accept.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveVaryAcceptFilter implements WebFilter {
+
+    private static final List<MediaType> NEGOTIATED = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_CBOR,
+            MediaType.parseMediaType("application/x-jackson-smile"));
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            HttpHeaders headers = response.getHeaders();
+            MediaType type = headers.getContentType();
+            if (type != null && NEGOTIATED.stream().anyMatch(type::isCompatibleWith)
+                    && headers.getVary().stream().noneMatch(HttpHeaders.ACCEPT::equalsIgnoreCase)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,15 @@
+package com.resell.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled jobs (index rebuilds, stats reconcile, archival, blob and audit sweeps,
+// outbox and denylist pruning) run on the servlet pods only. A reactive read pod serves
+// its GETs and leaves the background work to them; it still relays outbox events, so
+// token revocations reach its denylist filter.
+@Configuration
+@EnableScheduling
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SchedulingConfig {
+}
@@ -1,7 +1,9 @@
 package com.resell.backend.config;
 
+import com.resell.backend.limit.ConcurrencyLimitFilter;
 import com.resell.backend.security.JwtRequestFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,8 +25,11 @@ public class SecurityConfig {
     @Autowired
     private JwtRequestFilter jwtRequestFilter;
 
+    // Servlet stack only; the reactive profile uses ReactiveSecurityConfig
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ConcurrencyLimitFilter concurrencyLimitFilter)
+            throws Exception {
 
         http
                 // 1. CORS: Enable Cross-Origin Resource Sharing so the frontend can call us
@@ -37,7 +42,7 @@ public class SecurityConfig {
                 // 3. pages public vs private
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/login", "/auth/register", "/uploads/**", "/actuator/health",
-                                "/actuator/info")
+                                "/actuator/health/**", "/actuator/info")
                         .permitAll() // Public access
                         .requestMatchers("/admin/**").hasRole("ADMIN") // Admin only
                         .anyRequest().authenticated()) // All other requests require login
@@ -51,10 +56,14 @@ public class SecurityConfig {
         // This checks if the user sent a valid token BEFORE trying to log them in.
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // 6. Shed load (503) before a request queues on MySQL, the image store or BCrypt
+        http.addFilterAfter(concurrencyLimitFilter, JwtRequestFilter.class);
+
         return http.build();
     }
 
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
@@ -0,0 +1,219 @@
+package com.resell.backend.config;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import com.resell.backend.model.Item;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.CatalogPageService;
+import com.resell.backend.service.FacetIndexService;
+import com.resell.backend.service.GeoIndexService;
+import com.resell.backend.service.ItemService;
+import com.resell.backend.service.PercolatorService;
+import com.resell.backend.service.SellerStatsService;
+import com.resell.backend.service.SimilarItemsService;
+import com.resell.backend.service.TokenRevocationService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Runs once the context is up and before the readiness probe reports ACCEPTING_TRAFFIC
+// (readiness only flips after all ApplicationRunners finish). Anything that should not
+// be paid for by the first real request belongs here.
+//
+// The in-memory read models are always built in full (on a reactive read pod only the
+// token filter: the others back servlet endpoints and are not created). After that, until
+// warmup.max-duration-ms has passed since the start, the hot read paths are run on real
+// data (the most carted items) and synthetically (JWT, JSON) so the JIT has compiled them
+// before traffic arrives. Each phase is timed as startup.warmup.phase, the whole run as
+// startup.warmup.
+@Component
+@Order(100)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false) // reactive profile only
+    private DatabaseClient reactiveDatabaseClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SellerStatsService sellerStatsService;
+
+    @Autowired(required = false) // servlet stack only
+    private FacetIndexService facetIndexService;
+
+    @Autowired(required = false) // servlet stack only
+    private SimilarItemsService similarItemsService;
+
+    @Autowired(required = false) // servlet stack only
+    private GeoIndexService geoIndexService;
+
+    @Autowired(required = false) // servlet stack only
+    private PercolatorService percolatorService;
+
+    @Autowired(required = false) // servlet stack only
+    private CatalogPageService catalogPageService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${warmup.max-duration-ms:30000}")
+    private long maxDurationMs;
+
+    // 0 opens the pool's minimum-idle connections
+    @Value("${warmup.pool-connections:0}")
+    private int poolConnections;
+
+    @Value("${warmup.popular-items:200}")
+    private int popularItems;
+
+    // Roughly the invocation count after which HotSpot compiles a method with C2
+    @Value("${warmup.jit-iterations:10000}")
+    private int jitIterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        phase("pool", this::openPool);
+
+        // Load the token denylist filter (until then every request checks the denylist table)
+        phase("token-revocations", tokenRevocationService::rebuild);
+
+        // Read models behind servlet endpoints (not created on a reactive read pod)
+        if (catalogPageService != null) {
+            // Initial build of the seller stats store
+            phase("seller-stats", sellerStatsService::reconcile);
+
+            // Initial load of the price facet index
+            phase("facets", facetIndexService::rebuild);
+
+            // Initial load of the nearby-search grid
+            phase("geo-index", geoIndexService::rebuild);
+
+            // Initial load of the similar-items index
+            phase("similar-items", similarItemsService::rebuild);
+
+            // Load saved searches into the percolator
+            phase("percolator", percolatorService::rebuild);
+
+            // Encode the first catalog pages
+            phase("catalog-pages", catalogPageService::refresh);
+        }
+
+        // Optional from here on: stop at the deadline
+        List<Item> popular = new ArrayList<>();
+        phase("popular-items", () -> loadPopularItems(popular, deadline));
+        phase("hot-paths", () -> exerciseHotPaths(popular, deadline));
+
+        long elapsed = System.nanoTime() - started;
+        meterRegistry.timer("startup.warmup").record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Startup warmup finished in {} ms{}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                System.nanoTime() > deadline ? " (stopped at warmup.max-duration-ms)" : "");
+    }
+
+    private void phase(String name, Runnable phase) {
+        Timer.builder("startup.warmup.phase").tag("phase", name).register(meterRegistry).record(phase);
+    }
+
+    // Connect the pool up to its steady size now rather than during the first burst
+    private void openPool() {
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        if (reactiveDatabaseClient != null) {
+            reactiveDatabaseClient.sql("SELECT 1").fetch().first().block();
+        }
+
+        int connections = poolConnections > 0 ? poolConnections
+                : dataSource instanceof HikariDataSource hikari ? hikari.getMinimumIdle() : 1;
+        List<Connection> open = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                open.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            log.warn("Warmup opened {} of {} connections", open.size(), connections, e);
+        } finally {
+            for (Connection connection : open) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // returned to the pool or discarded by it either way
+                }
+            }
+        }
+    }
+
+    // The items in the most carts are the ones whose detail pages get hit first; reading
+    // them warms MySQL's buffer pool and the item read path
+    private void loadPopularItems(List<Item> popular, long deadline) {
+        for (Long id : cartItemRepository.findMostCartedItemIds(PageRequest.of(0, Math.max(popularItems, 1)))) {
+            if (System.nanoTime() > deadline) {
+                return;
+            }
+            itemService.findById(id).ifPresent(popular::add);
+        }
+    }
+
+    // JWT issue/validate and JSON write/read run on every request: run them until they
+    // are compiled, on a catalog page and the popular items (as in GET /items/{id} and
+    // the bodies of POST/PUT /items)
+    private void exerciseHotPaths(List<Item> popular, long deadline) {
+        PageResponse<ItemDTO> page = catalogPageService != null ? catalogPageService.loadPage(0) : null;
+        String email = "warmup@resell.local";
+        for (int i = 0; i < jitIterations; i++) {
+            if (i % 100 == 0 && System.nanoTime() > deadline) {
+                return;
+            }
+            String token = jwtUtil.generateToken(email);
+            jwtUtil.validateToken(token, email);
+            if (page != null) {
+                objectMapper.writeValueAsBytes(page);
+            }
+            if (!popular.isEmpty()) {
+                Item item = popular.get(i % popular.size());
+                objectMapper.readValue(objectMapper.writeValueAsBytes(item), Item.class);
+            }
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package com.resell.backend.config;
 
+import java.util.List;
+
+import com.resell.backend.diagnostics.ControllerEventInterceptor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.lang.NonNull;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
@@ -29,7 +40,42 @@ public class WebConfig implements WebMvcConfigurer {
     public void addResourceHandlers(
             @NonNull org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry registry) {
         // Map access to /uploads/** to the file system directory "uploads"
+        // Upload names are unique (content hashes), so their bytes never change
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations("file:uploads/")
+                .setCacheControl(org.springframework.http.CacheControl.maxAge(java.time.Duration.ofDays(365))
+                        .cachePublic().immutable());
+    }
+
+    // JFR events for controller methods (recorded only during /admin/diagnostics recordings)
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(new ControllerEventInterceptor());
+    }
+
+    // CBOR and Smile next to JSON, picked by the Accept header. Jackson writes them from
+    // the same DTOs and annotations as JSON, so every endpoint that returns an object
+    // (items, cart, facets) can answer in either; requests may use them as Content-Type too.
+    // Responses that can vary this way say so (VaryAcceptAdvice).
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        if (converters.stream().noneMatch(c -> c.getSupportedMediaTypes().contains(MediaType.APPLICATION_CBOR))) {
+            converters.add(new JacksonCborHttpMessageConverter(cborMapper()));
+        }
+        if (converters.stream().noneMatch(c -> c instanceof JacksonSmileHttpMessageConverter)) {
+            converters.add(new JacksonSmileHttpMessageConverter(smileMapper()));
+        }
+    }
+
+    // One mapper per format, shared by the converters and by code that encodes ahead of
+    // time (CatalogPageService), so both produce the same bytes
+    @Bean
+    public CBORMapper cborMapper() {
+        return CBORMapper.builder().findAndAddModules().build();
+    }
+
+    @Bean
+    public SmileMapper smileMapper() {
+        return SmileMapper.builder().findAndAddModules().build();
     }
 }
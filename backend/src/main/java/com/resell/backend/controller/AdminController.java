@@ -1,18 +1,43 @@
 package com.resell.backend.controller;
 
+import com.resell.backend.audit.AuditRecord;
+import com.resell.backend.dto.BatchResult;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import com.resell.backend.dto.StatsDTO;
+import com.resell.backend.dto.UserDTO;
 import com.resell.backend.model.Item;
 import com.resell.backend.model.User;
 import com.resell.backend.repository.ItemRepository;
 import com.resell.backend.repository.UserRepository;
+import com.resell.backend.service.AdminExportService;
+import com.resell.backend.service.AuditService;
+import com.resell.backend.service.ItemService;
+import com.resell.backend.service.SellerStatsService;
+import com.resell.backend.service.TokenRevocationService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+// Lazy: admin endpoints are rarely hit, so the controller is created on first use
+@Lazy
 @RestController
 @RequestMapping("/admin")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AdminController {
 
     @Autowired
@@ -21,28 +46,96 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
-    // Get all items (including purchased)
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private AdminExportService adminExportService;
+
+    @Autowired
+    private SellerStatsService sellerStatsService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuditService auditService;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Value("${batch.max-size:500}")
+    private int maxBatchSize;
+
+    // Get all items (including purchased), one page at a time
     @GetMapping("/items")
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public PageResponse<ItemDTO> getAllItems(@RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<ItemDTO> slice = itemRepository.findItemPage(pageRequest(page, size));
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
     }
 
     // Delete any item
     @DeleteMapping("/items/{id}")
-    public ResponseEntity<?> deleteItem(@PathVariable Long id) {
-        itemRepository.deleteById(id);
+    public ResponseEntity<?> deleteItem(@PathVariable Long id, Principal principal) {
+        itemService.deleteItem(id)
+                .ifPresent(item -> auditService.recordItemsDeleted(currentUser(principal), List.of(item)));
         return ResponseEntity.ok(Map.of("message", "Item deleted by admin"));
     }
 
-    // Get all users
+    // Delete many items in one request and one transaction
+    // Body: { "ids": [1, 2, 3] } -> per-entry results in request order
+    @PostMapping("/items/batch-delete")
+    public ResponseEntity<?> deleteItems(@RequestBody Map<String, List<Long>> request, Principal principal) {
+        List<Long> ids = request.getOrDefault("ids", List.of());
+        if (ids.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("Batch too large (max " + maxBatchSize + ")");
+        }
+        List<Item> deleted = new ArrayList<>();
+        List<BatchResult> results = itemService.deleteItems(ids, deleted);
+        if (!deleted.isEmpty()) {
+            auditService.recordItemsDeleted(currentUser(principal), deleted);
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    // Get all users, one page at a time (no password hashes)
     @GetMapping("/users")
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public PageResponse<UserDTO> getAllUsers(@RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Slice<UserDTO> slice = userRepository.findUserPage(pageRequest(page, size));
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+    // Full exports, streamed row by row: ?format=ndjson (default) or ?format=csv
+    @GetMapping("/export/items")
+    public void exportItems(@RequestParam(defaultValue = AdminExportService.NDJSON) String format,
+            HttpServletResponse response) throws IOException {
+        prepareExport(response, format, "items");
+        adminExportService.exportItems(format, response.getOutputStream());
+    }
+
+    @GetMapping("/export/users")
+    public void exportUsers(@RequestParam(defaultValue = AdminExportService.NDJSON) String format,
+            HttpServletResponse response) throws IOException {
+        prepareExport(response, format, "users");
+        adminExportService.exportUsers(format, response.getOutputStream());
+    }
+
+    // Platform-wide listing and sales totals
+    @GetMapping("/stats")
+    public StatsDTO getStats() {
+        return sellerStatsService.getPlatformStats();
+    }
+
+    // Listing and sales stats for one seller
+    @GetMapping("/stats/sellers/{id}")
+    public StatsDTO getSellerStats(@PathVariable Long id) {
+        return sellerStatsService.getSellerStats(id);
     }
 
     // Toggle admin role for a user (useful for testing/initial setup)
     @PostMapping("/users/{id}/toggle-admin")
-    public ResponseEntity<?> toggleAdmin(@PathVariable Long id) {
+    public ResponseEntity<?> toggleAdmin(@PathVariable Long id, Principal principal) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -53,6 +146,50 @@ public class AdminController {
         }
 
         userRepository.save(user);
+        // Tokens issued under the old role must not outlive it
+        tokenRevocationService.revokeUser(user.getEmail());
+        auditService.recordRoleChanged(currentUser(principal), user);
         return ResponseEntity.ok(Map.of("role", user.getRole()));
     }
+
+    // Compromised account: every token issued to the user so far stops working
+    @PostMapping("/users/{id}/revoke-tokens")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        tokenRevocationService.revokeUser(user.getEmail());
+        return ResponseEntity.ok(Map.of("message", "Tokens revoked for " + user.getEmail()));
+    }
+
+    // Audit journal: purchases, admin deletions and role changes, oldest first.
+    // ?userId= matches the acting user or the one acted upon; from/to are ISO-8601 instants.
+    // Page with ?after=<seq of the last record seen>.
+    @GetMapping("/audit")
+    public List<AuditRecord> getAudit(@RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return auditService.find(userId,
+                from != null ? from : Instant.EPOCH,
+                to != null ? to : Instant.ofEpochMilli(Long.MAX_VALUE),
+                after, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+    }
+
+    // The admin making the request
+    private User currentUser(Principal principal) {
+        return userRepository.findByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), Sort.by("id"));
+    }
+
+    private void prepareExport(HttpServletResponse response, String format, String name) {
+        boolean csv = AdminExportService.CSV.equals(format);
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+    }
 }
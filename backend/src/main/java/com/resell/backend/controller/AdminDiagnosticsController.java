@@ -0,0 +1,92 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.diagnostics.HeapSummary;
+import com.resell.backend.diagnostics.RecordingInfo;
+import com.resell.backend.service.DiagnosticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+// Flight Recorder recordings and heap state for profiling a live pod (ADMIN only, like the
+// rest of /admin/**). Lazy like AdminController.
+@Lazy
+@RestController
+@RequestMapping("/admin/diagnostics")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminDiagnosticsController {
+
+    @Autowired
+    private DiagnosticsService diagnosticsService;
+
+    // Start a recording: ?settings=default|profile&durationSeconds=60 (capped by
+    // diagnostics.max-duration-seconds). 409 while another one is running.
+    @PostMapping("/recordings")
+    public ResponseEntity<?> startRecording(@RequestParam(defaultValue = "profile") String settings,
+            @RequestParam(defaultValue = "60") long durationSeconds) throws IOException {
+        try {
+            return ResponseEntity.ok(diagnosticsService.start(settings, durationSeconds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // The running recording (if any) and the finished ones kept on disk, newest first
+    @GetMapping("/recordings")
+    public List<RecordingInfo> getRecordings() throws IOException {
+        return diagnosticsService.list();
+    }
+
+    // Stop a recording before its duration is up; it is written out and can be summarized
+    @PostMapping("/recordings/{id}/stop")
+    public ResponseEntity<?> stopRecording(@PathVariable long id) {
+        return ResponseEntity.of(diagnosticsService.stop(id));
+    }
+
+    // Top allocation sites, lock contention and app event timings of a finished recording
+    @GetMapping("/recordings/{id}/summary")
+    public ResponseEntity<?> getSummary(@PathVariable long id) {
+        try {
+            return ResponseEntity.of(diagnosticsService.summary(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    // The raw .jfr file, streamed from disk (open it in JDK Mission Control or `jfr print`)
+    @GetMapping("/recordings/{id}/file")
+    public ResponseEntity<?> getRecordingFile(@PathVariable long id) {
+        Optional<Path> file;
+        try {
+            file = diagnosticsService.recordingFile(id);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + file.get().getFileName() + "\"")
+                .body(new FileSystemResource(file.get()));
+    }
+
+    // Heap, memory pools and GC totals right now
+    @GetMapping("/heap")
+    public HeapSummary getHeap() {
+        return HeapSummary.now();
+    }
+}
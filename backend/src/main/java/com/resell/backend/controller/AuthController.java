@@ -5,7 +5,10 @@ import com.resell.backend.dto.RegisterRequest;
 import com.resell.backend.model.User;
 import com.resell.backend.repository.UserRepository;
 import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -13,8 +16,11 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AuthController {
     @Autowired
     private UserRepository userRepo;
@@ -28,6 +34,9 @@ public class AuthController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     // 1. register()
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody RegisterRequest request) {
@@ -85,6 +94,25 @@ public class AuthController {
                 new LoginResponse(token, user.getFullname(), user.getEmail(), user.getRole()));
     }
 
+    // Logout: revoke the presented token (until it would have expired anyway)
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
+        Claims claims = jwtUtil.extractAllClaims(token.substring(7));
+        if (claims.getId() == null) {
+            // Issued before tokens carried a jti; use /auth/logout-all
+            return ResponseEntity.badRequest().body("Error: This token cannot be revoked individually");
+        }
+        tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
+    // Log out everywhere: revoke every token issued to the current user so far
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@RequestHeader("Authorization") String token) {
+        tokenRevocationService.revokeUser(jwtUtil.extractEmail(token.substring(7)));
+        return ResponseEntity.ok(Map.of("message", "Logged out on all devices"));
+    }
+
     // Inner class for login response
     private static class LoginResponse {
         private String token;
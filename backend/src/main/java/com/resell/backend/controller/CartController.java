@@ -5,51 +5,56 @@ import com.resell.backend.dto.CartItemDTO;
 import com.resell.backend.dto.ItemDTO;
 import com.resell.backend.model.Cart;
 import com.resell.backend.model.CartItem;
-import com.resell.backend.model.Item;
 import com.resell.backend.model.User;
-import com.resell.backend.repository.CartRepository;
 import com.resell.backend.repository.CartItemRepository;
-import com.resell.backend.repository.ItemRepository;
 import com.resell.backend.repository.UserRepository;
 import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.AuditService;
+import com.resell.backend.service.CartService;
+import com.resell.backend.service.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/cart")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CartController {
 
         @Autowired
-        private CartRepository cartRepository;
+        private CartItemRepository cartItemRepository;
 
         @Autowired
-        private CartItemRepository cartItemRepository;
+        private UserRepository userRepository;
+
+        @Autowired
+        private JwtUtil jwtUtil;
 
         @Autowired
-        private ItemRepository itemRepository;
+        private CartService cartService;
 
         @Autowired
-        private UserRepository userRepository;
+        private IdempotencyService idempotencyService;
 
         @Autowired
-        private JwtUtil jwtUtil;
+        private AuditService auditService;
+
+        @Value("${batch.max-size:500}")
+        private int maxBatchSize;
 
         // Get current user's cart
         @GetMapping
         public ResponseEntity<?> getCart(@RequestHeader("Authorization") String token) {
                 User user = getUserFromToken(token);
-                Cart cart = cartRepository.findByUserId(user.getId())
-                                .orElseGet(() -> {
-                                        // Create a new cart if user doesn't have one
-                                        Cart newCart = Cart.builder()
-                                                        .user(user)
-                                                        .build();
-                                        return cartRepository.save(newCart);
-                                });
+                // Create a new cart if user doesn't have one
+                Cart cart = cartService.getOrCreateCart(user);
 
                 // Convert to DTO to properly serialize item details
                 CartDTO cartDTO = CartDTO.builder()
@@ -66,6 +71,11 @@ public class CartController {
                                                                                 .price(cartItem.getItem().getPrice())
                                                                                 .imageUrl(cartItem.getItem()
                                                                                                 .getImageUrl())
+                                                                                .purchased(cartItem.getItem()
+                                                                                                .getPurchased())
+                                                                                .ownerId(cartItem.getItem().getOwner() != null
+                                                                                                ? cartItem.getItem().getOwner().getId()
+                                                                                                : null)
                                                                                 .build())
                                                                 .build())
                                                 .collect(Collectors.toList()))
@@ -75,36 +85,21 @@ public class CartController {
         }
 
         // Add item to cart
+        // Adding the same item twice is a no-op, and retries that reuse an
+        // Idempotency-Key get the original response replayed.
         @PostMapping("/add")
         public ResponseEntity<?> addToCart(
                         @RequestHeader("Authorization") String token,
+                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                         @RequestBody Map<String, Long> request) {
 
                 User user = getUserFromToken(token);
                 Long itemId = request.get("itemId");
 
-                // Find or create cart
-                Cart cart = cartRepository.findByUserId(user.getId())
-                                .orElseGet(() -> {
-                                        Cart newCart = Cart.builder()
-                                                        .user(user)
-                                                        .build();
-                                        return cartRepository.save(newCart);
-                                });
-
-                // Find the item
-                Item item = itemRepository.findById(itemId)
-                                .orElseThrow(() -> new RuntimeException("Item not found"));
-
-                // Create cart item
-                CartItem cartItem = CartItem.builder()
-                                .cart(cart)
-                                .item(item)
-                                .build();
-
-                cartItemRepository.save(cartItem);
-
-                return ResponseEntity.ok(Map.of("message", "Item added to cart"));
+                return idempotencyService.execute(scopedKey(user, "add", idempotencyKey), () -> {
+                        cartService.addItem(user, itemId);
+                        return ResponseEntity.ok(Map.of("message", "Item added to cart"));
+                });
         }
 
         // Remove item from cart
@@ -127,30 +122,71 @@ public class CartController {
                 return ResponseEntity.ok(Map.of("message", "Item removed from cart"));
         }
 
-        // Checkout - clear cart (simplified, no payment processing)
-        @PostMapping("/checkout")
-        public ResponseEntity<?> checkout(@RequestHeader("Authorization") String token) {
-                User user = getUserFromToken(token);
+        // Add many items to the cart in one request and one transaction
+        // Body: { "itemIds": [1, 2, 3] } -> per-entry results in request order
+        @PostMapping("/batch/add")
+        public ResponseEntity<?> addManyToCart(
+                        @RequestHeader("Authorization") String token,
+                        @RequestBody Map<String, List<Long>> request) {
+                List<Long> itemIds = request.getOrDefault("itemIds", List.of());
+                if (itemIds.size() > maxBatchSize) {
+                        return ResponseEntity.badRequest().body("Batch too large (max " + maxBatchSize + ")");
+                }
 
-                Cart cart = cartRepository.findByUserId(user.getId())
-                                .orElseThrow(() -> new RuntimeException("Cart not found"));
+                User user = getUserFromToken(token);
+                return ResponseEntity.ok(cartService.addItems(user, itemIds));
+        }
 
-                if (cart.getItems() == null || cart.getItems().isEmpty()) {
-                        return ResponseEntity.badRequest().body("Cart is empty");
+        // Remove many cart items in one request and one transaction
+        // Body: { "cartItemIds": [4, 5] } -> per-entry results in request order
+        @PostMapping("/batch/remove")
+        public ResponseEntity<?> removeManyFromCart(
+                        @RequestHeader("Authorization") String token,
+                        @RequestBody Map<String, List<Long>> request) {
+                List<Long> cartItemIds = request.getOrDefault("cartItemIds", List.of());
+                if (cartItemIds.size() > maxBatchSize) {
+                        return ResponseEntity.badRequest().body("Batch too large (max " + maxBatchSize + ")");
                 }
 
-                // Mark all items in cart as purchased
-                for (CartItem cartItem : cart.getItems()) {
-                        Item item = cartItem.getItem();
-                        item.setPurchased(true);
-                        itemRepository.save(item);
-                }
+                User user = getUserFromToken(token);
+                return ResponseEntity.ok(cartService.removeItems(user, cartItemIds));
+        }
 
-                // Clear all items from cart
-                cart.getItems().clear();
-                cartRepository.save(cart);
+        // Checkout - clear cart (simplified, no payment processing)
+        @PostMapping("/checkout")
+        public ResponseEntity<?> checkout(
+                        @RequestHeader("Authorization") String token,
+                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+                User user = getUserFromToken(token);
 
-                return ResponseEntity.ok(Map.of("message", "Checkout successful!"));
+                // Only items this checkout sold are audited; items bought by someone else in
+                // the meantime are dropped from the cart and listed as unavailable
+                return idempotencyService.execute(scopedKey(user, "checkout", idempotencyKey), () -> {
+                        CartService.CheckoutResult result = cartService.checkout(user);
+                        if (result.sold().isEmpty() && result.unavailable().isEmpty()) {
+                                return ResponseEntity.badRequest().body("Cart is empty");
+                        }
+                        if (result.sold().isEmpty()) {
+                                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                                                "message", "Items in your cart were already sold",
+                                                "unavailable", result.unavailable()));
+                        }
+                        auditService.recordPurchases(user, result.sold());
+                        if (!result.unavailable().isEmpty()) {
+                                return ResponseEntity.ok(Map.of(
+                                                "message", "Checkout successful, some items were already sold",
+                                                "unavailable", result.unavailable()));
+                        }
+                        return ResponseEntity.ok(Map.of("message", "Checkout successful!"));
+                });
+        }
+
+        // Idempotency keys are client-chosen, so scope them per user and operation
+        private String scopedKey(User user, String operation, String idempotencyKey) {
+                if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                        return null;
+                }
+                return user.getId() + ":" + operation + ":" + idempotencyKey;
         }
 
         // Helper method to extract user from JWT token
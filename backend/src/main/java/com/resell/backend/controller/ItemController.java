@@ -1,7 +1,15 @@
 package com.resell.backend.controller;
 
 import java.util.List;
+import java.util.Locale;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,15 +18,27 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import com.resell.backend.dto.FacetDTO;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.StatsDTO;
+import com.resell.backend.index.GeoGridIndex;
 import com.resell.backend.model.Item;
 import com.resell.backend.model.User;
 import com.resell.backend.repository.ItemRepository;
 import com.resell.backend.repository.UserRepository;
 import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.CatalogPageService;
+import com.resell.backend.service.FacetIndexService;
+import com.resell.backend.service.GeoIndexService;
+import com.resell.backend.service.ItemService;
+import com.resell.backend.service.SellerStatsService;
+import com.resell.backend.service.SimilarItemsService;
 
 @RestController
 @RequestMapping("/items")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemController {
     @Autowired
     private ItemRepository itemRepository;
@@ -29,16 +49,219 @@ public class ItemController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private SellerStatsService sellerStatsService;
+
+    @Autowired
+    private FacetIndexService facetIndexService;
+
+    @Autowired
+    private CatalogPageService catalogPageService;
+
+    @Autowired
+    private SimilarItemsService similarItemsService;
+
+    @Autowired
+    private GeoIndexService geoIndexService;
+
+    @Value("${batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${geo.max-radius-km:200}")
+    private double maxRadiusKm;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BUCKETS = 100;
+    private static final int MAX_SIMILAR = 50;
+
     // Get all items
     @GetMapping
     public List<Item> getAllItems() {
-        return itemRepository.findByPurchasedFalse();
+        return itemService.findListed();
+    }
+
+    // Listed items, newest first, one page at a time: { content, page, size, hasNext }.
+    // The first pages are pre-encoded (JSON, gzip and CBOR) and written as-is, with strong ETags.
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalogPage(@RequestParam(defaultValue = "0") int page,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body("Page must be >= 0");
+        }
+        CatalogPageService.EncodedPage encoded = catalogPageService.getEncodedPage(page);
+        MediaType format = preEncodedFormat(accept);
+        if (encoded == null || format == null) {
+            return ResponseEntity.ok(catalogPageService.loadPage(page)); // negotiated like any other response
+        }
+
+        boolean cbor = format.equals(MediaType.APPLICATION_CBOR);
+        boolean gzip = !cbor && acceptsGzip(acceptEncoding);
+        String etag = cbor ? encoded.cborEtag() : gzip ? encoded.gzipEtag() : encoded.etag();
+        // A 304 carries the same validators and Vary as the 200 it stands for
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(304)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING)
+                    .header(HttpHeaders.CACHE_CONTROL, "private, no-cache")
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        if (cbor) {
+            return response.body(encoded.cbor());
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.json());
+    }
+
+    // CBOR when the client asks for it at least as much as for JSON, JSON when it takes JSON
+    // at all, otherwise null (e.g. Smile only)
+    private static MediaType preEncodedFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        double cbor = 0;
+        double json = 0;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                    cbor = Math.max(cbor, type.getQualityValue());
+                } else if (type.includes(MediaType.APPLICATION_JSON)) {
+                    json = Math.max(json, type.getQualityValue());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        if (cbor > 0 && cbor >= json) {
+            return MediaType.APPLICATION_CBOR;
+        }
+        return json > 0 ? MediaType.APPLICATION_JSON : null;
+    }
+
+    // If-None-Match: "*" or a comma-separated list of entity tags, compared weakly
+    // (a W/ prefix on either side is ignored, the quoted values must be equal)
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String wanted = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (!tag.isEmpty() && opaqueTag(tag).equals(wanted))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // Whether Accept-Encoding allows gzip: listed (or x-gzip) with q > 0, or covered by a
+    // "*" with q > 0 when gzip is not listed itself. "gzip;q=0" refuses it.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        double any = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = Math.max(gzip == null ? 0 : gzip, quality);
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return gzip != null ? gzip > 0 : any > 0;
+    }
+
+    // Price filter over listed items, served from the in-memory facet index
+    // e.g. /items/facets?maxPrice=50&sort=price_asc -> count, price histogram and first page
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(@RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(defaultValue = "10") int buckets,
+            @RequestParam(defaultValue = "price_asc") String sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            return ResponseEntity.badRequest().body("Buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        if (!sort.equals("price_asc") && !sort.equals("price_desc")) {
+            return ResponseEntity.badRequest().body("Sort must be price_asc or price_desc");
+        }
+        FacetDTO facets = facetIndexService.facets(minPrice, maxPrice, sellerId, buckets,
+                sort.equals("price_desc"), page, size);
+        return ResponseEntity.ok(facets);
+    }
+
+    // Listed items within radiusKm of a point, nearest first, from the in-memory geo index
+    // e.g. /items/nearby?lat=52.52&lon=13.40&radiusKm=10 -> { items: [ { item, distanceKm } ], next }
+    // Pass `next` back as cursor for the following page.
+    @GetMapping("/nearby")
+    public ResponseEntity<?> getNearby(@RequestParam double lat, @RequestParam double lon,
+            @RequestParam(defaultValue = "10") double radiusKm,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (!GeoGridIndex.isValid(lat, lon)) {
+            return ResponseEntity.badRequest().body("Latitude must be in [-90, 90] and longitude in [-180, 180]");
+        }
+        if (!(radiusKm > 0 && radiusKm <= maxRadiusKm)) {
+            return ResponseEntity.badRequest().body("Radius must be between 0 and " + maxRadiusKm + " km");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(geoIndexService.nearby(lat, lon, radiusKm, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // Get item by id
     @GetMapping("/{id}")
     public Item getItemById(@PathVariable Long id) {
-        return itemRepository.findById(id).orElse(null);
+        return itemService.findById(id).orElse(null);
+    }
+
+    // Listings with similar titles/descriptions, most similar first
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<?> getSimilarItems(@PathVariable Long id, @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1 || limit > MAX_SIMILAR) {
+            return ResponseEntity.badRequest().body("Limit must be between 1 and " + MAX_SIMILAR);
+        }
+        List<ItemDTO> similar = similarItemsService.similar(id, limit);
+        return ResponseEntity.ok(similar);
     }
 
     @GetMapping("/my")
@@ -46,39 +269,69 @@ public class ItemController {
         String jwt = token.substring(7); // remove "Bearer "
         String email = jwtUtil.extractEmail(jwt);
         return userRepository.findByEmail(email)
-                .map(user -> itemRepository.findByOwnerId(user.getId()))
+                .map(user -> itemService.findByOwner(user.getId()))
                 .orElse(List.of());
     }
 
-    // Add item
+    // Add item (optionally with latitude/longitude, both or neither)
     @PostMapping
-    public Item addItem(@RequestBody Item item, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> addItem(@RequestBody Item item, @RequestHeader("Authorization") String token) {
+        if (!ItemService.hasValidLocation(item)) {
+            return ResponseEntity.badRequest().body(ItemService.LOCATION_ERROR);
+        }
         String jwt = token.substring(7);
         String email = jwtUtil.extractEmail(jwt);
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        item.setOwner(user);
-        if (item.getPurchased() == null) {
-            item.setPurchased(false);
+        return ResponseEntity.ok(itemService.createItem(user, item));
+    }
+
+    // Listing and sales stats for the current seller
+    @GetMapping("/my/stats")
+    public StatsDTO getMyStats(@RequestHeader("Authorization") String token) {
+        String jwt = token.substring(7);
+        String email = jwtUtil.extractEmail(jwt);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return sellerStatsService.getSellerStats(user.getId());
+    }
+
+    // Add many items at once (power sellers)
+    // Body: [ { title, description, price, imageUrl }, ... ] -> per-entry results in request order
+    @PostMapping("/batch")
+    public ResponseEntity<?> addItems(@RequestBody List<Item> items, @RequestHeader("Authorization") String token) {
+        if (items.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("Batch too large (max " + maxBatchSize + ")");
         }
-        return itemRepository.save(item);
+
+        String jwt = token.substring(7);
+        String email = jwtUtil.extractEmail(jwt);
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        return ResponseEntity.ok(itemService.createItems(user, items));
     }
 
     // Update item
     @PutMapping("/{id}")
-    public Item updateItem(@PathVariable Long id, @RequestBody Item item) {
-        item.setId(id);
-        return itemRepository.save(item);
+    public ResponseEntity<?> updateItem(@PathVariable Long id, @RequestBody Item item) {
+        if (!ItemService.hasValidLocation(item)) {
+            return ResponseEntity.badRequest().body(ItemService.LOCATION_ERROR);
+        }
+        return itemService.updateItem(id, item)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.GONE).body("Item " + id + " is archived"));
     }
 
     // Delete item
     @DeleteMapping("/{id}")
     public void deleteItem(@PathVariable Long id) {
-        itemRepository.deleteById(id);
+        itemService.deleteItem(id);
     }
 
     @Autowired
+    @org.springframework.context.annotation.Lazy // resolved on the first upload
     private com.resell.backend.service.StorageService storageService;
 
     @PostMapping("/upload")
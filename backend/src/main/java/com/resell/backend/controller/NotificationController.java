@@ -0,0 +1,57 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.model.User;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/notifications")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class NotificationController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    // Inbox, newest first
+    @GetMapping
+    public ResponseEntity<?> getInbox(@RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(notificationService.getInbox(getUserFromToken(token).getId(), page, size));
+    }
+
+    @GetMapping("/unread-count")
+    public Map<String, Long> getUnreadCount(@RequestHeader("Authorization") String token) {
+        return Map.of("unread", notificationService.countUnread(getUserFromToken(token).getId()));
+    }
+
+    @PostMapping("/read")
+    public Map<String, Integer> markAllRead(@RequestHeader("Authorization") String token) {
+        return Map.of("updated", notificationService.markAllRead(getUserFromToken(token).getId()));
+    }
+
+    private User getUserFromToken(String token) {
+        String jwt = token.substring(7); // Remove "Bearer "
+        String email = jwtUtil.extractEmail(jwt);
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.repository.ReactiveCartRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.util.ArrayList;
+
+// Cart reads on the reactive stack (profile "reactive"); same path and DTO as CartController
+@RestController
+@RequestMapping("/cart")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCartController {
+
+    @Autowired
+    private ReactiveCartRepository reactiveCartRepository;
+
+    // Get current user's cart; a user without one gets an empty cart (id null) instead
+    // of having it created, since this stack does not write
+    @GetMapping
+    public Mono<CartDTO> getCart(Principal principal) {
+        return reactiveCartRepository.findByUserEmail(principal.getName())
+                .defaultIfEmpty(CartDTO.builder().items(new ArrayList<>()).build());
+    }
+}
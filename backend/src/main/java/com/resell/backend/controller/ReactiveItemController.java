@@ -0,0 +1,50 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.repository.ReactiveItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+
+// Catalog reads on the reactive stack (profile "reactive"); same paths as ItemController.
+//
+// Lists are streamed as rows arrive: application/json as one array, application/x-ndjson
+// one item per line. Demand flows back from the socket to the database driver, so a slow
+// client slows its own query down instead of piling rows up in memory, and no thread
+// waits for it in the meantime.
+@RestController
+@RequestMapping("/items")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemController {
+
+    @Autowired
+    private ReactiveItemRepository reactiveItemRepository;
+
+    // Get all listed items
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<ItemDTO> getAllItems() {
+        return reactiveItemRepository.findListed();
+    }
+
+    @GetMapping(value = "/my", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Flux<ItemDTO> getMyItems(Principal principal) {
+        return reactiveItemRepository.findByOwnerEmail(principal.getName());
+    }
+
+    // Get item by id
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ItemDTO>> getItemById(@PathVariable Long id) {
+        return reactiveItemRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
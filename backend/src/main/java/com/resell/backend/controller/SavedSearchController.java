@@ -0,0 +1,62 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.SavedSearchDTO;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.SavedSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/searches")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SavedSearchController {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private SavedSearchService savedSearchService;
+
+    // Current user's saved searches, newest first
+    @GetMapping
+    public List<SavedSearchDTO> getSearches(@RequestHeader("Authorization") String token) {
+        return savedSearchService.getSearches(getUserFromToken(token));
+    }
+
+    // Save a search; new listings matching it show up in /notifications
+    // Body: { keywords: "canon camera", minPrice: 50, maxPrice: 300 } (prices optional)
+    @PostMapping
+    public ResponseEntity<?> createSearch(@RequestHeader("Authorization") String token,
+            @RequestBody SavedSearchDTO request) {
+        try {
+            return ResponseEntity.ok(savedSearchService.create(getUserFromToken(token), request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteSearch(@RequestHeader("Authorization") String token, @PathVariable Long id) {
+        if (!savedSearchService.delete(getUserFromToken(token), id)) {
+            return ResponseEntity.status(404).body(Map.of("message", "Saved search not found"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Saved search deleted"));
+    }
+
+    private User getUserFromToken(String token) {
+        String jwt = token.substring(7); // Remove "Bearer "
+        String email = jwtUtil.extractEmail(jwt);
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
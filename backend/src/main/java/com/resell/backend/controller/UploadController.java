@@ -0,0 +1,69 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.storage.ObjectStore;
+import com.resell.backend.storage.SpoolUploader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Stable upload URLs for storage.type=spool (takes precedence over the /uploads/**
+// resource mapping in WebConfig). Uploads are named by their content hash, so the bytes
+// behind a name never change and can be cached for good.
+@RestController
+@ConditionalOnProperty(name = "storage.type", havingValue = "spool")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UploadController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    @Autowired
+    private SpoolUploader spoolUploader;
+
+    @Autowired
+    private ObjectStore objectStore;
+
+    @GetMapping("/uploads/{key}")
+    public ResponseEntity<?> getUpload(@PathVariable String key) {
+        if (!SpoolUploader.isValidKey(key)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        // Not confirmed by the remote yet (or just confirmed): serve the spooled copy
+        Path local = spoolUploader.localFile(key);
+        if (local != null) {
+            return ResponseEntity.ok()
+                    .contentType(SpoolUploader.contentType(key))
+                    .cacheControl(IMMUTABLE)
+                    .body(new FileSystemResource(local));
+        }
+
+        String url = objectStore.publicUrl(key);
+        if (url != null) {
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(url))
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                    .build();
+        }
+
+        Resource remote = objectStore.open(key);
+        if (remote == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(SpoolUploader.contentType(key))
+                .cacheControl(IMMUTABLE)
+                .body(remote);
+    }
+}
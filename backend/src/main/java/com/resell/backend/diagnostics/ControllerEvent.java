@@ -0,0 +1,44 @@
+package com.resell.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One controller method call, from the handler being picked to the response being
+// complete (ControllerEventInterceptor)
+@Name(ControllerEvent.NAME)
+@Label("Controller Method")
+@Category({ "Resell", "HTTP" })
+@Description("Time spent in a controller method, including view rendering and message conversion")
+@StackTrace(false)
+public class ControllerEvent extends Event {
+
+    public static final String NAME = "com.resell.Controller";
+
+    @Label("Handler")
+    private String handler;
+
+    @Label("HTTP Method")
+    private String method;
+
+    @Label("Status")
+    private int status;
+
+    @Label("Failed")
+    @Description("The handler threw")
+    private boolean failed;
+
+    public void complete(String handler, String method, int status, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.handler = handler;
+            this.method = method;
+            this.status = status;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.resell.backend.diagnostics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Emits a ControllerEvent per controller method call. While no recording has the event
+// enabled, preHandle drops the event object without storing it, so the JIT can remove it.
+public class ControllerEventInterceptor implements HandlerInterceptor {
+
+    private static final String ATTRIBUTE = ControllerEventInterceptor.class.getName();
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        ControllerEvent event = new ControllerEvent();
+        if (event.isEnabled() && handler instanceof HandlerMethod) {
+            event.begin();
+            request.setAttribute(ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, Exception ex) {
+        if (request.getAttribute(ATTRIBUTE) instanceof ControllerEvent event
+                && handler instanceof HandlerMethod method) {
+            request.removeAttribute(ATTRIBUTE);
+            event.complete(method.getBeanType().getSimpleName() + "." + method.getMethod().getName(),
+                    request.getMethod(), response.getStatus(), ex != null);
+        }
+    }
+}
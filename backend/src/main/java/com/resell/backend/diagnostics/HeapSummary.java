@@ -0,0 +1,34 @@
+package com.resell.backend.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+// Heap and GC state right now, from the platform MXBeans; cheap enough to call at any
+// time, unlike a heap dump (which pauses the JVM and would contain tokens and hashes).
+// max is -1 where the JVM sets no limit.
+public record HeapSummary(long heapUsed, long heapCommitted, long heapMax, long nonHeapUsed,
+        List<Pool> pools, List<Collector> collectors) {
+
+    public record Pool(String name, String type, long used, long committed, long max) {
+    }
+
+    public record Collector(String name, long collections, long timeMs) {
+    }
+
+    public static HeapSummary now() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        List<Pool> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(MemoryPoolMXBean::isValid)
+                .map(pool -> new Pool(pool.getName(), pool.getType().name(), pool.getUsage().getUsed(),
+                        pool.getUsage().getCommitted(), pool.getUsage().getMax()))
+                .toList();
+        List<Collector> collectors = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(gc -> new Collector(gc.getName(), gc.getCollectionCount(), gc.getCollectionTime()))
+                .toList();
+        return new HeapSummary(heap.getUsed(), heap.getCommitted(), heap.getMax(), nonHeap.getUsed(), pools,
+                collectors);
+    }
+}
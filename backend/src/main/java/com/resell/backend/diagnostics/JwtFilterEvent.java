@@ -0,0 +1,32 @@
+package com.resell.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JwtRequestFilter's own work per request: token parse, user lookup and revocation check
+// (not the rest of the filter chain). Only recorded while a diagnostics recording is running.
+@Name(JwtFilterEvent.NAME)
+@Label("JWT Filter")
+@Category({ "Resell", "HTTP" })
+@Description("Token parsing, user lookup and revocation check in JwtRequestFilter")
+@StackTrace(false)
+public class JwtFilterEvent extends Event {
+
+    public static final String NAME = "com.resell.JwtFilter";
+
+    @Label("Outcome")
+    @Description("anonymous, authenticated or rejected")
+    private String outcome;
+
+    public void complete(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
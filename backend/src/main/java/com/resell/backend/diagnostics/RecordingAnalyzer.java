@@ -0,0 +1,196 @@
+package com.resell.backend.diagnostics;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Condenses a finished JFR recording into the top allocation and lock-contention hot
+// spots and timings of the application's own events, streaming through the file once.
+//
+// Lock contention is synchronized blocks (jdk.JavaMonitorEnter) plus parks on a lock
+// from java.util.concurrent.locks (jdk.ThreadPark on ReentrantLock, ReentrantReadWriteLock,
+// StampedLock). Parks on conditions, latches, futures and queues are threads waiting for
+// work or for each other, not for a lock, and are left out.
+public final class RecordingAnalyzer {
+
+    static final String ALLOCATION = "jdk.ObjectAllocationSample";
+    static final String MONITOR_ENTER = "jdk.JavaMonitorEnter";
+    static final String THREAD_PARK = "jdk.ThreadPark";
+
+    private static final String APP_PACKAGE = "com.resell.";
+    private static final String LOCKS_PACKAGE = "java.util.concurrent.locks.";
+
+    private RecordingAnalyzer() {
+    }
+
+    public static RecordingSummary summarize(Path file, int top) throws IOException {
+        Map<String, long[]> byClass = new HashMap<>(); // samples, bytes
+        Map<String, long[]> bySite = new HashMap<>();
+        Map<List<String>, long[]> locks = new HashMap<>(); // count, total ns, max ns
+        Map<List<String>, List<Long>> timings = new HashMap<>(); // durations in ns
+        long allocated = 0;
+        Instant start = null;
+        Instant end = null;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (start == null || event.getStartTime().isBefore(start)) {
+                    start = event.getStartTime();
+                }
+                if (end == null || event.getEndTime().isAfter(end)) {
+                    end = event.getEndTime();
+                }
+
+                switch (event.getEventType().getName()) {
+                    case ALLOCATION -> {
+                        long weight = event.getLong("weight");
+                        allocated += weight;
+                        add(byClass, className(event.getClass("objectClass")), weight);
+                        add(bySite, site(event.getStackTrace()), weight);
+                    }
+                    case MONITOR_ENTER -> addLock(locks, "monitor", className(event.getClass("monitorClass")), event);
+                    case THREAD_PARK -> {
+                        String blocker = className(event.getClass("parkedClass"));
+                        if (blocker.startsWith(LOCKS_PACKAGE) && !blocker.endsWith("$ConditionObject")) {
+                            addLock(locks, "lock", blocker, event);
+                        }
+                    }
+                    case JwtFilterEvent.NAME -> addTiming(timings, event, event.getString("outcome"));
+                    case ControllerEvent.NAME -> addTiming(timings, event, event.getString("handler"));
+                    case StorageEvent.NAME -> addTiming(timings, event,
+                            event.getString("operation") + " " + event.getString("storage"));
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        return new RecordingSummary(start, end, allocated,
+                allocations(byClass, allocated, top),
+                allocations(bySite, allocated, top),
+                contention(locks, top),
+                timings(timings, top));
+    }
+
+    private static void add(Map<String, long[]> totals, String key, long bytes) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0]++;
+        total[1] += bytes;
+    }
+
+    private static void addLock(Map<List<String>, long[]> locks, String kind, String lockClass, RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        long[] total = locks.computeIfAbsent(List.of(kind, lockClass, site(event.getStackTrace())), k -> new long[3]);
+        total[0]++;
+        total[1] += nanos;
+        total[2] = Math.max(total[2], nanos);
+    }
+
+    private static void addTiming(Map<List<String>, List<Long>> timings, RecordedEvent event, String key) {
+        timings.computeIfAbsent(List.of(event.getEventType().getName(), String.valueOf(key)), k -> new ArrayList<>())
+                .add(event.getDuration().toNanos());
+    }
+
+    private static List<RecordingSummary.Allocation> allocations(Map<String, long[]> totals, long allocated, int top) {
+        return totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[1]).reversed())
+                .limit(top)
+                .map(e -> new RecordingSummary.Allocation(e.getKey(), e.getValue()[0], e.getValue()[1],
+                        allocated > 0 ? 100.0 * e.getValue()[1] / allocated : 0))
+                .toList();
+    }
+
+    private static List<RecordingSummary.Contention> contention(Map<List<String>, long[]> locks, int top) {
+        return locks.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<List<String>, long[]> e) -> e.getValue()[1]).reversed())
+                .limit(top)
+                .map(e -> new RecordingSummary.Contention(e.getKey().get(0), e.getKey().get(1), e.getKey().get(2),
+                        e.getValue()[0], millis(e.getValue()[1]), millis(e.getValue()[2])))
+                .toList();
+    }
+
+    private static List<RecordingSummary.Timing> timings(Map<List<String>, List<Long>> timings, int top) {
+        List<RecordingSummary.Timing> result = new ArrayList<>();
+        timings.forEach((key, durations) -> {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+            long total = 0;
+            for (long nanos : sorted) {
+                total += nanos;
+            }
+            result.add(new RecordingSummary.Timing(key.get(0), key.get(1), sorted.length, millis(total),
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(sorted[sorted.length - 1])));
+        });
+        // Most time spent first
+        result.sort(Comparator.comparingDouble(RecordingSummary.Timing::totalMs).reversed());
+        return result.size() > top ? result.subList(0, top) : result;
+    }
+
+    // Nearest rank
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.max(0, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // "byte[]" rather than the JVM's "[B"
+    private static String className(RecordedClass type) {
+        if (type == null) {
+            return "(unknown)";
+        }
+        String name = type.getName();
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            return name;
+        }
+        String element = switch (name.charAt(dimensions)) {
+            case 'B' -> "byte";
+            case 'C' -> "char";
+            case 'D' -> "double";
+            case 'F' -> "float";
+            case 'I' -> "int";
+            case 'J' -> "long";
+            case 'S' -> "short";
+            case 'Z' -> "boolean";
+            default -> name.substring(dimensions + 1, name.length() - 1); // Lcom.example.Type;
+        };
+        return element + "[]".repeat(dimensions);
+    }
+
+    // First application frame ("ItemService.findListed:77"), or the top frame when the
+    // stack never enters application code
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(no stack trace)";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                return frame(frame);
+            }
+        }
+        return frame(stackTrace.getFrames().get(0));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -0,0 +1,11 @@
+package com.resell.backend.diagnostics;
+
+import java.time.Instant;
+
+// A diagnostics recording: running (stopsAt is when it ends on its own) or finished and
+// on disk (sizeBytes)
+public record RecordingInfo(long id, String state, Instant startedAt, Instant stopsAt, long sizeBytes) {
+
+    public static final String RUNNING = "running";
+    public static final String FINISHED = "finished";
+}
@@ -0,0 +1,26 @@
+package com.resell.backend.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+// What RecordingAnalyzer makes of one recording. Allocation bytes are JFR's sampled
+// estimates; lock times only include waits above the recording's thresholds (10 ms with
+// the profile settings, 20 ms with default).
+public record RecordingSummary(Instant start, Instant end, long allocatedBytes,
+        List<Allocation> allocationsByClass, List<Allocation> allocationSites,
+        List<Contention> lockContention, List<Timing> events) {
+
+    // name is a class, or the first application frame ("ItemService.findListed:77")
+    public record Allocation(String name, long samples, long bytes, double percent) {
+    }
+
+    // kind is "monitor" (synchronized) or "lock" (java.util.concurrent locks)
+    public record Contention(String kind, String lockClass, String site, long count, double totalMs,
+            double maxMs) {
+    }
+
+    // One of the application's own events, grouped by handler, operation or outcome
+    public record Timing(String event, String key, long count, double totalMs, double p50Ms, double p99Ms,
+            double maxMs) {
+    }
+}
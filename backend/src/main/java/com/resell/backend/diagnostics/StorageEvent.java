@@ -0,0 +1,68 @@
+package com.resell.backend.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.IOException;
+
+// One storage call: a StorageService upload or blob deletion, or SpoolUploader's put to
+// the object store. Emitted by the implementations themselves (see record), so every
+// caller is covered.
+@Name(StorageEvent.NAME)
+@Label("Storage Call")
+@Category({ "Resell", "Storage" })
+@Description("StorageService upload or delete, or a spooled put to the object store")
+@StackTrace(false)
+public class StorageEvent extends Event {
+
+    public static final String NAME = "com.resell.Storage";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Storage")
+    @Description("storage.type, or the spool's object store")
+    private String storage;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Failed")
+    private boolean failed;
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T run() throws IOException;
+    }
+
+    // Times one call. The event is completed however the call ends, an Error included.
+    public static <T> T record(String operation, String storage, long bytes, Call<T> call) throws IOException {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            T result = call.run();
+            failed = false;
+            return result;
+        } finally {
+            event.complete(operation, storage, bytes, failed);
+        }
+    }
+
+    public void complete(String operation, String storage, long bytes, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.storage = storage;
+            this.bytes = bytes;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.resell.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one entry in a batch request, reported in request order
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult {
+    private int index; // position of the entry in the request
+    private Long id; // id of the created/affected row, if any
+    private boolean success;
+    private String message;
+
+    public static BatchResult ok(int index, Long id) {
+        return new BatchResult(index, id, true, null);
+    }
+
+    public static BatchResult error(int index, Long id, String message) {
+        return new BatchResult(index, id, false, message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.resell.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Price facet response: matching count, a price histogram and one page of matches
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetDTO {
+    private long total; // listed items in the price range
+    private Double minPrice; // range actually used (defaults to the catalog's lowest/highest price)
+    private Double maxPrice;
+    private List<Bucket> histogram;
+    private PageResponse<ItemDTO> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private double from;
+        private double to;
+        private long count;
+    }
+}
@@ -1,5 +1,6 @@
 package com.resell.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,17 @@ public class ItemDTO {
     private Double price;
     private String imageUrl;
     private Boolean purchased;
+    private Long ownerId;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double latitude;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double longitude;
+
+    // Without a location: the JPQL projections and the reactive row mapper
+    public ItemDTO(Long id, String title, String description, Double price, String imageUrl, Boolean purchased,
+            Long ownerId) {
+        this(id, title, description, price, imageUrl, purchased, ownerId, null, null);
+    }
 }
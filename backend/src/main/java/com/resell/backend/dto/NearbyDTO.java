@@ -0,0 +1,28 @@
+package com.resell.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Nearby search response: listings nearest first, and the cursor for the next page
+// (null on the last one)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDTO {
+    private List<Hit> items;
+    private String next;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Hit {
+        private ItemDTO item;
+        private double distanceKm;
+    }
+}
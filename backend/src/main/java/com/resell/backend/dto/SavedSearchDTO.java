@@ -0,0 +1,33 @@
+package com.resell.backend.dto;
+
+import com.resell.backend.model.SavedSearch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SavedSearchDTO {
+    private Long id;
+    private Long userId;
+    private String keywords;
+    private Double minPrice;
+    private Double maxPrice;
+    private Instant createdAt;
+
+    public static SavedSearchDTO from(SavedSearch search) {
+        return SavedSearchDTO.builder()
+                .id(search.getId())
+                .userId(search.getUser().getId())
+                .keywords(search.getKeywords())
+                .minPrice(search.getMinPrice())
+                .maxPrice(search.getMaxPrice())
+                .createdAt(search.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.resell.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Listing/sales figures for one seller, or for the whole platform when sellerId is null
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsDTO {
+    private Long sellerId;
+    private long listingCount; // all listings, sold or not
+    private long activeCount; // listings still for sale
+    private long soldCount;
+    private double revenue; // sum of prices of sold listings
+    private double averagePrice; // average price over all listings
+}
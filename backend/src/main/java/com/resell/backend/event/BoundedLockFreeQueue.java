@@ -0,0 +1,45 @@
+package com.resell.backend.event;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free queue with a fixed capacity: a ConcurrentLinkedQueue whose size is
+// reserved with a CAS before inserting, so offer() fails fast instead of blocking.
+public class BoundedLockFreeQueue<T> {
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    public BoundedLockFreeQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public boolean offer(T value) {
+        int current;
+        do {
+            current = size.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        queue.offer(value);
+        return true;
+    }
+
+    public T poll() {
+        T value = queue.poll();
+        if (value != null) {
+            size.decrementAndGet();
+        }
+        return value;
+    }
+
+    public T peek() {
+        return queue.peek();
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,21 @@
+package com.resell.backend.event;
+
+import java.time.Instant;
+
+// Immutable view of an outbox row handed to subscribers.
+// The id is unique and stable, so subscribers can use it to ignore redeliveries.
+public record DomainEvent(Long id, String type, Long aggregateId, String payload, Instant createdAt) {
+
+    // Payload: ItemDTO JSON (with ownerId)
+    public static final String ITEM_CREATED = "ItemCreated";
+    public static final String ITEM_UPDATED = "ItemUpdated";
+    public static final String ITEM_DELETED = "ItemDeleted";
+    public static final String ITEM_PURCHASED = "ItemPurchased";
+
+    // Payload: SavedSearchDTO JSON (with userId)
+    public static final String SAVED_SEARCH_SAVED = "SavedSearchSaved";
+    public static final String SAVED_SEARCH_DELETED = "SavedSearchDeleted";
+
+    // Payload: the denylist key as a JSON string ("jti:..." or "sub:...")
+    public static final String TOKEN_REVOKED = "TokenRevoked";
+}
@@ -0,0 +1,14 @@
+package com.resell.backend.event;
+
+// In-process consumer of domain events. Every Spring bean implementing this is
+// registered with the OutboxRelay and gets its own queue and delivery thread.
+//
+// Delivery is at-least-once: after a restart, or when a queue was full, the same event
+// may arrive again, so onEvent must be idempotent (use DomainEvent.id to dedupe).
+public interface DomainEventSubscriber {
+
+    // Used in logs and as the metrics tag
+    String name();
+
+    void onEvent(DomainEvent event) throws Exception;
+}
@@ -0,0 +1,131 @@
+package com.resell.backend.event;
+
+import com.resell.backend.model.OutboxEvent;
+import com.resell.backend.repository.OutboxEventRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// A relay position in the outbox table: the highest id handed on so far, plus the ids
+// below it that were missing when the cursor passed them ("gaps").
+//
+// Ids come from a pooled sequence, so every pod allocates blocks of 50 and transactions
+// commit in any order: a row can appear below ids that were relayed long ago, however
+// late it commits. Missing ids are looked up again until their row shows up: on every
+// read while they are younger than youngGap (where almost every late commit lands), then
+// only once per oldGapInterval, since most of them are unused block tails that never
+// fill. Ids that never show up (rolled back, or left unused in a block when a pod
+// stopped) are dropped gapTimeout after the cursor first saw them missing, or lowest
+// first once more than maxGaps are open. Not thread-safe; used by the relay thread only.
+final class OutboxCursor {
+
+    private final Duration gapTimeout;
+    private final int maxGaps;
+    private final Duration youngGap;
+    private final Duration oldGapInterval;
+    private final TreeMap<Long, Instant> gaps = new TreeMap<>(); // id -> first seen missing
+    private long highest;
+    private Instant nextOldGapCheck = Instant.MIN;
+
+    OutboxCursor(long highest, Duration gapTimeout, int maxGaps, Duration youngGap, Duration oldGapInterval) {
+        this.highest = highest;
+        this.gapTimeout = gapTimeout;
+        this.maxGaps = maxGaps;
+        this.youngGap = youngGap;
+        this.oldGapInterval = oldGapInterval;
+    }
+
+    OutboxCursor copy() {
+        OutboxCursor copy = new OutboxCursor(highest, gapTimeout, maxGaps, youngGap, oldGapInterval);
+        copy.gaps.putAll(gaps);
+        copy.nextOldGapCheck = nextOldGapCheck;
+        return copy;
+    }
+
+    long highest() {
+        return highest;
+    }
+
+    int openGaps() {
+        return gaps.size();
+    }
+
+    // Rows not yet handed on, in id order: late rows filling gaps due for a look, then up
+    // to batchSize rows above the cursor
+    List<OutboxEvent> read(OutboxEventRepository repository, int batchSize, Instant now) {
+        List<OutboxEvent> rows = new ArrayList<>();
+        List<Long> open = gapsToCheck(now);
+        for (int from = 0; from < open.size(); from += batchSize) {
+            rows.addAll(repository.findByIdInOrderByIdAsc(open.subList(from, Math.min(open.size(), from + batchSize))));
+        }
+        rows.addAll(repository.findByIdGreaterThanOrderByIdAsc(highest, PageRequest.of(0, batchSize)));
+        return rows;
+    }
+
+    // Young gaps every time, old ones too once oldGapInterval has passed since they were
+    // last looked up
+    List<Long> gapsToCheck(Instant now) {
+        if (!now.isBefore(nextOldGapCheck)) {
+            nextOldGapCheck = now.plus(oldGapInterval);
+            return new ArrayList<>(gaps.keySet());
+        }
+        Instant young = now.minus(youngGap);
+        List<Long> open = new ArrayList<>();
+        gaps.forEach((id, since) -> {
+            if (!since.isBefore(young)) {
+                open.add(id);
+            }
+        });
+        return open;
+    }
+
+    // The row with this id has been handed on
+    void advance(long id, Instant now) {
+        if (id <= highest) {
+            gaps.remove(id);
+            return;
+        }
+        for (long missing = Math.max(highest + 1, id - maxGaps); missing < id; missing++) {
+            gaps.put(missing, now);
+        }
+        highest = id;
+    }
+
+    // Drops gaps that stayed open too long; returns how many were dropped
+    int expire(Instant now) {
+        int dropped = 0;
+        Instant cutoff = now.minus(gapTimeout);
+        for (Iterator<Map.Entry<Long, Instant>> it = gaps.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue().isBefore(cutoff)) {
+                it.remove();
+                dropped++;
+            }
+        }
+        while (gaps.size() > maxGaps) {
+            gaps.pollFirstEntry();
+            dropped++;
+        }
+        return dropped;
+    }
+
+    // True once this cursor has handed on everything the shared one has: it is at or
+    // past the shared position, and every id it still waits for the shared one waits
+    // for too (so nothing is skipped when it follows the shared cursor again)
+    boolean caughtUpWith(OutboxCursor shared) {
+        if (highest < shared.highest) {
+            return false;
+        }
+        for (Long id : gaps.keySet()) {
+            if (id <= shared.highest && !shared.gaps.containsKey(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.resell.backend.event;
+
+import com.resell.backend.model.OutboxEvent;
+import com.resell.backend.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+
+// Writes domain events to the outbox table. MANDATORY propagation: the event must be
+// committed (or rolled back) together with the change it describes.
+@Component
+public class OutboxPublisher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String type, Long aggregateId, Object payload) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .type(type)
+                .aggregateId(aggregateId)
+                .payload(payload == null ? null : objectMapper.writeValueAsString(payload))
+                .createdAt(Instant.now())
+                .build());
+    }
+}
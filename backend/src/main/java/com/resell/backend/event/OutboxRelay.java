@@ -0,0 +1,360 @@
+package com.resell.backend.event;
+
+import com.resell.backend.model.OutboxEvent;
+import com.resell.backend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Drains the outbox table to in-process subscribers.
+//
+// Every pod relays every event to its own subscribers (they keep pod-local state such
+// as caches and indexes), so rows are not deleted on delivery; they are pruned after
+// outbox.retention-minutes. A relay tick reads the rows after the shared OutboxCursor
+// (plus late rows filling the gaps it passed) and hands each event, in id order, to
+// every subscriber's bounded lock-free queue. Each subscriber has its own delivery
+// thread, so a slow subscriber never delays the request that wrote the event.
+//
+// A subscriber whose queue is full is parked: it gets its own copy of the cursor at the
+// event it refused and catches up from the database on later ticks, while the shared
+// cursor moves on for everyone else. Once it has caught up it follows the shared cursor
+// again; events it sees twice on the way are skipped by id.
+//
+// Delivery is at least once: a subscriber that throws stays on that event and retries it
+// with exponential backoff (up to outbox.retry-max-backoff-ms) until it succeeds. Its
+// queue fills up behind the event meanwhile, which parks it as above.
+//
+// Ticks run on a dedicated thread, not Spring's shared scheduler, so index rebuilds and
+// other @Scheduled jobs cannot hold up delivery.
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_BATCHES_PER_TICK = 10;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired(required = false)
+    private List<DomainEventSubscriber> subscribers = List.of();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay-interval-ms:200}")
+    private long relayIntervalMs;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${outbox.gap-timeout-ms:600000}")
+    private long gapTimeoutMs;
+
+    @Value("${outbox.max-open-gaps:10000}")
+    private int maxOpenGaps;
+
+    @Value("${outbox.young-gap-ms:2000}")
+    private long youngGapMs;
+
+    @Value("${outbox.old-gap-recheck-ms:10000}")
+    private long oldGapRecheckMs;
+
+    @Value("${outbox.startup-lookback-ids:1000}")
+    private long startupLookbackIds;
+
+    @Value("${outbox.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${outbox.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private ScheduledExecutorService relayExecutor;
+    private OutboxCursor cursor; // set on the first tick, so startup does not touch the database
+    private volatile Instant backlogSince; // oldest row known to be waiting beyond the last batch
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("outbox.relay.lag", this, OutboxRelay::lagSeconds)
+                .description("Age of the oldest event not yet delivered to every subscriber")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        for (DomainEventSubscriber subscriber : subscribers) {
+            Subscription subscription = new Subscription(subscriber);
+            subscriptions.add(subscription);
+            subscription.thread.start();
+        }
+
+        relayExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relayExecutor.scheduleWithFixedDelay(this::tick, relayIntervalMs, relayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        relayExecutor.shutdownNow();
+        subscriptions.forEach(s -> s.running = false);
+        subscriptions.forEach(s -> LockSupport.unpark(s.thread));
+    }
+
+    // A failed tick must not cancel the schedule; the next one reads the same rows again
+    private void tick() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay tick failed", e);
+        }
+    }
+
+    public synchronized void relay() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (cursor == null) {
+            cursor = startingCursor(now);
+        }
+
+        // Parked subscribers first, each from its own cursor
+        for (Subscription subscription : subscriptions) {
+            if (subscription.parked != null) {
+                catchUp(subscription, now);
+            }
+        }
+
+        Instant backlog = null;
+        for (int round = 0; round < MAX_BATCHES_PER_TICK; round++) {
+            long before = cursor.highest();
+            List<OutboxEvent> rows = cursor.read(outboxEventRepository, batchSize, now);
+            for (OutboxEvent row : rows) {
+                DomainEvent event = toEvent(row);
+                for (Subscription subscription : subscriptions) {
+                    if (subscription.parked == null && !subscription.offer(event)) {
+                        subscription.park(cursor.copy(), row.getCreatedAt());
+                    }
+                }
+                cursor.advance(row.getId(), now);
+            }
+            if (rows.stream().filter(row -> row.getId() > before).count() < batchSize) {
+                break;
+            }
+            backlog = rows.get(rows.size() - 1).getCreatedAt(); // more rows waiting, at least this old
+        }
+        backlogSince = backlog;
+
+        int dropped = cursor.expire(now);
+        if (dropped > 0) {
+            log.debug("Outbox relay gave up on {} missing id(s); {} still open", dropped, cursor.openGaps());
+        }
+        subscriptions.forEach(s -> LockSupport.unpark(s.thread));
+    }
+
+    // Subscribers rebuild their state from the database at startup, so the cursor starts at
+    // the newest row. Another pod may still commit rows below it, though, so every id
+    // missing in the lookback window under it starts out as an open gap.
+    private OutboxCursor startingCursor(Instant now) {
+        long newest = outboxEventRepository.findMaxId().orElse(0L);
+        long from = Math.max(0, newest - startupLookbackIds);
+        OutboxCursor start = new OutboxCursor(from, Duration.ofMillis(gapTimeoutMs), maxOpenGaps,
+                Duration.ofMillis(youngGapMs), Duration.ofMillis(oldGapRecheckMs));
+        for (long id : outboxEventRepository.findIdsAfter(from)) {
+            start.advance(id, now);
+        }
+        return start;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:60000}")
+    @Transactional
+    public void prune() {
+        outboxEventRepository.deleteCreatedBefore(Instant.now().minus(Duration.ofMinutes(retentionMinutes)));
+    }
+
+    // Hands a parked subscriber the rows after its own cursor until its queue is full
+    // again or it has caught up with the shared cursor
+    private void catchUp(Subscription subscription, Instant now) {
+        OutboxCursor own = subscription.parked;
+        for (int round = 0; round < MAX_BATCHES_PER_TICK; round++) {
+            List<OutboxEvent> rows = own.read(outboxEventRepository, batchSize, now);
+            for (OutboxEvent row : rows) {
+                if (!subscription.offer(toEvent(row))) {
+                    subscription.blockedSince = row.getCreatedAt();
+                    return;
+                }
+                own.advance(row.getId(), now);
+            }
+            own.expire(now);
+            if (own.caughtUpWith(cursor)) {
+                subscription.resume();
+                return;
+            }
+            if (rows.size() < batchSize) {
+                return; // the rest only shows up in the database later
+            }
+            subscription.blockedSince = rows.get(rows.size() - 1).getCreatedAt();
+        }
+    }
+
+    private double lagSeconds() {
+        Instant oldest = backlogSince;
+        for (Subscription subscription : subscriptions) {
+            Instant pending = subscription.oldestPending();
+            if (pending != null && (oldest == null || pending.isBefore(oldest))) {
+                oldest = pending;
+            }
+        }
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static DomainEvent toEvent(OutboxEvent row) {
+        return new DomainEvent(row.getId(), row.getType(), row.getAggregateId(), row.getPayload(), row.getCreatedAt());
+    }
+
+    private final class Subscription {
+        private static final long FIRST_BACKOFF_MS = 100;
+        private static final int REMEMBERED_IDS = 10_000;
+
+        private final DomainEventSubscriber subscriber;
+        private final BoundedLockFreeQueue<DomainEvent> queue = new BoundedLockFreeQueue<>(queueCapacity);
+        private final LinkedHashSet<Long> accepted = new LinkedHashSet<>(); // relay thread only
+        private final Thread thread;
+        private final Counter delivered;
+        private final Counter failed;
+        private volatile boolean running = true;
+        private OutboxCursor parked; // own position while behind the shared cursor; relay thread only
+        private volatile Instant blockedSince; // oldest event not yet accepted while parked
+        private volatile Instant retrying; // event being retried, taken off the queue already
+
+        Subscription(DomainEventSubscriber subscriber) {
+            this.subscriber = subscriber;
+            this.thread = new Thread(this::run, "outbox-" + subscriber.name());
+            this.thread.setDaemon(true);
+            this.delivered = meterRegistry.counter("outbox.subscriber.delivered", "subscriber", subscriber.name());
+            this.failed = meterRegistry.counter("outbox.subscriber.failed", "subscriber", subscriber.name());
+            Gauge.builder("outbox.subscriber.queue", queue, BoundedLockFreeQueue::size)
+                    .tag("subscriber", subscriber.name())
+                    .register(meterRegistry);
+            Gauge.builder("outbox.subscriber.lag", this, Subscription::lagSeconds)
+                    .description("Age of the oldest event not yet delivered to this subscriber")
+                    .baseUnit("seconds")
+                    .tag("subscriber", subscriber.name())
+                    .register(meterRegistry);
+        }
+
+        // Called by the relay thread only. Already-accepted events count as accepted.
+        boolean offer(DomainEvent event) {
+            if (accepted.contains(event.id())) {
+                return true;
+            }
+            if (!queue.offer(event)) {
+                return false;
+            }
+            accepted.add(event.id());
+            if (accepted.size() > REMEMBERED_IDS) {
+                Iterator<Long> oldest = accepted.iterator();
+                oldest.next();
+                oldest.remove();
+            }
+            return true;
+        }
+
+        void park(OutboxCursor own, Instant refusedAt) {
+            parked = own;
+            blockedSince = refusedAt;
+            log.warn("Outbox subscriber {} is falling behind (queue full); catching up on its own", subscriber.name());
+        }
+
+        void resume() {
+            parked = null;
+            blockedSince = null;
+            log.info("Outbox subscriber {} caught up", subscriber.name());
+        }
+
+        // An event being retried is older than anything queued, and queued events are
+        // older than anything not yet accepted
+        Instant oldestPending() {
+            Instant stuck = retrying;
+            if (stuck != null) {
+                return stuck;
+            }
+            DomainEvent head = queue.peek();
+            return head != null ? head.createdAt() : blockedSince;
+        }
+
+        private double lagSeconds() {
+            Instant pending = oldestPending();
+            return pending == null ? 0 : Duration.between(pending, Instant.now()).toMillis() / 1000.0;
+        }
+
+        private void run() {
+            while (running) {
+                DomainEvent event = queue.poll();
+                if (event == null) {
+                    LockSupport.parkNanos(50_000_000L); // woken by the relay
+                    continue;
+                }
+                deliver(event);
+            }
+        }
+
+        // Retries until the subscriber takes the event or the relay stops
+        private void deliver(DomainEvent event) {
+            long backoffMs = FIRST_BACKOFF_MS;
+            for (int attempt = 1; running; attempt++) {
+                try {
+                    subscriber.onEvent(event);
+                    delivered.increment();
+                    if (attempt > 1) {
+                        retrying = null;
+                        log.info("Outbox subscriber {} delivered event {} on attempt {}",
+                                subscriber.name(), event.id(), attempt);
+                    }
+                    return;
+                } catch (Exception e) {
+                    failed.increment();
+                    retrying = event.createdAt();
+                    log.warn("Outbox subscriber {} failed on event {} (attempt {}); retrying in {} ms",
+                            subscriber.name(), event.id(), attempt, backoffMs, e);
+                }
+                pause(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, retryMaxBackoffMs);
+            }
+        }
+
+        // Sleeps through the relay's wake-ups, but not through stop()
+        private void pause(long millis) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            for (long left = TimeUnit.MILLISECONDS.toNanos(millis); running && left > 0;
+                    left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Points (listed items with a location) on a fixed latitude/longitude grid, for "within
+// r km of here, nearest first" without touching MySQL.
+//
+// Each cell is cellDegrees on a side; a radius query takes the non-empty cells overlapping
+// the query's bounding box (wrapping at the antimeridian, every longitude near the
+// poles), orders them by a lower bound on their distance and checks the great-circle
+// distance of their points, nearest cell first. The nearest `limit` points after a keyset
+// cursor (distance, id) are kept in a bounded max-heap; the scan stops at the first cell
+// that cannot beat the farthest of them, and cells wholly before the cursor are skipped,
+// so a dense city costs a few cells rather than the whole radius.
+//
+// Storage is primitive like Percolator's: per-slot columns, cell chains in an int array
+// headed from a LongIntHashMap. Removed points leave their slot behind (skipped while
+// querying) until dead slots outnumber live ones, when everything is compacted. Queries
+// share a read lock; changes are exclusive.
+public final class GeoGridIndex {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int NONE = -1;
+
+    public interface HitConsumer {
+        void accept(long id, double distanceKm);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+
+    // Per slot; ids[slot] == 0 marks a removed point
+    private long[] ids;
+    private double[] lats;
+    private double[] lons;
+    private double[] cosLats;
+    private int[] next; // next slot in the same cell
+    private int slotCount;
+    private int deadSlots;
+    private final LongIntHashMap slotById;
+    private final LongIntHashMap cellHeads;
+
+    public GeoGridIndex(double cellDegrees, int expectedPoints) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.ceil(180 / cellDegrees);
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+        int capacity = Math.max(expectedPoints, 16);
+        ids = new long[capacity];
+        lats = new double[capacity];
+        lons = new double[capacity];
+        cosLats = new double[capacity];
+        next = new int[capacity];
+        slotById = new LongIntHashMap(capacity);
+        cellHeads = new LongIntHashMap(Math.max(capacity / 8, 16));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add a point, or move it. Ids must be positive.
+    public void put(long id, double lat, double lon) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ids must be positive");
+        }
+        if (!isValid(lat, lon)) {
+            throw new IllegalArgumentException("Latitude must be in [-90, 90] and longitude in [-180, 180]");
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            int slot = allocateSlot();
+            ids[slot] = id;
+            lats[slot] = lat;
+            lons[slot] = lon;
+            cosLats[slot] = Math.cos(Math.toRadians(lat));
+            slotById.put(id, slot);
+            link(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reports up to `limit` points within radiusKm of (lat, lon), nearest first (ties by
+    // id), skipping everything up to and including the cursor (afterDistanceKm, afterId);
+    // pass a negative afterDistanceKm for the first page. Returns how many were reported.
+    public int nearby(double lat, double lon, double radiusKm, double afterDistanceKm, long afterId, int limit,
+            HitConsumer consumer) {
+        if (limit <= 0 || !(radiusKm > 0)) {
+            return 0;
+        }
+        double[] heapDistances = new double[limit];
+        long[] heapIds = new long[limit];
+        int heapSize = 0;
+
+        // Distances are compared as haversines (d <= r  <=>  hav <= sin^2(r / 2R)), so only
+        // accepted points pay for the asin
+        double maxHav = hav(Math.min(radiusKm, Math.PI * EARTH_RADIUS_KM));
+        double afterHav = afterDistanceKm < 0 ? -1 : hav(afterDistanceKm);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(lat - deltaLat, -90);
+        double maxLat = Math.min(lat + deltaLat, 90);
+
+        // Longitude span at the most poleward latitude of the box; every longitude near the poles
+        double cosPoleward = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        int fromColumn = 0;
+        int columns = lonCells;
+        if (cosPoleward > 1e-9 && deltaLat / cosPoleward < 180) {
+            double deltaLon = deltaLat / cosPoleward;
+            fromColumn = Math.floorMod(lonCell(lon - deltaLon), lonCells);
+            columns = Math.min(lonCells, lonCell(lon + deltaLon) - lonCell(lon - deltaLon) + 1);
+        }
+
+        lock.readLock().lock();
+        try {
+            Cells cells = collectCells(lat, lon, cosLat, latCell(minLat), latCell(maxLat), fromColumn, columns,
+                    maxHav, afterHav);
+            for (int i = 0; i < cells.size; i++) {
+                int cell = (int) (cells.order[i] & CELL_INDEX_MASK);
+                // Cells come nearest first: once one cannot beat the farthest kept point, none can
+                if (heapSize == limit
+                        && (cells.order[i] >>> CELL_INDEX_BITS) / HAV_SCALE > hav(heapDistances[0]) * (1 + 1e-9)) {
+                    break;
+                }
+                for (int slot = cells.heads[cell]; slot != NONE; slot = next[slot]) {
+                    long id = ids[slot];
+                    if (id == 0 || lats[slot] < minLat || lats[slot] > maxLat) {
+                        continue;
+                    }
+                    double sinLat = Math.sin(Math.toRadians(lats[slot] - lat) / 2);
+                    double sinLon = Math.sin(Math.toRadians(lons[slot] - lon) / 2);
+                    double hav = sinLat * sinLat + cosLat * cosLats[slot] * sinLon * sinLon;
+                    if (hav > maxHav || hav < afterHav) {
+                        continue;
+                    }
+                    double distance = 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(hav)));
+                    if (distance < afterDistanceKm || (distance == afterDistanceKm && id <= afterId)) {
+                        continue;
+                    }
+                    if (heapSize < limit) {
+                        heapSize = siftUp(heapDistances, heapIds, heapSize, distance, id);
+                    } else if (before(distance, id, heapDistances[0], heapIds[0])) {
+                        replaceTop(heapDistances, heapIds, heapSize, distance, id);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Drain the max-heap from the back: farthest last
+        for (int end = heapSize - 1; end > 0; end--) {
+            double topDistance = heapDistances[0];
+            long topId = heapIds[0];
+            double lastDistance = heapDistances[end];
+            long lastId = heapIds[end];
+            heapDistances[end] = topDistance;
+            heapIds[end] = topId;
+            replaceTop(heapDistances, heapIds, end, lastDistance, lastId);
+        }
+        for (int i = 0; i < heapSize; i++) {
+            consumer.accept(heapIds[i], heapDistances[i]);
+        }
+        return heapSize;
+    }
+
+    // ---- candidate cells ----
+
+    private static final int CELL_INDEX_BITS = 23;
+    private static final long CELL_INDEX_MASK = (1L << CELL_INDEX_BITS) - 1;
+    private static final double HAV_SCALE = 1L << 39; // haversines are in [0, 1]
+
+    // Non-empty cells in the box that can hold a point in range and after the cursor,
+    // sorted by a lower bound on their haversine to the query point (packed above the
+    // cell's index in order[])
+    private static final class Cells {
+        int[] heads = new int[64];
+        long[] order = new long[64];
+        int size;
+    }
+
+    private Cells collectCells(double lat, double lon, double cosLat, int fromRow, int toRow, int fromColumn,
+            int columns, double maxHav, double afterHav) {
+        Cells cells = new Cells();
+
+        // Longitude terms depend on the column only
+        double antipode = lon >= 0 ? lon - 180 : lon + 180;
+        double[] minLonHav = new double[columns];
+        double[] maxLonHav = new double[columns];
+        for (int c = 0; c < columns; c++) {
+            double west = ((fromColumn + c) % lonCells) * cellDegrees - 180;
+            double east = west + cellDegrees;
+            double westDelta = longitudeDelta(lon, west);
+            double eastDelta = longitudeDelta(lon, east);
+            minLonHav[c] = havDegrees(lon >= west && lon <= east ? 0 : Math.min(westDelta, eastDelta));
+            maxLonHav[c] = havDegrees(antipode >= west && antipode <= east ? 180 : Math.max(westDelta, eastDelta));
+        }
+
+        for (int row = fromRow; row <= toRow; row++) {
+            double south = row * cellDegrees - 90;
+            double north = Math.min(south + cellDegrees, 90);
+            double minDeltaLat = lat < south ? south - lat : lat > north ? lat - north : 0;
+            double maxDeltaLat = Math.max(Math.abs(lat - south), Math.abs(lat - north));
+            double minAbsLat = south <= 0 && north >= 0 ? 0 : Math.min(Math.abs(south), Math.abs(north));
+            double maxAbsLat = Math.max(Math.abs(south), Math.abs(north));
+            double minLatHav = havDegrees(minDeltaLat);
+            double maxLatHav = havDegrees(maxDeltaLat);
+            double cosMin = cosLat * Math.cos(Math.toRadians(maxAbsLat));
+            double cosMax = cosLat * Math.cos(Math.toRadians(minAbsLat));
+            for (int c = 0; c < columns; c++) {
+                int column = (fromColumn + c) % lonCells;
+                int head = cellHeads.get((long) row * lonCells + column);
+                if (head == NONE) {
+                    continue;
+                }
+
+                // hav(d) = hav(dLat) + cos(lat1) cos(lat2) hav(dLon): bound each term over the cell
+                double lower = minLatHav + cosMin * minLonHav[c];
+                double upper = maxLatHav + cosMax * maxLonHav[c];
+                if (lower > maxHav * (1 + 1e-9) || upper * (1 + 1e-9) < afterHav) {
+                    continue;
+                }
+                if (cells.size == cells.heads.length) {
+                    cells.heads = Arrays.copyOf(cells.heads, cells.size * 2);
+                    cells.order = Arrays.copyOf(cells.order, cells.size * 2);
+                }
+                cells.heads[cells.size] = head;
+                cells.order[cells.size] = (long) (lower * HAV_SCALE) << CELL_INDEX_BITS | cells.size;
+                cells.size++;
+            }
+        }
+        Arrays.sort(cells.order, 0, cells.size);
+        return cells;
+    }
+
+    // Smallest angle between two longitudes, in [0, 180]
+    private static double longitudeDelta(double lon1, double lon2) {
+        double delta = Math.abs(lon1 - lon2) % 360;
+        return delta > 180 ? 360 - delta : delta;
+    }
+
+    private static double havDegrees(double degrees) {
+        double sin = Math.sin(Math.toRadians(degrees) / 2);
+        return sin * sin;
+    }
+
+    private static double hav(double distanceKm) {
+        double sin = Math.sin(distanceKm / EARTH_RADIUS_KM / 2);
+        return sin * sin;
+    }
+
+    public static boolean isValid(double lat, double lon) {
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double hav = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(hav)));
+    }
+
+    // ---- bounded max-heap on (distance, id) ----
+
+    private static boolean before(double distance, long id, double otherDistance, long otherId) {
+        return distance < otherDistance || (distance == otherDistance && id < otherId);
+    }
+
+    private static int siftUp(double[] distances, long[] ids, int size, double distance, long id) {
+        int i = size;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(distances[parent], ids[parent], distance, id)) {
+                break;
+            }
+            distances[i] = distances[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        distances[i] = distance;
+        ids[i] = id;
+        return size + 1;
+    }
+
+    private static void replaceTop(double[] distances, long[] ids, int size, double distance, long id) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(distances[child], ids[child], distances[child + 1], ids[child + 1])) {
+                child++;
+            }
+            if (!before(distance, id, distances[child], ids[child])) {
+                break;
+            }
+            distances[i] = distances[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        distances[i] = distance;
+        ids[i] = id;
+    }
+
+    // ---- storage (write lock held) ----
+
+    private int latCell(double lat) {
+        return Math.min((int) Math.floor((lat + 90) / cellDegrees), latCells - 1);
+    }
+
+    // Unwrapped: callers take floorMod for the column
+    private int lonCell(double lon) {
+        return (int) Math.floor((lon + 180) / cellDegrees);
+    }
+
+    private long cellOf(int slot) {
+        return (long) latCell(lats[slot]) * lonCells + Math.floorMod(lonCell(lons[slot]), lonCells);
+    }
+
+    private void link(int slot) {
+        long cell = cellOf(slot);
+        next[slot] = cellHeads.get(cell);
+        cellHeads.put(cell, slot);
+    }
+
+    private void removeLocked(long id) {
+        int slot = slotById.remove(id);
+        if (slot < 0) {
+            return;
+        }
+        ids[slot] = 0;
+        deadSlots++;
+        if (deadSlots > 1024 && deadSlots > slotCount - deadSlots) {
+            compact();
+        }
+    }
+
+    private int allocateSlot() {
+        if (slotCount == ids.length) {
+            int capacity = slotCount + (slotCount >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            lats = Arrays.copyOf(lats, capacity);
+            lons = Arrays.copyOf(lons, capacity);
+            cosLats = Arrays.copyOf(cosLats, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return slotCount++;
+    }
+
+    // Move live points to the front and relink every cell
+    private void compact() {
+        slotById.clear();
+        cellHeads.clear();
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (ids[slot] == 0) {
+                continue;
+            }
+            ids[live] = ids[slot];
+            lats[live] = lats[slot];
+            lons[live] = lons[slot];
+            cosLats[live] = cosLats[slot];
+            slotById.put(ids[live], live);
+            link(live);
+            live++;
+        }
+        Arrays.fill(ids, live, slotCount, 0);
+        slotCount = live;
+        deadSlots = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+
+// Open-addressing long -> int map (linear probing, no boxing) for the in-memory indexes.
+// Values must be >= 0; get returns -1 for a missing key. Not thread-safe.
+public final class LongIntHashMap {
+
+    private static final int FREE = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2, 16) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (values[i] == FREE) {
+                return FREE;
+            }
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (values[i] == FREE) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size * 2 > values.length) {
+                    grow();
+                }
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    // Returns the removed value, or -1
+    public int remove(long key) {
+        int i = slot(key);
+        while (values[i] != FREE && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == FREE) {
+            return FREE;
+        }
+        int removed = values[i];
+        size--;
+
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = i;
+        for (int j = (gap + 1) & mask; values[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        values[gap] = FREE;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(values, FREE);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, FREE);
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldValues.length * 2);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Similar-text lookup with MinHash signatures and LSH banding.
+//
+// Each item's text is reduced to word and word-pair shingles, and the shingle set to a
+// signature of bands * rows min-hashes; two signatures agree at a position with
+// probability equal to the Jaccard similarity of the sets. Only the low 16 bits of each
+// min-hash are kept (b-bit MinHash), which adds ~1/65536 to that probability and halves
+// the memory. Items sharing all rows of any band are candidates, ranked by the fraction
+// of agreeing positions. With 16 bands of 4 rows, pairs above ~0.6 similarity almost
+// always collide and pairs below ~0.25 rarely do.
+//
+// Per band, buckets are chains headed from a primitive hash table (int heads indexed by
+// the band hash, entries in flat int arrays). Different band values landing in the same
+// bucket, and entries left behind by removed or re-added items, are skipped by comparing
+// the band itself; the chains are rebuilt when stale entries outnumber live ones or the
+// table fills up. Reads share a read lock; writes are exclusive.
+//
+// Memory is about 450 bytes per item at 16 bands x 4 rows (signature, chain entries with
+// room for stale ones, bucket heads and the id map). The index never holds more than
+// maxItems; put refuses new ids beyond that.
+public final class MinHashIndex {
+
+    private static final int NONE = -1;
+
+    private final int bands;
+    private final int rows;
+    private final int width;
+    private final int maxCandidatesPerBand;
+    private final int maxItems;
+    private final long[] hashA;
+    private final long[] hashB;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per slot: item id (0 = free) and signature at [slot * width]
+    private long[] slotIds;
+    private short[] signatures;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final LongIntHashMap slotById;
+
+    // Bucket chains: heads[band * tableSize + bucket] -> entry -> next entry ...
+    private int tableSize;
+    private int[] heads;
+    private int[] entrySlot;
+    private int[] entryNext;
+    private int entryCount;
+    private int staleEntries;
+
+    public MinHashIndex(int bands, int rows, int maxCandidatesPerBand, int expectedItems) {
+        this(bands, rows, maxCandidatesPerBand, expectedItems, Integer.MAX_VALUE);
+    }
+
+    public MinHashIndex(int bands, int rows, int maxCandidatesPerBand, int expectedItems, int maxItems) {
+        this.bands = bands;
+        this.rows = rows;
+        this.width = bands * rows;
+        this.maxCandidatesPerBand = maxCandidatesPerBand;
+        this.maxItems = maxItems;
+        Random random = new Random(0x5EED); // fixed, so signatures are stable across rebuilds
+        hashA = new long[width];
+        hashB = new long[width];
+        for (int i = 0; i < width; i++) {
+            hashA[i] = random.nextLong() | 1;
+            hashB[i] = random.nextLong();
+        }
+        int capacity = Math.max(Math.min(expectedItems, maxItems), 16);
+        slotIds = new long[capacity];
+        signatures = new short[capacity * width];
+        slotById = new LongIntHashMap(capacity);
+        tableSize = Integer.highestOneBit(capacity - 1) << 1;
+        heads = new int[bands * tableSize];
+        Arrays.fill(heads, NONE);
+        entrySlot = new int[capacity * bands];
+        entryNext = new int[capacity * bands];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add or replace an item. Items whose text has no words are not indexed. Returns false,
+    // leaving the index as it was, for a new id when the index already holds maxItems.
+    public boolean put(long id, String text) {
+        short[] signature = signature(text);
+        lock.writeLock().lock();
+        try {
+            if (slotById.size() >= maxItems && slotById.get(id) < 0) {
+                return false;
+            }
+            removeLocked(id);
+            if (signature == null) {
+                return true;
+            }
+            int slot = allocateSlot(id);
+            System.arraycopy(signature, 0, signatures, slot * width, width);
+            if (slotById.size() > tableSize) {
+                tableSize <<= 1;
+                heads = new int[bands * tableSize];
+                relink();
+            } else {
+                for (int band = 0; band < bands; band++) {
+                    link(band, slot);
+                }
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to ids.length items most similar to the given one, best first. Fills ids and
+    // scores (estimated Jaccard similarity, 0-1) and returns how many were written.
+    public int similar(long id, double minScore, long[] ids, double[] scores) {
+        if (ids.length == 0) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot < 0) {
+                return 0;
+            }
+            int found = 0;
+            int[] foundSlots = new int[ids.length];
+            for (int band = 0; band < bands; band++) {
+                int visited = 0;
+                for (int entry = heads[band * tableSize + bucket(slot, band)];
+                        entry != NONE && visited < maxCandidatesPerBand; entry = entryNext[entry]) {
+                    int candidate = entrySlot[entry];
+                    if (candidate == slot || slotIds[candidate] == 0 || !sameBand(slot, candidate, band)) {
+                        continue; // self, another band value in this bucket, or a stale entry
+                    }
+                    visited++;
+                    if (contains(foundSlots, found, candidate)) {
+                        continue;
+                    }
+                    double score = agreement(slot, candidate);
+                    if (score < minScore || (found == ids.length && score <= scores[found - 1])) {
+                        continue;
+                    }
+                    // Insert into the ranked arrays, dropping the last one if full
+                    int position = Math.min(found, ids.length - 1);
+                    while (position > 0 && scores[position - 1] < score) {
+                        ids[position] = ids[position - 1];
+                        scores[position] = scores[position - 1];
+                        foundSlots[position] = foundSlots[position - 1];
+                        position--;
+                    }
+                    ids[position] = slotIds[candidate];
+                    scores[position] = score;
+                    foundSlots[position] = candidate;
+                    found = Math.min(found + 1, ids.length);
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- signatures ----
+
+    // Lower-cased words and adjacent word pairs, each hashed to 64 bits; null if no words
+    private short[] signature(String text) {
+        if (text == null) {
+            return null;
+        }
+        int[] minimums = new int[width];
+        Arrays.fill(minimums, Integer.MAX_VALUE);
+        boolean any = false;
+        long previous = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            long word = 0xcbf29ce484222325L; // FNV-1a
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                word = (word ^ Character.toLowerCase(text.charAt(i))) * 0x100000001b3L;
+                i++;
+            }
+            addShingle(minimums, word);
+            if (any) {
+                addShingle(minimums, previous * 31 + word);
+            }
+            previous = word;
+            any = true;
+        }
+        if (!any) {
+            return null;
+        }
+        short[] signature = new short[width];
+        for (int h = 0; h < width; h++) {
+            signature[h] = (short) minimums[h];
+        }
+        return signature;
+    }
+
+    private void addShingle(int[] minimums, long shingle) {
+        for (int h = 0; h < width; h++) {
+            int value = (int) ((hashA[h] * shingle + hashB[h]) >>> 33);
+            if (value < minimums[h]) {
+                minimums[h] = value;
+            }
+        }
+    }
+
+    private int bucket(int slot, int band) {
+        int from = slot * width + band * rows;
+        long key = 0;
+        for (int r = 0; r < rows; r++) {
+            key = (key << 16) ^ (signatures[from + r] & 0xFFFF) ^ (key >>> 48);
+        }
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key >>> 32) & (tableSize - 1);
+    }
+
+    private boolean sameBand(int a, int b, int band) {
+        int offset = band * rows;
+        for (int r = 0; r < rows; r++) {
+            if (signatures[a * width + offset + r] != signatures[b * width + offset + r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double agreement(int a, int b) {
+        int same = 0;
+        for (int h = 0; h < width; h++) {
+            if (signatures[a * width + h] == signatures[b * width + h]) {
+                same++;
+            }
+        }
+        return (double) same / width;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- storage (write lock held) ----
+
+    private void removeLocked(long id) {
+        int slot = slotById.remove(id);
+        if (slot < 0) {
+            return;
+        }
+        slotIds[slot] = 0;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        staleEntries += bands;
+        if (staleEntries > entryCount - staleEntries) {
+            relink();
+        }
+    }
+
+    private int allocateSlot(long id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slotIds.length) {
+                int capacity = slotCount + (slotCount >> 1);
+                slotIds = Arrays.copyOf(slotIds, capacity);
+                signatures = Arrays.copyOf(signatures, capacity * width);
+            }
+            slot = slotCount++;
+        }
+        slotIds[slot] = id;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private void link(int band, int slot) {
+        if (entryCount == entrySlot.length) {
+            int capacity = entryCount + (entryCount >> 1);
+            entrySlot = Arrays.copyOf(entrySlot, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+        }
+        int head = band * tableSize + bucket(slot, band);
+        entrySlot[entryCount] = slot;
+        entryNext[entryCount] = heads[head];
+        heads[head] = entryCount++;
+    }
+
+    // Rebuild every chain from the live slots, dropping stale entries
+    private void relink() {
+        Arrays.fill(heads, NONE);
+        entryCount = 0;
+        staleEntries = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotIds[slot] != 0) {
+                for (int band = 0; band < bands; band++) {
+                    link(band, slot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Reverse index of saved searches: given a new listing, find every stored query it
+// satisfies without looking at the others.
+//
+// A query matches when all of its keywords occur in the listing text and the price is in
+// its range. Each query is posted under a single "anchor" keyword - the one whose posting
+// list is currently shortest - since a listing can only match if it contains that word.
+// Matching a listing walks the posting lists of its own words only, then verifies each
+// candidate's remaining keywords (binary search in the listing's sorted word hashes) and
+// price. Cost grows with the candidates sharing a word with the listing, not with the
+// number of stored queries.
+//
+// Storage is primitive: per-query columns indexed by slot, keyword hashes in one flat
+// array, posting chains in int arrays headed from a LongIntHashMap. Removed queries leave
+// their slot and chain entry behind (skipped while matching) until dead slots outnumber
+// live ones, when everything is compacted. Matching shares a read lock; changes are
+// exclusive.
+public final class Percolator {
+
+    private static final int NONE = -1;
+
+    public interface MatchConsumer {
+        void accept(long searchId, long userId);
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per slot; searchIds[slot] == 0 marks a removed query
+    private long[] searchIds;
+    private long[] userIds;
+    private double[] minPrices;
+    private double[] maxPrices;
+    private int[] keywordFrom;
+    private int[] keywordCount;
+    private int slotCount;
+    private int deadSlots;
+    private final LongIntHashMap slotBySearch;
+
+    private long[] keywords; // flat; each query's range starts with its anchor
+    private int keywordSize;
+
+    // Posting chains: anchor word -> head entry; entryNext links entries of the same word
+    private final LongIntHashMap postingHeads;
+    private final LongIntHashMap postingSizes;
+    private int[] entrySlot;
+    private int[] entryNext;
+    private int entryCount;
+
+    public Percolator(int expectedQueries) {
+        int capacity = Math.max(expectedQueries, 16);
+        searchIds = new long[capacity];
+        userIds = new long[capacity];
+        minPrices = new double[capacity];
+        maxPrices = new double[capacity];
+        keywordFrom = new int[capacity];
+        keywordCount = new int[capacity];
+        slotBySearch = new LongIntHashMap(capacity);
+        keywords = new long[capacity * 2];
+        postingHeads = new LongIntHashMap(capacity);
+        postingSizes = new LongIntHashMap(capacity);
+        entrySlot = new int[capacity];
+        entryNext = new int[capacity];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotBySearch.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Add or replace a saved search. Null prices mean unbounded. Queries without any
+    // keyword cannot be anchored and are rejected by the caller.
+    public void put(long searchId, long userId, String keywordText, Double minPrice, Double maxPrice) {
+        long[] words = TextTokens.words(keywordText);
+        if (words.length == 0) {
+            throw new IllegalArgumentException("A saved search needs at least one keyword");
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(searchId);
+            int slot = allocateSlot();
+            searchIds[slot] = searchId;
+            userIds[slot] = userId;
+            minPrices[slot] = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+            maxPrices[slot] = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+            keywordFrom[slot] = appendKeywords(words, 0, words.length);
+            keywordCount[slot] = words.length;
+            slotBySearch.put(searchId, slot);
+            post(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long searchId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(searchId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reports every saved search the listing satisfies; returns how many
+    public int match(String text, double price, MatchConsumer consumer) {
+        long[] words = TextTokens.words(text);
+        lock.readLock().lock();
+        try {
+            int matches = 0;
+            for (long word : words) {
+                for (int entry = postingHeads.get(word); entry != NONE; entry = entryNext[entry]) {
+                    int slot = entrySlot[entry];
+                    if (searchIds[slot] == 0 || price < minPrices[slot] || price > maxPrices[slot]) {
+                        continue;
+                    }
+                    if (containsAll(words, slot)) {
+                        consumer.accept(searchIds[slot], userIds[slot]);
+                        matches++;
+                    }
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean containsAll(long[] words, int slot) {
+        int from = keywordFrom[slot];
+        int to = from + keywordCount[slot];
+        for (int k = from; k < to; k++) {
+            if (Arrays.binarySearch(words, keywords[k]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ---- storage (write lock held) ----
+
+    private void removeLocked(long searchId) {
+        int slot = slotBySearch.remove(searchId);
+        if (slot < 0) {
+            return;
+        }
+        searchIds[slot] = 0;
+        long anchor = anchorOf(slot);
+        postingSizes.put(anchor, postingSizes.get(anchor) - 1);
+        deadSlots++;
+        if (deadSlots > 1024 && deadSlots > slotCount - deadSlots) {
+            compact();
+        }
+    }
+
+    // Post under the keyword with the shortest posting list, and remember which one
+    // by moving it to the front of the query's keywords
+    private void post(int slot) {
+        int from = keywordFrom[slot];
+        int best = from;
+        int bestSize = Integer.MAX_VALUE;
+        for (int k = from; k < from + keywordCount[slot]; k++) {
+            int size = Math.max(postingSizes.get(keywords[k]), 0);
+            if (size < bestSize) {
+                best = k;
+                bestSize = size;
+            }
+        }
+        long anchor = keywords[best];
+        keywords[best] = keywords[from];
+        keywords[from] = anchor;
+
+        if (entryCount == entrySlot.length) {
+            int capacity = entryCount + (entryCount >> 1);
+            entrySlot = Arrays.copyOf(entrySlot, capacity);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+        }
+        entrySlot[entryCount] = slot;
+        entryNext[entryCount] = postingHeads.get(anchor);
+        postingHeads.put(anchor, entryCount++);
+        postingSizes.put(anchor, bestSize + 1);
+    }
+
+    private long anchorOf(int slot) {
+        return keywords[keywordFrom[slot]];
+    }
+
+    private int allocateSlot() {
+        if (slotCount == searchIds.length) {
+            int capacity = slotCount + (slotCount >> 1);
+            searchIds = Arrays.copyOf(searchIds, capacity);
+            userIds = Arrays.copyOf(userIds, capacity);
+            minPrices = Arrays.copyOf(minPrices, capacity);
+            maxPrices = Arrays.copyOf(maxPrices, capacity);
+            keywordFrom = Arrays.copyOf(keywordFrom, capacity);
+            keywordCount = Arrays.copyOf(keywordCount, capacity);
+        }
+        return slotCount++;
+    }
+
+    private int appendKeywords(long[] source, int from, int count) {
+        if (keywordSize + count > keywords.length) {
+            keywords = Arrays.copyOf(keywords, Math.max(keywords.length + (keywords.length >> 1), keywordSize + count));
+        }
+        System.arraycopy(source, from, keywords, keywordSize, count);
+        keywordSize += count;
+        return keywordSize - count;
+    }
+
+    // Move live queries to the front, drop dead keyword ranges and repost everything
+    private void compact() {
+        long[] oldKeywords = keywords;
+        keywords = new long[Math.max(keywordSize, 16)];
+        keywordSize = 0;
+        postingHeads.clear();
+        postingSizes.clear();
+        slotBySearch.clear();
+        entryCount = 0;
+
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (searchIds[slot] == 0) {
+                continue;
+            }
+            searchIds[live] = searchIds[slot];
+            userIds[live] = userIds[slot];
+            minPrices[live] = minPrices[slot];
+            maxPrices[live] = maxPrices[slot];
+            keywordCount[live] = keywordCount[slot];
+            keywordFrom[live] = appendKeywords(oldKeywords, keywordFrom[slot], keywordCount[slot]);
+            slotBySearch.put(searchIds[live], live);
+            live++;
+        }
+        Arrays.fill(searchIds, live, slotCount, 0);
+        slotCount = live;
+        deadSlots = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            post(slot);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Columnar index of listed items, sorted by price, for price range filters, counts and
+// histograms without touching MySQL.
+//
+// Layout: one large immutable "base" segment plus a small "delta" segment holding recent
+// creates/updates. Each segment stores parallel primitive columns (ids, prices, owner ids)
+// sorted by (price, id), so a price range is two binary searches, and a bitset marking rows
+// that are no longer listed (sold, deleted, or moved to the delta by an update).
+//
+// Writers (one at a time - callers serialize them) replace the delta copy-on-write and set
+// bits in the base; when the delta grows past deltaLimit it is merged into a new base in
+// one linear pass. Readers take the current snapshot without locking and never allocate.
+// Between publishing a new delta and marking the old base row, a reader can briefly see an
+// updated item twice; counts are approximate to that extent.
+public final class PriceFacetIndex {
+
+    // Pass as ownerId to match every seller
+    public static final long ANY_OWNER = Long.MIN_VALUE;
+
+    private static final Segment EMPTY = Segment.sorted(new long[0], new double[0], new long[0], 0);
+
+    private final int deltaLimit;
+    private volatile Snapshot snapshot;
+
+    public PriceFacetIndex(int deltaLimit) {
+        this.deltaLimit = deltaLimit;
+        this.snapshot = new Snapshot(EMPTY, EMPTY, 0);
+    }
+
+    // ---- writes (callers must serialize) ----
+
+    // Replace the whole index, e.g. after a full rebuild from the database
+    public void load(Builder builder) {
+        snapshot = new Snapshot(builder.build(), EMPTY, 0);
+    }
+
+    // Add an item, or move it to a new price/owner
+    public void upsert(long id, double price, long ownerId) {
+        Snapshot current = snapshot;
+        Segment delta = current.delta.without(id).with(id, price, ownerId);
+        snapshot = new Snapshot(current.base, delta, current.baseRemoved);
+        markRemoved(current.base, id);
+        if (delta.size > deltaLimit) {
+            merge();
+        }
+    }
+
+    // Item sold or deleted
+    public void remove(long id) {
+        Snapshot current = snapshot;
+        if (current.delta.positionOf(id) >= 0) {
+            snapshot = new Snapshot(current.base, current.delta.without(id), current.baseRemoved);
+        }
+        markRemoved(current.base, id);
+    }
+
+    private void markRemoved(Segment base, long id) {
+        int position = base.positionOf(id);
+        if (position >= 0 && base.setRemoved(position)) {
+            Snapshot current = snapshot;
+            snapshot = new Snapshot(current.base, current.delta, current.baseRemoved + 1);
+        }
+    }
+
+    // Fold the delta into a new base, dropping removed rows. Linear in the base size.
+    private void merge() {
+        Snapshot current = snapshot;
+        Segment base = current.base;
+        Segment delta = current.delta;
+        int size = base.size - current.baseRemoved + delta.size;
+
+        long[] ids = new long[size];
+        double[] prices = new double[size];
+        long[] owners = new long[size];
+        int[] baseMoved = new int[base.size]; // old base position -> new position
+        int[] deltaMoved = new int[delta.size];
+
+        int b = nextLive(base, 0);
+        int d = 0;
+        int n = 0;
+        while (b < base.size || d < delta.size) {
+            boolean takeBase = d >= delta.size
+                    || (b < base.size && compare(base.prices[b], base.ids[b], delta.prices[d], delta.ids[d]) <= 0);
+            Segment from = takeBase ? base : delta;
+            int position = takeBase ? b : d;
+            ids[n] = from.ids[position];
+            prices[n] = from.prices[position];
+            owners[n] = from.owners[position];
+            if (takeBase) {
+                baseMoved[b] = n;
+                b = nextLive(base, b + 1);
+            } else {
+                deltaMoved[d] = n;
+                d++;
+            }
+            n++;
+        }
+
+        // Both id orders are already sorted; merge them instead of sorting again
+        long[] idOrder = new long[n];
+        int[] positions = new int[n];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < base.size || j < delta.size) {
+            if (i < base.size && base.isRemoved(base.positionsById[i])) {
+                i++;
+                continue;
+            }
+            boolean takeBase = j >= delta.size || (i < base.size && base.idOrder[i] < delta.idOrder[j]);
+            if (takeBase) {
+                idOrder[k] = base.idOrder[i];
+                positions[k++] = baseMoved[base.positionsById[i++]];
+            } else {
+                idOrder[k] = delta.idOrder[j];
+                positions[k++] = deltaMoved[delta.positionsById[j++]];
+            }
+        }
+
+        snapshot = new Snapshot(new Segment(ids, prices, owners, n, idOrder, positions), EMPTY, 0);
+    }
+
+    private static int nextLive(Segment segment, int from) {
+        int position = from;
+        while (position < segment.size && segment.isRemoved(position)) {
+            position++;
+        }
+        return position;
+    }
+
+    // ---- reads (lock-free, allocation-free) ----
+
+    // Listed items
+    public int size() {
+        Snapshot current = snapshot;
+        return current.base.size - current.baseRemoved + current.delta.size;
+    }
+
+    // Items with minPrice <= price < maxPrice
+    public int count(double minPrice, double maxPrice, long ownerId) {
+        Snapshot current = snapshot;
+        return count(current.base, minPrice, maxPrice, ownerId) + count(current.delta, minPrice, maxPrice, ownerId);
+    }
+
+    // Equal-width buckets over [minPrice, maxPrice); the last bucket also includes maxPrice.
+    // The bucket count is counts.length.
+    public void histogram(double minPrice, double maxPrice, long ownerId, long[] counts) {
+        Snapshot current = snapshot;
+        double width = (maxPrice - minPrice) / counts.length;
+        for (int i = 0; i < counts.length; i++) {
+            double from = minPrice + i * width;
+            double to = i == counts.length - 1 ? Math.nextUp(maxPrice) : minPrice + (i + 1) * width;
+            counts[i] = count(current.base, from, to, ownerId) + count(current.delta, from, to, ownerId);
+        }
+    }
+
+    // Ids of items with minPrice <= price < maxPrice in price order (ties by id), skipping
+    // the first offset matches. Fills ids from the start and returns how many were written.
+    public int select(double minPrice, double maxPrice, long ownerId, boolean descending, int offset, long[] ids) {
+        Snapshot current = snapshot;
+        Segment base = current.base;
+        Segment delta = current.delta;
+        int baseFrom = base.lowerBound(minPrice);
+        int baseTo = base.lowerBound(maxPrice);
+        int deltaFrom = delta.lowerBound(minPrice);
+        int deltaTo = delta.lowerBound(maxPrice);
+
+        int b = descending ? baseTo - 1 : baseFrom;
+        int d = descending ? deltaTo - 1 : deltaFrom;
+        int step = descending ? -1 : 1;
+        int skipped = 0;
+        int written = 0;
+        while (written < ids.length) {
+            boolean baseLeft = descending ? b >= baseFrom : b < baseTo;
+            boolean deltaLeft = descending ? d >= deltaFrom : d < deltaTo;
+            if (!baseLeft && !deltaLeft) {
+                break;
+            }
+            boolean takeBase;
+            if (!deltaLeft) {
+                takeBase = true;
+            } else if (!baseLeft) {
+                takeBase = false;
+            } else {
+                int order = compare(base.prices[b], base.ids[b], delta.prices[d], delta.ids[d]);
+                takeBase = descending ? order > 0 : order < 0;
+            }
+
+            Segment from = takeBase ? base : delta;
+            int position = takeBase ? b : d;
+            if (takeBase) {
+                b += step;
+            } else {
+                d += step;
+            }
+            if (from.isRemoved(position) || (ownerId != ANY_OWNER && from.owners[position] != ownerId)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            ids[written++] = from.ids[position];
+        }
+        return written;
+    }
+
+    // Lowest and highest listed price, or NaN when empty
+    public double minPrice() {
+        Snapshot current = snapshot;
+        int b = nextLive(current.base, 0);
+        double base = b < current.base.size ? current.base.prices[b] : Double.NaN;
+        double delta = current.delta.size > 0 ? current.delta.prices[0] : Double.NaN;
+        return Double.isNaN(base) ? delta : Double.isNaN(delta) ? base : Math.min(base, delta);
+    }
+
+    public double maxPrice() {
+        Snapshot current = snapshot;
+        int b = current.base.size - 1;
+        while (b >= 0 && current.base.isRemoved(b)) {
+            b--;
+        }
+        double base = b >= 0 ? current.base.prices[b] : Double.NaN;
+        double delta = current.delta.size > 0 ? current.delta.prices[current.delta.size - 1] : Double.NaN;
+        return Double.isNaN(base) ? delta : Double.isNaN(delta) ? base : Math.max(base, delta);
+    }
+
+    private static int count(Segment segment, double minPrice, double maxPrice, long ownerId) {
+        int from = segment.lowerBound(minPrice);
+        int to = segment.lowerBound(maxPrice);
+        if (from >= to) {
+            return 0;
+        }
+        if (ownerId == ANY_OWNER) {
+            return to - from - segment.removedBetween(from, to);
+        }
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (segment.owners[i] == ownerId && !segment.isRemoved(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int compare(double priceA, long idA, double priceB, long idB) {
+        int order = Double.compare(priceA, priceB);
+        return order != 0 ? order : Long.compare(idA, idB);
+    }
+
+    private record Snapshot(Segment base, Segment delta, int baseRemoved) {
+    }
+
+    // Parallel columns sorted by (price, id), plus an id -> position lookup
+    // (ids ascending in idOrder, their column positions in positionsById)
+    private static final class Segment {
+        private final long[] ids;
+        private final double[] prices;
+        private final long[] owners;
+        private final int size;
+        private final long[] idOrder;
+        private final int[] positionsById;
+        private final AtomicLongArray removed; // bitset over positions
+
+        Segment(long[] ids, double[] prices, long[] owners, int size, long[] idOrder, int[] positionsById) {
+            this.ids = ids;
+            this.prices = prices;
+            this.owners = owners;
+            this.size = size;
+            this.idOrder = idOrder;
+            this.positionsById = positionsById;
+            this.removed = new AtomicLongArray((size + 63) >>> 6);
+        }
+
+        // Build from unordered rows
+        static Segment sorted(long[] ids, double[] prices, long[] owners, int size) {
+            int[] byPrice = identity(size);
+            sort(byPrice, (a, b) -> compare(prices[a], ids[a], prices[b], ids[b]));
+            long[] sortedIds = new long[size];
+            double[] sortedPrices = new double[size];
+            long[] sortedOwners = new long[size];
+            int[] rowPosition = new int[size];
+            for (int p = 0; p < size; p++) {
+                int row = byPrice[p];
+                sortedIds[p] = ids[row];
+                sortedPrices[p] = prices[row];
+                sortedOwners[p] = owners[row];
+                rowPosition[row] = p;
+            }
+
+            int[] byId = identity(size);
+            sort(byId, (a, b) -> Long.compare(ids[a], ids[b]));
+            long[] idOrder = new long[size];
+            int[] positionsById = new int[size];
+            for (int i = 0; i < size; i++) {
+                idOrder[i] = ids[byId[i]];
+                positionsById[i] = rowPosition[byId[i]];
+            }
+            return new Segment(sortedIds, sortedPrices, sortedOwners, size, idOrder, positionsById);
+        }
+
+        // Column position of a row with this id, or -1
+        int positionOf(long id) {
+            int i = Arrays.binarySearch(idOrder, 0, size, id);
+            return i >= 0 ? positionsById[i] : -1;
+        }
+
+        // First position with price >= the given price
+        int lowerBound(double price) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (prices[mid] < price) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        boolean isRemoved(int position) {
+            return (removed.get(position >>> 6) & (1L << position)) != 0;
+        }
+
+        // Returns false if it was already set
+        boolean setRemoved(int position) {
+            long bit = 1L << position;
+            return (removed.getAndAccumulate(position >>> 6, bit, (word, mask) -> word | mask) & bit) == 0;
+        }
+
+        int removedBetween(int from, int to) {
+            int first = from >>> 6;
+            int last = (to - 1) >>> 6;
+            int count = 0;
+            for (int w = first; w <= last; w++) {
+                long word = removed.get(w);
+                if (w == first) {
+                    word &= -1L << from;
+                }
+                if (w == last) {
+                    word &= -1L >>> (63 - ((to - 1) & 63));
+                }
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        // Copies for the (small) delta segment
+        Segment with(long id, double price, long ownerId) {
+            long[] newIds = Arrays.copyOf(ids, size + 1);
+            double[] newPrices = Arrays.copyOf(prices, size + 1);
+            long[] newOwners = Arrays.copyOf(owners, size + 1);
+            newIds[size] = id;
+            newPrices[size] = price;
+            newOwners[size] = ownerId;
+            return sorted(newIds, newPrices, newOwners, size + 1);
+        }
+
+        Segment without(long id) {
+            int position = positionOf(id);
+            if (position < 0) {
+                return this;
+            }
+            long[] newIds = new long[size - 1];
+            double[] newPrices = new double[size - 1];
+            long[] newOwners = new long[size - 1];
+            for (int from = 0, to = 0; from < size; from++) {
+                if (from != position) {
+                    newIds[to] = ids[from];
+                    newPrices[to] = prices[from];
+                    newOwners[to++] = owners[from];
+                }
+            }
+            return sorted(newIds, newPrices, newOwners, size - 1);
+        }
+    }
+
+    // Collects rows for a full load; grows like an ArrayList but without boxing
+    public static final class Builder {
+        private long[] ids;
+        private double[] prices;
+        private long[] owners;
+        private int size;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new long[capacity];
+            prices = new double[capacity];
+            owners = new long[capacity];
+        }
+
+        public Builder add(long id, double price, long ownerId) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                owners = Arrays.copyOf(owners, capacity);
+            }
+            ids[size] = id;
+            prices[size] = price;
+            owners[size++] = ownerId;
+            return this;
+        }
+
+        Segment build() {
+            return Segment.sorted(ids, prices, owners, size);
+        }
+    }
+
+    // ---- primitive indirect merge sort (no boxing) ----
+
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    private static int[] identity(int size) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+
+    private static void sort(int[] order, IntComparator comparator) {
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int low = 0; low < order.length - width; low += width << 1) {
+                int mid = low + width;
+                int high = Math.min(low + (width << 1), order.length);
+                if (comparator.compare(order[mid - 1], order[mid]) <= 0) {
+                    continue; // already in order
+                }
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    buffer[k++] = comparator.compare(order[i], order[j]) <= 0 ? order[i++] : order[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = order[j++];
+                }
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.resell.backend.index;
+
+import java.util.Arrays;
+
+// Word tokenizer shared by the text indexes: lower-cased runs of letters and digits,
+// each hashed to 64 bits (FNV-1a), so indexes store longs instead of strings
+public final class TextTokens {
+
+    private TextTokens() {
+    }
+
+    // Distinct word hashes of the text, sorted ascending (empty for null/blank text)
+    public static long[] words(String text) {
+        if (text == null) {
+            return new long[0];
+        }
+        long[] words = new long[16];
+        int count = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            long word = 0xcbf29ce484222325L;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                word = (word ^ Character.toLowerCase(text.charAt(i))) * 0x100000001b3L;
+                i++;
+            }
+            if (count == words.length) {
+                words = Arrays.copyOf(words, count * 2);
+            }
+            words[count++] = word;
+        }
+
+        Arrays.sort(words, 0, count);
+        int distinct = 0;
+        for (int w = 0; w < count; w++) {
+            if (distinct == 0 || words[w] != words[distinct - 1]) {
+                words[distinct++] = words[w];
+            }
+        }
+        return Arrays.copyOf(words, distinct);
+    }
+}
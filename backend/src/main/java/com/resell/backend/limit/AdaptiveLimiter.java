@@ -0,0 +1,86 @@
+package com.resell.backend.limit;
+
+// Concurrency limit for one downstream dependency, adjusted from observed latency
+// (gradient style, after Netflix's concurrency-limits).
+//
+// Two moving averages of the latency are kept: a short one (recent requests) and a
+// baseline that follows drops quickly but rises only slowly, so a slowdown has to last a
+// few thousand requests before it counts as the new normal. While recent latency stays
+// within rttTolerance of the baseline, the limit grows by about sqrt(limit) per sample -
+// but only if it is actually being used. Above that, it moves towards
+// limit * baseline / recent, so fewer requests queue on the dependency before they time
+// out. Timeouts and similar overload errors cut the limit by 10% outright.
+//
+// Priorities: NORMAL requests may only use normalShare of the limit, so the rest stays
+// available to CRITICAL ones (checkout) while browsing is being shed.
+public final class AdaptiveLimiter {
+
+    public enum Priority {
+        CRITICAL, NORMAL
+    }
+
+    private static final double SHORT_WEIGHT = 0.1;
+    private static final double BASELINE_DOWN_WEIGHT = 0.1;
+    private static final double BASELINE_UP_WEIGHT = 0.001;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double normalShare;
+    private final double rttTolerance;
+
+    private double limit;
+    private int inFlight;
+    private double shortRtt; // nanoseconds; 0 until the first sample
+    private double baselineRtt;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double normalShare, double rttTolerance) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.limit = Math.max(this.minLimit, Math.min(initialLimit, this.maxLimit));
+        this.normalShare = normalShare;
+        this.rttTolerance = rttTolerance;
+    }
+
+    // True if the call may proceed; it must then be reported through release
+    public synchronized boolean tryAcquire(Priority priority) {
+        double allowed = priority == Priority.CRITICAL ? limit : Math.max(1, limit * normalShare);
+        if (inFlight >= (int) allowed) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // overloaded: the call failed in a way that means the dependency is saturated (timeout)
+    public synchronized void release(long rttNanos, boolean overloaded) {
+        int inFlightAtSample = inFlight--;
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * 0.9);
+            return;
+        }
+
+        double rtt = Math.max(rttNanos, 1);
+        shortRtt = shortRtt == 0 ? rtt : shortRtt + (rtt - shortRtt) * SHORT_WEIGHT;
+        if (baselineRtt == 0) {
+            baselineRtt = rtt;
+        } else {
+            baselineRtt += (rtt - baselineRtt) * (rtt < baselineRtt ? BASELINE_DOWN_WEIGHT : BASELINE_UP_WEIGHT);
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * baselineRtt / shortRtt));
+        if (gradient == 1.0 && inFlightAtSample < limit / 2) {
+            return; // not limited by us: no evidence a higher limit would be safe
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,171 @@
+package com.resell.backend.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Sheds load before it reaches a saturated dependency. Requests are classified by the
+// dependency they mostly wait on - MySQL (/items, /cart), the image store (uploads) or
+// BCrypt (login, register) - and each class has its own AdaptiveLimiter. Over the limit,
+// a request gets 503 right away instead of holding a thread while it queues for a JDBC
+// connection. Checkout is CRITICAL and keeps the headroom NORMAL requests cannot use.
+//
+// Runs in the security chain right after JwtRequestFilter (see SecurityConfig). The
+// latency sample is the whole request, which is dominated by the dependency for these
+// endpoints.
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum Dependency {
+        DB, STORAGE, PASSWORD
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${concurrency.min-limit:2}")
+    private int minLimit;
+
+    @Value("${concurrency.normal-share:0.8}")
+    private double normalShare;
+
+    @Value("${concurrency.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${concurrency.db.initial-limit:20}")
+    private int dbInitialLimit;
+
+    @Value("${concurrency.db.max-limit:200}")
+    private int dbMaxLimit;
+
+    @Value("${concurrency.storage.initial-limit:8}")
+    private int storageInitialLimit;
+
+    @Value("${concurrency.storage.max-limit:64}")
+    private int storageMaxLimit;
+
+    @Value("${concurrency.password.initial-limit:4}")
+    private int passwordInitialLimit;
+
+    @Value("${concurrency.password.max-limit:32}")
+    private int passwordMaxLimit;
+
+    private final Map<Dependency, AdaptiveLimiter> limiters = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, Counter> rejectedNormal = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, Counter> rejectedCritical = new EnumMap<>(Dependency.class);
+
+    @PostConstruct
+    public void init() {
+        limiters.put(Dependency.DB, limiter(dbInitialLimit, dbMaxLimit));
+        limiters.put(Dependency.STORAGE, limiter(storageInitialLimit, storageMaxLimit));
+        limiters.put(Dependency.PASSWORD, limiter(passwordInitialLimit, passwordMaxLimit));
+
+        limiters.forEach((dependency, limiter) -> {
+            String tag = dependency.name().toLowerCase();
+            Gauge.builder("concurrency.limit", limiter, AdaptiveLimiter::limit)
+                    .tag("dependency", tag)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limiter, AdaptiveLimiter::inFlight)
+                    .tag("dependency", tag)
+                    .register(meterRegistry);
+            rejectedNormal.put(dependency, meterRegistry.counter("concurrency.rejected",
+                    "dependency", tag, "priority", "normal"));
+            rejectedCritical.put(dependency, meterRegistry.counter("concurrency.rejected",
+                    "dependency", tag, "priority", "critical"));
+        });
+    }
+
+    public AdaptiveLimiter limiter(Dependency dependency) {
+        return limiters.get(dependency);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Dependency dependency = enabled ? classify(request) : null;
+        if (dependency == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveLimiter limiter = limiters.get(dependency);
+        AdaptiveLimiter.Priority priority = priority(request);
+        if (!limiter.tryAcquire(priority)) {
+            (priority == AdaptiveLimiter.Priority.CRITICAL ? rejectedCritical : rejectedNormal).get(dependency).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Server is busy, please try again\"}");
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            overloaded = isOverload(e);
+            throw e;
+        } finally {
+            limiter.release(System.nanoTime() - started, overloaded);
+        }
+    }
+
+    static Dependency classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean post = "POST".equals(request.getMethod());
+        if (post && (path.equals("/auth/login") || path.equals("/auth/register"))) {
+            return Dependency.PASSWORD;
+        }
+        if (post && path.equals("/items/upload")) {
+            return Dependency.STORAGE;
+        }
+        if (path.equals("/items") || path.startsWith("/items/") || path.equals("/cart") || path.startsWith("/cart/")) {
+            return Dependency.DB;
+        }
+        return null;
+    }
+
+    static AdaptiveLimiter.Priority priority(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return "POST".equals(request.getMethod()) && path.equals("/cart/checkout")
+                ? AdaptiveLimiter.Priority.CRITICAL
+                : AdaptiveLimiter.Priority.NORMAL;
+    }
+
+    // Connection pool and query timeouts (SQLTransientException) and remote read timeouts
+    private static boolean isOverload(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AdaptiveLimiter limiter(int initialLimit, int maxLimit) {
+        return new AdaptiveLimiter(initialLimit, minLimit, maxLimit, normalShare, rttTolerance);
+    }
+}
@@ -0,0 +1,91 @@
+package com.resell.backend.limit;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Coalesces concurrent loads of the same key: the first caller (the leader) runs the
+// loader, and everyone asking for that key meanwhile waits for its result - or gets its
+// exception - instead of running the same query again. Nothing is cached: the key is
+// dropped as soon as the load finishes, so the next caller loads afresh.
+//
+// Followers wait at most timeoutMs and then load on their own, so a stuck leader only
+// holds up the requests that arrived during its first timeoutMs. Results are shared
+// between threads as-is and must not be modified by callers.
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutMs;
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader == null) {
+            return lead(key, flight, loader);
+        }
+
+        joined.increment();
+        try {
+            return leader.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            loads.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            // The leader's own exception, so callers handle it exactly as if they had loaded
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause()); // suppliers only throw unchecked
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + key, e);
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        loads.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Loader runs: leaders plus followers that gave up waiting
+    public long loads() {
+        return loads.sum();
+    }
+
+    // Calls that waited for another caller's load
+    public long joined() {
+        return joined.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
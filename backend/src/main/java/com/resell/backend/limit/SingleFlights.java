@@ -0,0 +1,33 @@
+package com.resell.backend.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Creates the SingleFlight of each coalesced read with the shared timeout, and exposes
+// singleflight.loads / singleflight.joined / singleflight.timeouts{name} in /actuator/metrics.
+@Component
+public class SingleFlights {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${singleflight.timeout-ms:2000}")
+    private long timeoutMs;
+
+    public <K, V> SingleFlight<K, V> create(String name) {
+        SingleFlight<K, V> flight = new SingleFlight<>(timeoutMs);
+        FunctionCounter.builder("singleflight.loads", flight, SingleFlight::loads)
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.joined", flight, SingleFlight::joined)
+                .tag("name", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.timeouts", flight, SingleFlight::timeouts)
+                .tag("name", name)
+                .register(meterRegistry);
+        return flight;
+    }
+}
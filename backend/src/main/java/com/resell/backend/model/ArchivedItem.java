@@ -0,0 +1,48 @@
+package com.resell.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// A sold item moved out of the items table by ItemArchiveService, keeping its id.
+// Read back as an Item (purchased = true) wherever a single item or a seller's
+// history is shown.
+@Entity
+@Table(name = "archived_items", indexes = @Index(name = "idx_archived_items_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedItem {
+
+    @Id
+    private Long id;
+
+    private String title;
+    private String description;
+    private Double price;
+    private String imageUrl;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User owner;
+
+    private Instant purchasedAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+
+    public Item toItem() {
+        return Item.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .price(price)
+                .imageUrl(imageUrl)
+                .owner(owner)
+                .purchased(true)
+                .purchasedAt(purchasedAt)
+                .build();
+    }
+}
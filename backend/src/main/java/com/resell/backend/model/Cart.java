@@ -17,7 +17,7 @@ public class Cart {
     private Long id;
 
     @OneToOne
-    @JoinColumn(name = "user_id") // One Cart per User
+    @JoinColumn(name = "user_id", unique = true) // One Cart per User
     private User user;
 
     // A cart contains multiple items. If cart is deleted, delete these entries.
@@ -0,0 +1,45 @@
+package com.resell.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "items", indexes = @Index(name = "idx_items_purchased_at", columnList = "purchased, purchasedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Item {
+
+    // Pooled sequence ids (not IDENTITY) so Hibernate can batch inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
+    private Long id;
+
+    private String title;
+    private String description;
+    private Double price;
+    private String imageUrl;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id")
+    private User owner;
+
+    @Builder.Default
+    private Boolean purchased = false;
+
+    // Set at checkout; purchased items are moved to archived_items some time after it
+    private Instant purchasedAt;
+
+    // Optional pickup location in degrees (both or neither); listed items with one are
+    // searchable through /items/nearby
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double latitude;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double longitude;
+}
\ No newline at end of file
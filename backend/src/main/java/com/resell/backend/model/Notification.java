@@ -0,0 +1,41 @@
+package com.resell.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Inbox entry: a new listing matched one of the user's saved searches.
+// One per user and item, however many of the user's searches matched.
+@Entity
+@Table(name = "notifications",
+        uniqueConstraints = @UniqueConstraint(columnNames = { "user_id", "item_id" }),
+        indexes = @Index(name = "idx_notifications_user_read", columnList = "user_id, readAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Notification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    @JsonIgnore
+    private Long userId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    private Long savedSearchId; // first search that matched
+
+    private String itemTitle; // copied so the inbox is listed without joins
+    private Double itemPrice;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant readAt; // null while unread
+}
@@ -0,0 +1,32 @@
+package com.resell.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// A domain event written in the same transaction as the change it describes.
+// Rows are relayed to in-process subscribers by OutboxRelay and pruned after a retention period.
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_created_at", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String type; // see DomainEvent constants
+
+    private Long aggregateId; // e.g. the item id
+
+    @Column(length = 4000)
+    private String payload; // JSON
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,27 @@
+package com.resell.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Token denylist entry. The key is either "jti:<token id>" (one token, e.g. logout) or
+// "sub:<email>" (every token of that user issued up to revokedAt). Entries are useless
+// once every token they can match has expired, and are purged after expiresAt.
+@Entity
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_expires", columnList = "expiresAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+    @Id
+    @Column(length = 320)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
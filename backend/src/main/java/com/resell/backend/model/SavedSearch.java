@@ -0,0 +1,35 @@
+package com.resell.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// A buyer's standing query: every keyword must appear in a new listing's title or
+// description, and its price must be within the (optional) range
+@Entity
+@Table(name = "saved_searches", indexes = @Index(name = "idx_saved_searches_user", columnList = "user_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SavedSearch {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "saved_searches_seq")
+    @SequenceGenerator(name = "saved_searches_seq", sequenceName = "saved_searches_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User user;
+
+    @Column(nullable = false, length = 200)
+    private String keywords; // space separated
+
+    private Double minPrice;
+    private Double maxPrice;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,34 @@
+package com.resell.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// One content-addressed image blob ("<sha-256>.<ext>") and how many items use it.
+// stored is set once the storage backend has the bytes (spool mode: once the remote
+// confirmed them). Blobs no item references are reclaimed by StoredBlobService's sweeper
+// once updatedAt (last upload or release) is older than the grace period.
+@Entity
+@Table(name = "stored_blobs", indexes = @Index(name = "idx_stored_blobs_refs", columnList = "refCount, updatedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredBlob {
+    @Id
+    @Column(length = 80)
+    private String blobKey;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    @Column(nullable = false)
+    private boolean stored;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.resell.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -17,6 +18,8 @@ public class User {
     @Column(nullable = false, unique = true)
     private String email;
 
+    // Never serialize the hash (users are exposed through Item.owner and admin views)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
 
@@ -1,29 +0,0 @@
-package com.resell.backend.model;
-
-import jakarta.persistence.*;
-import lombok.*;
-
-@Entity
-@Table(name = "items")
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class Item {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    private String title;
-    private String description;
-    private Double price;
-    private String imageUrl;
-
-    @ManyToOne
-    @JoinColumn(name = "user_id")
-    private User owner;
-
-    @Builder.Default
-    private Boolean purchased = false;
-}
\ No newline at end of file
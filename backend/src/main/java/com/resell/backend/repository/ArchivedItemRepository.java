@@ -0,0 +1,28 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.ArchivedItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedItemRepository extends JpaRepository<ArchivedItem, Long> {
+    List<ArchivedItem> findByOwnerId(Long ownerId);
+
+    // Archival step: copy the rows server-side (the items are deleted in the same transaction)
+    @Modifying
+    @Query(value = "insert into archived_items (id, title, description, price, image_url, user_id, purchased_at, archived_at) "
+            + "select id, title, description, price, image_url, user_id, purchased_at, :now from items where id in (:ids)",
+            nativeQuery = true)
+    int copyFromItems(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // Archived items are all sold; same columns as ItemRepository.aggregateBySeller
+    @Query("select a.owner.id as sellerId, count(a) as listingCount, coalesce(sum(a.price), 0) as priceSum, "
+            + "count(a) as soldCount, coalesce(sum(a.price), 0) as revenue "
+            + "from ArchivedItem a where a.owner is not null group by a.owner.id")
+    List<ItemRepository.SellerAggregate> aggregateBySeller();
+}
@@ -1,7 +1,33 @@
 package com.resell.backend.repository;
 
 import com.resell.backend.model.CartItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    Optional<CartItem> findByCartIdAndItemId(Long cartId, Long itemId);
+
+    List<CartItem> findByCartIdAndItemIdIn(Long cartId, Collection<Long> itemIds);
+
+    // Startup warmup: the items in the most carts first
+    @Query("select ci.item.id from CartItem ci where ci.item.purchased = false group by ci.item.id order by count(ci) desc")
+    List<Long> findMostCartedItemIds(Pageable pageable);
+
+    // Bulk delete so removing items does not trip the cart_items foreign key
+    @Modifying
+    @Query("delete from CartItem ci where ci.item.id in :itemIds")
+    int deleteByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    // Checkout: the rows it read, in one statement, without loading the cart's collection;
+    // an item added meanwhile stays in the cart
+    @Modifying
+    @Query("delete from CartItem ci where ci.cart.id = :cartId and ci.item.id in :itemIds")
+    int deleteByCartIdAndItemIdIn(@Param("cartId") Long cartId, @Param("itemIds") Collection<Long> itemIds);
 }
@@ -1,13 +1,102 @@
 package com.resell.backend.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.resell.backend.dto.ItemDTO;
 import com.resell.backend.model.Item;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 public interface ItemRepository extends JpaRepository<Item, Long> {
      List<Item> findByOwnerId(Long owner);
 
      List<Item> findByPurchasedFalse();
-}
\ No newline at end of file
+
+     // Checkout: the items in a cart with row locks, taken in id order so concurrent checkouts
+     // of overlapping carts wait for each other instead of deadlocking. Locking is the first
+     // read of the items, so none of them is seen before its lock is held.
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @Query("select i from Item i where i.id in (select ci.item.id from CartItem ci where ci.cart.id = :cartId) order by i.id")
+     List<Item> findInCartForUpdate(@Param("cartId") Long cartId);
+
+     // Per-seller totals used to (re)build the seller stats store
+     @Query("select i.owner.id as sellerId, count(i) as listingCount, coalesce(sum(i.price), 0) as priceSum, "
+               + "sum(case when i.purchased = true then 1 else 0 end) as soldCount, "
+               + "coalesce(sum(case when i.purchased = true then i.price else 0 end), 0) as revenue "
+               + "from Item i where i.owner is not null group by i.owner.id")
+     List<SellerAggregate> aggregateBySeller();
+
+     interface SellerAggregate {
+          Long getSellerId();
+
+          Long getListingCount();
+
+          Double getPriceSum();
+
+          Long getSoldCount();
+
+          Double getRevenue();
+     }
+
+     // Admin listing: projected straight into DTOs, so owners are never loaded
+     @Query("select new com.resell.backend.dto.ItemDTO(i.id, i.title, i.description, i.price, i.imageUrl, i.purchased, i.owner.id) from Item i")
+     Slice<ItemDTO> findItemPage(Pageable pageable);
+
+     // Public catalog: listed items, newest first
+     @Query("select new com.resell.backend.dto.ItemDTO(i.id, i.title, i.description, i.price, i.imageUrl, i.purchased, i.owner.id) from Item i where i.purchased = false order by i.id desc")
+     Slice<ItemDTO> findListedPage(Pageable pageable);
+
+     // Admin export: forward-only cursor read in chunks of 500 rows.
+     // Must be consumed inside a transaction and closed afterwards.
+     @Query("select new com.resell.backend.dto.ItemDTO(i.id, i.title, i.description, i.price, i.imageUrl, i.purchased, i.owner.id) from Item i order by i.id")
+     @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+     Stream<ItemDTO> streamAllItems();
+
+     // Page of listings by id, for results served from in-memory indexes
+     @Query("select new com.resell.backend.dto.ItemDTO(i.id, i.title, i.description, i.price, i.imageUrl, i.purchased, i.owner.id, i.latitude, i.longitude) from Item i where i.id in :ids")
+     List<ItemDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+     // Facet index rebuild: [id, price, ownerId] of every listed item, read with a cursor
+     @Query("select i.id, i.price, o.id from Item i left join i.owner o where i.purchased = false order by i.id")
+     @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+     Stream<Object[]> streamListedPrices();
+
+     // Geo index rebuild: [id, latitude, longitude] of every listed item with a location, read with a cursor
+     @Query("select i.id, i.latitude, i.longitude from Item i where i.purchased = false and i.latitude is not null and i.longitude is not null order by i.id")
+     @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+     Stream<Object[]> streamListedLocations();
+
+     // Archival: sold items purchased before the cutoff. Sales without a purchasedAt are
+     // stamped first (stampUnknownSaleTimes), so they are not archived all at once.
+     @Query("select i.id from Item i where i.purchased = true and i.purchasedAt < :cutoff order by i.id")
+     List<Long> findArchivableIds(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+     // Sales recorded before purchasedAt existed (or marked sold by an update) start their
+     // archive clock now
+     @Modifying
+     @Query("update Item i set i.purchasedAt = :now where i.purchased = true and i.purchasedAt is null")
+     int stampUnknownSaleTimes(@Param("now") Instant now);
+
+     // Similar-items index rebuild: [id, title, description] of every listed item, newest first, read with a cursor
+     @Query("select i.id, i.title, i.description from Item i where i.purchased = false order by i.id desc")
+     @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+               @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+     Stream<Object[]> streamListedText();
+}
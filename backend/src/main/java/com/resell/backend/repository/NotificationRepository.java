@@ -0,0 +1,28 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    Slice<Notification> findByUserIdOrderByIdDesc(Long userId, Pageable pageable);
+
+    long countByUserIdAndReadAtIsNull(Long userId);
+
+    // Users already notified about an item (redelivered events must not notify twice)
+    @Query("select n.userId from Notification n where n.itemId = :itemId and n.userId in :userIds")
+    List<Long> findNotifiedUserIds(@Param("itemId") Long itemId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("update Notification n set n.readAt = :now where n.userId = :userId and n.readAt is null")
+    int markAllRead(@Param("userId") Long userId, @Param("now") Instant now);
+}
@@ -0,0 +1,34 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // New events after the relay cursor
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Rows for ids the relay passed while they were missing. Ids from pooled sequences can
+    // commit out of order, so a transaction that commits late lands below the cursor.
+    List<OutboxEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select max(e.id) from OutboxEvent e")
+    Optional<Long> findMaxId();
+
+    // Relay startup: ids already written in the lookback window below the newest row
+    @Query("select e.id from OutboxEvent e where e.id > :afterId order by e.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
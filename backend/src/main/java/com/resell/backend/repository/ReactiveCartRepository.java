@@ -0,0 +1,62 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.dto.CartItemDTO;
+import com.resell.backend.dto.ItemDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+
+// Cart reads over R2DBC for the reactive stack: the cart and its items in one query, in
+// the same shape as the servlet GET /cart
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCartRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Empty if the user has no cart yet (creating one is left to the servlet stack)
+    public Mono<CartDTO> findByUserEmail(String email) {
+        return databaseClient.sql("SELECT c.id AS cart_id, ci.id AS cart_item_id,"
+                + " i.id, i.title, i.description, i.price, i.image_url, i.purchased, i.user_id"
+                + " FROM carts c"
+                + " JOIN users u ON u.id = c.user_id"
+                + " LEFT JOIN cart_items ci ON ci.cart_id = c.id"
+                + " LEFT JOIN items i ON i.id = ci.item_id"
+                + " WHERE u.email = :email ORDER BY ci.id")
+                .bind("email", email)
+                .fetch()
+                .all()
+                .collect(() -> CartDTO.builder().items(new ArrayList<>()).build(), (cart, row) -> {
+                    cart.setId(((Number) row.get("cart_id")).longValue());
+                    if (row.get("cart_item_id") != null) {
+                        cart.getItems().add(CartItemDTO.builder()
+                                .id(((Number) row.get("cart_item_id")).longValue())
+                                .item(ItemDTO.builder()
+                                        .id(((Number) row.get("id")).longValue())
+                                        .title((String) row.get("title"))
+                                        .description((String) row.get("description"))
+                                        .price(row.get("price") == null ? null : ((Number) row.get("price")).doubleValue())
+                                        .imageUrl((String) row.get("image_url"))
+                                        .purchased(bool(row.get("purchased")))
+                                        .ownerId(row.get("user_id") == null ? null : ((Number) row.get("user_id")).longValue())
+                                        .build())
+                                .build());
+                    }
+                })
+                .filter(cart -> cart.getId() != null);
+    }
+
+    // BOOLEAN comes back as Boolean from H2 and may be a number from MySQL's BIT/TINYINT
+    private static Boolean bool(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue() != 0;
+        }
+        return (Boolean) value;
+    }
+}
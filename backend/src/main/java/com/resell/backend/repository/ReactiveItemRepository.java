@@ -0,0 +1,65 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.dto.ItemDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Item reads over R2DBC for the reactive stack. Results are streamed row by row: the
+// driver only reads more rows from the socket as the subscriber (ultimately the HTTP
+// response) asks for them.
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRepository {
+
+    private static final String COLUMNS = "i.id, i.title, i.description, i.price, i.image_url, i.purchased, i.user_id";
+    // archived_items has no purchased column: everything in it was sold
+    private static final String ARCHIVED_COLUMNS = "a.id, a.title, a.description, a.price, a.image_url, TRUE AS purchased, a.user_id";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<ItemDTO> findListed() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items i WHERE i.purchased = false")
+                .map(ReactiveItemRepository::toItem)
+                .all();
+    }
+
+    // Falls back to archived_items, like ItemService.findById
+    public Mono<ItemDTO> findById(long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items i WHERE i.id = :id")
+                .bind("id", id)
+                .map(ReactiveItemRepository::toItem)
+                .one()
+                .switchIfEmpty(Mono.defer(() -> databaseClient.sql("SELECT " + ARCHIVED_COLUMNS
+                                + " FROM archived_items a WHERE a.id = :id")
+                        .bind("id", id)
+                        .map(ReactiveItemRepository::toItem)
+                        .one()));
+    }
+
+    public Flux<ItemDTO> findByOwnerEmail(String email) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items i JOIN users u ON u.id = i.user_id"
+                + " WHERE u.email = :email"
+                + " UNION ALL SELECT " + ARCHIVED_COLUMNS + " FROM archived_items a JOIN users u ON u.id = a.user_id"
+                + " WHERE u.email = :email ORDER BY id")
+                .bind("email", email)
+                .map(ReactiveItemRepository::toItem)
+                .all();
+    }
+
+    static ItemDTO toItem(Readable row) {
+        return new ItemDTO(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                row.get("price", Double.class),
+                row.get("image_url", String.class),
+                row.get("purchased", Boolean.class),
+                row.get("user_id", Long.class));
+    }
+}
@@ -0,0 +1,29 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.RevokedToken;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    long countByExpiresAtAfter(Instant now);
+
+    // Bloom filter rebuild: keys of the entries that can still match a live token
+    @Query("select r.tokenKey from RevokedToken r where r.expiresAt > :now")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<String> streamUnexpiredKeys(@Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
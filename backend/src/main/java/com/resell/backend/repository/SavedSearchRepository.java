@@ -0,0 +1,25 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.SavedSearch;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import jakarta.persistence.QueryHint;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+
+    List<SavedSearch> findByUserIdOrderByIdDesc(Long userId);
+
+    long countByUserId(Long userId);
+
+    // Percolator rebuild: [id, userId, keywords, minPrice, maxPrice] of every saved search
+    @Query("select s.id, s.user.id, s.keywords, s.minPrice, s.maxPrice from SavedSearch s order by s.id")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<Object[]> streamAll();
+}
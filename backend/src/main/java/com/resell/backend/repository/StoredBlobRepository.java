@@ -0,0 +1,45 @@
+package com.resell.backend.repository;
+
+import com.resell.backend.model.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Upload of existing content: waits on the sweeper's row lock, so a blob being
+    // reclaimed is either gone afterwards (0 rows) or kept
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.updatedAt = :now where b.blobKey = :key")
+    int touch(@Param("key") String key, @Param("now") Instant now);
+
+    @Query("select b.stored from StoredBlob b where b.blobKey = :key")
+    Optional<Boolean> findStoredByKey(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.stored = true where b.blobKey = :key")
+    int markStored(@Param("key") String key);
+
+    // Item saved or deleted; joins the item's transaction
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + :delta, b.updatedAt = :now where b.blobKey = :key")
+    int adjustRefCount(@Param("key") String key, @Param("delta") int delta, @Param("now") Instant now);
+
+    @Query("select b.blobKey from StoredBlob b where b.refCount <= 0 and b.updatedAt < :cutoff")
+    List<String> findUnreferencedKeys(@Param("cutoff") Instant cutoff, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from StoredBlob b where b.blobKey = :key")
+    Optional<StoredBlob> findForUpdate(@Param("key") String key);
+}
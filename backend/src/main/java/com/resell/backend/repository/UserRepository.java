@@ -1,9 +1,36 @@
 package com.resell.backend.repository;
 
+import com.resell.backend.dto.UserDTO;
 import com.resell.backend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByEmail(String email);
+
+	// Writes the column only, leaving any loaded User instance as it is
+	@Transactional
+	@Modifying
+	@Query("update User u set u.role = :role where u.email = :email")
+	int updateRole(@Param("email") String email, @Param("role") String role);
+
+	// Admin listing without password hashes
+	@Query("select new com.resell.backend.dto.UserDTO(u.id, u.email, u.fullname, u.role) from User u")
+	Slice<UserDTO> findUserPage(Pageable pageable);
+
+	// Admin export: forward-only cursor, see ItemRepository.streamAllItems
+	@Query("select new com.resell.backend.dto.UserDTO(u.id, u.email, u.fullname, u.role) from User u order by u.id")
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	Stream<UserDTO> streamAllUsers();
 }
@@ -1,40 +1,70 @@
 package com.resell.backend.security;
 
+import com.resell.backend.limit.SingleFlight;
+import com.resell.backend.limit.SingleFlights;
 import com.resell.backend.model.User;
 import com.resell.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SingleFlights singleFlights;
+
     @org.springframework.beans.factory.annotation.Value("${INITIAL_ADMIN_EMAIL:}")
     private String initialAdminEmail;
 
+    private SingleFlight<String, Optional<Credentials>> userLoads;
+
+    // What a coalesced lookup shares between threads: plain values, not the managed User
+    // of whichever request ran the query
+    record Credentials(String email, String password, String role) {
+        static Credentials of(User user) {
+            return new Credentials(user.getEmail(), user.getPassword(), user.getRole());
+        }
+    }
+
+    @PostConstruct
+    public void createFlights() {
+        userLoads = singleFlights.create("user");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        // Every authenticated request lands here; a client firing requests in parallel shares one lookup
+        Credentials user = userLoads.load(email, () -> userRepository.findByEmail(email).map(Credentials::of))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
+        // The promotion updates the row directly
+        String role = user.role();
         if (initialAdminEmail != null && !initialAdminEmail.isEmpty() &&
-                initialAdminEmail.equalsIgnoreCase(user.getEmail()) &&
-                !"ROLE_ADMIN".equals(user.getRole())) {
-            System.out.println("DEBUG: Promoting user to ROLE_ADMIN: " + user.getEmail());
-            user.setRole("ROLE_ADMIN");
-            userRepository.save(user);
-            System.out.println("DEBUG: User saved with ROLE_ADMIN");
+                initialAdminEmail.equalsIgnoreCase(user.email()) &&
+                !"ROLE_ADMIN".equals(role)) {
+            role = "ROLE_ADMIN";
+            if (userRepository.updateRole(user.email(), role) > 0) {
+                log.info("Promoted initial admin {} to ROLE_ADMIN", user.email());
+            }
         }
 
         return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword())
-                .authorities(user.getRole())
+                .withUsername(user.email())
+                .password(user.password())
+                .authorities(role)
                 .build();
     }
 }
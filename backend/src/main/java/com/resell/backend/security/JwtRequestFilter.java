@@ -2,6 +2,11 @@ package com.resell.backend.security;
 
 import java.io.IOException;
 
+import com.resell.backend.diagnostics.JwtFilterEvent;
+import com.resell.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,12 +23,17 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtRequestFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -31,6 +41,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         // STEP A — Read header
         String authHeader = request.getHeader("Authorization");
+        JwtFilterEvent event = new JwtFilterEvent();
+        event.begin();
 
         try {
             // STEP B — Check if token exists and starts with "Bearer "
@@ -47,8 +59,9 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     // STEP D — Load user details
                     UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                    // STEP E — Validate token
-                    if (jwtUtil.validateToken(token, userDetails.getUsername())) {
+                    // STEP E — Validate token and make sure it was not revoked (Bloom filter
+                    // first; only possible hits query the denylist)
+                    if (jwtUtil.validateToken(token, userDetails.getUsername()) && !isRevoked(token, username)) {
                         // STEP F — Build authentication object
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
@@ -60,12 +73,26 @@ public class JwtRequestFilter extends OncePerRequestFilter {
             }
         } catch (Exception e) {
             // Log the error but allows the request to continue (e.g., to public endpoints)
-            System.out.println("DEBUG: JWT Validation failed: " + e.getMessage());
+            log.debug("JWT validation failed: {}", e.getMessage());
             SecurityContextHolder.clearContext();
         }
+        event.complete(authHeader == null ? "anonymous"
+                : SecurityContextHolder.getContext().getAuthentication() != null ? "authenticated" : "rejected");
 
         // STEP H — Continue filter chain
         filterChain.doFilter(request, response);
     }
 
+    private boolean isRevoked(String token, String username) {
+        Claims claims = jwtUtil.extractAllClaims(token);
+        if (!tokenRevocationService.mightBeRevoked(claims.getId(), username)) {
+            return false;
+        }
+        boolean revoked = tokenRevocationService.isRevoked(claims.getId(), username, jwtUtil.issuedAt(claims));
+        if (revoked) {
+            log.debug("Rejected revoked token for {}", username);
+        }
+        return revoked;
+    }
+
 }
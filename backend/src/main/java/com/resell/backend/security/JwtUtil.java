@@ -4,9 +4,11 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -31,6 +33,8 @@ import org.springframework.stereotype.Component;
 // Continue to Controller
 public class JwtUtil {
 
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
+
     private final Key SECRET_KEY;
 
     public JwtUtil(@Value("${jwt.secret}") String secret) {
@@ -54,8 +58,8 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    // Get all claims
-    private Claims extractAllClaims(String token) {
+    // Get all claims (subject, jti, issued/expires at) with a single parse
+    public Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(SECRET_KEY)
                 .build()
@@ -68,6 +72,19 @@ public class JwtUtil {
         return extractExpiration(token).before(new Date());
     }
 
+    // When the token was issued, to the millisecond; tokens from before the iat_ms claim
+    // only have iat (whole seconds)
+    public Instant issuedAt(Claims claims) {
+        if (claims.get(ISSUED_AT_MILLIS) instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        return claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant();
+    }
+
+    public long getExpirationMillis() {
+        return EXPIRATION_TIME;
+    }
+
     // Generate token
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
@@ -80,8 +97,10 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString()) // jti: lets a single token be revoked
                 .setSubject(subject)
                 .setIssuedAt(new Date(now))
+                .claim(ISSUED_AT_MILLIS, now) // iat only has whole seconds
                 .setExpiration(new Date(now + EXPIRATION_TIME))
                 .signWith(SECRET_KEY)
                 .compact();
@@ -0,0 +1,68 @@
+package com.resell.backend.security;
+
+import com.resell.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+// Reactive counterpart of JwtRequestFilter. Only checks the token (signature and expiry,
+// no I/O); the principal is the email, and the queries behind the reactive endpoints
+// look the user up by it, so an unknown user simply gets no rows. Revocation is checked
+// like in JwtRequestFilter; the rare denylist query runs off the event loop.
+//
+// Not a bean: WebFlux would also add every WebFilter bean to the global chain, so
+// ReactiveSecurityConfig creates it and adds it to the security chain only.
+public class ReactiveJwtFilter implements WebFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveJwtFilter.class);
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+
+    public ReactiveJwtFilter(JwtUtil jwtUtil, TokenRevocationService tokenRevocationService) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+
+        String token = authHeader.substring(7);
+        try {
+            String email = jwtUtil.extractUsername(token);
+            if (email == null || !jwtUtil.validateToken(token, email)) {
+                return chain.filter(exchange);
+            }
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(email, null,
+                    List.of());
+            Claims claims = jwtUtil.extractAllClaims(token);
+            if (!tokenRevocationService.mightBeRevoked(claims.getId(), email)) {
+                return chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            }
+            return Mono.fromCallable(() -> tokenRevocationService.isRevoked(claims.getId(), email, jwtUtil.issuedAt(claims)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(revoked -> revoked
+                            ? chain.filter(exchange)
+                            : chain.filter(exchange)
+                                    .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)));
+        } catch (Exception e) {
+            log.debug("JWT validation failed: {}", e.getMessage());
+            return chain.filter(exchange);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.resell.backend.service;
+
+import com.resell.backend.audit.AuditAction;
+import com.resell.backend.audit.AuditJournal;
+import com.resell.backend.audit.AuditRecord;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+// Audit trail of purchases and admin actions in an AuditJournal under audit.dir instead
+// of MySQL, so auditing adds no write load to the primary.
+//
+// Records are written after the database change committed, and the request waits (up to
+// audit.commit-timeout-ms) for the fsync that makes them durable; concurrent requests
+// share fsyncs. A journal failure is logged and counted but never fails the request -
+// the purchase or deletion has already happened.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.dir:audit}")
+    private String auditDir;
+
+    @Value("${audit.segment-records:1048576}")
+    private int segmentRecords;
+
+    @Value("${audit.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${audit.commit-timeout-ms:1000}")
+    private long commitTimeoutMs;
+
+    private AuditJournal journal;
+    private Counter failures;
+
+    @PostConstruct
+    public void open() throws IOException {
+        journal = new AuditJournal(Paths.get(auditDir), segmentRecords);
+        failures = meterRegistry.counter("audit.failures");
+        FunctionCounter.builder("audit.appends", journal, AuditJournal::appended).register(meterRegistry);
+        FunctionCounter.builder("audit.fsyncs", journal, AuditJournal::commits).register(meterRegistry);
+        Gauge.builder("audit.segments", journal, AuditJournal::segmentCount).register(meterRegistry);
+        log.info("Audit journal at {}, {} record(s) so far", journal.dir(), journal.committedSeq());
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+
+    // One record per item of a checkout; a single fsync covers them all
+    public void recordPurchases(User buyer, List<Item> items) {
+        record(() -> {
+            long last = 0;
+            for (Item item : items) {
+                last = journal.append(AuditAction.PURCHASE, buyer.getId(), ownerId(item), item.getId(),
+                        cents(item.getPrice()));
+            }
+            return last;
+        });
+    }
+
+    // Admin deletions, one record per item
+    public void recordItemsDeleted(User admin, List<Item> items) {
+        record(() -> {
+            long last = 0;
+            for (Item item : items) {
+                last = journal.append(AuditAction.ITEM_DELETED, admin.getId(), ownerId(item), item.getId(),
+                        cents(item.getPrice()));
+            }
+            return last;
+        });
+    }
+
+    public void recordRoleChanged(User admin, User user) {
+        record(() -> journal.append(AuditAction.ROLE_CHANGED, admin.getId(), user.getId(), 0,
+                "ROLE_ADMIN".equals(user.getRole()) ? 1 : 0));
+    }
+
+    // Committed records in [from, to] after afterSeq, oldest first; userId null for everyone
+    public List<AuditRecord> find(Long userId, Instant from, Instant to, long afterSeq, int limit) {
+        return journal.read(userId, from.toEpochMilli(), to.toEpochMilli(), afterSeq, limit);
+    }
+
+    // Whole segments past audit.retention-days are deleted; the journal is never rewritten
+    @Scheduled(fixedDelayString = "${audit.retention-check-ms:3600000}")
+    public void applyRetention() {
+        int deleted = journal.deleteBefore(Instant.now().minus(Duration.ofDays(retentionDays)).toEpochMilli());
+        if (deleted > 0) {
+            log.info("Deleted {} audit segment(s) older than {} days", deleted, retentionDays);
+        }
+    }
+
+    private void record(LongSupplier append) {
+        try {
+            long seq = append.getAsLong();
+            if (!journal.awaitCommit(seq, commitTimeoutMs)) {
+                // Still in the mapping; the committer gets it to disk shortly
+                log.warn("Audit record {} not yet on disk after {} ms", seq, commitTimeoutMs);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Audit record lost", e);
+        }
+    }
+
+    private static long ownerId(Item item) {
+        return item.getOwner() != null ? item.getOwner().getId() : 0;
+    }
+
+    private static long cents(Double price) {
+        return price != null ? Math.round(price * 100) : 0;
+    }
+}
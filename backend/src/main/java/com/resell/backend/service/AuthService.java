@@ -8,7 +8,7 @@ import org.springframework.stereotype.Service;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Service
 public class AuthService {
@@ -17,7 +17,7 @@ public class AuthService {
     private UserRepository userRepository;// to access users in the database
 
     @Autowired
-    private BCryptPasswordEncoder passwordEncoder; // to hash and check passwords
+    private PasswordEncoder passwordEncoder; // to hash and check passwords
 
     @Autowired
     private JwtUtil jwtUtil; // to generate JWT tokens
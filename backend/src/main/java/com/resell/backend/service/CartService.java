@@ -0,0 +1,226 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.BatchResult;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.OutboxPublisher;
+import com.resell.backend.model.Cart;
+import com.resell.backend.model.CartItem;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.repository.CartRepository;
+import com.resell.backend.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CartService {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SellerStatsService sellerStatsService;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Find the user's cart, creating it if needed.
+    // Two concurrent requests may both miss the lookup; the unique user_id constraint
+    // lets only one insert win, and the loser simply reads the winner's cart.
+    public Cart getOrCreateCart(User user) {
+        return cartRepository.findByUserId(user.getId())
+                .orElseGet(() -> {
+                    try {
+                        return cartRepository.saveAndFlush(Cart.builder()
+                                .user(user)
+                                .build());
+                    } catch (DataIntegrityViolationException e) {
+                        return cartRepository.findByUserId(user.getId())
+                                .orElseThrow(() -> e);
+                    }
+                });
+    }
+
+    // Add an item to the user's cart (upsert).
+    // Adding an item that is already in the cart returns the existing row instead of
+    // inserting a duplicate. Not @Transactional on purpose: a failed insert must not
+    // mark an outer transaction rollback-only before we re-read the winning row.
+    public CartItem addItem(User user, Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("Item not found"));
+        Cart cart = getOrCreateCart(user);
+
+        return cartItemRepository.findByCartIdAndItemId(cart.getId(), item.getId())
+                .orElseGet(() -> {
+                    try {
+                        return cartItemRepository.saveAndFlush(CartItem.builder()
+                                .cart(cart)
+                                .item(item)
+                                .build());
+                    } catch (DataIntegrityViolationException e) {
+                        return cartItemRepository.findByCartIdAndItemId(cart.getId(), item.getId())
+                                .orElseThrow(() -> e);
+                    }
+                });
+    }
+
+    // Add many items in one transaction.
+    // Existing cart rows are fetched with a single query, and new rows are saved together
+    // so Hibernate sends them as one JDBC batch. Items already in the cart count as success.
+    // The cart is resolved before the transaction starts, for the same reason addItem is
+    // not @Transactional: a lost cart insert race must not leave it rollback-only.
+    // If a concurrent add inserts one of the rows first (or the two deadlock), the batch is
+    // retried entry by entry so the race shows up as "already in cart" (success) rather than
+    // failing every entry.
+    public List<BatchResult> addItems(User user, List<Long> itemIds) {
+        Cart cart = getOrCreateCart(user);
+        try {
+            return transactionTemplate.execute(status -> addItems(cart, itemIds));
+        } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+            return addItemsOneByOne(cart, itemIds);
+        }
+    }
+
+    private List<BatchResult> addItemsOneByOne(Cart cart, List<Long> itemIds) {
+        List<BatchResult> results = new ArrayList<>();
+        for (int i = 0; i < itemIds.size(); i++) {
+            Long itemId = itemIds.get(i);
+            BatchResult result;
+            try {
+                result = transactionTemplate.execute(status -> addItems(cart, Collections.singletonList(itemId))).get(0);
+            } catch (DataIntegrityViolationException e) {
+                // Lost the insert to a concurrent add, or the item was deleted meanwhile
+                result = cartItemRepository.findByCartIdAndItemId(cart.getId(), itemId).isPresent()
+                        ? BatchResult.ok(i, itemId)
+                        : BatchResult.error(i, itemId, "Item not found");
+            }
+            result.setIndex(i);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private List<BatchResult> addItems(Cart cart, List<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllById(withoutNulls(itemIds)).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, CartItem> existing = cartItemRepository.findByCartIdAndItemIdIn(cart.getId(), items.keySet())
+                .stream()
+                .collect(Collectors.toMap(ci -> ci.getItem().getId(), Function.identity()));
+
+        List<BatchResult> results = new ArrayList<>();
+        Map<Long, CartItem> toSave = new TreeMap<>(); // inserted in item id order, like concurrent batches
+        for (int i = 0; i < itemIds.size(); i++) {
+            Long itemId = itemIds.get(i);
+            Item item = itemId == null ? null : items.get(itemId);
+            if (item == null) {
+                results.add(BatchResult.error(i, itemId, "Item not found"));
+            } else if (Boolean.TRUE.equals(item.getPurchased())) {
+                results.add(BatchResult.error(i, itemId, "Item already purchased"));
+            } else {
+                if (!existing.containsKey(itemId)) {
+                    toSave.putIfAbsent(itemId, CartItem.builder()
+                            .cart(cart)
+                            .item(item)
+                            .build());
+                }
+                results.add(BatchResult.ok(i, itemId));
+            }
+        }
+
+        cartItemRepository.saveAll(toSave.values());
+        return results;
+    }
+
+    // Remove many cart rows in one transaction with a single batched delete.
+    // Rows that do not exist or belong to another user's cart are reported, not removed.
+    @Transactional
+    public List<BatchResult> removeItems(User user, List<Long> cartItemIds) {
+        Map<Long, CartItem> found = cartItemRepository.findAllById(withoutNulls(cartItemIds)).stream()
+                .collect(Collectors.toMap(CartItem::getId, Function.identity()));
+
+        List<BatchResult> results = new ArrayList<>();
+        Map<Long, CartItem> toDelete = new LinkedHashMap<>();
+        for (int i = 0; i < cartItemIds.size(); i++) {
+            Long cartItemId = cartItemIds.get(i);
+            CartItem cartItem = cartItemId == null ? null : found.get(cartItemId);
+            if (cartItem == null) {
+                results.add(BatchResult.error(i, cartItemId, "Cart item not found"));
+            } else if (!cartItem.getCart().getUser().getId().equals(user.getId())) {
+                results.add(BatchResult.error(i, cartItemId, "Unauthorized"));
+            } else {
+                toDelete.put(cartItemId, cartItem);
+                results.add(BatchResult.ok(i, cartItemId));
+            }
+        }
+
+        cartItemRepository.deleteAllInBatch(toDelete.values());
+        return results;
+    }
+
+    // Sell every item in the cart and empty the cart in one transaction.
+    // The items are locked first and their purchased flag read under the lock, so an item
+    // in two carts is sold, counted and published once; the later checkout gets it back in
+    // unavailable. Both lists are empty if the cart had nothing in it.
+    @Transactional
+    public CheckoutResult checkout(User user) {
+        Cart cart = cartRepository.findByUserId(user.getId())
+                .orElseThrow(() -> new RuntimeException("Cart not found"));
+
+        List<Item> inCart = itemRepository.findInCartForUpdate(cart.getId());
+        if (inCart.isEmpty()) {
+            return new CheckoutResult(List.of(), List.of());
+        }
+
+        List<Item> sold = new ArrayList<>();
+        List<Long> unavailable = new ArrayList<>();
+        for (Item item : inCart) {
+            if (Boolean.TRUE.equals(item.getPurchased())) {
+                unavailable.add(item.getId());
+                continue;
+            }
+            sellerStatsService.onSold(item);
+            item.setPurchasedAt(Instant.now());
+            item.setPurchased(true);
+            itemRepository.save(item);
+            outboxPublisher.publish(DomainEvent.ITEM_PURCHASED, item.getId(), ItemService.toPayload(item));
+            sold.add(item);
+        }
+
+        // Clear the checked-out items from the cart, the unavailable ones included
+        cartItemRepository.deleteByCartIdAndItemIdIn(cart.getId(), inCart.stream().map(Item::getId).toList());
+        return new CheckoutResult(sold, unavailable);
+    }
+
+    // Items this checkout sold, and ids of items someone else bought first
+    public record CheckoutResult(List<Item> sold, List<Long> unavailable) {
+    }
+
+    private static List<Long> withoutNulls(List<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).toList();
+    }
+}
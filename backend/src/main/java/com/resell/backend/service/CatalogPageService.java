@@ -0,0 +1,157 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.limit.SingleFlight;
+import com.resell.backend.limit.SingleFlights;
+import com.resell.backend.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+// First catalog.pages pages of GET /items/catalog, kept as ready-to-send JSON, gzip and
+// CBOR bytes with strong ETags, so serving them costs no queries, no serialization and
+// (almost) no allocation.
+//
+// Item events only set a dirty flag; a refresh every catalog.debounce-ms rebuilds all
+// pages from one query when the flag is set and swaps them in by replacing a single
+// volatile array, so a request always sees one consistent set of pages.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CatalogPageService implements DomainEventSubscriber {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CBORMapper cborMapper;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    @Value("${catalog.pages:5}")
+    private int pageCount;
+
+    @Value("${catalog.page-size:24}")
+    private int pageSize;
+
+    private volatile EncodedPage[] pages = new EncodedPage[0];
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private SingleFlight<Integer, PageResponse<ItemDTO>> pageLoads;
+
+    // Pre-encoded response; the gzip and CBOR variants have their own ETags since they are
+    // different representations
+    public record EncodedPage(byte[] json, byte[] gzip, byte[] cbor, String etag, String gzipEtag, String cborEtag) {
+    }
+
+    @PostConstruct
+    public void createFlights() {
+        pageLoads = singleFlights.create("catalog-page");
+    }
+
+    @Override
+    public String name() {
+        return "catalog-pages";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (event.type().startsWith("Item")) {
+            dirty.set(true);
+        }
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Precomputed page, or null if the page is not precomputed (yet)
+    public EncodedPage getEncodedPage(int page) {
+        EncodedPage[] current = pages;
+        return page < current.length ? current[page] : null;
+    }
+
+    // Pages past the precomputed ones come straight from the database, one query per page
+    // however many requests ask for it at once
+    public PageResponse<ItemDTO> loadPage(int page) {
+        return pageLoads.load(page, () -> {
+            Slice<ItemDTO> slice = itemRepository.findListedPage(PageRequest.of(page, pageSize));
+            return PageResponse.<ItemDTO>builder()
+                    .content(slice.getContent())
+                    .page(page)
+                    .size(pageSize)
+                    .hasNext(slice.hasNext())
+                    .build();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.debounce-ms:500}")
+    public void refresh() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            dirty.set(true); // try again on the next tick
+            throw e;
+        }
+    }
+
+    private void rebuild() {
+        // One query for all precomputed pages; the extra row tells whether the last one has a next page
+        List<ItemDTO> rows = itemRepository.findListedPage(PageRequest.of(0, pageCount * pageSize + 1)).getContent();
+        int available = Math.max(1, Math.min(pageCount, (rows.size() + pageSize - 1) / pageSize));
+        EncodedPage[] rebuilt = new EncodedPage[available];
+        for (int page = 0; page < available; page++) {
+            int from = page * pageSize;
+            int to = Math.min(from + pageSize, rows.size());
+            PageResponse<ItemDTO> response = PageResponse.<ItemDTO>builder()
+                    .content(from < to ? rows.subList(from, to) : List.of())
+                    .page(page)
+                    .size(pageSize)
+                    .hasNext(rows.size() > to)
+                    .build();
+            rebuilt[page] = encode(objectMapper.writeValueAsBytes(response), cborMapper.writeValueAsBytes(response));
+        }
+        pages = rebuilt;
+    }
+
+    private static EncodedPage encode(byte[] json, byte[] cbor) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+            return new EncodedPage(json, buffer.toByteArray(), cbor, "\"" + hash + "\"", "\"" + hash + "-gz\"",
+                    "\"" + hash + "-cbor\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.resell.backend.service;
+
+import com.resell.backend.diagnostics.ControllerEvent;
+import com.resell.backend.diagnostics.JwtFilterEvent;
+import com.resell.backend.diagnostics.RecordingAnalyzer;
+import com.resell.backend.diagnostics.RecordingInfo;
+import com.resell.backend.diagnostics.RecordingSummary;
+import com.resell.backend.diagnostics.StorageEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// On-demand Java Flight Recorder recordings for /admin/diagnostics.
+//
+// One recording at a time, with JFR's built-in "default" (under 1% overhead, meant for
+// production) or "profile" settings, plus the application's own events (JwtFilterEvent,
+// ControllerEvent, StorageEvent) at or above diagnostics.event-threshold-ms. A recording
+// stops on its own after diagnostics.max-duration-seconds at most and keeps at most
+// diagnostics.max-size-mb; JFR writes it to diagnostics.dir when it stops. Only the newest
+// diagnostics.keep-recordings files are kept.
+@Service
+public class DiagnosticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagnosticsService.class);
+
+    public static final List<String> SETTINGS = List.of("default", "profile");
+    private static final List<Class<? extends Event>> APP_EVENTS = List.of(JwtFilterEvent.class,
+            ControllerEvent.class, StorageEvent.class);
+    private static final String PREFIX = "recording-";
+    private static final String SUFFIX = ".jfr";
+
+    @Value("${diagnostics.dir:diagnostics}")
+    private String diagnosticsDir;
+
+    @Value("${diagnostics.max-duration-seconds:300}")
+    private long maxDurationSeconds;
+
+    @Value("${diagnostics.max-size-mb:100}")
+    private long maxSizeMb;
+
+    @Value("${diagnostics.keep-recordings:5}")
+    private int keepRecordings;
+
+    @Value("${diagnostics.event-threshold-ms:0}")
+    private long eventThresholdMs;
+
+    @Value("${diagnostics.summary-top:20}")
+    private int summaryTop;
+
+    private Path root;
+    private Recording active; // the latest recording until the next one starts; guarded by this
+    private long activeId;
+    private final Map<Long, RecordingSummary> summaries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Files.createDirectories(Paths.get(diagnosticsDir)).toAbsolutePath();
+    }
+
+    // A recording still running at shutdown is written out like a stopped one
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (running()) {
+            active.stop();
+        }
+        closeActive();
+    }
+
+    public synchronized RecordingInfo start(String settings, long durationSeconds) throws IOException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("settings must be one of " + SETTINGS);
+        }
+        if (running()) {
+            throw new IllegalStateException("Recording " + activeId + " is still running");
+        }
+        closeActive();
+
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (ParseException e) {
+            throw new IllegalStateException("JFR settings " + settings + " are unreadable", e);
+        }
+        long id = Math.max(System.currentTimeMillis(), activeId + 1);
+        Duration duration = Duration.ofSeconds(Math.min(Math.max(durationSeconds, 1), maxDurationSeconds));
+        for (Class<? extends Event> type : APP_EVENTS) {
+            recording.enable(type).withThreshold(Duration.ofMillis(eventThresholdMs));
+        }
+        recording.setName(PREFIX + id);
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeMb * 1024 * 1024);
+        recording.setDuration(duration);
+        recording.setDestination(file(id));
+        recording.start();
+
+        active = recording;
+        activeId = id;
+        prune();
+        log.info("Started JFR recording {} ({}, {} s)", id, settings, duration.toSeconds());
+        return runningInfo();
+    }
+
+    // Stops the recording early and writes it out; empty if there is no such recording
+    public synchronized Optional<RecordingInfo> stop(long id) {
+        if (running() && activeId == id) {
+            active.stop();
+            log.info("Stopped JFR recording {}", id);
+        }
+        return finishedInfo(id);
+    }
+
+    // Newest first
+    public synchronized List<RecordingInfo> list() throws IOException {
+        List<RecordingInfo> infos = new ArrayList<>();
+        if (running()) {
+            infos.add(runningInfo());
+        }
+        for (long id : finishedIds()) {
+            finishedInfo(id).ifPresent(infos::add);
+        }
+        return infos;
+    }
+
+    // Empty if there is no finished recording with this id; computed once per recording
+    public Optional<RecordingSummary> summary(long id) {
+        return finishedFile(id).map(path -> summaries.computeIfAbsent(id, key -> {
+            try {
+                return RecordingAnalyzer.summarize(path, summaryTop);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    // The .jfr file of a finished recording (for JDK Mission Control or `jfr print`)
+    public Optional<Path> recordingFile(long id) {
+        return finishedFile(id);
+    }
+
+    private synchronized Optional<Path> finishedFile(long id) {
+        if (running() && activeId == id) {
+            throw new IllegalStateException("Recording " + id + " is still running");
+        }
+        Path file = file(id);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private boolean running() {
+        return active != null && active.getState() == RecordingState.RUNNING;
+    }
+
+    private RecordingInfo runningInfo() {
+        Instant started = active.getStartTime();
+        return new RecordingInfo(activeId, RecordingInfo.RUNNING, started, started.plus(active.getDuration()),
+                active.getSize());
+    }
+
+    private Optional<RecordingInfo> finishedInfo(long id) {
+        Path file = file(id);
+        try {
+            return Files.isRegularFile(file)
+                    ? Optional.of(new RecordingInfo(id, RecordingInfo.FINISHED, Instant.ofEpochMilli(id), null,
+                            Files.size(file)))
+                    : Optional.empty();
+        } catch (IOException e) {
+            return Optional.empty(); // deleted by prune() meanwhile
+        }
+    }
+
+    private void closeActive() {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    // Deletes all but the newest keepRecordings finished recordings
+    private void prune() throws IOException {
+        List<Long> ids = finishedIds();
+        for (long id : ids.subList(Math.min(keepRecordings, ids.size()), ids.size())) {
+            Files.deleteIfExists(file(id));
+            summaries.remove(id);
+        }
+    }
+
+    private List<Long> finishedIds() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    if (!(running() && activeId == id)) { // JFR creates the destination file on start
+                        ids.add(id);
+                    }
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        ids.sort(Comparator.reverseOrder());
+        return ids;
+    }
+
+    private Path file(long id) {
+        return root.resolve(PREFIX + id + SUFFIX);
+    }
+}
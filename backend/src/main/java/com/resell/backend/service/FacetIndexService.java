@@ -0,0 +1,176 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.FacetDTO;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.index.PriceFacetIndex;
+import com.resell.backend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Serves /items/facets (price range filter, count and histogram over listed items) from an
+// in-memory PriceFacetIndex instead of MySQL range scans.
+//
+// Kept current from item events through the outbox. The full rebuild runs in
+// StartupWarmup and then periodically to correct drift; events that arrive while a
+// rebuild is reading are replayed onto the new index before it is swapped in.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FacetIndexService implements DomainEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetIndexService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final PriceFacetIndex index;
+    private List<DomainEvent> replay; // non-null while a rebuild is running; guarded by this
+
+    public FacetIndexService(@Value("${facets.delta-limit:4096}") int deltaLimit) {
+        this.index = new PriceFacetIndex(deltaLimit);
+    }
+
+    @Override
+    public String name() {
+        return "facet-index";
+    }
+
+    @Override
+    public synchronized void onEvent(DomainEvent event) {
+        if (replay != null) {
+            replay.add(event);
+        }
+        apply(event);
+    }
+
+    @Scheduled(initialDelayString = "${facets.rebuild-interval-ms:1800000}",
+            fixedDelayString = "${facets.rebuild-interval-ms:1800000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            PriceFacetIndex.Builder builder = new PriceFacetIndex.Builder((int) Math.min(itemRepository.count(), 1 << 24));
+            try (Stream<Object[]> rows = itemRepository.streamListedPrices()) {
+                rows.forEach(row -> builder.add((Long) row[0], price((Double) row[1]), owner((Long) row[2])));
+            }
+            synchronized (this) {
+                index.load(builder);
+                replay.forEach(this::apply);
+            }
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+        log.info("Facet index rebuilt with {} listed items", index.size());
+    }
+
+    // Price range is [minPrice, maxPrice]; either bound defaults to the catalog's extreme
+    public FacetDTO facets(Double minPrice, Double maxPrice, Long sellerId, int buckets,
+            boolean descending, int page, int size) {
+        double low = minPrice != null ? minPrice : index.minPrice();
+        double high = maxPrice != null ? maxPrice : index.maxPrice();
+        long owner = sellerId != null ? sellerId : PriceFacetIndex.ANY_OWNER;
+        if (Double.isNaN(low) || Double.isNaN(high) || low > high) {
+            return FacetDTO.builder()
+                    .total(0)
+                    .histogram(List.of())
+                    .items(PageResponse.<ItemDTO>builder().content(List.of()).page(page).size(size).build())
+                    .build();
+        }
+        double highExclusive = Math.nextUp(high);
+
+        long[] counts = new long[buckets];
+        index.histogram(low, high, owner, counts);
+        List<FacetDTO.Bucket> histogram = new ArrayList<>(buckets);
+        double width = (high - low) / buckets;
+        for (int i = 0; i < buckets; i++) {
+            histogram.add(FacetDTO.Bucket.builder()
+                    .from(low + i * width)
+                    .to(i == buckets - 1 ? high : low + (i + 1) * width)
+                    .count(counts[i])
+                    .build());
+        }
+
+        // One extra id tells whether there is a next page
+        long[] ids = new long[size + 1];
+        int found = index.select(low, highExclusive, owner, descending, page * size, ids);
+        List<ItemDTO> content = load(Arrays.stream(ids, 0, Math.min(found, size)).boxed().toList());
+
+        return FacetDTO.builder()
+                .total(index.count(low, highExclusive, owner))
+                .minPrice(low)
+                .maxPrice(high)
+                .histogram(histogram)
+                .items(PageResponse.<ItemDTO>builder()
+                        .content(content)
+                        .page(page)
+                        .size(size)
+                        .hasNext(found > size)
+                        .build())
+                .build();
+    }
+
+    // Rows in index order; items sold or deleted since the index saw them are dropped
+    private List<ItemDTO> load(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemDTO> byId = itemRepository.findDTOsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemDTO::getId, Function.identity()));
+        List<ItemDTO> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ItemDTO item = byId.get(id);
+            if (item != null && !Boolean.TRUE.equals(item.getPurchased())) {
+                content.add(item);
+            }
+        }
+        return content;
+    }
+
+    private void apply(DomainEvent event) {
+        switch (event.type()) {
+            case DomainEvent.ITEM_CREATED, DomainEvent.ITEM_UPDATED -> {
+                ItemDTO item = objectMapper.readValue(event.payload(), ItemDTO.class);
+                if (Boolean.TRUE.equals(item.getPurchased())) {
+                    index.remove(item.getId());
+                } else {
+                    index.upsert(item.getId(), price(item.getPrice()), owner(item.getOwnerId()));
+                }
+            }
+            case DomainEvent.ITEM_DELETED, DomainEvent.ITEM_PURCHASED -> index.remove(event.aggregateId());
+            default -> {
+            }
+        }
+    }
+
+    private static double price(Double price) {
+        return price == null ? 0 : price;
+    }
+
+    private static long owner(Long ownerId) {
+        return ownerId == null ? 0 : ownerId; // ids start at 1, so 0 matches no seller
+    }
+}
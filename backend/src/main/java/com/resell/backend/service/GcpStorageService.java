@@ -3,47 +3,92 @@ package com.resell.backend.service;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
+import com.resell.backend.diagnostics.StorageEvent;
+import com.resell.backend.storage.ContentAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
+@Lazy
 @Service
 @ConditionalOnProperty(name = "storage.type", havingValue = "gcp")
 public class GcpStorageService implements StorageService {
 
+    private static final Logger log = LoggerFactory.getLogger(GcpStorageService.class);
+
+    // Content-addressed objects never change, so browsers and CDNs may keep them for good
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
     @Autowired
     private Storage storage;
 
+    @Autowired
+    private StoredBlobService storedBlobService;
+
     @Value("${gcp.storage.bucket-name}")
     private String bucketName;
 
     @Override
     public String uploadFile(MultipartFile file) throws IOException {
-        String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-        System.out.println("Uploading to GCP bucket: " + bucketName + ", file: " + filename);
+        return StorageEvent.record("upload", "gcp", file.getSize(), () -> store(file));
+    }
+
+    private String store(MultipartFile file) throws IOException {
+        // The object name is the digest, so the bytes are hashed into a temp file first
+        ContentAddress.Hashed upload;
+        try (var inputStream = file.getInputStream()) {
+            upload = ContentAddress.copy(inputStream, Paths.get(System.getProperty("java.io.tmpdir")),
+                    file.getOriginalFilename());
+        }
+        String filename = upload.key();
+        String url = "https://storage.googleapis.com/" + bucketName + "/" + filename;
 
         try {
+            if (storedBlobService.register(filename, upload.size())) {
+                log.debug("Already in GCP bucket: {}", filename);
+                return url;
+            }
+
+            log.debug("Uploading to GCP bucket {}: {}", bucketName, filename);
             BlobId blobId = BlobId.of(bucketName, filename);
-            BlobInfo blobInfo = BlobInfo.newBuilder(blobId).setContentType(file.getContentType()).build();
+            BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
+                    .setContentType(file.getContentType())
+                    .setCacheControl(IMMUTABLE)
+                    .build();
 
-            storage.create(blobInfo, file.getBytes());
+            storage.createFrom(blobInfo, upload.file());
+            storedBlobService.markStored(filename);
 
-            String url = "https://storage.googleapis.com/" + bucketName + "/" + filename;
-            System.out.println("Upload successful. URL: " + url);
+            log.info("Uploaded {}", url);
             return url;
         } catch (com.google.cloud.storage.StorageException e) {
-            System.err.println("GCP Storage Error: " + e.getMessage());
-            System.err.println("Error Code: " + e.getCode());
-            System.err.println("Reason: " + e.getReason());
+            log.error("GCP storage error uploading {} (code {}, reason {})", filename, e.getCode(), e.getReason(), e);
             throw e;
         } catch (Exception e) {
-            System.err.println("Unexpected error during GCP upload: " + e.getMessage());
+            log.error("Unexpected error uploading {} to GCP", filename, e);
             throw new IOException("Failed to upload to GCP", e);
+        } finally {
+            Files.deleteIfExists(upload.file());
         }
     }
+
+    @Override
+    public void delete(String key) throws IOException {
+        StorageEvent.record("delete", "gcp", 0, () -> {
+            try {
+                return storage.delete(BlobId.of(bucketName, key));
+            } catch (com.google.cloud.storage.StorageException e) {
+                throw new IOException("Failed to delete " + key + " from GCP", e);
+            }
+        });
+    }
 }
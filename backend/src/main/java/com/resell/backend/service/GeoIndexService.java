@@ -0,0 +1,170 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.NearbyDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.index.GeoGridIndex;
+import com.resell.backend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Serves /items/nearby (listed items within a radius, nearest first) from an in-memory
+// GeoGridIndex instead of scanning coordinates in MySQL.
+//
+// Kept current from item events through the outbox: a listing enters the index when it
+// is created or updated with a location and leaves it when it is sold or deleted. The
+// full rebuild runs in StartupWarmup and then periodically into a fresh index that is
+// swapped in, with events that arrived meanwhile replayed onto it.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class GeoIndexService implements DomainEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIndexService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final double cellDegrees;
+    private volatile GeoGridIndex index;
+    private List<DomainEvent> replay; // non-null while a rebuild is running; guarded by this
+
+    public GeoIndexService(@Value("${geo.cell-degrees:0.05}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.index = new GeoGridIndex(cellDegrees, 16);
+    }
+
+    @Override
+    public String name() {
+        return "geo-index";
+    }
+
+    @Override
+    public synchronized void onEvent(DomainEvent event) {
+        if (replay != null) {
+            replay.add(event);
+        }
+        apply(index, event);
+    }
+
+    @Scheduled(initialDelayString = "${geo.rebuild-interval-ms:1800000}",
+            fixedDelayString = "${geo.rebuild-interval-ms:1800000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            GeoGridIndex rebuilt = new GeoGridIndex(cellDegrees, index.size() + 1024);
+            try (Stream<Object[]> rows = itemRepository.streamListedLocations()) {
+                rows.forEach(row -> put(rebuilt, (Long) row[0], (Double) row[1], (Double) row[2]));
+            }
+            synchronized (this) {
+                replay.forEach(event -> apply(rebuilt, event));
+                index = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+        log.info("Geo index rebuilt with {} located listings", index.size());
+    }
+
+    // One page of listings within radiusKm, nearest first (ties by id). The cursor is the
+    // previous page's `next`; throws IllegalArgumentException for one that does not parse.
+    public NearbyDTO nearby(double lat, double lon, double radiusKm, String cursor, int limit) {
+        double afterDistance = -1;
+        long afterId = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            int colon = cursor.indexOf(':');
+            try {
+                afterDistance = Double.parseDouble(cursor.substring(0, Math.max(colon, 0)));
+                afterId = Long.parseLong(cursor.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (!(afterDistance >= 0)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // One extra hit tells whether there is a next page
+        long[] ids = new long[limit + 1];
+        double[] distances = new double[limit + 1];
+        int[] found = new int[1];
+        index.nearby(lat, lon, radiusKm, afterDistance, afterId, limit + 1, (id, distanceKm) -> {
+            ids[found[0]] = id;
+            distances[found[0]] = distanceKm;
+            found[0]++;
+        });
+        int count = Math.min(found[0], limit);
+
+        // The cursor follows the index, so items dropped below do not shift the next page
+        List<Long> pageIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pageIds.add(ids[i]);
+        }
+        Map<Long, ItemDTO> byId = pageIds.isEmpty() ? Map.of()
+                : itemRepository.findDTOsByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(ItemDTO::getId, Function.identity()));
+        List<NearbyDTO.Hit> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ItemDTO item = byId.get(ids[i]);
+            if (item != null && !Boolean.TRUE.equals(item.getPurchased())) { // sold or deleted since
+                hits.add(NearbyDTO.Hit.builder().item(item).distanceKm(distances[i]).build());
+            }
+        }
+
+        return NearbyDTO.builder()
+                .items(hits)
+                .next(found[0] > limit ? distances[limit - 1] + ":" + ids[limit - 1] : null)
+                .build();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void apply(GeoGridIndex target, DomainEvent event) {
+        switch (event.type()) {
+            case DomainEvent.ITEM_CREATED, DomainEvent.ITEM_UPDATED -> {
+                ItemDTO item = objectMapper.readValue(event.payload(), ItemDTO.class);
+                if (Boolean.TRUE.equals(item.getPurchased())) {
+                    target.remove(item.getId());
+                } else {
+                    put(target, item.getId(), item.getLatitude(), item.getLongitude());
+                }
+            }
+            case DomainEvent.ITEM_DELETED, DomainEvent.ITEM_PURCHASED -> target.remove(event.aggregateId());
+            default -> {
+            }
+        }
+    }
+
+    // Listings without a (valid) location are not searchable by distance
+    private static void put(GeoGridIndex target, Long id, Double lat, Double lon) {
+        if (lat == null || lon == null || !GeoGridIndex.isValid(lat, lon)) {
+            target.remove(id);
+        } else {
+            target.put(id, lat, lon);
+        }
+    }
+}
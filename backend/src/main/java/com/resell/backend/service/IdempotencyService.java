@@ -0,0 +1,130 @@
+package com.resell.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Replays the stored response for requests that carry an Idempotency-Key we have seen.
+//
+// Entries live in a bounded, insertion-ordered map. Every entry gets the same TTL, so
+// the oldest entry is always the next to expire and eviction only looks at the head.
+// A retry that arrives while the first request is still running waits for its result
+// instead of executing the action a second time, for at most idempotency.wait-ms; after
+// that it gets 409 and may retry later.
+@Service
+public class IdempotencyService {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyService(@Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${idempotency.wait-ms:10000}") long waitMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.waitMillis = waitMillis;
+    }
+
+    // Run the action once per key. A null or blank key disables idempotency.
+    // If the action throws, the key is forgotten so the client can retry.
+    public ResponseEntity<?> execute(String key, Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            evictExpired(now);
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(now + ttlMillis);
+                entries.put(key, entry);
+                evictOverflow();
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            ResponseEntity<?> response;
+            try {
+                response = action.get();
+            } catch (Throwable e) {
+                // Errors too, or waiters would hang on a key that never completes
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+                entry.response.completeExceptionally(e);
+                throw e;
+            }
+            entry.response.complete(response);
+            return response;
+        }
+
+        try {
+            return entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return inProgress();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ResponseEntity<?> inProgress() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("A request with this Idempotency-Key is still in progress");
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && it.next().getValue().expiresAt <= now) {
+            it.remove();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static class Entry {
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        private final long expiresAt;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
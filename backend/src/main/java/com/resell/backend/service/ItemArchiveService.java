@@ -0,0 +1,122 @@
+package com.resell.backend.service;
+
+import com.resell.backend.repository.ArchivedItemRepository;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Hot/cold split: sold items older than archive.min-age-days move from items to
+// archived_items, so the active table (and every listing scan and index on it) only
+// grows with what is for sale.
+//
+// Work is done in batches of archive.batch-size rows, each its own short transaction
+// (copy, drop stale cart rows, delete), with a pause in between, so locks are held for
+// milliseconds and replicas keep up. Ids are kept, so /items/{id} and the seller's
+// history read both tables (ItemService); updates to an archived id are refused (410).
+// Nothing else changes: in-memory indexes only hold unsold items, and seller stats count
+// both tables.
+//
+// Sales without a purchasedAt (made before it was recorded) are stamped with the time of
+// the first run that sees them, so they are archived archive.min-age-days after that
+// rather than all in the first run.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ItemArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemArchiveService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ArchivedItemRepository archivedItemRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.min-age-days:30}")
+    private long minAgeDays;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${archive.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${archive.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    private Counter archived;
+
+    @PostConstruct
+    public void registerMetrics() {
+        archived = meterRegistry.counter("items.archived");
+    }
+
+    // Returns the number of items moved
+    @Scheduled(initialDelayString = "${archive.interval-ms:3600000}", fixedDelayString = "${archive.interval-ms:3600000}")
+    public int archive() {
+        if (!enabled) {
+            return 0;
+        }
+        Integer stamped = transactionTemplate.execute(status -> itemRepository.stampUnknownSaleTimes(Instant.now()));
+        if (stamped > 0) {
+            log.info("Stamped {} sold items without a purchase time; archiving them in {} days", stamped, minAgeDays);
+        }
+        Instant cutoff = Instant.now().minus(Duration.ofDays(minAgeDays));
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} sold items", total);
+        }
+        return total;
+    }
+
+    private int archiveBatch(Instant cutoff) {
+        List<Long> ids = itemRepository.findArchivableIds(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedItemRepository.copyFromItems(ids, Instant.now());
+        cartItemRepository.deleteByItemIdIn(ids); // other buyers' carts still pointing at sold items
+        itemRepository.deleteAllByIdInBatch(ids);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+}
@@ -0,0 +1,268 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.BatchResult;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.OutboxPublisher;
+import com.resell.backend.index.GeoGridIndex;
+import com.resell.backend.limit.SingleFlight;
+import com.resell.backend.limit.SingleFlights;
+import com.resell.backend.model.ArchivedItem;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ArchivedItemRepository;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ItemService {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ArchivedItemRepository archivedItemRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private SellerStatsService sellerStatsService;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private StoredBlobService storedBlobService;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    private SingleFlight<Long, Optional<Item>> itemLoads;
+    private SingleFlight<String, List<Item>> listedLoads;
+
+    @PostConstruct
+    public void createFlights() {
+        itemLoads = singleFlights.create("item");
+        listedLoads = singleFlights.create("listed-items");
+    }
+
+    // One item, active or archived (ItemArchiveService keeps ids). Concurrent requests for
+    // the same id share one load; no transaction around it, or every waiting request would
+    // hold a pooled connection. The result is a detached copy, shared by those requests:
+    // read it, don't modify it.
+    public Optional<Item> findById(Long id) {
+        return itemLoads.load(id, () -> {
+            Optional<Item> item = itemRepository.findById(id);
+            return (item.isPresent() ? item : archivedItemRepository.findById(id).map(ArchivedItem::toItem))
+                    .map(ItemService::detached);
+        });
+    }
+
+    // Every listed item (GET /items); concurrent requests share one query and one list of
+    // detached copies
+    public List<Item> findListed() {
+        return listedLoads.load("listed",
+                () -> itemRepository.findByPurchasedFalse().stream().map(ItemService::detached).toList());
+    }
+
+    // A coalesced load runs on the first caller's thread, so its entities belong to that
+    // request's persistence context (open-in-view). The other callers get copies instead,
+    // which never touch that EntityManager; the owner is copied without its password hash.
+    static Item detached(Item item) {
+        User owner = item.getOwner();
+        return Item.builder()
+                .id(item.getId())
+                .title(item.getTitle())
+                .description(item.getDescription())
+                .price(item.getPrice())
+                .imageUrl(item.getImageUrl())
+                .owner(owner == null ? null : User.builder()
+                        .id(owner.getId())
+                        .email(owner.getEmail())
+                        .fullname(owner.getFullname())
+                        .role(owner.getRole())
+                        .build())
+                .purchased(item.getPurchased())
+                .purchasedAt(item.getPurchasedAt())
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .build();
+    }
+
+    // A seller's whole history: current listings and archived sales, oldest first
+    @Transactional(readOnly = true)
+    public List<Item> findByOwner(Long ownerId) {
+        List<Item> items = new ArrayList<>(itemRepository.findByOwnerId(ownerId));
+        archivedItemRepository.findByOwnerId(ownerId).forEach(archived -> items.add(archived.toItem()));
+        items.sort(Comparator.comparing(Item::getId));
+        return items;
+    }
+
+    // Create one listing; the ItemCreated event commits with it
+    @Transactional
+    public Item createItem(User owner, Item item) {
+        item.setOwner(owner);
+        if (item.getPurchased() == null) {
+            item.setPurchased(false);
+        }
+        Item saved = itemRepository.save(item);
+        sellerStatsService.onCreated(saved);
+        storedBlobService.retain(saved.getImageUrl());
+        outboxPublisher.publish(DomainEvent.ITEM_CREATED, saved.getId(), toPayload(saved));
+        return saved;
+    }
+
+    // Replace a listing's fields; the ItemUpdated event commits with it. Empty if the item
+    // was archived: saving it would bring an old sale back as a live row.
+    @Transactional
+    public Optional<Item> updateItem(Long id, Item item) {
+        // Capture the old values before the save merges into the managed entity
+        Item existing = itemRepository.findById(id).orElse(null);
+        if (existing == null && archivedItemRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        Long oldOwnerId = existing != null && existing.getOwner() != null ? existing.getOwner().getId() : null;
+        Double oldPrice = existing != null ? existing.getPrice() : null;
+        Boolean oldPurchased = existing != null ? existing.getPurchased() : null;
+        String oldImageUrl = existing != null ? existing.getImageUrl() : null;
+
+        item.setId(id);
+        if (item.getPurchasedAt() == null && existing != null) {
+            item.setPurchasedAt(existing.getPurchasedAt());
+        }
+        Item saved = itemRepository.save(item);
+        sellerStatsService.onUpdated(oldOwnerId, oldPrice, oldPurchased, saved);
+        storedBlobService.replace(oldImageUrl, saved.getImageUrl());
+        outboxPublisher.publish(DomainEvent.ITEM_UPDATED, saved.getId(), toPayload(saved));
+        return Optional.of(saved);
+    }
+
+    // Delete a listing (and any cart rows pointing at it); the ItemDeleted event commits with it.
+    // Returns the deleted item, empty if there was none.
+    @Transactional
+    public Optional<Item> deleteItem(Long id) {
+        Optional<Item> found = itemRepository.findById(id);
+        found.ifPresent(item -> {
+            cartItemRepository.deleteByItemIdIn(List.of(id));
+            itemRepository.delete(item);
+            sellerStatsService.onDeleted(item);
+            storedBlobService.release(item.getImageUrl());
+            outboxPublisher.publish(DomainEvent.ITEM_DELETED, id, toPayload(item));
+        });
+        return found;
+    }
+
+    // Create many listings for one seller in a single transaction.
+    // Valid entries are saved together; with pooled sequence ids Hibernate sends them
+    // as JDBC batches of hibernate.jdbc.batch_size rows.
+    @Transactional
+    public List<BatchResult> createItems(User owner, List<Item> items) {
+        List<BatchResult> results = new ArrayList<>();
+        List<Item> toSave = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item == null || item.getTitle() == null || item.getTitle().isBlank()) {
+                results.add(BatchResult.error(i, null, "Title is required"));
+            } else if (item.getPrice() == null || item.getPrice() < 0) {
+                results.add(BatchResult.error(i, null, "Price must be zero or more"));
+            } else if (!hasValidLocation(item)) {
+                results.add(BatchResult.error(i, null, LOCATION_ERROR));
+            } else {
+                item.setId(null);
+                item.setOwner(owner);
+                item.setPurchased(false);
+                toSave.add(item);
+                positions.add(i);
+                results.add(null); // filled in once ids are assigned
+            }
+        }
+
+        List<Item> saved = itemRepository.saveAll(toSave);
+        for (int j = 0; j < saved.size(); j++) {
+            int index = positions.get(j);
+            results.set(index, BatchResult.ok(index, saved.get(j).getId()));
+            sellerStatsService.onCreated(saved.get(j));
+            storedBlobService.retain(saved.get(j).getImageUrl());
+            outboxPublisher.publish(DomainEvent.ITEM_CREATED, saved.get(j).getId(), toPayload(saved.get(j)));
+        }
+        return results;
+    }
+
+    // Delete many items (admin) in a single transaction.
+    // Cart rows pointing at the items go first, then the items, each as one bulk delete.
+    // The deleted items are added to `deleted`.
+    @Transactional
+    public List<BatchResult> deleteItems(List<Long> ids, List<Item> deleted) {
+        Map<Long, Item> found = itemRepository.findAllById(ids.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BatchResult> results = new ArrayList<>();
+        Set<Long> toDelete = new LinkedHashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null || !found.containsKey(id)) {
+                results.add(BatchResult.error(i, id, "Item not found"));
+            } else {
+                toDelete.add(id);
+                results.add(BatchResult.ok(i, id));
+            }
+        }
+
+        if (!toDelete.isEmpty()) {
+            cartItemRepository.deleteByItemIdIn(toDelete);
+            itemRepository.deleteAllByIdInBatch(toDelete);
+            for (Long id : toDelete) {
+                deleted.add(found.get(id));
+                sellerStatsService.onDeleted(found.get(id));
+                storedBlobService.release(found.get(id).getImageUrl());
+                outboxPublisher.publish(DomainEvent.ITEM_DELETED, id, toPayload(found.get(id)));
+            }
+        }
+        return results;
+    }
+
+    public static final String LOCATION_ERROR = "Latitude and longitude must be given together, "
+            + "within [-90, 90] and [-180, 180]";
+
+    // No location, or both coordinates in range
+    public static boolean hasValidLocation(Item item) {
+        if (item.getLatitude() == null && item.getLongitude() == null) {
+            return true;
+        }
+        return item.getLatitude() != null && item.getLongitude() != null
+                && GeoGridIndex.isValid(item.getLatitude(), item.getLongitude());
+    }
+
+    // Event payload: the listing as ItemDTO (with ownerId)
+    static ItemDTO toPayload(Item item) {
+        return ItemDTO.builder()
+                .id(item.getId())
+                .title(item.getTitle())
+                .description(item.getDescription())
+                .price(item.getPrice())
+                .imageUrl(item.getImageUrl())
+                .purchased(item.getPurchased())
+                .ownerId(item.getOwner() != null ? item.getOwner().getId() : null)
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .build();
+    }
+}
@@ -1,5 +1,9 @@
 package com.resell.backend.service;
 
+import com.resell.backend.diagnostics.StorageEvent;
+import com.resell.backend.storage.ContentAddress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -9,15 +13,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+@Lazy
 @Service
 @org.springframework.boot.autoconfigure.condition.ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalStorageService implements StorageService {
 
     private final Path rootLocation = Paths.get("uploads");
 
+    @Autowired
+    private StoredBlobService storedBlobService;
+
     @PostConstruct
     public void init() {
         try {
@@ -29,12 +36,28 @@ public class LocalStorageService implements StorageService {
 
     @Override
     public String uploadFile(MultipartFile file) throws IOException {
-        String filename = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
+        return StorageEvent.record("upload", "local", file.getSize(), () -> store(file));
+    }
+
+    private String store(MultipartFile file) throws IOException {
+        // Hash while copying to a temp file, then store under the digest
+        ContentAddress.Hashed upload;
+        try (var inputStream = file.getInputStream()) {
+            upload = ContentAddress.copy(inputStream, rootLocation, file.getOriginalFilename());
+        }
+        String filename = upload.key();
         Path destinationFile = this.rootLocation.resolve(Paths.get(filename))
                 .normalize().toAbsolutePath();
 
-        try (var inputStream = file.getInputStream()) {
-            Files.copy(inputStream, destinationFile, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            boolean stored = storedBlobService.register(filename, upload.size());
+            if (!stored || !Files.exists(destinationFile)) {
+                Files.move(upload.file(), destinationFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                storedBlobService.markStored(filename);
+            }
+        } finally {
+            Files.deleteIfExists(upload.file());
         }
 
         // Return the relative URL that fits our WebConfig resources mapping
@@ -44,4 +67,9 @@ public class LocalStorageService implements StorageService {
                 .path(filename)
                 .toUriString();
     }
+
+    @Override
+    public void delete(String key) throws IOException {
+        StorageEvent.record("delete", "local", 0, () -> Files.deleteIfExists(rootLocation.resolve(key)));
+    }
 }
@@ -0,0 +1,113 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.PageResponse;
+import com.resell.backend.model.Notification;
+import com.resell.backend.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Per-user inbox of listings that matched a saved search
+@Service
+public class NotificationService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
+    private static final int CHUNK = 1000;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // One notification per user for the item, attributed to the first matching search.
+    // searchesByUser: userId -> searchId. Users already notified (a redelivered event, or
+    // another pod that got there first) are skipped; returns how many were written.
+    //
+    // Called outside a transaction. The rows go in as one batch; if another pod inserts
+    // some of the same (user, item) rows meanwhile, the unique constraint rolls that batch
+    // back, and the rows are written again one per transaction, skipping the duplicates.
+    public int notify(ItemDTO item, Map<Long, Long> searchesByUser) {
+        try {
+            return transactionTemplate.execute(status -> {
+                List<Notification> notifications = pending(item, searchesByUser);
+                notificationRepository.saveAllAndFlush(notifications);
+                return notifications.size();
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Notifications for item {} raced with another pod; writing them one by one", item.getId());
+        }
+
+        int written = 0;
+        for (Notification notification : transactionTemplate.execute(status -> pending(item, searchesByUser))) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAndFlush(notification));
+                written++;
+            } catch (DataIntegrityViolationException e) {
+                // written by the other pod
+            }
+        }
+        return written;
+    }
+
+    // Notifications for the users not yet notified about the item
+    private List<Notification> pending(ItemDTO item, Map<Long, Long> searchesByUser) {
+        List<Long> userIds = new ArrayList<>(searchesByUser.keySet());
+        Set<Long> alreadyNotified = new HashSet<>();
+        for (int from = 0; from < userIds.size(); from += CHUNK) {
+            alreadyNotified.addAll(notificationRepository.findNotifiedUserIds(item.getId(),
+                    userIds.subList(from, Math.min(from + CHUNK, userIds.size()))));
+        }
+
+        Instant now = Instant.now();
+        List<Notification> notifications = new ArrayList<>();
+        for (Map.Entry<Long, Long> match : searchesByUser.entrySet()) {
+            if (!alreadyNotified.contains(match.getKey())) {
+                notifications.add(Notification.builder()
+                        .userId(match.getKey())
+                        .itemId(item.getId())
+                        .savedSearchId(match.getValue())
+                        .itemTitle(item.getTitle())
+                        .itemPrice(item.getPrice())
+                        .createdAt(now)
+                        .build());
+            }
+        }
+        return notifications;
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<Notification> getInbox(Long userId, int page, int size) {
+        Slice<Notification> slice = notificationRepository.findByUserIdOrderByIdDesc(userId, PageRequest.of(page, size));
+        return PageResponse.<Notification>builder()
+                .content(slice.getContent())
+                .page(page)
+                .size(size)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    public long countUnread(Long userId) {
+        return notificationRepository.countByUserIdAndReadAtIsNull(userId);
+    }
+
+    @Transactional
+    public int markAllRead(Long userId) {
+        return notificationRepository.markAllRead(userId, Instant.now());
+    }
+}
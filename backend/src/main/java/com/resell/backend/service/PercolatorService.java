@@ -0,0 +1,143 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.SavedSearchDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.index.Percolator;
+import com.resell.backend.repository.SavedSearchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Matches every new listing against all saved searches and fills the buyers' inboxes,
+// so clients do not have to poll /items for new matches.
+//
+// Runs on this subscriber's own outbox delivery thread, i.e. after the listing has
+// committed and never on the request that created it. Saved search changes arrive the
+// same way, so every pod's percolator stays in sync. The full rebuild runs in
+// StartupWarmup and periodically into a fresh Percolator that is swapped in.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class PercolatorService implements DomainEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(PercolatorService.class);
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile Percolator percolator;
+    private List<DomainEvent> replay; // non-null while a rebuild is running; guarded by this
+    private Timer matchTimer;
+    private Counter notified;
+
+    @PostConstruct
+    public void registerMetrics() {
+        matchTimer = meterRegistry.timer("percolator.match");
+        notified = meterRegistry.counter("percolator.notifications");
+    }
+
+    @Override
+    public String name() {
+        return "percolator";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        switch (event.type()) {
+            case DomainEvent.SAVED_SEARCH_SAVED, DomainEvent.SAVED_SEARCH_DELETED -> {
+                synchronized (this) {
+                    if (replay != null) {
+                        replay.add(event);
+                    }
+                    if (percolator != null) {
+                        apply(percolator, event);
+                    }
+                }
+            }
+            case DomainEvent.ITEM_CREATED -> match(objectMapper.readValue(event.payload(), ItemDTO.class));
+            default -> {
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${saved-searches.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${saved-searches.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            Percolator rebuilt = new Percolator((int) savedSearchRepository.count());
+            try (Stream<Object[]> searches = savedSearchRepository.streamAll()) {
+                searches.forEach(row -> rebuilt.put((Long) row[0], (Long) row[1], (String) row[2],
+                        (Double) row[3], (Double) row[4]));
+            }
+            synchronized (this) {
+                replay.forEach(event -> apply(rebuilt, event));
+                percolator = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+        log.info("Percolator rebuilt with {} saved searches", percolator.size());
+    }
+
+    private void match(ItemDTO item) {
+        Percolator current = percolator;
+        if (current == null || item.getPurchased() == Boolean.TRUE) {
+            return;
+        }
+        String text = item.getDescription() == null ? item.getTitle() : item.getTitle() + " " + item.getDescription();
+        double price = item.getPrice() == null ? 0 : item.getPrice();
+
+        Map<Long, Long> searchesByUser = new LinkedHashMap<>();
+        matchTimer.record(() -> current.match(text, price, (searchId, userId) -> {
+            if (!Objects.equals(userId, item.getOwnerId())) { // sellers are not told about their own listings
+                searchesByUser.putIfAbsent(userId, searchId);
+            }
+        }));
+        if (searchesByUser.isEmpty()) {
+            return;
+        }
+        notified.increment(notificationService.notify(item, searchesByUser));
+    }
+
+    private void apply(Percolator target, DomainEvent event) {
+        SavedSearchDTO search = objectMapper.readValue(event.payload(), SavedSearchDTO.class);
+        if (DomainEvent.SAVED_SEARCH_SAVED.equals(event.type())) {
+            target.put(search.getId(), search.getUserId(), search.getKeywords(), search.getMinPrice(),
+                    search.getMaxPrice());
+        } else {
+            target.remove(search.getId());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.SavedSearchDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.OutboxPublisher;
+import com.resell.backend.index.TextTokens;
+import com.resell.backend.model.SavedSearch;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.SavedSearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Saved searches are stored in MySQL and mirrored into every pod's percolator through
+// SavedSearchSaved/SavedSearchDeleted outbox events
+@Service
+public class SavedSearchService {
+
+    private static final int MAX_KEYWORDS = 10;
+
+    @Autowired
+    private SavedSearchRepository savedSearchRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Value("${saved-searches.max-per-user:50}")
+    private int maxPerUser;
+
+    @Transactional(readOnly = true)
+    public List<SavedSearchDTO> getSearches(User user) {
+        return savedSearchRepository.findByUserIdOrderByIdDesc(user.getId()).stream()
+                .map(SavedSearchDTO::from)
+                .toList();
+    }
+
+    @Transactional
+    public SavedSearchDTO create(User user, SavedSearchDTO request) {
+        int keywords = TextTokens.words(request.getKeywords()).length;
+        if (keywords == 0 || keywords > MAX_KEYWORDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_KEYWORDS + " keywords are required");
+        }
+        if (request.getMinPrice() != null && request.getMaxPrice() != null
+                && request.getMinPrice() > request.getMaxPrice()) {
+            throw new IllegalArgumentException("minPrice must not exceed maxPrice");
+        }
+        if (savedSearchRepository.countByUserId(user.getId()) >= maxPerUser) {
+            throw new IllegalArgumentException("At most " + maxPerUser + " saved searches per user");
+        }
+
+        SavedSearch saved = savedSearchRepository.save(SavedSearch.builder()
+                .user(user)
+                .keywords(request.getKeywords().trim())
+                .minPrice(request.getMinPrice())
+                .maxPrice(request.getMaxPrice())
+                .createdAt(Instant.now())
+                .build());
+        SavedSearchDTO dto = SavedSearchDTO.from(saved);
+        outboxPublisher.publish(DomainEvent.SAVED_SEARCH_SAVED, saved.getId(), dto);
+        return dto;
+    }
+
+    // Returns false if the search does not exist or belongs to someone else
+    @Transactional
+    public boolean delete(User user, Long id) {
+        SavedSearch search = savedSearchRepository.findById(id).orElse(null);
+        if (search == null || !search.getUser().getId().equals(user.getId())) {
+            return false;
+        }
+        savedSearchRepository.delete(search);
+        outboxPublisher.publish(DomainEvent.SAVED_SEARCH_DELETED, id, SavedSearchDTO.from(search));
+        return true;
+    }
+}
@@ -0,0 +1,217 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.StatsDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.repository.ArchivedItemRepository;
+import com.resell.backend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Per-seller listing and sales aggregates, kept in memory and updated incrementally
+// from item create/update/delete and checkout, so reads are a single map lookup.
+//
+// Updates inside a transaction are applied after commit. Anything missed (rollbacks
+// after the fact, other replicas) is corrected by the periodic reconcile, which
+// recomputes everything with one GROUP BY query and swaps it in. Updates applied while
+// the rebuild runs are recorded and replayed onto the rebuilt state before the swap.
+// One that committed before the rebuild's snapshot but ran its after-commit step later
+// is counted twice until the next reconcile; that window is the gap between a commit
+// and its callback.
+@Service
+public class SellerStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SellerStatsService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ArchivedItemRepository archivedItemRepository;
+
+    private volatile State state = new State();
+
+    // Updates go to the current state and, while a rebuild runs, to this log as well
+    private final Object updateLock = new Object();
+    private List<Consumer<State>> duringRebuild; // guarded by updateLock
+
+    // Item saved for the first time
+    public void onCreated(Item item) {
+        afterCommit(() -> apply(ownerId(item), item.getPrice(), item.getPurchased(), 1));
+    }
+
+    // Item changed; "before" values must be captured before the save
+    public void onUpdated(Long oldOwnerId, Double oldPrice, Boolean oldPurchased, Item updated) {
+        afterCommit(() -> {
+            apply(oldOwnerId, oldPrice, oldPurchased, -1);
+            apply(ownerId(updated), updated.getPrice(), updated.getPurchased(), 1);
+        });
+    }
+
+    // Item removed
+    public void onDeleted(Item item) {
+        Long ownerId = ownerId(item);
+        Double price = item.getPrice();
+        Boolean purchased = item.getPurchased();
+        afterCommit(() -> apply(ownerId, price, purchased, -1));
+    }
+
+    // Unsold item bought at checkout
+    public void onSold(Item item) {
+        Long ownerId = ownerId(item);
+        double price = price(item.getPrice());
+        if (ownerId == null) {
+            return;
+        }
+        afterCommit(() -> update(current -> {
+            current.sellers.computeIfAbsent(ownerId, id -> new Counter()).sold(price);
+            current.totals.sold(price);
+        }));
+    }
+
+    public StatsDTO getSellerStats(Long sellerId) {
+        Counter counter = state.sellers.get(sellerId);
+        return counter == null ? new Counter().snapshot(sellerId) : counter.snapshot(sellerId);
+    }
+
+    public StatsDTO getPlatformStats() {
+        return state.totals.snapshot(null);
+    }
+
+    // Rebuild from MySQL to correct drift. The initial build runs in StartupWarmup.
+    // Archived items count as sold listings; both tables are read in one transaction so
+    // an archive batch committing in between is not counted twice or missed.
+    @Scheduled(initialDelayString = "${stats.reconcile-interval-ms:600000}",
+            fixedDelayString = "${stats.reconcile-interval-ms:600000}")
+    @Transactional(readOnly = true)
+    public synchronized void reconcile() {
+        synchronized (updateLock) {
+            duringRebuild = new ArrayList<>();
+        }
+        try {
+            State rebuilt = build();
+            synchronized (updateLock) {
+                duringRebuild.forEach(delta -> delta.accept(rebuilt));
+                state = rebuilt;
+            }
+            log.info("Seller stats rebuilt for {} sellers", rebuilt.sellers.size());
+        } finally {
+            synchronized (updateLock) {
+                duringRebuild = null;
+            }
+        }
+    }
+
+    private State build() {
+        State rebuilt = new State();
+        for (List<ItemRepository.SellerAggregate> rows : List.of(itemRepository.aggregateBySeller(),
+                archivedItemRepository.aggregateBySeller())) {
+            for (ItemRepository.SellerAggregate row : rows) {
+                Counter counter = rebuilt.sellers.computeIfAbsent(row.getSellerId(), id -> new Counter());
+                counter.listings += row.getListingCount();
+                counter.priceSum += price(row.getPriceSum());
+                counter.sold += row.getSoldCount() == null ? 0 : row.getSoldCount();
+                counter.revenue += price(row.getRevenue());
+            }
+        }
+        rebuilt.sellers.values().forEach(rebuilt.totals::add);
+        return rebuilt;
+    }
+
+    private void apply(Long ownerId, Double price, Boolean purchased, int sign) {
+        if (ownerId == null) {
+            return;
+        }
+        boolean sold = Boolean.TRUE.equals(purchased);
+        double amount = price(price);
+        update(current -> {
+            current.sellers.computeIfAbsent(ownerId, id -> new Counter()).listing(amount, sold, sign);
+            current.totals.listing(amount, sold, sign);
+        });
+    }
+
+    private void update(Consumer<State> delta) {
+        synchronized (updateLock) {
+            delta.accept(state);
+            if (duringRebuild != null) {
+                duringRebuild.add(delta);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static Long ownerId(Item item) {
+        return item.getOwner() == null ? null : item.getOwner().getId();
+    }
+
+    private static double price(Double price) {
+        return price == null ? 0 : price;
+    }
+
+    private static final class State {
+        private final Map<Long, Counter> sellers = new ConcurrentHashMap<>();
+        private final Counter totals = new Counter();
+    }
+
+    private static final class Counter {
+        private long listings;
+        private double priceSum;
+        private long sold;
+        private double revenue;
+
+        synchronized void listing(double price, boolean purchased, int sign) {
+            listings += sign;
+            priceSum += sign * price;
+            if (purchased) {
+                sold += sign;
+                revenue += sign * price;
+            }
+        }
+
+        synchronized void sold(double price) {
+            sold++;
+            revenue += price;
+        }
+
+        synchronized void add(Counter other) {
+            listings += other.listings;
+            priceSum += other.priceSum;
+            sold += other.sold;
+            revenue += other.revenue;
+        }
+
+        synchronized StatsDTO snapshot(Long sellerId) {
+            return StatsDTO.builder()
+                    .sellerId(sellerId)
+                    .listingCount(listings)
+                    .activeCount(listings - sold)
+                    .soldCount(sold)
+                    .revenue(revenue)
+                    .averagePrice(listings == 0 ? 0 : priceSum / listings)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.index.MinHashIndex;
+import com.resell.backend.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Serves /items/{id}/similar from a MinHash/LSH index over listing titles and descriptions.
+// Only listed (unsold) items are indexed, so sold items never show up as suggestions.
+//
+// Kept current from item events through the outbox, like FacetIndexService. The full
+// rebuild runs in StartupWarmup and then periodically into a fresh index that is swapped in.
+//
+// The old index stays live while the new one is built, so a rebuild briefly holds two.
+// similar.max-listings caps both: at about 450 bytes per listing the default 100k is
+// ~45 MB each, ~90 MB at the peak, which fits the pod's default heap (a quarter of the
+// 1024Mi limit in infra/backend.yaml) next to everything else. Above the cap the rebuild
+// indexes the newest listings, and listings created since then wait for the next one.
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SimilarItemsService implements DomainEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarItemsService.class);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${similar.bands:16}")
+    private int bands;
+
+    @Value("${similar.rows:4}")
+    private int rows;
+
+    @Value("${similar.max-candidates-per-band:200}")
+    private int maxCandidatesPerBand;
+
+    @Value("${similar.min-score:0.2}")
+    private double minScore;
+
+    @Value("${similar.max-listings:100000}")
+    private int maxListings;
+
+    private volatile MinHashIndex index;
+    private List<DomainEvent> replay; // non-null while a rebuild is running; guarded by this
+
+    @Override
+    public String name() {
+        return "similar-items";
+    }
+
+    @Override
+    public synchronized void onEvent(DomainEvent event) {
+        if (replay != null) {
+            replay.add(event);
+        }
+        if (index != null) {
+            apply(index, event);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${similar.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${similar.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            int expected = (int) Math.min(itemRepository.count(), maxListings);
+            MinHashIndex rebuilt = new MinHashIndex(bands, rows, maxCandidatesPerBand, expected, maxListings);
+            try (Stream<Object[]> listed = itemRepository.streamListedText()) {
+                listed.limit(maxListings)
+                        .forEach(row -> rebuilt.put((Long) row[0], text((String) row[1], (String) row[2])));
+            }
+            synchronized (this) {
+                replay.forEach(event -> apply(rebuilt, event));
+                index = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+        int size = index.size();
+        if (size >= maxListings) {
+            log.warn("Similar items index is full: only the newest {} listings are indexed (similar.max-listings)",
+                    maxListings);
+        } else {
+            log.info("Similar items index rebuilt with {} listed items", size);
+        }
+    }
+
+    // Most similar listed items, best first; empty if the item is unknown, sold or has no text
+    public List<ItemDTO> similar(Long itemId, int limit) {
+        MinHashIndex current = index;
+        if (current == null) {
+            return List.of();
+        }
+        long[] ids = new long[limit];
+        int found = current.similar(itemId, minScore, ids, new double[limit]);
+        if (found == 0) {
+            return List.of();
+        }
+
+        List<Long> ranked = Arrays.stream(ids, 0, found).boxed().toList();
+        Map<Long, ItemDTO> byId = itemRepository.findDTOsByIdIn(ranked).stream()
+                .collect(Collectors.toMap(ItemDTO::getId, Function.identity()));
+        List<ItemDTO> similar = new ArrayList<>(found);
+        for (Long id : ranked) {
+            ItemDTO item = byId.get(id);
+            if (item != null && !Boolean.TRUE.equals(item.getPurchased())) {
+                similar.add(item);
+            }
+        }
+        return similar;
+    }
+
+    private void apply(MinHashIndex target, DomainEvent event) {
+        switch (event.type()) {
+            case DomainEvent.ITEM_CREATED, DomainEvent.ITEM_UPDATED -> {
+                ItemDTO item = objectMapper.readValue(event.payload(), ItemDTO.class);
+                if (Boolean.TRUE.equals(item.getPurchased())) {
+                    target.remove(item.getId());
+                } else {
+                    target.put(item.getId(), text(item.getTitle(), item.getDescription())); // refused when full
+                }
+            }
+            case DomainEvent.ITEM_DELETED, DomainEvent.ITEM_PURCHASED -> target.remove(event.aggregateId());
+            default -> {
+            }
+        }
+    }
+
+    private static String text(String title, String description) {
+        if (description == null) {
+            return title;
+        }
+        return title == null ? description : title + " " + description;
+    }
+}
@@ -0,0 +1,72 @@
+package com.resell.backend.service;
+
+import com.resell.backend.diagnostics.StorageEvent;
+import com.resell.backend.storage.ContentAddress;
+import com.resell.backend.storage.ObjectStore;
+import com.resell.backend.storage.SpoolUploader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+// storage.type=spool: the upload request only writes to local disk; SpoolUploader pushes
+// the file to the object store afterwards. The returned URL points at this backend
+// (UploadController), which serves the spooled copy until the remote has it and then
+// redirects there, so the URL stored on the item never changes.
+@Lazy
+@Service
+@ConditionalOnProperty(name = "storage.type", havingValue = "spool")
+public class SpoolStorageService implements StorageService {
+
+    @Autowired
+    private SpoolUploader spoolUploader;
+
+    @Autowired
+    private ObjectStore objectStore;
+
+    @Autowired
+    private StoredBlobService storedBlobService;
+
+    // The event covers the local write only; the put to the object store is its own
+    // event, in SpoolUploader
+    @Override
+    public String uploadFile(MultipartFile file) throws IOException {
+        return StorageEvent.record("upload", "spool", file.getSize(), () -> store(file));
+    }
+
+    private String store(MultipartFile file) throws IOException {
+        ContentAddress.Hashed upload;
+        try (InputStream inputStream = file.getInputStream()) {
+            upload = ContentAddress.copy(inputStream, spoolUploader.directory(), file.getOriginalFilename());
+        }
+        String filename = upload.key();
+
+        try {
+            if (!storedBlobService.register(filename, upload.size())) {
+                spoolUploader.spool(filename, upload.file());
+            }
+        } finally {
+            Files.deleteIfExists(upload.file());
+        }
+
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(filename)
+                .toUriString();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        StorageEvent.record("delete", "spool", 0, () -> {
+            spoolUploader.discard(key);
+            objectStore.delete(key);
+            return null;
+        });
+    }
+}
@@ -3,6 +3,11 @@ package com.resell.backend.service;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 
+// Implementations store uploads content addressed (see ContentAddress) and skip the write
+// when StoredBlobService already has the same bytes
 public interface StorageService {
     String uploadFile(MultipartFile file) throws IOException;
+
+    // Remove a blob no item references any more (StoredBlobService's sweeper)
+    void delete(String key) throws IOException;
 }
@@ -0,0 +1,206 @@
+package com.resell.backend.service;
+
+import com.resell.backend.model.StoredBlob;
+import com.resell.backend.repository.StoredBlobRepository;
+import com.resell.backend.storage.ContentAddress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+// Bookkeeping for content-addressed uploads: which blobs exist, whether the backend has
+// their bytes, and how many items point at each.
+//
+// Storage services register every upload first and skip the write for content that is
+// already stored. ItemService adjusts the reference counts in the item's own transaction.
+// The sweeper removes blobs nothing references once they have been untouched for
+// storage.blobs.grace-period-ms, which also covers uploads never attached to an item.
+//
+// The sweeper reclaims each blob under a row lock and re-checks it there; a concurrent
+// upload of the same bytes waits on that lock in touch(), so it either keeps the blob
+// alive or finds it gone and writes it again. The row is marked not stored and committed
+// before the bytes are deleted, so a failure in between never leaves a stored row
+// pointing at missing bytes.
+@Service
+public class StoredBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoredBlobService.class);
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    @Lazy // the storage services depend on this service
+    private StorageService storageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.blobs.grace-period-ms:3600000}")
+    private long gracePeriodMs;
+
+    @Value("${storage.blobs.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    private Counter storedUploads;
+    private Counter deduplicatedUploads;
+    private Counter deduplicatedBytes;
+    private Counter reclaimed;
+
+    // Work started from afterCommit must not join the transaction that just committed
+    private TransactionTemplate requiresNew;
+
+    @PostConstruct
+    public void init() {
+        requiresNew = new TransactionTemplate(Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        storedUploads = meterRegistry.counter("storage.uploads", "result", "stored");
+        deduplicatedUploads = meterRegistry.counter("storage.uploads", "result", "deduplicated");
+        deduplicatedBytes = meterRegistry.counter("storage.uploads.deduplicated.bytes");
+        reclaimed = meterRegistry.counter("storage.blobs.reclaimed");
+    }
+
+    // Called for every upload before writing it. True if the bytes are already stored and
+    // the write can be skipped. Not transactional on purpose: each step commits on its own.
+    public boolean register(String key, long size) {
+        Instant now = Instant.now();
+        if (storedBlobRepository.touch(key, now) == 0) {
+            try {
+                storedBlobRepository.save(StoredBlob.builder()
+                        .blobKey(key)
+                        .sizeBytes(size)
+                        .refCount(0)
+                        .stored(false)
+                        .updatedAt(now)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent upload of the same bytes registered it first; write anyway
+            }
+            return false;
+        }
+        if (storedBlobRepository.findStoredByKey(key).orElse(false)) {
+            deduplicatedUploads.increment();
+            deduplicatedBytes.increment(size);
+            return true;
+        }
+        return false;
+    }
+
+    // The backend has the bytes (for spool mode: the remote confirmed them)
+    public void markStored(String key) {
+        storedBlobRepository.markStored(key);
+        storedUploads.increment();
+    }
+
+    // Item reference changes; run inside the item's transaction. Image URLs that are not
+    // content addressed (older uploads, external links) are not counted.
+    public void retain(String imageUrl) {
+        adjust(imageUrl, 1);
+    }
+
+    public void release(String imageUrl) {
+        adjust(imageUrl, -1);
+    }
+
+    public void replace(String oldImageUrl, String newImageUrl) {
+        if (!Objects.equals(ContentAddress.keyOf(oldImageUrl), ContentAddress.keyOf(newImageUrl))) {
+            release(oldImageUrl);
+            retain(newImageUrl);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${storage.blobs.sweep-interval-ms:600000}",
+            fixedDelayString = "${storage.blobs.sweep-interval-ms:600000}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minusMillis(gracePeriodMs);
+        List<String> keys = storedBlobRepository.findUnreferencedKeys(cutoff, PageRequest.of(0, sweepBatchSize));
+        int count = 0;
+        for (String key : keys) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> reclaim(key, cutoff)))) {
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                // The row is rolled back and retried on the next sweep
+                log.warn("Could not reclaim blob {}", key, e);
+            }
+        }
+        if (!keys.isEmpty()) {
+            log.info("Reclaimed {} of {} unreferenced blobs", count, keys.size());
+        }
+    }
+
+    // From here on an upload of these bytes writes them again instead of deduplicating
+    private boolean reclaim(String key, Instant cutoff) {
+        StoredBlob blob = findReclaimable(key, cutoff);
+        if (blob == null) {
+            return false;
+        }
+        blob.setStored(false);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteBytes(key, cutoff);
+            }
+        });
+        return true;
+    }
+
+    // Locks the row again: an upload that touched it since the first check keeps it. If
+    // the delete fails the row stays, not stored, and the next sweep tries again.
+    private void deleteBytes(String key, Instant cutoff) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                StoredBlob blob = findReclaimable(key, cutoff);
+                if (blob == null) {
+                    return;
+                }
+                try {
+                    storageService.delete(key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                storedBlobRepository.delete(blob);
+                reclaimed.increment();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not delete the bytes of blob {}; retried on the next sweep", key, e);
+        }
+    }
+
+    private StoredBlob findReclaimable(String key, Instant cutoff) {
+        StoredBlob blob = storedBlobRepository.findForUpdate(key).orElse(null);
+        if (blob == null || blob.getRefCount() > 0 || !blob.getUpdatedAt().isBefore(cutoff)) {
+            return null; // referenced or re-uploaded since it was selected
+        }
+        return blob;
+    }
+
+    private void adjust(String imageUrl, int delta) {
+        String key = ContentAddress.keyOf(imageUrl);
+        if (key != null) {
+            storedBlobRepository.adjustRefCount(key, delta, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.resell.backend.service;
+
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.event.DomainEventSubscriber;
+import com.resell.backend.event.OutboxPublisher;
+import com.resell.backend.index.BloomFilter;
+import com.resell.backend.model.RevokedToken;
+import com.resell.backend.repository.RevokedTokenRepository;
+import com.resell.backend.security.JwtUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Revoked JWTs: a denylist in MySQL (authoritative) and a Bloom filter of its keys in
+// memory, checked on every authenticated request. A miss in the filter - nearly every
+// request - means "not revoked" without touching the database; only possible hits
+// (revoked tokens and ~auth.revocation.false-positive-rate of the others) query it.
+//
+// Revocations reach every pod's filter through TokenRevoked outbox events (the pod that
+// revokes also adds the key right away). A periodic rebuild from the unexpired rows into
+// a fresh filter drops entries whose tokens have all expired.
+//
+// A user-wide revocation stays in the filter until the tokens it covers have expired,
+// so every later request of that user is a possible hit. The revocation time read for a
+// user is kept in memory, and their new tokens (issued after it, compared to the
+// millisecond) pass without another query; a new TokenRevoked event for the user or a
+// rebuild drops it again.
+@Service
+public class TokenRevocationService implements DomainEventSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String JTI = "jti:";
+    private static final String SUBJECT = "sub:";
+    private static final Instant NOT_REVOKED = Instant.MIN;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${auth.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter; // null until the first rebuild: every check goes to the store
+    private List<String> replay; // non-null while a rebuild is running; guarded by this
+    private Counter storeLookups;
+
+    // email -> revokedAt of sub:<email> as last read (NOT_REVOKED if none). A lookup only
+    // stores its result if no user revocation arrived while it was reading.
+    private final Map<String, Instant> subjectRevokedAt = new ConcurrentHashMap<>();
+    private final AtomicLong subjectChanges = new AtomicLong();
+
+    @PostConstruct
+    public void registerMetrics() {
+        storeLookups = meterRegistry.counter("auth.revocation.store-lookups");
+    }
+
+    @Override
+    public String name() {
+        return "token-revocations";
+    }
+
+    @Override
+    public void onEvent(DomainEvent event) {
+        if (DomainEvent.TOKEN_REVOKED.equals(event.type())) {
+            add(objectMapper.readValue(event.payload(), String.class));
+        }
+    }
+
+    // Logout: revoke one token until it would have expired anyway
+    @Transactional
+    public void revokeToken(String jti, Instant expiresAt) {
+        revoke(JTI + jti, expiresAt);
+    }
+
+    // Role change or compromised account: revoke every token the user holds right now
+    @Transactional
+    public void revokeUser(String email) {
+        revoke(SUBJECT + email, Instant.now().plusMillis(jwtUtil.getExpirationMillis()));
+    }
+
+    // No I/O; false means the token is certainly not revoked
+    public boolean mightBeRevoked(String jti, String email) {
+        BloomFilter current = filter;
+        return current == null
+                || (jti != null && current.mightContain(JTI + jti))
+                || current.mightContain(SUBJECT + email);
+    }
+
+    // Authoritative check (queries the denylist for the keys the filter might contain);
+    // call after mightBeRevoked returned true. A token issued at or before the user's
+    // revocation time is revoked; one issued after it (a new login) is not. Not
+    // transactional, so a cached answer costs no connection.
+    public boolean isRevoked(String jti, String email, Instant issuedAt) {
+        BloomFilter current = filter;
+        if (jti != null && (current == null || current.mightContain(JTI + jti))) {
+            storeLookups.increment();
+            if (revokedTokenRepository.existsById(JTI + jti)) {
+                return true;
+            }
+        }
+        if (current != null && !current.mightContain(SUBJECT + email)) {
+            return false;
+        }
+        Instant revokedAt = subjectRevokedAt.get(email);
+        if (revokedAt == null) {
+            long changes = subjectChanges.get();
+            storeLookups.increment();
+            revokedAt = revokedTokenRepository.findById(SUBJECT + email)
+                    .map(RevokedToken::getRevokedAt)
+                    .orElse(NOT_REVOKED);
+            if (subjectRevokedAt.size() >= expectedEntries) {
+                subjectRevokedAt.clear();
+            }
+            if (subjectChanges.get() == changes) {
+                subjectRevokedAt.put(email, revokedAt);
+            }
+        }
+        return revokedAt != NOT_REVOKED && (issuedAt == null || !issuedAt.isAfter(revokedAt));
+    }
+
+    @Scheduled(initialDelayString = "${auth.revocation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${auth.revocation.rebuild-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            Instant now = Instant.now();
+            int entries = (int) revokedTokenRepository.countByExpiresAtAfter(now);
+            // Leave room for revocations until the next rebuild
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, entries * 2), falsePositiveRate);
+            try (Stream<String> keys = revokedTokenRepository.streamUnexpiredKeys(now)) {
+                keys.forEach(rebuilt::add);
+            }
+            synchronized (this) {
+                replay.forEach(rebuilt::add);
+                filter = rebuilt;
+            }
+            subjectChanges.incrementAndGet();
+            subjectRevokedAt.clear();
+            log.info("Token revocation filter rebuilt with {} entries ({} KB)", entries, rebuilt.bitCount() >> 13);
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${auth.revocation.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${auth.revocation.rebuild-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        log.debug("Purged {} expired token revocations", purged);
+    }
+
+    private void revoke(String key, Instant expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder()
+                .tokenKey(key)
+                .revokedAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build());
+        outboxPublisher.publish(DomainEvent.TOKEN_REVOKED, null, key);
+        // A false positive at worst if the transaction rolls back. A lookup racing the
+        // commit may keep the old revocation time; the TokenRevoked event, relayed to this
+        // pod too once committed, drops it again.
+        add(key);
+    }
+
+    private void add(String key) {
+        if (key.startsWith(SUBJECT)) {
+            subjectChanges.incrementAndGet();
+            subjectRevokedAt.remove(key.substring(SUBJECT.length()));
+        }
+        synchronized (this) {
+            if (replay != null) {
+                replay.add(key);
+            }
+            BloomFilter current = filter;
+            if (current != null) {
+                current.add(key);
+            }
+        }
+    }
+}
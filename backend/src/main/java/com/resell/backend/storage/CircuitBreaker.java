@@ -0,0 +1,74 @@
+package com.resell.backend.storage;
+
+import java.util.function.LongSupplier;
+
+// Stops calling a failing remote for a while instead of piling retries onto it.
+//
+// CLOSED: calls go through; failureThreshold consecutive failures open the breaker.
+// OPEN: calls are refused for openMillis.
+// HALF_OPEN: one trial call is let through; success closes the breaker, failure reopens it.
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    // True if the caller may make the call now; it must then report onSuccess or onFailure
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt >= openMillis) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false; // the trial call is still running
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    // How long a refused caller should wait before trying again
+    public synchronized long retryAfterMillis() {
+        if (state == State.OPEN) {
+            return Math.max(openMillis - (clock.getAsLong() - openedAt), 0);
+        }
+        return state == State.HALF_OPEN ? Math.min(openMillis, 1000) : 0;
+    }
+}
@@ -0,0 +1,85 @@
+package com.resell.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Uploads are stored under the SHA-256 of their bytes plus the (normalized) file
+// extension, so the same photo posted twice is stored - and cached - once. The extension
+// keeps content types derivable from the key.
+public final class ContentAddress {
+
+    public static final String TEMP_SUFFIX = ".part";
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    // An upload copied to a temp file, with its content address
+    public record Hashed(Path file, String key, long size) {
+    }
+
+    private ContentAddress() {
+    }
+
+    // Copies the stream to a temp file in dir, hashing it on the way (one pass)
+    public static Hashed copy(InputStream content, Path dir, String originalFilename) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        Path temp = Files.createTempFile(dir, "upload-", TEMP_SUFFIX);
+        try (InputStream in = new DigestInputStream(content, sha256); OutputStream out = Files.newOutputStream(temp)) {
+            long size = in.transferTo(out);
+            return new Hashed(temp, HexFormat.of().formatHex(sha256.digest()) + extension(originalFilename), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    public static boolean isKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    // The content address an image URL points at (last path segment), or null for URLs
+    // that are not content addressed (older UUID_name uploads, external links)
+    public static String keyOf(String url) {
+        if (url == null) {
+            return null;
+        }
+        String path = url;
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        String key = path.substring(path.lastIndexOf('/') + 1);
+        return isKey(key) ? key : null;
+    }
+
+    // ".jpg" for "Photo.JPEG"; empty if the name has no usable extension
+    static String extension(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) {
+            extension = "jpg";
+        }
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+}
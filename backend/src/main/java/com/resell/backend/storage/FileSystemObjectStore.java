@@ -0,0 +1,55 @@
+package com.resell.backend.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+// Stand-in for GCS: objects are files in storage.spool.filesystem.root
+@Lazy
+@Component
+@ConditionalOnProperty(name = "storage.spool.remote", havingValue = "filesystem")
+public class FileSystemObjectStore implements ObjectStore {
+
+    private final Path root;
+
+    public FileSystemObjectStore(@Value("${storage.spool.filesystem.root:object-store}") String root) throws IOException {
+        this.root = Files.createDirectories(Paths.get(root)).toAbsolutePath();
+    }
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        // Copy then rename, so a half-written object is never visible
+        Path temp = Files.createTempFile(root, "put-", ".tmp");
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, root.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(root.resolve(key));
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return null;
+    }
+
+    @Override
+    public Resource open(String key) {
+        Path file = root.resolve(key);
+        return Files.isRegularFile(file) ? new FileSystemResource(file) : null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.resell.backend.storage;
+
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Lazy
+@Component
+@ConditionalOnProperty(name = "storage.spool.remote", havingValue = "gcp", matchIfMissing = true)
+public class GcsObjectStore implements ObjectStore {
+
+    @Autowired
+    private Storage storage;
+
+    @Value("${gcp.storage.bucket-name}")
+    private String bucketName;
+
+    @Override
+    public void put(String key, Path file, String contentType) throws IOException {
+        BlobInfo blobInfo = BlobInfo.newBuilder(BlobId.of(bucketName, key))
+                .setContentType(contentType)
+                .setCacheControl("public, max-age=31536000, immutable") // keys are content addresses
+                .build();
+        try {
+            // Streams from disk in chunks (resumable upload) instead of reading the file into memory
+            storage.createFrom(blobInfo, file);
+        } catch (StorageException e) {
+            throw new IOException("GCS upload of " + key + " failed (" + e.getCode() + " " + e.getReason() + ")", e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            storage.delete(BlobId.of(bucketName, key));
+        } catch (StorageException e) {
+            throw new IOException("GCS delete of " + key + " failed (" + e.getCode() + " " + e.getReason() + ")", e);
+        }
+    }
+
+    @Override
+    public String publicUrl(String key) {
+        return "https://storage.googleapis.com/" + bucketName + "/" + key;
+    }
+
+    @Override
+    public Resource open(String key) {
+        return null; // served from publicUrl
+    }
+}
@@ -0,0 +1,23 @@
+package com.resell.backend.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Remote side of the upload spool: GCS in production, a plain directory for tests and
+// local runs (storage.spool.remote=filesystem)
+public interface ObjectStore {
+
+    // Must be idempotent: a retry may repeat a put that already succeeded remotely
+    void put(String key, Path file, String contentType) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    // Where clients fetch the object from once uploaded, or null when it has to be
+    // streamed through open() instead
+    String publicUrl(String key);
+
+    // Null if the object does not exist
+    Resource open(String key);
+}
@@ -0,0 +1,240 @@
+package com.resell.backend.storage;
+
+import com.resell.backend.diagnostics.StorageEvent;
+import com.resell.backend.service.StoredBlobService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Write-behind half of storage.type=spool: uploads land in storage.spool.dir and are
+// pushed to the ObjectStore in the background, so a slow or failing remote never shows up
+// in request latency.
+//
+// The spool directory is the queue: a file stays there until the remote confirmed it (plus
+// storage.spool.keep-after-upload-ms, so reads already routed to it can finish), and
+// whatever is left at startup is queued again. At most storage.spool.concurrency uploads
+// run at once. A failed upload is retried with exponential backoff and jitter, forever -
+// the file is the only copy. Consecutive failures open a circuit breaker; while it is open
+// nothing is sent and queued files wait for the trial call.
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "spool")
+public class SpoolUploader {
+
+    private static final Logger log = LoggerFactory.getLogger(SpoolUploader.class);
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,254}");
+    private static final String TEMP_SUFFIX = ContentAddress.TEMP_SUFFIX;
+
+    @Autowired
+    private ObjectStore objectStore;
+
+    @Autowired
+    private StoredBlobService storedBlobService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.spool.dir:spool}")
+    private String spoolDir;
+
+    @Value("${storage.spool.concurrency:4}")
+    private int concurrency;
+
+    @Value("${storage.spool.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${storage.spool.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${storage.spool.keep-after-upload-ms:60000}")
+    private long keepAfterUploadMs;
+
+    @Value("${storage.spool.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${storage.spool.breaker.open-ms:30000}")
+    private long breakerOpenMs;
+
+    private Path root;
+    private ScheduledThreadPoolExecutor executor;
+    private CircuitBreaker breaker;
+    private final Map<String, Integer> attempts = new ConcurrentHashMap<>(); // queued or uploading
+    private Counter uploaded;
+    private Counter failed;
+
+    @PostConstruct
+    public void start() throws IOException {
+        root = Files.createDirectories(Paths.get(spoolDir)).toAbsolutePath();
+        breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMs);
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(Math.max(concurrency, 1), task -> {
+            Thread thread = new Thread(task, "spool-upload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+
+        uploaded = meterRegistry.counter("storage.spool.uploads", "result", "success");
+        failed = meterRegistry.counter("storage.spool.uploads", "result", "failure");
+        Gauge.builder("storage.spool.pending", attempts, Map::size)
+                .description("Spooled files not yet confirmed by the object store")
+                .register(meterRegistry);
+        Gauge.builder("storage.spool.breaker.open", this, u -> u.breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .register(meterRegistry);
+
+        int requeued = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file); // the request writing it never completed
+                } else if (isValidKey(name)) {
+                    submit(name);
+                    requeued++;
+                }
+            }
+        }
+        log.info("Upload spool at {}, {} file(s) queued from a previous run", root, requeued);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Queued files stay on disk and are picked up again on the next start
+        executor.shutdownNow();
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && VALID_KEY.matcher(key).matches() && !key.endsWith(TEMP_SUFFIX);
+    }
+
+    // Where uploads are written before spool() (same file system, so the move is a rename)
+    public Path directory() {
+        return root;
+    }
+
+    // Moves a fully written file into the spool under key and queues it for upload
+    public void spool(String key, Path file) throws IOException {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid spool key: " + key);
+        }
+        Files.move(file, root.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        submit(key);
+    }
+
+    // Drop the spooled copy (the blob is being reclaimed); a queued upload then finds nothing to send
+    public void discard(String key) throws IOException {
+        if (isValidKey(key)) {
+            attempts.remove(key);
+            Files.deleteIfExists(root.resolve(key));
+        }
+    }
+
+    // The spooled copy, if it has not been confirmed and removed yet
+    public Path localFile(String key) {
+        Path file = root.resolve(key);
+        return isValidKey(key) && Files.isReadable(file) ? file : null;
+    }
+
+    public boolean isPending(String key) {
+        return attempts.containsKey(key);
+    }
+
+    public static MediaType contentType(String key) {
+        return MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private void submit(String key) {
+        if (attempts.putIfAbsent(key, 0) == null) {
+            executor.execute(() -> upload(key));
+        }
+    }
+
+    private void upload(String key) {
+        Path file = root.resolve(key);
+        if (!Files.exists(file)) {
+            attempts.remove(key);
+            return;
+        }
+        if (!breaker.tryAcquire()) {
+            retryLater(key, Math.max(breaker.retryAfterMillis(), 100));
+            return;
+        }
+        boolean stored = false;
+        Exception failure = null;
+        try {
+            StorageEvent.record("put", "spool", Files.size(file), () -> {
+                objectStore.put(key, file, contentType(key).toString());
+                return null;
+            });
+            stored = true;
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            // Recorded whatever was thrown (an Error too), so a HALF_OPEN breaker's trial
+            // slot is always released and the file is always tried again
+            if (stored) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+                failed.increment();
+                int attempt = attempts.merge(key, 1, Integer::sum);
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+                long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                log.warn("Spool upload of {} failed (attempt {}, retry in {} ms)", key, attempt, delay, failure);
+                retryLater(key, delay);
+            }
+        }
+        if (!stored) {
+            return;
+        }
+        uploaded.increment();
+        try {
+            storedBlobService.markStored(key);
+        } catch (RuntimeException e) {
+            // Only costs deduplication: the next upload of these bytes is sent again
+            log.warn("Could not mark {} as stored", key, e);
+        }
+        attempts.remove(key);
+        executor.schedule(() -> delete(key), keepAfterUploadMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void retryLater(String key, long delayMs) {
+        executor.schedule(() -> upload(key), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void delete(String key) {
+        if (attempts.containsKey(key)) {
+            return; // spooled again in the meantime
+        }
+        try {
+            Files.deleteIfExists(root.resolve(key));
+        } catch (IOException e) {
+            log.warn("Could not remove spooled file {}", key, e);
+        }
+    }
+}
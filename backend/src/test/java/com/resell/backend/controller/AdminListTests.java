@@ -0,0 +1,174 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.AdminExportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Paged admin lists and streamed exports: every row exactly once, no password hashes,
+// and one statement with no entity loads however many rows there are. Own database,
+// since the statement counts are global Hibernate statistics.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:adminlists;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000",
+		"catalog.debounce-ms=3600000" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminListTests {
+
+	private static final int ITEMS = 45;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private AdminExportService adminExportService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private MockMvc mockMvc;
+	private Statistics statistics;
+	private String adminToken;
+	private final List<Long> itemIds = new ArrayList<>();
+
+	@BeforeAll
+	void seed() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		User admin = userRepository.save(User.builder()
+				.email("admin@lists.test")
+				.password("secret-hash")
+				.fullname("Admin, \"Lists\"")
+				.role("ROLE_ADMIN")
+				.build());
+		adminToken = "Bearer " + jwtUtil.generateToken(admin.getEmail());
+		for (int i = 0; i < ITEMS; i++) {
+			itemIds.add(itemRepository.save(Item.builder()
+					.title("Item " + i)
+					.description(i == 0 ? "line one\nline two, with a comma" : i == 1 ? "=HYPERLINK(\"http://x\")" : "plain")
+					.price(1.0 + i)
+					.owner(admin)
+					.purchased(false)
+					.build()).getId());
+		}
+	}
+
+	@Test
+	void pagesCoverEveryItemOnceInIdOrder() throws Exception {
+		List<Long> seen = new ArrayList<>();
+		boolean hasNext = true;
+		for (int page = 0; hasNext; page++) {
+			JsonNode body = objectMapper.readTree(mockMvc.perform(get("/admin/items")
+							.param("page", String.valueOf(page))
+							.param("size", "20")
+							.header("Authorization", adminToken))
+					.andReturn().getResponse().getContentAsString());
+			body.get("content").forEach(item -> seen.add(item.get("id").asLong()));
+			hasNext = body.get("hasNext").asBoolean();
+			assertTrue(page < 10, "hasNext never turned false");
+		}
+		assertEquals(itemIds, seen);
+
+		String users = mockMvc.perform(get("/admin/users").header("Authorization", adminToken))
+				.andReturn().getResponse().getContentAsString();
+		assertTrue(users.contains("admin@lists.test"));
+		assertFalse(users.contains("secret-hash"), users);
+	}
+
+	@Test
+	void pageIsOneStatementWithoutEntityLoads() throws Exception {
+		awaitQuiet();
+		Slice<ItemDTO> slice = itemRepository.findItemPage(PageRequest.of(1, 20, Sort.by("id")));
+
+		assertEquals(itemIds.subList(20, 40), slice.getContent().stream().map(ItemDTO::getId).toList());
+		assertTrue(slice.hasNext());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount() + statistics.getCollectionLoadCount());
+	}
+
+	@Test
+	void exportsStreamEveryRowFromOneStatement() throws Exception {
+		ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+		awaitQuiet();
+		adminExportService.exportItems(AdminExportService.NDJSON, ndjson);
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount() + statistics.getCollectionLoadCount());
+
+		String[] lines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(ITEMS, lines.length);
+		for (int i = 0; i < ITEMS; i++) {
+			assertEquals((long) itemIds.get(i), objectMapper.readTree(lines[i]).get("id").asLong());
+		}
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		awaitQuiet();
+		adminExportService.exportUsers(AdminExportService.CSV, csv);
+		assertEquals(1, statistics.getPrepareStatementCount());
+		String users = csv.toString(StandardCharsets.UTF_8);
+		assertTrue(users.startsWith("id,email,fullname,role\r\n"), users);
+		assertTrue(users.contains(",admin@lists.test,\"Admin, \"\"Lists\"\"\",ROLE_ADMIN\r\n"), users);
+		assertFalse(users.contains("secret-hash"));
+
+		ByteArrayOutputStream items = new ByteArrayOutputStream();
+		adminExportService.exportItems(AdminExportService.CSV, items);
+		String itemsCsv = items.toString(StandardCharsets.UTF_8);
+		assertTrue(itemsCsv.contains("\"line one\nline two, with a comma\""));
+		assertTrue(itemsCsv.contains(",\"'=HYPERLINK(\"\"http://x\"\")\","), itemsCsv); // never a live formula
+	}
+
+	// Start from zero once no background job is using the database
+	private void awaitQuiet() throws InterruptedException {
+		for (int attempt = 0; attempt < 50; attempt++) {
+			statistics.clear();
+			Thread.sleep(20);
+			if (statistics.getPrepareStatementCount() == 0) {
+				return;
+			}
+		}
+	}
+}
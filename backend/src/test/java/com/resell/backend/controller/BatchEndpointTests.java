@@ -0,0 +1,240 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.model.Cart;
+import com.resell.backend.model.CartItem;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.repository.CartRepository;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class BatchEndpointTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private MockMvc mockMvc;
+	private User seller;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		seller = user("ROLE_USER");
+	}
+
+	@Test
+	void batchCreateReportsEachEntryInRequestOrder() throws Exception {
+		mockMvc.perform(post("/items/batch")
+						.header("Authorization", token(seller))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[{\"title\":\"Lamp\",\"price\":10.0},"
+								+ "{\"title\":\" \",\"price\":5.0},"
+								+ "{\"title\":\"Chair\",\"price\":-1},"
+								+ "{\"title\":\"Desk\",\"price\":40.0,\"latitude\":52.5}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(4))
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].message").value("Title is required"))
+				.andExpect(jsonPath("$[2].message").value("Price must be zero or more"))
+				.andExpect(jsonPath("$[3].success").value(false));
+
+		List<Item> mine = itemRepository.findAll().stream()
+				.filter(item -> item.getOwner() != null && item.getOwner().getId().equals(seller.getId()))
+				.toList();
+		assertEquals(1, mine.size());
+		assertEquals("Lamp", mine.get(0).getTitle());
+		assertFalse(mine.get(0).getPurchased());
+	}
+
+	@Test
+	void batchAddSkipsDuplicatesAndReportsMissingAndSoldItems() throws Exception {
+		User buyer = user("ROLE_USER");
+		Item first = item(false);
+		Item second = item(false);
+		Item sold = item(true);
+
+		mockMvc.perform(post("/cart/batch/add")
+						.header("Authorization", token(buyer))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"itemIds\":[" + first.getId() + "," + sold.getId() + ",-1,"
+								+ first.getId() + "," + second.getId() + "]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].message").value("Item already purchased"))
+				.andExpect(jsonPath("$[2].message").value("Item not found"))
+				.andExpect(jsonPath("$[3].success").value(true))
+				.andExpect(jsonPath("$[4].success").value(true));
+		assertEquals(List.of(first.getId(), second.getId()), cartItemIds(buyer));
+
+		// Adding again is a no-op, not a second row
+		mockMvc.perform(post("/cart/batch/add")
+						.header("Authorization", token(buyer))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"itemIds\":[" + first.getId() + "]}"))
+				.andExpect(jsonPath("$[0].success").value(true));
+		assertEquals(2, cartItemIds(buyer).size());
+	}
+
+	// Every request misses the cart lookup; the losing inserts must not fail their batch
+	@Test
+	void concurrentBatchAddsForNewUserCreateOneCart() throws Exception {
+		User buyer = user("ROLE_USER");
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			items.add(item(false));
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Integer>> statuses = new ArrayList<>();
+		for (Item item : items) {
+			statuses.add(pool.submit(() -> {
+				start.await();
+				return mockMvc.perform(post("/cart/batch/add")
+								.header("Authorization", token(buyer))
+								.contentType(MediaType.APPLICATION_JSON)
+								.content("{\"itemIds\":[" + item.getId() + "]}"))
+						.andReturn().getResponse().getStatus();
+			}));
+		}
+		start.countDown();
+		for (Future<Integer> result : statuses) {
+			assertEquals(200, result.get(10, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+
+		assertEquals(items.size(), cartItemIds(buyer).size());
+	}
+
+	@Test
+	void batchRemoveOnlyRemovesOwnRows() throws Exception {
+		User buyer = user("ROLE_USER");
+		User other = user("ROLE_USER");
+		Cart cart = cart(buyer, item(false), item(false));
+		Cart otherCart = cart(other, item(false));
+		Long foreignRow = otherCart.getItems().get(0).getId();
+
+		mockMvc.perform(post("/cart/batch/remove")
+						.header("Authorization", token(buyer))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"cartItemIds\":[" + cart.getItems().get(0).getId() + "," + foreignRow + ",-1]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].message").value("Unauthorized"))
+				.andExpect(jsonPath("$[2].message").value("Cart item not found"));
+
+		assertEquals(1, cartItemIds(buyer).size());
+		assertTrue(cartItemRepository.findById(foreignRow).isPresent());
+	}
+
+	@Test
+	void adminBatchDeleteRemovesItemsAndTheirCartRows() throws Exception {
+		User admin = user("ROLE_ADMIN");
+		User buyer = user("ROLE_USER");
+		Item carted = item(false);
+		Item kept = item(false);
+		cart(buyer, carted, kept);
+		Item other = item(false);
+
+		mockMvc.perform(post("/admin/items/batch-delete")
+						.header("Authorization", token(admin))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[" + carted.getId() + ",-1," + other.getId() + "]}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].success").value(true))
+				.andExpect(jsonPath("$[1].message").value("Item not found"))
+				.andExpect(jsonPath("$[2].success").value(true));
+
+		assertFalse(itemRepository.existsById(carted.getId()));
+		assertFalse(itemRepository.existsById(other.getId()));
+		assertEquals(List.of(kept.getId()), cartItemIds(buyer));
+
+		mockMvc.perform(post("/admin/items/batch-delete")
+						.header("Authorization", token(buyer))
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\":[" + kept.getId() + "]}"))
+				.andExpect(status().isForbidden());
+	}
+
+	private List<Long> cartItemIds(User user) {
+		return cartRepository.findByUserId(user.getId())
+				.map(cart -> cartItemRepository.findAll().stream()
+						.filter(ci -> ci.getCart().getId().equals(cart.getId()))
+						.map(ci -> ci.getItem().getId())
+						.sorted()
+						.toList())
+				.orElse(List.of());
+	}
+
+	private Cart cart(User user, Item... items) {
+		Cart cart = Cart.builder().user(user).items(new ArrayList<>()).build();
+		for (Item item : items) {
+			cart.getItems().add(CartItem.builder().cart(cart).item(item).build());
+		}
+		return cartRepository.save(cart);
+	}
+
+	private Item item(boolean purchased) {
+		return itemRepository.save(Item.builder()
+				.title("Batch item")
+				.price(10.0)
+				.owner(seller)
+				.purchased(purchased)
+				.build());
+	}
+
+	private User user(String role) {
+		return userRepository.save(User.builder()
+				.email("batch-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Batch")
+				.role(role)
+				.build());
+	}
+
+	private String token(User user) {
+		return "Bearer " + jwtUtil.generateToken(user.getEmail());
+	}
+}
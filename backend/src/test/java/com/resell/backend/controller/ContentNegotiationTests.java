@@ -0,0 +1,113 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.CartService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+class ContentNegotiationTests {
+
+	private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private final JsonMapper json = JsonMapper.builder().build();
+	private final CBORMapper cbor = CBORMapper.builder().build();
+	private final SmileMapper smile = SmileMapper.builder().build();
+
+	@Test
+	void itemAndCartEndpointsAnswerInTheAcceptedFormat() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User user = userRepository.save(User.builder()
+				.email("formats-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Formats")
+				.build());
+		String token = "Bearer " + jwtUtil.generateToken(user.getEmail());
+		Item item = itemRepository.save(Item.builder().title("Lamp").description("Brass desk lamp").price(25.5)
+				.owner(user).latitude(52.52).longitude(13.40).build());
+		cartService.addItem(user, item.getId());
+
+		// Same document in every format
+		MockHttpServletResponse asJson = fetch(mockMvc, get("/items/{id}", item.getId()), token, MediaType.APPLICATION_JSON);
+		MockHttpServletResponse asCbor = fetch(mockMvc, get("/items/{id}", item.getId()), token, MediaType.APPLICATION_CBOR);
+		MockHttpServletResponse asSmile = fetch(mockMvc, get("/items/{id}", item.getId()), token, SMILE);
+		assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(asCbor.getContentType())));
+		assertTrue(SMILE.isCompatibleWith(MediaType.parseMediaType(asSmile.getContentType())));
+		assertEquals(json.readTree(asJson.getContentAsByteArray()), cbor.readTree(asCbor.getContentAsByteArray()));
+		assertEquals(json.readTree(asJson.getContentAsByteArray()), smile.readTree(asSmile.getContentAsByteArray()));
+		assertTrue(asCbor.getContentAsByteArray().length < asJson.getContentAsByteArray().length);
+		for (MockHttpServletResponse response : new MockHttpServletResponse[] { asJson, asCbor, asSmile }) {
+			assertTrue(variesOnAccept(response));
+		}
+
+		MockHttpServletResponse cartResponse = fetch(mockMvc, get("/cart"), token, MediaType.APPLICATION_CBOR);
+		assertTrue(variesOnAccept(cartResponse));
+		CartDTO cart = cbor.readValue(cartResponse.getContentAsByteArray(), CartDTO.class);
+		assertEquals(item.getId(), cart.getItems().get(0).getItem().getId());
+
+		// Pre-encoded catalog pages have a CBOR variant; other formats are encoded per request
+		MockHttpServletResponse catalog = fetch(mockMvc, get("/items/catalog"), token, MediaType.APPLICATION_CBOR);
+		assertEquals(MediaType.APPLICATION_CBOR_VALUE, catalog.getContentType());
+		assertTrue(variesOnAccept(catalog));
+		assertTrue(cbor.readTree(catalog.getContentAsByteArray()).has("content"));
+		MockHttpServletResponse smileCatalog = fetch(mockMvc, get("/items/catalog"), token, SMILE);
+		assertTrue(smile.readTree(smileCatalog.getContentAsByteArray()).has("content"));
+
+		// Clients that do not ask keep getting JSON
+		MockHttpServletResponse plain = mockMvc.perform(get("/items/{id}", item.getId())
+				.header(HttpHeaders.AUTHORIZATION, token)).andReturn().getResponse();
+		assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(plain.getContentType())));
+	}
+
+	private static boolean variesOnAccept(MockHttpServletResponse response) {
+		return response.getHeaders(HttpHeaders.VARY).stream()
+				.flatMap(value -> Arrays.stream(value.split(",")))
+				.anyMatch(value -> value.trim().equalsIgnoreCase(HttpHeaders.ACCEPT));
+	}
+
+	private static MockHttpServletResponse fetch(MockMvc mockMvc, MockHttpServletRequestBuilder request, String token,
+			MediaType accept) throws Exception {
+		MockHttpServletResponse response = mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, token).accept(accept))
+				.andReturn().getResponse();
+		assertEquals(200, response.getStatus());
+		return response;
+	}
+}
@@ -0,0 +1,95 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.model.User;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class LogoutTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void logoutRevokesOnlyThePresentedToken() throws Exception {
+		User user = user("ROLE_USER");
+		String phone = token(user);
+		String laptop = token(user);
+		mockMvc.perform(get("/cart").header("Authorization", phone)).andExpect(status().isOk());
+
+		mockMvc.perform(post("/auth/logout").header("Authorization", phone)).andExpect(status().isOk());
+
+		mockMvc.perform(get("/cart").header("Authorization", phone)).andExpect(status().isForbidden());
+		mockMvc.perform(get("/cart").header("Authorization", laptop)).andExpect(status().isOk());
+	}
+
+	@Test
+	void logoutAllRevokesEveryTokenButNotTheNextLogin() throws Exception {
+		User user = user("ROLE_USER");
+		String phone = token(user);
+		String laptop = token(user);
+
+		mockMvc.perform(post("/auth/logout-all").header("Authorization", phone)).andExpect(status().isOk());
+
+		mockMvc.perform(get("/cart").header("Authorization", phone)).andExpect(status().isForbidden());
+		mockMvc.perform(get("/cart").header("Authorization", laptop)).andExpect(status().isForbidden());
+		Thread.sleep(2);
+		mockMvc.perform(get("/cart").header("Authorization", token(user))).andExpect(status().isOk());
+	}
+
+	// Toggling the role revokes the user's tokens; logging in again right away works
+	@Test
+	void roleChangeRevokesOldTokensOnly() throws Exception {
+		User admin = user("ROLE_ADMIN");
+		User user = user("ROLE_USER");
+		String old = token(user);
+
+		mockMvc.perform(post("/admin/users/{id}/toggle-admin", user.getId()).header("Authorization", token(admin)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.role").value("ROLE_ADMIN"));
+		Thread.sleep(2);
+		String fresh = token(user);
+
+		mockMvc.perform(get("/admin/users").header("Authorization", old)).andExpect(status().isForbidden());
+		mockMvc.perform(get("/admin/users").header("Authorization", fresh)).andExpect(status().isOk());
+	}
+
+	private User user(String role) {
+		return userRepository.save(User.builder()
+				.email("logout-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Logout")
+				.role(role)
+				.build());
+	}
+
+	private String token(User user) {
+		return "Bearer " + jwtUtil.generateToken(user.getEmail());
+	}
+}
@@ -0,0 +1,324 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.model.Cart;
+import com.resell.backend.model.CartItem;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.CartRepository;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.CatalogPageService;
+import com.resell.backend.service.FacetIndexService;
+import com.resell.backend.service.GeoIndexService;
+import com.resell.backend.service.SellerStatsService;
+import com.resell.backend.service.SimilarItemsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Statement, row, entity and payload budgets for every endpoint of ItemController,
+// CartController, AuthController and AdminController, measured with Hibernate
+// statistics on seeded data. Budgets live in query-budgets.properties, so an N+1 or a
+// newly eager association fails the build instead of showing up in production. A
+// mapping added to one of those controllers without a measurement here fails it too.
+//
+// Own in-memory database, and the outbox relay and catalog refresh are pushed out of the
+// way: statistics are global, so nothing but the measured request may touch the database.
+// JDBC batching as in the main application.properties, which the test one replaces.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:budgets;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=50",
+		"spring.jpa.properties.hibernate.order_inserts=true",
+		"spring.jpa.properties.hibernate.order_updates=true",
+		"spring.jpa.show-sql=false",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000",
+		"catalog.debounce-ms=3600000" })
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+	private static final int LISTED = 20;
+	private static final int SOLD = 5;
+	private static final int IN_CART = 10;
+	private static final String PASSWORD = "budget-password";
+	private static final Set<Class<?>> BUDGETED = Set.of(ItemController.class, CartController.class,
+			AuthController.class, AdminController.class);
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private FacetIndexService facetIndexService;
+
+	@Autowired
+	private SimilarItemsService similarItemsService;
+
+	@Autowired
+	private GeoIndexService geoIndexService;
+
+	@Autowired
+	private SellerStatsService sellerStatsService;
+
+	@Autowired
+	private CatalogPageService catalogPageService;
+
+	@Autowired
+	@Qualifier("requestMappingHandlerMapping")
+	private RequestMappingHandlerMapping handlerMapping;
+
+	private MockMvc mockMvc;
+	private Statistics statistics;
+	private final Properties budgets = new Properties();
+	private final List<String> violations = new ArrayList<>();
+	private final Set<Method> measured = new HashSet<>();
+
+	private User seller;
+	private User buyer;
+	private User victim;
+	private String sellerToken;
+	private String buyerToken;
+	private String adminToken;
+	private final List<Item> listed = new ArrayList<>();
+	private Cart cart;
+
+	@BeforeAll
+	void seed() throws IOException {
+		mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		try (InputStream in = new ClassPathResource("query-budgets.properties").getInputStream()) {
+			budgets.load(in);
+		}
+
+		seller = userRepository.save(user("seller@budget.test", "ROLE_USER"));
+		buyer = userRepository.save(user("buyer@budget.test", "ROLE_USER"));
+		victim = userRepository.save(user("victim@budget.test", "ROLE_USER"));
+		User admin = userRepository.save(user("admin@budget.test", "ROLE_ADMIN"));
+		sellerToken = "Bearer " + jwtUtil.generateToken(seller.getEmail());
+		buyerToken = "Bearer " + jwtUtil.generateToken(buyer.getEmail());
+		adminToken = "Bearer " + jwtUtil.generateToken(admin.getEmail());
+
+		List<Item> items = new ArrayList<>();
+		for (int i = 0; i < LISTED + SOLD; i++) {
+			items.add(Item.builder()
+					.title("Item " + i)
+					.description("Seeded item number " + i + " with a realistic description")
+					.price(10.0 + i)
+					.imageUrl("https://example.com/img/" + i + ".jpg")
+					.owner(seller)
+					.purchased(i >= LISTED)
+					.latitude(52.50 + i * 0.01) // about 1.1 km apart
+					.longitude(13.40)
+					.build());
+		}
+		itemRepository.saveAll(items).stream().filter(item -> !item.getPurchased()).forEach(listed::add);
+
+		cart = Cart.builder().user(buyer).items(new ArrayList<>()).build();
+		for (Item item : listed.subList(0, IN_CART)) {
+			cart.getItems().add(CartItem.builder().cart(cart).item(item).build());
+		}
+		cart = cartRepository.save(cart);
+
+		// Events are not relayed here, so build the in-memory read models from the seed
+		facetIndexService.rebuild();
+		similarItemsService.rebuild();
+		geoIndexService.rebuild();
+		sellerStatsService.reconcile();
+		catalogPageService.onEvent(new DomainEvent(0L, DomainEvent.ITEM_CREATED, 0L, null, null));
+		catalogPageService.refresh();
+	}
+
+	@Test
+	void everyEndpointStaysWithinBudget() throws Exception {
+		Long itemId = listed.get(0).getId();
+
+		// ItemController
+		measure("items.list", get("/items"), buyerToken);
+		measure("items.catalog", get("/items/catalog").param("page", "0"), buyerToken);
+		measure("items.catalog-db", get("/items/catalog").param("page", "20"), buyerToken);
+		measure("items.facets", get("/items/facets"), buyerToken);
+		measure("items.get", get("/items/{id}", itemId), buyerToken);
+		measure("items.similar", get("/items/{id}/similar", itemId), buyerToken);
+		measure("items.nearby", get("/items/nearby").param("lat", "52.5").param("lon", "13.4")
+				.param("radiusKm", "10"), buyerToken);
+		measure("items.my", get("/items/my"), sellerToken);
+		measure("items.my-stats", get("/items/my/stats"), sellerToken);
+		measure("items.create", json(post("/items"),
+				"{\"title\":\"Lamp\",\"description\":\"Brass desk lamp\",\"price\":25.0}"), sellerToken);
+		StringBuilder batch = new StringBuilder("[");
+		for (int i = 0; i < 10; i++) {
+			batch.append(i == 0 ? "" : ",").append("{\"title\":\"Batch ").append(i).append("\",\"price\":5.0}");
+		}
+		measure("items.batch", json(post("/items/batch"), batch.append("]").toString()), sellerToken);
+		Long updatedId = listed.get(LISTED - 1).getId();
+		measure("items.update", json(put("/items/{id}", updatedId),
+				"{\"title\":\"Renamed\",\"price\":12.0,\"purchased\":false,\"owner\":{\"id\":" + seller.getId() + "}}"),
+				sellerToken);
+		measure("items.delete", delete("/items/{id}", listed.get(LISTED - 2).getId()), sellerToken);
+		measure("items.upload", multipart("/items/upload")
+				.file(new MockMultipartFile("file", "photo.png", "image/png", new byte[] { 1, 2, 3, 4 }))
+				.header("Authorization", sellerToken));
+
+		// CartController
+		measure("cart.get", get("/cart"), buyerToken);
+		measure("cart.add", json(post("/cart/add"), "{\"itemId\":" + listed.get(IN_CART).getId() + "}"), buyerToken);
+		measure("cart.remove", delete("/cart/remove/{id}", cart.getItems().get(0).getId()), buyerToken);
+		measure("cart.batch-add", json(post("/cart/batch/add"), "{\"itemIds\":[" + listed.get(IN_CART + 1).getId()
+				+ "," + listed.get(IN_CART + 2).getId() + "," + listed.get(IN_CART + 3).getId() + "]}"), buyerToken);
+		measure("cart.batch-remove", json(post("/cart/batch/remove"), "{\"cartItemIds\":["
+				+ cart.getItems().get(1).getId() + "," + cart.getItems().get(2).getId() + ","
+				+ cart.getItems().get(3).getId() + "]}"), buyerToken);
+		measure("cart.checkout", post("/cart/checkout"), buyerToken);
+
+		// AuthController
+		measure("auth.register", json(post("/auth/register"), "{\"email\":\"new@budget.test\",\"password\":\""
+				+ PASSWORD + "\",\"firstname\":\"New\",\"lastname\":\"User\"}"), null);
+		measure("auth.login", json(post("/auth/login"),
+				"{\"email\":\"victim@budget.test\",\"password\":\"" + PASSWORD + "\"}"), null);
+		measure("auth.logout", post("/auth/logout"), "Bearer " + jwtUtil.generateToken(victim.getEmail()));
+		measure("auth.logout-all", post("/auth/logout-all"), "Bearer " + jwtUtil.generateToken(victim.getEmail()));
+
+		// AdminController
+		measure("admin.items", get("/admin/items").param("size", "50"), adminToken);
+		measure("admin.users", get("/admin/users"), adminToken);
+		measure("admin.export-items", get("/admin/export/items"), adminToken);
+		measure("admin.export-users", get("/admin/export/users"), adminToken);
+		measure("admin.stats", get("/admin/stats"), adminToken);
+		measure("admin.seller-stats", get("/admin/stats/sellers/{id}", seller.getId()), adminToken);
+		measure("admin.toggle-admin", post("/admin/users/{id}/toggle-admin", victim.getId()), adminToken);
+		measure("admin.revoke-tokens", post("/admin/users/{id}/revoke-tokens", victim.getId()), adminToken);
+		measure("admin.delete-item", delete("/admin/items/{id}", listed.get(LISTED - 3).getId()), adminToken);
+		measure("admin.batch-delete", json(post("/admin/items/batch-delete"), "{\"ids\":["
+				+ listed.get(LISTED - 4).getId() + "," + listed.get(LISTED - 5).getId() + ","
+				+ listed.get(LISTED - 6).getId() + "]}"), adminToken);
+		measure("admin.audit", get("/admin/audit").param("limit", "20"), adminToken);
+
+		for (Map.Entry<RequestMappingInfo, HandlerMethod> mapping : handlerMapping.getHandlerMethods().entrySet()) {
+			HandlerMethod handler = mapping.getValue();
+			if (BUDGETED.contains(handler.getBeanType()) && !measured.contains(handler.getMethod())) {
+				violations.add(mapping.getKey() + ": not measured by QueryBudgetTests");
+			}
+		}
+		assertTrue(violations.isEmpty(), "Over budget:\n" + String.join("\n", violations));
+	}
+
+	private void measure(String name, MockHttpServletRequestBuilder request, String token) throws Exception {
+		if (token != null) {
+			request.header("Authorization", token);
+		}
+		measure(name, request);
+	}
+
+	private void measure(String name, RequestBuilder request) throws Exception {
+		awaitQuiet();
+		MvcResult result = mockMvc.perform(request).andReturn();
+		if (result.getHandler() instanceof HandlerMethod handler) {
+			measured.add(handler.getMethod());
+		}
+		int status = result.getResponse().getStatus();
+		if (status >= 400) {
+			violations.add(name + ": status " + status);
+			return;
+		}
+
+		long rows = 0;
+		for (String query : statistics.getQueries()) {
+			rows += statistics.getQueryStatistics(query).getExecutionRowCount();
+		}
+		check(name, "statements", statistics.getPrepareStatementCount());
+		check(name, "rows", rows);
+		check(name, "entities", statistics.getEntityLoadCount() + statistics.getCollectionLoadCount());
+		check(name, "bytes", result.getResponse().getContentAsByteArray().length);
+	}
+
+	private void check(String name, String metric, long actual) {
+		String key = name + "." + metric;
+		String budget = budgets.getProperty(key);
+		if (budget == null) {
+			violations.add(key + ": no budget in query-budgets.properties (measured " + actual + ")");
+		} else if (actual > Long.parseLong(budget.trim())) {
+			violations.add(key + ": " + actual + " > " + budget.trim());
+		}
+	}
+
+	// Start each measurement from zero once no other thread is using the database
+	private void awaitQuiet() throws InterruptedException {
+		for (int attempt = 0; attempt < 50; attempt++) {
+			statistics.clear();
+			Thread.sleep(20);
+			if (statistics.getPrepareStatementCount() == 0) {
+				return;
+			}
+		}
+	}
+
+	private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+		return request.contentType(MediaType.APPLICATION_JSON).content(body);
+	}
+
+	private User user(String email, String role) {
+		return User.builder()
+				.email(email)
+				.password(passwordEncoder.encode(PASSWORD))
+				.fullname("Budget " + role)
+				.role(role)
+				.build();
+	}
+}
@@ -0,0 +1,114 @@
+package com.resell.backend.controller;
+
+import com.resell.backend.dto.CartDTO;
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import com.resell.backend.service.AuditService;
+import com.resell.backend.service.CartService;
+import com.resell.backend.service.FacetIndexService;
+import com.resell.backend.service.PercolatorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.config.TaskManagementConfigUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The reactive profile's read endpoints: data written through JPA, read back over R2DBC
+// (both on the same in-memory H2 database, separate from the other tests' one)
+@SpringBootTest(properties = {
+		"spring.main.web-application-type=reactive",
+		"spring.datasource.url=jdbc:h2:mem:reactive;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"reactive.r2dbc.url=r2dbc:h2:mem:///reactive",
+		"reactive.r2dbc.username=sa" })
+class ReactiveReadTests {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private WebTestClient client;
+
+	@BeforeEach
+	void setUp() {
+		client = WebTestClient.bindToApplicationContext(context).build();
+	}
+
+	@Test
+	void streamsListedItemsAndReadsCart() {
+		User seller = userRepository.save(User.builder()
+				.email("seller-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Seller")
+				.build());
+		User buyer = userRepository.save(User.builder()
+				.email("buyer-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Buyer")
+				.build());
+		Item listed = itemRepository.save(Item.builder().title("Lamp").price(12.5).owner(seller).build());
+		Item sold = itemRepository.save(Item.builder().title("Chair").price(40.0).owner(seller).purchased(true).build());
+		cartService.addItem(buyer, listed.getId());
+		String token = "Bearer " + jwtUtil.generateToken(buyer.getEmail());
+
+		List<ItemDTO> items = client.get().uri("/items")
+				.header("Authorization", token)
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(ItemDTO.class)
+				.getResponseBody()
+				.collectList()
+				.block(Duration.ofSeconds(10));
+		assertTrue(items.stream().anyMatch(item -> item.getId().equals(listed.getId())
+				&& item.getOwnerId().equals(seller.getId())));
+		assertTrue(items.stream().noneMatch(item -> item.getId().equals(sold.getId())));
+
+		CartDTO cart = client.get().uri("/cart")
+				.header("Authorization", token)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(CartDTO.class)
+				.returnResult()
+				.getResponseBody();
+		assertEquals(1, cart.getItems().size());
+		assertEquals(listed.getId(), cart.getItems().get(0).getItem().getId());
+		assertEquals(false, cart.getItems().get(0).getItem().getPurchased());
+		assertEquals(seller.getId(), cart.getItems().get(0).getItem().getOwnerId());
+
+		client.get().uri("/cart").exchange().expectStatus().isUnauthorized();
+	}
+
+	// Background jobs and servlet-only read models are left to the servlet pods
+	@Test
+	void runsNoServletBackgroundWork() {
+		for (Class<?> servletOnly : List.of(FacetIndexService.class, PercolatorService.class, AuditService.class)) {
+			assertEquals(0, context.getBeanNamesForType(servletOnly).length, servletOnly.getSimpleName());
+		}
+		assertFalse(context.containsBean(TaskManagementConfigUtils.SCHEDULED_ANNOTATION_PROCESSOR_BEAN_NAME));
+	}
+}
@@ -0,0 +1,111 @@
+package com.resell.backend.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordingAnalyzerTests {
+
+	private static final Object MONITOR = new Object();
+	private static final ReentrantLock LOCK = new ReentrantLock();
+
+	private static volatile Object sink;
+
+	@Test
+	void summarizesAllocationsContentionAndAppEvents() throws Exception {
+		Path file = Files.createTempFile("diagnostics", ".jfr");
+		try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+			recording.enable(ControllerEvent.class).withThreshold(Duration.ZERO);
+			recording.enable(JwtFilterEvent.class).withThreshold(Duration.ZERO);
+			recording.enable(RecordingAnalyzer.MONITOR_ENTER).withThreshold(Duration.ZERO);
+			recording.enable(RecordingAnalyzer.THREAD_PARK).withThreshold(Duration.ZERO);
+			recording.start();
+
+			for (int i = 0; i < 3; i++) {
+				ControllerEvent event = new ControllerEvent();
+				event.begin();
+				Thread.sleep(5);
+				event.complete("ItemController.getItems", "GET", 200, false);
+			}
+			new JwtFilterEvent().complete("anonymous");
+			allocate();
+			contend();
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		RecordingSummary summary = RecordingAnalyzer.summarize(file, 20);
+
+		RecordingSummary.Timing items = timing(summary.events(), ControllerEvent.NAME, "ItemController.getItems");
+		assertEquals(3, items.count());
+		assertTrue(items.p50Ms() >= 5 && items.maxMs() >= items.p50Ms(), items.toString());
+		assertEquals(1, timing(summary.events(), JwtFilterEvent.NAME, "anonymous").count());
+
+		assertTrue(summary.allocatedBytes() > 0);
+		assertTrue(summary.allocationsByClass().stream().anyMatch(type -> type.name().equals("byte[]")));
+		assertTrue(summary.allocationSites().stream()
+				.anyMatch(site -> site.name().startsWith("RecordingAnalyzerTests.allocate")),
+				summary.allocationSites().toString());
+
+		// Both contended paths, attributed to the test's frames; the latch wait is left out
+		assertTrue(summary.lockContention().stream().anyMatch(c -> c.kind().equals("monitor")
+				&& c.site().startsWith("RecordingAnalyzerTests.contend")), summary.lockContention().toString());
+		assertTrue(summary.lockContention().stream().anyMatch(c -> c.kind().equals("lock")
+				&& c.lockClass().startsWith(ReentrantLock.class.getName())), summary.lockContention().toString());
+		assertTrue(summary.lockContention().stream().noneMatch(c -> c.lockClass().contains("CountDownLatch")));
+		Files.delete(file);
+	}
+
+	private static RecordingSummary.Timing timing(List<RecordingSummary.Timing> timings, String event, String key) {
+		return timings.stream()
+				.filter(t -> t.event().equals(event) && t.key().equals(key))
+				.findFirst()
+				.orElseThrow(() -> new AssertionError(event + " " + key + " missing from " + timings));
+	}
+
+	private static void allocate() {
+		long until = System.nanoTime() + 300_000_000L;
+		while (System.nanoTime() < until) {
+			sink = new byte[64 * 1024];
+		}
+	}
+
+	// The holder keeps the monitor for 50 ms and the lock for 100 ms; the test thread
+	// waits for both in turn
+	private static void contend() throws InterruptedException {
+		CountDownLatch held = new CountDownLatch(1);
+		Thread holder = new Thread(() -> {
+			LOCK.lock();
+			try {
+				synchronized (MONITOR) {
+					held.countDown();
+					Thread.sleep(50);
+				}
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				LOCK.unlock();
+			}
+		});
+		holder.start();
+		held.await();
+		synchronized (MONITOR) {
+			sink = MONITOR;
+		}
+		LOCK.lock();
+		LOCK.unlock();
+		holder.join();
+	}
+}
@@ -0,0 +1,303 @@
+package com.resell.backend.event;
+
+import com.resell.backend.model.OutboxEvent;
+import com.resell.backend.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The relay is driven by hand here (the interval is pushed out of the way), with two
+// extra subscribers: one that records what it gets, and one that can be held up.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000",
+		"outbox.queue-capacity=4",
+		"outbox.batch-size=8" })
+class OutboxRelayTests {
+
+	private static final String TYPE = "TestEvent";
+
+	@Autowired
+	private OutboxRelay relay;
+
+	@Autowired
+	private OutboxPublisher outboxPublisher;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private Recorder fast;
+
+	@Autowired
+	private Recorder slow;
+
+	@Test
+	void slowSubscriberFallsBehindAloneAndCatchesUpInOrder() throws Exception {
+		relay.relay();
+		slow.hold();
+		List<Long> published = new ArrayList<>();
+		for (long i = 0; i < 20; i++) {
+			published.add(publish(i));
+		}
+
+		// Every subscriber's queue holds 4, so the fast one may be parked for a tick too
+		await(() -> {
+			relay.relay();
+			return fast.received(published).size() == published.size();
+		});
+		assertEquals(published, fast.received(published));
+		assertTrue(slow.received(published).isEmpty()); // still held up on its first event
+
+		slow.release();
+		await(() -> {
+			relay.relay();
+			return slow.received(published).size() == published.size();
+		});
+		assertEquals(published, slow.received(published));
+
+		// Following the shared cursor again
+		Long next = publish(20);
+		await(() -> {
+			relay.relay();
+			return slow.received(List.of(next)).size() == 1 && fast.received(List.of(next)).size() == 1;
+		});
+	}
+
+	// A transaction that commits long after its row was written still gets relayed,
+	// even though later ids went out first
+	@Test
+	void lateCommitBelowTheCursorIsDelivered() throws Exception {
+		relay.relay();
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		List<Long> lateId = new ArrayList<>();
+		Thread late = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+			lateId.add(outboxEventRepository.save(OutboxEvent.builder()
+					.type(TYPE)
+					.aggregateId(-1L)
+					.createdAt(Instant.now().minus(Duration.ofMinutes(10)))
+					.build()).getId());
+			written.countDown();
+			try {
+				commit.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		late.start();
+		assertTrue(written.await(10, TimeUnit.SECONDS));
+
+		Long early = publish(-2);
+		assertTrue(lateId.get(0) < early);
+		await(() -> {
+			relay.relay();
+			return fast.received(List.of(early)).size() == 1;
+		});
+		assertTrue(fast.received(lateId).isEmpty());
+
+		commit.countDown();
+		late.join();
+		await(() -> {
+			relay.relay();
+			return fast.received(lateId).size() == 1;
+		});
+		assertEquals(List.of(early, lateId.get(0)), fast.received(List.of(early, lateId.get(0))));
+	}
+
+	@Test
+	void cursorTracksGapsUntilFilledOrTimedOut() {
+		Instant now = Instant.now();
+		OutboxCursor cursor = cursor(10, 100);
+		cursor.advance(14, now); // 11, 12, 13 still missing
+		assertEquals(14, cursor.highest());
+		assertEquals(3, cursor.openGaps());
+
+		cursor.advance(12, now);
+		assertEquals(2, cursor.openGaps());
+
+		OutboxCursor parked = cursor.copy();
+		cursor.advance(11, now);
+		cursor.advance(15, now);
+		assertFalse(parked.caughtUpWith(cursor)); // behind, and 11 still unseen
+		parked.advance(15, now);
+		assertFalse(parked.caughtUpWith(cursor)); // at the same id, but still waits for 11
+		parked.advance(11, now);
+		assertTrue(parked.caughtUpWith(cursor));
+
+		assertEquals(0, cursor.expire(now.plusSeconds(30)));
+		assertEquals(1, cursor.expire(now.plusSeconds(61))); // 13 never showed up
+		assertEquals(0, cursor.openGaps());
+
+		OutboxCursor capped = cursor(0, 3);
+		capped.advance(1000, now);
+		assertEquals(3, capped.openGaps());
+	}
+
+	// Gaps younger than 1 s are looked up on every read, older ones once per 10 s
+	@Test
+	void oldGapsAreRecheckedOnlyOccasionally() {
+		Instant now = Instant.now();
+		OutboxCursor cursor = cursor(10, 100);
+		cursor.advance(14, now);
+		assertEquals(List.of(11L, 12L, 13L), cursor.gapsToCheck(now)); // first read looks at all of them
+		assertEquals(List.of(11L, 12L, 13L), cursor.gapsToCheck(now.plusMillis(500)));
+		assertEquals(List.of(), cursor.gapsToCheck(now.plusSeconds(5)));
+
+		cursor.advance(17, now.plusSeconds(5));
+		assertEquals(List.of(15L, 16L), cursor.gapsToCheck(now.plusMillis(5500)));
+		assertEquals(List.of(11L, 12L, 13L, 15L, 16L), cursor.gapsToCheck(now.plusSeconds(10)));
+		assertEquals(List.of(), cursor.gapsToCheck(now.plusSeconds(11)));
+	}
+
+	// After a restart the cursor starts at the newest row, but a row another pod commits
+	// below it later is still delivered
+	@Test
+	void restartedRelayDeliversRowsCommittedBelowItsStart() throws Exception {
+		relay.relay();
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		List<Long> lateId = new ArrayList<>();
+		Thread late = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+			lateId.add(outboxEventRepository.save(OutboxEvent.builder()
+					.type(TYPE)
+					.aggregateId(-3L)
+					.createdAt(Instant.now())
+					.build()).getId());
+			written.countDown();
+			try {
+				commit.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		late.start();
+		assertTrue(written.await(10, TimeUnit.SECONDS));
+		Long newest = publish(-4);
+		assertTrue(lateId.get(0) < newest);
+
+		ReflectionTestUtils.setField(relay, "cursor", null); // as if the pod had just started
+		relay.relay();
+		commit.countDown();
+		late.join();
+		await(() -> {
+			relay.relay();
+			return fast.received(lateId).size() == 1;
+		});
+	}
+
+	// A failing subscriber keeps retrying the same event instead of skipping it
+	@Test
+	void failingSubscriberRetriesTheEventUntilItSucceeds() throws Exception {
+		relay.relay();
+		fast.failNext(3);
+		List<Long> published = List.of(publish(-5), publish(-6));
+		await(() -> {
+			relay.relay();
+			return fast.received(published).size() == published.size();
+		});
+		assertEquals(published, fast.received(published));
+	}
+
+	private static OutboxCursor cursor(long highest, int maxGaps) {
+		return new OutboxCursor(highest, Duration.ofMinutes(1), maxGaps, Duration.ofSeconds(1), Duration.ofSeconds(10));
+	}
+
+	private Long publish(long aggregateId) {
+		transactionTemplate.executeWithoutResult(status -> outboxPublisher.publish(TYPE, aggregateId, null));
+		return outboxEventRepository.findMaxId().orElseThrow();
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "timed out");
+			Thread.sleep(20);
+		}
+	}
+
+	@TestConfiguration
+	static class Subscribers {
+
+		@Bean
+		Recorder fast() {
+			return new Recorder("test-fast");
+		}
+
+		@Bean
+		Recorder slow() {
+			return new Recorder("test-slow");
+		}
+	}
+
+	static class Recorder implements DomainEventSubscriber {
+
+		private final String name;
+		private final List<Long> ids = new ArrayList<>();
+		private volatile CountDownLatch gate = new CountDownLatch(0);
+		private final AtomicInteger failures = new AtomicInteger();
+
+		Recorder(String name) {
+			this.name = name;
+		}
+
+		void hold() {
+			gate = new CountDownLatch(1);
+		}
+
+		void release() {
+			gate.countDown();
+		}
+
+		void failNext(int times) {
+			failures.set(times);
+		}
+
+		@Override
+		public String name() {
+			return name;
+		}
+
+		@Override
+		public void onEvent(DomainEvent event) throws InterruptedException {
+			if (!TYPE.equals(event.type())) {
+				return;
+			}
+			gate.await();
+			if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+				throw new IllegalStateException("failing on purpose");
+			}
+			synchronized (ids) {
+				ids.add(event.id());
+			}
+		}
+
+		// Of the given ids, those received so far, in the order they arrived
+		List<Long> received(List<Long> wanted) {
+			synchronized (ids) {
+				return ids.stream().filter(wanted::contains).toList();
+			}
+		}
+	}
+}
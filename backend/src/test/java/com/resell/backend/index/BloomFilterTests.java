@@ -0,0 +1,32 @@
+package com.resell.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTests {
+
+	@Test
+	void neverMissesAddedKeysAndStaysNearTheTargetFalsePositiveRate() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		String[] added = new String[10_000];
+		for (int i = 0; i < added.length; i++) {
+			added[i] = "jti:" + UUID.randomUUID();
+			filter.add(added[i]);
+		}
+		for (String key : added) {
+			assertTrue(filter.mightContain(key));
+		}
+
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("jti:" + UUID.randomUUID())) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+	}
+}
@@ -0,0 +1,89 @@
+package com.resell.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GeoGridIndexTests {
+
+	@Test
+	void pagesMatchABruteForceScan() {
+		GeoGridIndex index = new GeoGridIndex(0.05, 16);
+		Map<Long, double[]> points = new HashMap<>();
+		Random random = new Random(7);
+		for (long id = 1; id <= 20_000; id++) {
+			double[] point = switch ((int) (id % 4)) {
+				case 0 -> new double[] { 52.5 + random.nextGaussian() * 0.1, 13.4 + random.nextGaussian() * 0.15 };
+				case 1 -> new double[] { -17 + random.nextDouble(), random.nextBoolean() ? 179.6 + random.nextDouble() * 0.4
+						: -180 + random.nextDouble() * 0.4 }; // both sides of the antimeridian
+				case 2 -> new double[] { 89.6 + random.nextDouble() * 0.4, random.nextDouble() * 360 - 180 };
+				default -> new double[] { random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180 };
+			};
+			index.put(id, point[0], point[1]);
+			points.put(id, point);
+		}
+		for (long id = 3; id <= 20_000; id += 3) { // sold, deleted or moved
+			if (id % 2 == 0) {
+				index.remove(id);
+				points.remove(id);
+			} else {
+				double[] moved = { 52.5 + random.nextGaussian() * 0.1, 13.4 + random.nextGaussian() * 0.15 };
+				index.put(id, moved[0], moved[1]);
+				points.put(id, moved);
+			}
+		}
+
+		double[][] queries = { { 52.52, 13.40, 5 }, { 52.52, 13.40, 40 }, { -16.5, 179.9, 60 }, { -16.5, -179.9, 60 },
+				{ 89.9, 0, 50 }, { 90, 0, 25 }, { 0, 0, 200 } };
+		for (double[] query : queries) {
+			assertEquals(bruteForce(points, query[0], query[1], query[2]), paged(index, query[0], query[1], query[2], 37),
+					"lat=" + query[0] + " lon=" + query[1] + " radius=" + query[2]);
+		}
+		assertEquals(points.size(), index.size());
+	}
+
+	@Test
+	void distancesAreGreatCircle() {
+		// Berlin to Paris, about 878 km
+		assertEquals(878, GeoGridIndex.distanceKm(52.52, 13.405, 48.8566, 2.3522), 2);
+		// One degree of longitude on the equator, across the antimeridian
+		assertEquals(111.2, GeoGridIndex.distanceKm(0, 179.5, 0, -179.5), 0.1);
+	}
+
+	private static List<Long> bruteForce(Map<Long, double[]> points, double lat, double lon, double radiusKm) {
+		record Hit(long id, double distanceKm) {
+		}
+		List<Hit> hits = new ArrayList<>();
+		points.forEach((id, point) -> {
+			double distance = GeoGridIndex.distanceKm(lat, lon, point[0], point[1]);
+			if (distance <= radiusKm) {
+				hits.add(new Hit(id, distance));
+			}
+		});
+		hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparingLong(Hit::id));
+		return hits.stream().map(Hit::id).toList();
+	}
+
+	// Follows the (distance, id) cursor from page to page
+	private static List<Long> paged(GeoGridIndex index, double lat, double lon, double radiusKm, int limit) {
+		List<Long> ids = new ArrayList<>();
+		double[] afterDistance = { -1 };
+		long[] afterId = { 0 };
+		int found;
+		do {
+			found = index.nearby(lat, lon, radiusKm, afterDistance[0], afterId[0], limit, (id, distanceKm) -> {
+				ids.add(id);
+				afterDistance[0] = distanceKm;
+				afterId[0] = id;
+			});
+		} while (found == limit);
+		return ids;
+	}
+}
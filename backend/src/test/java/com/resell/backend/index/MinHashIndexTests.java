@@ -0,0 +1,51 @@
+package com.resell.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashIndexTests {
+
+	@Test
+	void findsNearDuplicatesAndForgetsRemovedItems() {
+		MinHashIndex index = new MinHashIndex(16, 4, 200, 16);
+		index.put(1, "Vintage Canon AE-1 film camera with 50mm lens, fully working");
+		index.put(2, "Canon AE-1 vintage film camera with 50mm lens - working, minor wear");
+		index.put(3, "IKEA Malm desk, white, good condition");
+		index.put(4, "Sony WH-1000XM4 noise cancelling headphones");
+
+		long[] ids = new long[3];
+		double[] scores = new double[3];
+		int found = index.similar(1, 0.2, ids, scores);
+		assertEquals(1, found);
+		assertEquals(2, ids[0]);
+		assertTrue(scores[0] > 0.3);
+
+		index.remove(2); // sold
+		assertEquals(0, index.similar(1, 0.2, ids, scores));
+
+		index.put(3, "Canon AE-1 film camera with 50mm lens, fully working, vintage"); // edited listing
+		found = index.similar(1, 0.2, ids, scores);
+		assertEquals(1, found);
+		assertEquals(3, ids[0]);
+	}
+
+	@Test
+	void refusesNewItemsOnceFull() {
+		MinHashIndex index = new MinHashIndex(16, 4, 200, 16, 2);
+		assertTrue(index.put(1, "Vintage Canon AE-1 film camera with 50mm lens"));
+		assertTrue(index.put(2, "Canon AE-1 vintage film camera with 50mm lens"));
+		assertFalse(index.put(3, "Canon AE-1 film camera, 50mm lens, vintage"));
+		assertEquals(2, index.size());
+
+		// Existing items can still be replaced, and removing one makes room
+		assertTrue(index.put(2, "IKEA Malm desk, white, good condition"));
+		index.remove(2);
+		assertTrue(index.put(3, "Canon AE-1 film camera, 50mm lens, vintage"));
+		long[] ids = new long[3];
+		assertEquals(1, index.similar(1, 0.2, ids, new double[3]));
+		assertEquals(3, ids[0]);
+	}
+}
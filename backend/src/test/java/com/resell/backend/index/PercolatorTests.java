@@ -0,0 +1,36 @@
+package com.resell.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PercolatorTests {
+
+	private final Percolator percolator = new Percolator(16);
+
+	@Test
+	void matchesOnAllKeywordsAndPriceRange() {
+		percolator.put(1, 100, "canon camera", null, 300.0);
+		percolator.put(2, 101, "Canon", 50.0, null);
+		percolator.put(3, 102, "nikon camera", null, null);
+		percolator.put(4, 103, "camera lens", null, null);
+
+		assertEquals(List.of(1L, 2L), matches("Canon AE-1 film camera", 120));
+		assertEquals(List.of(2L), matches("Canon AE-1 film camera", 450)); // over search 1's max
+		assertEquals(List.of(), matches("Canon lens cap", 10)); // under search 2's min
+
+		percolator.remove(2);
+		percolator.put(3, 102, "film", null, null); // edited search
+		assertEquals(List.of(1L, 3L), matches("Canon AE-1 film camera", 120));
+	}
+
+	private List<Long> matches(String text, double price) {
+		List<Long> found = new ArrayList<>();
+		percolator.match(text, price, (searchId, userId) -> found.add(searchId));
+		found.sort(null);
+		return found;
+	}
+}
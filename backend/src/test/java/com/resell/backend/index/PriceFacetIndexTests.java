@@ -0,0 +1,85 @@
+package com.resell.backend.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceFacetIndexTests {
+
+	@Test
+	void rangeQueriesSeeUpdatesAndRemovals() {
+		PriceFacetIndex index = new PriceFacetIndex(16);
+		index.load(new PriceFacetIndex.Builder(4)
+				.add(1, 10, 100)
+				.add(2, 45, 100)
+				.add(3, 50, 200)
+				.add(4, 80, 200));
+
+		assertEquals(2, index.count(0, 50, PriceFacetIndex.ANY_OWNER)); // under $50
+
+		index.upsert(4, 20, 200); // price drop
+		index.remove(1); // sold
+		index.upsert(5, 45, 300); // new listing
+
+		long[] ids = new long[10];
+		int found = index.select(0, 50, PriceFacetIndex.ANY_OWNER, false, 0, ids);
+		assertArrayEquals(new long[] { 4, 2, 5 }, Arrays.copyOf(ids, found));
+		assertEquals(2, index.count(0, 100, 200));
+
+		long[] histogram = new long[2];
+		index.histogram(0, 100, PriceFacetIndex.ANY_OWNER, histogram);
+		assertArrayEquals(new long[] { 3, 1 }, histogram);
+		assertEquals(20, index.minPrice());
+		assertEquals(50, index.maxPrice());
+	}
+
+	@Test
+	void matchesBruteForceAcrossDeltaMerges() {
+		Random random = new Random(42);
+		PriceFacetIndex index = new PriceFacetIndex(8); // small delta forces frequent merges
+		Map<Long, double[]> expected = new HashMap<>(); // id -> { price, owner }
+		index.load(new PriceFacetIndex.Builder(0));
+
+		for (int op = 0; op < 5_000; op++) {
+			long id = random.nextInt(300) + 1;
+			if (random.nextInt(3) > 0) {
+				double price = random.nextInt(100);
+				long owner = random.nextInt(4) + 1;
+				index.upsert(id, price, owner);
+				expected.put(id, new double[] { price, owner });
+			} else {
+				index.remove(id);
+				expected.remove(id);
+			}
+
+			double min = random.nextInt(100);
+			double max = min + random.nextInt(40);
+			List<Long> matches = new ArrayList<>();
+			expected.entrySet().stream()
+					.filter(e -> e.getValue()[0] >= min && e.getValue()[0] < max)
+					.sorted(Comparator.<Map.Entry<Long, double[]>>comparingDouble(e -> e.getValue()[0])
+							.thenComparing(Map.Entry::getKey))
+					.forEach(e -> matches.add(e.getKey()));
+
+			assertEquals(expected.size(), index.size());
+			assertEquals(matches.size(), index.count(min, max, PriceFacetIndex.ANY_OWNER));
+
+			long[] page = new long[5];
+			int offset = random.nextInt(3);
+			int found = index.select(min, max, PriceFacetIndex.ANY_OWNER, false, offset, page);
+			for (int i = 0; i < found; i++) {
+				assertEquals(matches.get(offset + i).longValue(), page[i]);
+			}
+			assertEquals(Math.max(0, Math.min(page.length, matches.size() - offset)), found);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.resell.backend.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTests {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void growsWhileLatencyIsStableAndShrinksWhenItRises() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200, 0.8, 1.5);
+
+		// Saturated at 10 ms: the limit climbs
+		for (int i = 0; i < 300; i++) {
+			saturate(limiter, 10 * MS);
+		}
+		int grown = limiter.limit();
+		assertTrue(grown > 50, "limit " + grown);
+
+		// The database slows down 10x: the limit falls back quickly
+		for (int i = 0; i < 50; i++) {
+			saturate(limiter, 100 * MS);
+		}
+		assertTrue(limiter.limit() < grown / 4, "limit " + limiter.limit());
+	}
+
+	@Test
+	void doesNotGrowWhenTheLimitIsNotUsed() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(20, 2, 200, 0.8, 1.5);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.NORMAL));
+			limiter.release(5 * MS, false);
+		}
+		assertTrue(limiter.limit() == 20, "limit " + limiter.limit());
+	}
+
+	@Test
+	void keepsHeadroomForCriticalRequests() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 200, 0.8, 1.5);
+		for (int i = 0; i < 8; i++) {
+			assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.NORMAL));
+		}
+		assertFalse(limiter.tryAcquire(AdaptiveLimiter.Priority.NORMAL));
+		assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL));
+		assertTrue(limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL));
+		assertFalse(limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL));
+
+		limiter.release(MS, true); // a timeout cuts the limit
+		assertTrue(limiter.limit() < 10);
+	}
+
+	// Fill the limit, then complete every request with the given latency
+	private static void saturate(AdaptiveLimiter limiter, long rttNanos) {
+		int acquired = 0;
+		while (limiter.tryAcquire(AdaptiveLimiter.Priority.CRITICAL)) {
+			acquired++;
+		}
+		for (int i = 0; i < acquired; i++) {
+			limiter.release(rttNanos, false);
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.resell.backend.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The filter on its own, with the application.properties defaults except a DB limit of 10
+class ConcurrencyLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private ConcurrencyLimitFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new ConcurrencyLimitFilter();
+		ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "minLimit", 2);
+		ReflectionTestUtils.setField(filter, "normalShare", 0.8);
+		ReflectionTestUtils.setField(filter, "rttTolerance", 1.5);
+		ReflectionTestUtils.setField(filter, "dbInitialLimit", 10);
+		ReflectionTestUtils.setField(filter, "dbMaxLimit", 200);
+		ReflectionTestUtils.setField(filter, "storageInitialLimit", 8);
+		ReflectionTestUtils.setField(filter, "storageMaxLimit", 64);
+		ReflectionTestUtils.setField(filter, "passwordInitialLimit", 4);
+		ReflectionTestUtils.setField(filter, "passwordMaxLimit", 32);
+		filter.init();
+	}
+
+	@Test
+	void checkoutKeepsHeadroomWhileNormalTrafficIsShed() throws Exception {
+		AdaptiveLimiter db = filter.limiter(ConcurrencyLimitFilter.Dependency.DB);
+		for (int i = 0; i < 8; i++) { // 80% of 10: everything NORMAL requests may use
+			assertTrue(db.tryAcquire(AdaptiveLimiter.Priority.NORMAL));
+		}
+
+		MockHttpServletResponse browse = new MockHttpServletResponse();
+		MockFilterChain browseChain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("GET", "/items"), browse, browseChain);
+		assertEquals(503, browse.getStatus());
+		assertEquals("1", browse.getHeader("Retry-After"));
+		assertNull(browseChain.getRequest()); // never reached the controller
+		assertEquals(1.0, rejected("normal"));
+
+		MockHttpServletResponse checkout = new MockHttpServletResponse();
+		MockFilterChain checkoutChain = new MockFilterChain();
+		filter.doFilter(new MockHttpServletRequest("POST", "/cart/checkout"), checkout, checkoutChain);
+		assertEquals(200, checkout.getStatus());
+		assertNotNull(checkoutChain.getRequest());
+		assertEquals(0.0, rejected("critical"));
+		assertEquals(8, db.inFlight()); // the checkout released its permit
+	}
+
+	@Test
+	void overloadExceptionCountsAsADrop() {
+		AdaptiveLimiter db = filter.limiter(ConcurrencyLimitFilter.Dependency.DB);
+
+		// Any other failure leaves the limit alone
+		assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/cart"),
+				new MockHttpServletResponse(), failingWith(new IllegalStateException("bug"))));
+		assertEquals(10, db.limit());
+
+		// A connection pool timeout, however deeply wrapped, cuts it
+		RuntimeException timeout = new DataAccessResourceFailureException("pool exhausted",
+				new SQLTransientConnectionException("Connection is not available, request timed out after 30000ms"));
+		assertThrows(DataAccessResourceFailureException.class, () -> filter.doFilter(
+				new MockHttpServletRequest("GET", "/cart"), new MockHttpServletResponse(), failingWith(timeout)));
+		assertTrue(db.limit() < 10, "limit " + db.limit());
+		assertEquals(0, db.inFlight());
+	}
+
+	private double rejected(String priority) {
+		return meterRegistry.counter("concurrency.rejected", "dependency", "db", "priority", priority).count();
+	}
+
+	private static FilterChain failingWith(RuntimeException e) {
+		return (request, response) -> {
+			throw e;
+		};
+	}
+}
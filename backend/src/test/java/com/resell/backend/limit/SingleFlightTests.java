@@ -0,0 +1,123 @@
+package com.resell.backend.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTests {
+
+	@Test
+	void databaseCallsStayFlatAsConcurrentRequestsGrow() throws Exception {
+		for (int requests : new int[] { 1, 10, 100, 400 }) {
+			SingleFlight<Long, String> flight = new SingleFlight<>(10_000);
+			AtomicInteger queries = new AtomicInteger();
+
+			// The "query" only returns once every other request is waiting on it
+			List<Future<String>> results = run(requests, () -> flight.load(42L, () -> {
+				queries.incrementAndGet();
+				awaitJoined(flight, requests - 1);
+				return "item 42";
+			}));
+
+			for (Future<String> result : results) {
+				assertEquals("item 42", result.get());
+			}
+			assertEquals(1, queries.get(), requests + " concurrent requests");
+			assertEquals(requests - 1, flight.joined());
+			assertEquals(0, flight.inFlight());
+		}
+	}
+
+	@Test
+	void followersGetTheLeadersException() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>(10_000);
+		IllegalStateException failure = new IllegalStateException("database down");
+
+		List<Future<String>> results = run(20, () -> flight.load("listed", () -> {
+			awaitJoined(flight, 19);
+			throw failure;
+		}));
+
+		for (Future<String> result : results) {
+			ExecutionException e = assertThrows(ExecutionException.class, result::get);
+			assertSame(failure, e.getCause());
+		}
+		assertEquals(1, flight.loads());
+
+		// Nothing is remembered: the next call loads again
+		assertEquals("ok", flight.load("listed", () -> "ok"));
+	}
+
+	@Test
+	void followersStopWaitingForAStuckLeader() throws Exception {
+		SingleFlight<Integer, String> flight = new SingleFlight<>(50);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> leader = executor.submit(() -> flight.load(1, () -> {
+				await(release);
+				return "slow";
+			}));
+			while (flight.inFlight() == 0) {
+				Thread.onSpinWait();
+			}
+
+			assertEquals("fast", flight.load(1, () -> "fast"));
+			assertEquals(1, flight.timeouts());
+
+			release.countDown();
+			assertEquals("slow", leader.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Starts all calls together and returns their results in order
+	private static <T> List<Future<T>> run(int threads, Callable<T> call) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					await(start);
+					return call.call();
+				}));
+			}
+			start.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void awaitJoined(SingleFlight<?, ?> flight, int followers) {
+		while (flight.joined() < followers) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.BatchResult;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.CartItemRepository;
+import com.resell.backend.repository.CartRepository;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.OutboxEventRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+class CartServiceTests {
+
+	@MockitoSpyBean
+	private CartService cartService;
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private CartItemRepository cartItemRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Test
+	void concurrentAddsOfSameItemCreateOneCartAndOneRow() throws Exception {
+		User buyer = userRepository.save(User.builder()
+				.email("buyer-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Buyer")
+				.build());
+		Item item = itemRepository.save(Item.builder()
+				.title("Lamp")
+				.price(10.0)
+				.build());
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<Long>> results = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return cartService.addItem(buyer, item.getId()).getId();
+			}));
+		}
+		start.countDown();
+
+		Long firstId = results.get(0).get(10, TimeUnit.SECONDS);
+		for (Future<Long> result : results) {
+			assertEquals(firstId, result.get(10, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+
+		Long cartId = cartRepository.findByUserId(buyer.getId()).orElseThrow().getId();
+		assertEquals(1, cartItemRepository.findAll().stream()
+				.filter(ci -> ci.getCart().getId().equals(cartId))
+				.count());
+	}
+
+	// Overlapping batch adds for one buyer: rows lost to a concurrent insert are reported as
+	// already in the cart, never as a failed batch
+	@Test
+	void concurrentBatchAddsReportDuplicatesPerEntry() throws Exception {
+		User buyer = userRepository.save(User.builder()
+				.email("batch-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Batch")
+				.build());
+		List<Long> itemIds = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			itemIds.add(itemRepository.save(Item.builder().title("Batch " + i).price(5.0).build()).getId());
+		}
+		cartService.getOrCreateCart(buyer);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<List<BatchResult>>> results = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			List<Long> batch = new ArrayList<>(itemIds);
+			Collections.rotate(batch, i);
+			results.add(pool.submit(() -> {
+				start.await();
+				return cartService.addItems(buyer, batch);
+			}));
+		}
+		start.countDown();
+
+		for (Future<List<BatchResult>> result : results) {
+			List<BatchResult> entries = result.get(10, TimeUnit.SECONDS);
+			assertEquals(itemIds.size(), entries.size());
+			for (int i = 0; i < entries.size(); i++) {
+				assertTrue(entries.get(i).isSuccess(), entries.get(i).toString());
+				assertEquals(i, entries.get(i).getIndex());
+			}
+		}
+		pool.shutdown();
+
+		Long cartId = cartRepository.findByUserId(buyer.getId()).orElseThrow().getId();
+		assertEquals(itemIds.size(), cartItemRepository.findAll().stream()
+				.filter(ci -> ci.getCart().getId().equals(cartId))
+				.count());
+	}
+
+	// Retries racing the first request with the same Idempotency-Key wait for it and get its
+	// response replayed instead of adding or checking out a second time
+	@Test
+	void concurrentRetriesWithSameIdempotencyKeyRunOnceAndReplayTheResponse() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User buyer = userRepository.save(User.builder()
+				.email("retry-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Retry")
+				.build());
+		String token = "Bearer " + jwtUtil.generateToken(buyer.getEmail());
+		Item item = itemRepository.save(Item.builder()
+				.title("Chair")
+				.price(30.0)
+				.build());
+
+		List<MockHttpServletResponse> added = race(mockMvc, () -> post("/cart/add")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"itemId\":" + item.getId() + "}"), token, "add-" + buyer.getId());
+		verify(cartService, times(1)).addItem(any(User.class), anyLong());
+
+		List<MockHttpServletResponse> checkedOut = race(mockMvc, () -> post("/cart/checkout"), token,
+				"checkout-" + buyer.getId());
+		verify(cartService, times(1)).checkout(any(User.class));
+
+		for (List<MockHttpServletResponse> responses : List.of(added, checkedOut)) {
+			MockHttpServletResponse first = responses.get(0);
+			assertEquals(200, first.getStatus(), first.getContentAsString());
+			for (MockHttpServletResponse response : responses) {
+				assertEquals(first.getStatus(), response.getStatus());
+				assertEquals(first.getContentAsString(), response.getContentAsString());
+			}
+		}
+		assertTrue(itemRepository.findById(item.getId()).orElseThrow().getPurchased());
+	}
+
+	// Two buyers with the same item in their carts check out at once: the item is sold,
+	// counted and published once, and the other buyer gets 409 listing it as unavailable
+	@Test
+	void concurrentCheckoutsSellAContestedItemOnce() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		Item item = itemRepository.save(Item.builder()
+				.title("Desk")
+				.price(80.0)
+				.build());
+		List<String> tokens = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			User buyer = userRepository.save(User.builder()
+					.email("contested-" + i + "-" + System.nanoTime() + "@test.com")
+					.password("x")
+					.fullname("Contested")
+					.build());
+			cartService.addItem(buyer, item.getId());
+			tokens.add("Bearer " + jwtUtil.generateToken(buyer.getEmail()));
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+		for (String token : tokens) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				return mockMvc.perform(post("/cart/checkout").header("Authorization", token)).andReturn().getResponse();
+			}));
+		}
+		start.countDown();
+		List<Integer> statuses = new ArrayList<>();
+		for (Future<MockHttpServletResponse> future : futures) {
+			statuses.add(future.get(10, TimeUnit.SECONDS).getStatus());
+		}
+		pool.shutdown();
+
+		assertEquals(List.of(200, 409), statuses.stream().sorted().toList());
+		assertEquals(1, outboxEventRepository.findAll().stream()
+				.filter(e -> DomainEvent.ITEM_PURCHASED.equals(e.getType()) && item.getId().equals(e.getAggregateId()))
+				.count());
+	}
+
+	// Request builders are not thread-safe, so every thread builds its own
+	private static List<MockHttpServletResponse> race(MockMvc mockMvc, Supplier<MockHttpServletRequestBuilder> request,
+			String token, String idempotencyKey) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<Future<MockHttpServletResponse>> futures = new ArrayList<>();
+		for (int i = 0; i < 16; i++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				return mockMvc.perform(request.get().header("Authorization", token)
+						.header("Idempotency-Key", idempotencyKey)).andReturn().getResponse();
+			}));
+		}
+		start.countDown();
+
+		List<MockHttpServletResponse> responses = new ArrayList<>();
+		for (Future<MockHttpServletResponse> future : futures) {
+			responses.add(future.get(10, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+		return responses;
+	}
+}
@@ -0,0 +1,162 @@
+package com.resell.backend.service;
+
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Pages are refreshed by hand here; the debounce is pushed out of the way
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:catalog;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000",
+		"catalog.debounce-ms=3600000" })
+class CatalogPageServiceTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private CatalogPageService catalogPageService;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	private final JsonMapper json = JsonMapper.builder().build();
+
+	@Test
+	void matchingEtagGets304WithTheSameVaryAndAChangedPageDoesNot() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		String token = token();
+		itemRepository.save(Item.builder().title("Lamp").price(10.0).build());
+		refresh();
+
+		MockHttpServletResponse first = mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)).andReturn().getResponse();
+		assertEquals(200, first.getStatus());
+		String etag = first.getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+		assertEquals(catalogPageService.getEncodedPage(0).etag(), etag);
+
+		MockHttpServletResponse notModified = mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+		assertEquals(304, notModified.getStatus());
+		assertEquals(etag, notModified.getHeader(HttpHeaders.ETAG));
+		assertTrue(String.join(",", notModified.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING),
+				notModified.getHeaders(HttpHeaders.VARY).toString());
+		assertEquals(0, notModified.getContentAsByteArray().length);
+
+		// If-None-Match is a list compared tag by tag: weak tags and * match, a tag that
+		// merely contains this one does not
+		String inner = etag.substring(1, etag.length() - 1);
+		for (String ifNoneMatch : new String[] { "\"other\", " + etag, "W/" + etag, "*" }) {
+			assertEquals(304, conditional(mockMvc, token, ifNoneMatch).getStatus(), ifNoneMatch);
+		}
+		for (String ifNoneMatch : new String[] { "\"x" + inner + "\"", "\"" + inner + "-gzip\"", inner }) {
+			assertEquals(200, conditional(mockMvc, token, ifNoneMatch).getStatus(), ifNoneMatch);
+		}
+
+		// A new listing changes page 0, so the old ETag no longer matches
+		itemRepository.save(Item.builder().title("Chair").price(20.0).build());
+		refresh();
+		MockHttpServletResponse changed = mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+		assertEquals(200, changed.getStatus());
+		assertNotEquals(etag, changed.getHeader(HttpHeaders.ETAG));
+		assertEquals("Chair", json.readTree(changed.getContentAsByteArray()).get("content").get(0).get("title").asString());
+	}
+
+	@Test
+	void gzipOnlyWhenAcceptEncodingAllowsIt() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		String token = token();
+		itemRepository.save(Item.builder().title("Desk").price(30.0).build());
+		refresh();
+		CatalogPageService.EncodedPage page = catalogPageService.getEncodedPage(0);
+
+		for (String acceptEncoding : new String[] { "gzip", "br, gzip;q=0.5", "*", "GZIP" }) {
+			MockHttpServletResponse response = catalog(mockMvc, token, acceptEncoding);
+			assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+			assertEquals(page.gzipEtag(), response.getHeader(HttpHeaders.ETAG), acceptEncoding);
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+				assertArrayEquals(page.json(), in.readAllBytes(), acceptEncoding);
+			}
+		}
+		for (String acceptEncoding : new String[] { "gzip;q=0", "br", "*;q=0", "*, gzip;q=0", "identity" }) {
+			MockHttpServletResponse response = catalog(mockMvc, token, acceptEncoding);
+			assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING), acceptEncoding);
+			assertEquals(page.etag(), response.getHeader(HttpHeaders.ETAG), acceptEncoding);
+			assertArrayEquals(page.json(), response.getContentAsByteArray(), acceptEncoding);
+		}
+
+		// CBOR is never gzipped
+		MockHttpServletResponse cbor = mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+				.accept(MediaType.APPLICATION_CBOR)).andReturn().getResponse();
+		assertNull(cbor.getHeader(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(page.cborEtag(), cbor.getHeader(HttpHeaders.ETAG));
+	}
+
+	private static MockHttpServletResponse conditional(MockMvc mockMvc, String token, String ifNoneMatch)
+			throws Exception {
+		return mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)).andReturn().getResponse();
+	}
+
+	private MockHttpServletResponse catalog(MockMvc mockMvc, String token, String acceptEncoding) throws Exception {
+		MockHttpServletResponse response = mockMvc.perform(get("/items/catalog")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding)).andReturn().getResponse();
+		assertEquals(200, response.getStatus());
+		return response;
+	}
+
+	// Items changed since the last refresh only reach the pages through the dirty flag
+	private void refresh() {
+		catalogPageService.onEvent(new DomainEvent(0L, DomainEvent.ITEM_CREATED, 0L, null, null));
+		catalogPageService.refresh();
+	}
+
+	private String token() {
+		User user = userRepository.save(User.builder()
+				.email("catalog-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Catalog")
+				.build());
+		return "Bearer " + jwtUtil.generateToken(user.getEmail());
+	}
+}
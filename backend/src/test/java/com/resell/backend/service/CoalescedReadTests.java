@@ -0,0 +1,178 @@
+package com.resell.backend.service;
+
+import com.resell.backend.limit.SingleFlight;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// The SingleFlight-backed reads against the real repositories: concurrent callers cost one
+// query, and what they share is not an entity managed by the loading thread. Each caller runs
+// in its own transaction, as a request does under open-in-view.
+@SpringBootTest
+class CoalescedReadTests {
+
+	// Below Hikari's default pool of 10: every caller's transaction holds a connection
+	private static final int CALLERS = 8;
+
+	@MockitoSpyBean
+	private ItemRepository itemRepository;
+
+	@MockitoSpyBean
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private UserDetailsService userDetailsService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void concurrentItemReadsRunOneQueryAndShareADetachedCopy() throws Exception {
+		User owner = owner();
+		Item item = itemRepository.save(Item.builder().title("Lamp").price(20.0).owner(owner).build());
+
+		// The query only returns once every other caller has joined it
+		SingleFlight<?, ?> flight = flight(itemService, "itemLoads");
+		long joined = flight.joined();
+		doAnswer(invocation -> {
+			awaitJoined(flight, joined + CALLERS - 1);
+			return delegate(invocation);
+		}).when(itemRepository).findById(item.getId());
+
+		List<Item> results = race(() -> transactionTemplate.execute(status -> {
+			Item found = itemService.findById(item.getId()).orElseThrow();
+			assertFalse(entityManager.contains(found));
+			return found;
+		}));
+
+		verify(itemRepository, times(1)).findById(item.getId());
+		for (Item result : results) {
+			assertEquals("Lamp", result.getTitle());
+			assertEquals(owner.getId(), result.getOwner().getId());
+			assertNull(result.getOwner().getPassword());
+		}
+	}
+
+	@Test
+	void concurrentListingReadsRunOneQuery() throws Exception {
+		Item item = itemRepository.save(Item.builder().title("Chair").price(35.0).owner(owner()).build());
+
+		SingleFlight<?, ?> flight = flight(itemService, "listedLoads");
+		long joined = flight.joined();
+		doAnswer(invocation -> {
+			awaitJoined(flight, joined + CALLERS - 1);
+			return delegate(invocation);
+		}).when(itemRepository).findByPurchasedFalse();
+
+		List<List<Item>> results = race(() -> transactionTemplate.execute(status -> {
+			List<Item> listed = itemService.findListed();
+			assertTrue(listed.stream().noneMatch(entityManager::contains));
+			return listed;
+		}));
+
+		verify(itemRepository, times(1)).findByPurchasedFalse();
+		for (List<Item> listed : results) {
+			assertTrue(listed.stream().anyMatch(i -> i.getId().equals(item.getId())));
+		}
+	}
+
+	@Test
+	void concurrentLoginsForOneUserRunOneQuery() throws Exception {
+		User owner = owner();
+
+		SingleFlight<?, ?> flight = flight(userDetailsService, "userLoads");
+		long joined = flight.joined();
+		doAnswer(invocation -> {
+			awaitJoined(flight, joined + CALLERS - 1);
+			return delegate(invocation);
+		}).when(userRepository).findByEmail(owner.getEmail());
+
+		List<UserDetails> results = race(() -> transactionTemplate.execute(
+				status -> userDetailsService.loadUserByUsername(owner.getEmail())));
+
+		verify(userRepository, times(1)).findByEmail(owner.getEmail());
+		for (UserDetails details : results) {
+			assertEquals(owner.getEmail(), details.getUsername());
+			assertEquals(owner.getPassword(), details.getPassword());
+		}
+	}
+
+	private User owner() {
+		return userRepository.save(User.builder()
+				.email("coalesced-" + System.nanoTime() + "@test.com")
+				.password("hash")
+				.fullname("Coalesced")
+				.build());
+	}
+
+	private static SingleFlight<?, ?> flight(Object service, String field) {
+		return (SingleFlight<?, ?>) ReflectionTestUtils.getField(service, field);
+	}
+
+	private static void awaitJoined(SingleFlight<?, ?> flight, long followers) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (flight.joined() < followers && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+	}
+
+	// A spied repository proxy has no real method to call; its default answer delegates to the bean
+	private static Object delegate(InvocationOnMock invocation) throws Throwable {
+		return mockingDetails(invocation.getMock()).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+	}
+
+	private static <T> List<T> race(Callable<T> call) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+		List<Future<T>> futures = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			futures.add(pool.submit(() -> {
+				start.await();
+				return call.call();
+			}));
+		}
+		start.countDown();
+
+		List<T> results = new ArrayList<>();
+		for (Future<T> future : futures) {
+			results.add(future.get(20, TimeUnit.SECONDS));
+		}
+		pool.shutdown();
+		return results;
+	}
+}
@@ -0,0 +1,113 @@
+package com.resell.backend.service;
+
+import com.resell.backend.diagnostics.RecordingInfo;
+import com.resell.backend.diagnostics.RecordingSummary;
+import com.resell.backend.diagnostics.StorageEvent;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own recordings directory, so pruning only ever sees this test's files
+@SpringBootTest(properties = {
+		"diagnostics.dir=target/test-diagnostics/${random.uuid}",
+		"diagnostics.keep-recordings=2" })
+class DiagnosticsServiceTests {
+
+	@Autowired
+	private WebApplicationContext context;
+
+	@Autowired
+	private DiagnosticsService diagnosticsService;
+
+	@Autowired
+	private StorageService storageService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@AfterEach
+	void stopRunning() throws Exception {
+		for (RecordingInfo info : diagnosticsService.list()) {
+			if (RecordingInfo.RUNNING.equals(info.state())) {
+				diagnosticsService.stop(info.id());
+			}
+		}
+	}
+
+	@Test
+	void startedRecordingCapturesStorageCallsUntilStopped() throws Exception {
+		RecordingInfo running = diagnosticsService.start("default", 60);
+		assertEquals(RecordingInfo.RUNNING, running.state());
+		assertThrows(IllegalStateException.class, () -> diagnosticsService.summary(running.id()));
+
+		storageService.delete("diagnostics-" + System.nanoTime() + ".png"); // emitted by LocalStorageService
+
+		RecordingInfo finished = diagnosticsService.stop(running.id()).orElseThrow();
+		assertEquals(RecordingInfo.FINISHED, finished.state());
+		assertTrue(finished.sizeBytes() > 0);
+		assertTrue(diagnosticsService.stop(running.id() + 1_000_000).isEmpty());
+
+		RecordingSummary summary = diagnosticsService.summary(running.id()).orElseThrow();
+		assertTrue(summary.events().stream()
+				.anyMatch(t -> t.event().equals(StorageEvent.NAME) && t.key().equals("delete local")),
+				summary.events().toString());
+	}
+
+	@Test
+	void secondStartIsAConflictAndUnknownSettingsAreRejected() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+		User admin = userRepository.save(User.builder()
+				.email("diagnostics-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Diagnostics")
+				.role("ROLE_ADMIN")
+				.build());
+		String token = "Bearer " + jwtUtil.generateToken(admin.getEmail());
+
+		mockMvc.perform(post("/admin/diagnostics/recordings").param("settings", "default")
+				.header("Authorization", token)).andExpect(status().isOk());
+		mockMvc.perform(post("/admin/diagnostics/recordings").param("settings", "default")
+				.header("Authorization", token)).andExpect(status().isConflict());
+		mockMvc.perform(post("/admin/diagnostics/recordings").param("settings", "verbose")
+				.header("Authorization", token)).andExpect(status().isBadRequest());
+	}
+
+	// diagnostics.keep-recordings=2: starting a recording deletes all but the two newest finished ones
+	@Test
+	void startPrunesOldRecordings() throws Exception {
+		long first = record();
+		long second = record();
+		long third = record();
+		RecordingInfo fourth = diagnosticsService.start("default", 60);
+
+		List<Long> ids = diagnosticsService.list().stream().map(RecordingInfo::id).toList();
+		assertEquals(List.of(fourth.id(), third, second), ids);
+		assertTrue(diagnosticsService.recordingFile(first).isEmpty());
+		assertTrue(diagnosticsService.summary(first).isEmpty());
+	}
+
+	private long record() throws Exception {
+		long id = diagnosticsService.start("default", 60).id();
+		diagnosticsService.stop(id).orElseThrow();
+		return id;
+	}
+}
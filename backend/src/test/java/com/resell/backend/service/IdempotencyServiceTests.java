@@ -0,0 +1,137 @@
+package com.resell.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyServiceTests {
+
+	@Test
+	void concurrentRequestsWithSameKeyRunActionOnce() throws Exception {
+		IdempotencyService service = new IdempotencyService(100, 60, 5000);
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(16);
+
+		List<Future<ResponseEntity<?>>> results = new ArrayList<>();
+		for (int i = 0; i < 64; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return service.execute("1:checkout:abc", () -> {
+					executions.incrementAndGet();
+					sleep(20);
+					return ResponseEntity.ok("done");
+				});
+			}));
+		}
+		start.countDown();
+
+		ResponseEntity<?> first = results.get(0).get(5, TimeUnit.SECONDS);
+		for (Future<ResponseEntity<?>> result : results) {
+			assertSame(first, result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, executions.get());
+		pool.shutdown();
+	}
+
+	@Test
+	void failedActionIsNotCached() {
+		IdempotencyService service = new IdempotencyService(100, 60, 5000);
+
+		assertThrows(RuntimeException.class, () -> service.execute("k", () -> {
+			throw new RuntimeException("Item not found");
+		}));
+		assertEquals(200, service.execute("k", () -> ResponseEntity.ok("retry")).getStatusCode().value());
+	}
+
+	@Test
+	void errorsAlsoReleaseTheKeyAndReachWaiters() throws Exception {
+		IdempotencyService service = new IdempotencyService(100, 60, 5000);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch fail = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+
+		Future<ResponseEntity<?>> owner = pool.submit(() -> service.execute("k", () -> {
+			running.countDown();
+			await(fail);
+			throw new StackOverflowError();
+		}));
+		running.await();
+		Future<ResponseEntity<?>> waiter = pool.submit(() -> service.execute("k", () -> ResponseEntity.ok("second")));
+		sleep(50);
+		fail.countDown();
+
+		ExecutionException ownerFailure = assertThrows(ExecutionException.class, () -> owner.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(StackOverflowError.class, ownerFailure.getCause());
+		ExecutionException waiterFailure = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(StackOverflowError.class, waiterFailure.getCause());
+		assertEquals(0, service.size());
+		pool.shutdown();
+	}
+
+	@Test
+	void waiterGivesUpWith409WhileTheFirstRequestIsStillRunning() throws Exception {
+		IdempotencyService service = new IdempotencyService(100, 60, 50);
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+
+		Future<ResponseEntity<?>> owner = pool.submit(() -> service.execute("k", () -> {
+			running.countDown();
+			await(finish);
+			return ResponseEntity.ok("done");
+		}));
+		running.await();
+		assertEquals(409, service.execute("k", () -> ResponseEntity.ok("second")).getStatusCode().value());
+
+		finish.countDown();
+		assertEquals("done", owner.get(5, TimeUnit.SECONDS).getBody());
+		assertEquals("done", service.execute("k", () -> ResponseEntity.ok("second")).getBody());
+		pool.shutdown();
+	}
+
+	@Test
+	void cacheIsBoundedAndExpires() {
+		IdempotencyService bounded = new IdempotencyService(10, 60, 5000);
+		for (int i = 0; i < 100; i++) {
+			bounded.execute("key-" + i, () -> ResponseEntity.ok("ok"));
+		}
+		assertEquals(10, bounded.size());
+
+		IdempotencyService expiring = new IdempotencyService(10, 0, 5000);
+		AtomicInteger executions = new AtomicInteger();
+		expiring.execute("k", () -> ResponseEntity.ok(executions.incrementAndGet()));
+		expiring.execute("k", () -> ResponseEntity.ok(executions.incrementAndGet()));
+		assertEquals(2, executions.get());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.StatsDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ArchivedItemRepository;
+import com.resell.backend.repository.ItemRepository;
+import com.resell.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemArchiveServiceTests {
+
+	@Autowired
+	private ItemArchiveService itemArchiveService;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private SellerStatsService sellerStatsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private ArchivedItemRepository archivedItemRepository;
+
+	@Test
+	void movesOldSalesOutOfItemsAndStillReadsThem() {
+		User seller = userRepository.save(User.builder()
+				.email("seller-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Seller")
+				.build());
+		Item listed = itemRepository.save(Item.builder().title("Lamp").price(10.0).owner(seller).build());
+		Item oldSale = itemRepository.save(Item.builder().title("Chair").price(40.0).owner(seller)
+				.purchased(true).purchasedAt(Instant.now().minus(Duration.ofDays(90))).build());
+		Item recentSale = itemRepository.save(Item.builder().title("Desk").price(80.0).owner(seller)
+				.purchased(true).purchasedAt(Instant.now()).build());
+		Item unknownSale = itemRepository.save(Item.builder().title("Rug").price(15.0).owner(seller)
+				.purchased(true).build()); // sold before purchasedAt was recorded
+
+		assertTrue(itemArchiveService.archive() >= 1);
+
+		assertFalse(itemRepository.existsById(oldSale.getId()));
+		assertTrue(archivedItemRepository.existsById(oldSale.getId()));
+		assertTrue(itemRepository.existsById(recentSale.getId()));
+		assertTrue(itemRepository.existsById(listed.getId()));
+		assertTrue(itemRepository.existsById(unknownSale.getId())); // stamped, not archived
+		assertTrue(itemRepository.findById(unknownSale.getId()).orElseThrow().getPurchasedAt()
+				.isAfter(Instant.now().minus(Duration.ofMinutes(5))));
+
+		Item archived = itemService.findById(oldSale.getId()).orElseThrow();
+		assertEquals("Chair", archived.getTitle());
+		assertTrue(archived.getPurchased());
+
+		// An update must not bring the sale back as a live row
+		assertTrue(itemService.updateItem(oldSale.getId(), Item.builder().title("Chair").price(1.0).build()).isEmpty());
+		assertFalse(itemRepository.existsById(oldSale.getId()));
+
+		List<Item> history = itemService.findByOwner(seller.getId());
+		assertEquals(List.of(listed.getId(), oldSale.getId(), recentSale.getId(), unknownSale.getId()),
+				history.stream().map(Item::getId).toList());
+
+		sellerStatsService.reconcile();
+		StatsDTO stats = sellerStatsService.getSellerStats(seller.getId());
+		assertEquals(4, stats.getListingCount());
+		assertEquals(3, stats.getSoldCount());
+		assertEquals(135.0, stats.getRevenue());
+	}
+}
@@ -0,0 +1,193 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.ItemDTO;
+import com.resell.backend.dto.SavedSearchDTO;
+import com.resell.backend.event.DomainEvent;
+import com.resell.backend.model.Notification;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Item events are handed to the percolator directly; the relay is pushed out of the way
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:percolator;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000",
+		"saved-searches.max-per-user=3" })
+class PercolatorServiceTests {
+
+	private static final AtomicLong ITEM_IDS = new AtomicLong(1_000_000);
+
+	@Autowired
+	private PercolatorService percolatorService;
+
+	@Autowired
+	private SavedSearchService savedSearchService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void newListingNotifiesMatchingBuyersOnce() {
+		User buyer = user("buyer");
+		User other = user("other");
+		User seller = user("seller");
+		search(buyer, "canon camera", null, 100.0);
+		search(buyer, "film camera", null, null); // same buyer, one notification
+		search(other, "canon camera", 150.0, null); // price out of range
+		search(seller, "canon camera", null, null); // own listing
+		percolatorService.rebuild();
+
+		ItemDTO camera = item("Canon AE-1 film camera", 80.0, seller);
+		percolatorService.onEvent(created(camera));
+		percolatorService.onEvent(created(camera)); // redelivered
+		percolatorService.onEvent(created(item("Sony headphones", 80.0, seller)));
+
+		List<Notification> inbox = notificationService.getInbox(buyer.getId(), 0, 20).getContent();
+		assertEquals(1, inbox.size());
+		assertEquals(camera.getId(), inbox.get(0).getItemId());
+		assertEquals("Canon AE-1 film camera", inbox.get(0).getItemTitle());
+		assertEquals(0, notificationService.countUnread(other.getId()));
+		assertEquals(0, notificationService.countUnread(seller.getId()));
+	}
+
+	@Test
+	void deletedSearchStopsMatching() {
+		User buyer = user("buyer");
+		User seller = user("seller");
+		SavedSearchDTO saved = search(buyer, "ikea desk", null, null);
+		percolatorService.rebuild();
+
+		assertFalse(savedSearchService.delete(seller, saved.getId())); // not theirs
+		assertTrue(savedSearchService.delete(buyer, saved.getId()));
+		percolatorService.onEvent(new DomainEvent(0L, DomainEvent.SAVED_SEARCH_DELETED, saved.getId(),
+				objectMapper.writeValueAsString(saved), Instant.now()));
+
+		percolatorService.onEvent(created(item("IKEA Malm desk", 40.0, seller)));
+		assertEquals(0, notificationService.countUnread(buyer.getId()));
+	}
+
+	@Test
+	void inboxIsNewestFirstUntilMarkedRead() {
+		User buyer = user("buyer");
+		User seller = user("seller");
+		search(buyer, "lamp", null, null);
+		percolatorService.rebuild();
+
+		ItemDTO first = item("Desk lamp", 10.0, seller);
+		ItemDTO second = item("Floor lamp", 30.0, seller);
+		percolatorService.onEvent(created(first));
+		percolatorService.onEvent(created(second));
+
+		assertEquals(2, notificationService.countUnread(buyer.getId()));
+		List<Notification> inbox = notificationService.getInbox(buyer.getId(), 0, 20).getContent();
+		assertEquals(List.of(second.getId(), first.getId()), inbox.stream().map(Notification::getItemId).toList());
+
+		assertEquals(2, notificationService.markAllRead(buyer.getId()));
+		assertEquals(0, notificationService.countUnread(buyer.getId()));
+		assertEquals(0, notificationService.markAllRead(buyer.getId()));
+		assertEquals(2, notificationService.getInbox(buyer.getId(), 0, 20).getContent().size());
+	}
+
+	// Pods racing on the same item: every user is notified exactly once and none is lost
+	@Test
+	void concurrentNotifyWritesEachRowOnce() throws Exception {
+		ItemDTO item = item("Bike", 100.0, user("seller"));
+		Map<Long, Long> searchesByUser = new LinkedHashMap<>();
+		for (int i = 0; i < 20; i++) {
+			searchesByUser.put(user("buyer").getId(), 1L);
+		}
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(pool.submit(() -> {
+				start.await();
+				return notificationService.notify(item, searchesByUser);
+			}));
+		}
+		start.countDown();
+		int written = 0;
+		for (Future<Integer> result : results) {
+			written += result.get(10, TimeUnit.SECONDS);
+		}
+		pool.shutdown();
+
+		assertEquals(searchesByUser.size(), written);
+		for (Long userId : searchesByUser.keySet()) {
+			assertEquals(1, notificationService.countUnread(userId));
+		}
+	}
+
+	@Test
+	void savedSearchesAreValidated() {
+		User buyer = user("buyer");
+		assertThrows(IllegalArgumentException.class, () -> search(buyer, "  ", null, null));
+		assertThrows(IllegalArgumentException.class, () -> search(buyer, "camera", 50.0, 10.0));
+
+		search(buyer, "one", null, null);
+		search(buyer, "two", null, null);
+		search(buyer, "three", null, null);
+		assertThrows(IllegalArgumentException.class, () -> search(buyer, "four", null, null));
+		assertEquals(List.of("three", "two", "one"),
+				savedSearchService.getSearches(buyer).stream().map(SavedSearchDTO::getKeywords).toList());
+	}
+
+	private SavedSearchDTO search(User user, String keywords, Double minPrice, Double maxPrice) {
+		return savedSearchService.create(user, SavedSearchDTO.builder()
+				.keywords(keywords)
+				.minPrice(minPrice)
+				.maxPrice(maxPrice)
+				.build());
+	}
+
+	private DomainEvent created(ItemDTO item) {
+		return new DomainEvent(0L, DomainEvent.ITEM_CREATED, item.getId(), objectMapper.writeValueAsString(item),
+				Instant.now());
+	}
+
+	private static ItemDTO item(String title, double price, User owner) {
+		return ItemDTO.builder()
+				.id(ITEM_IDS.incrementAndGet())
+				.title(title)
+				.price(price)
+				.purchased(false)
+				.ownerId(owner.getId())
+				.build();
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder()
+				.email(name + "-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname(name)
+				.build());
+	}
+}
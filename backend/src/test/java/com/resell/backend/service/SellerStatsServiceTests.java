@@ -0,0 +1,136 @@
+package com.resell.backend.service;
+
+import com.resell.backend.dto.StatsDTO;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.ArchivedItemRepository;
+import com.resell.backend.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Outside a transaction updates apply at once, so the counters can be checked directly
+class SellerStatsServiceTests {
+
+	private final ItemRepository itemRepository = mock(ItemRepository.class);
+	private final ArchivedItemRepository archivedItemRepository = mock(ArchivedItemRepository.class);
+	private SellerStatsService stats;
+
+	@BeforeEach
+	void setUp() {
+		stats = new SellerStatsService();
+		ReflectionTestUtils.setField(stats, "itemRepository", itemRepository);
+		ReflectionTestUtils.setField(stats, "archivedItemRepository", archivedItemRepository);
+		when(itemRepository.aggregateBySeller()).thenReturn(List.of());
+		when(archivedItemRepository.aggregateBySeller()).thenReturn(List.of());
+	}
+
+	@Test
+	void createSellAndDeleteAdjustSellerAndPlatform() {
+		Item lamp = item(1L, 10.0);
+		Item chair = item(1L, 30.0);
+		stats.onCreated(lamp);
+		stats.onCreated(chair);
+		stats.onCreated(item(2L, 5.0));
+
+		stats.onSold(lamp);
+		lamp.setPurchased(true);
+		assertStats(stats.getSellerStats(1L), 2, 1, 1, 10.0, 20.0);
+
+		stats.onDeleted(chair);
+		assertStats(stats.getSellerStats(1L), 1, 0, 1, 10.0, 10.0);
+
+		// Deleting a sold listing takes its revenue with it
+		stats.onDeleted(lamp);
+		assertStats(stats.getSellerStats(1L), 0, 0, 0, 0.0, 0.0);
+		assertStats(stats.getPlatformStats(), 1, 1, 0, 0.0, 5.0);
+		assertStats(stats.getSellerStats(99L), 0, 0, 0, 0.0, 0.0);
+	}
+
+	@Test
+	void reconcileReplacesDriftWithDatabaseTotals() {
+		stats.onCreated(item(1L, 999.0)); // never committed, say
+		when(itemRepository.aggregateBySeller()).thenReturn(List.of(new Aggregate(1L, 3L, 60.0, 1L, 20.0)));
+		when(archivedItemRepository.aggregateBySeller()).thenReturn(List.of(new Aggregate(1L, 1L, 40.0, 1L, 40.0)));
+
+		stats.reconcile();
+
+		assertStats(stats.getSellerStats(1L), 4, 2, 2, 60.0, 25.0);
+		assertStats(stats.getPlatformStats(), 4, 2, 2, 60.0, 25.0);
+	}
+
+	// The rebuild has read the items table when these land, so only the replay keeps them
+	@Test
+	void updatesDuringReconcileSurviveTheSwap() {
+		Item late = item(1L, 15.0);
+		Item sold = item(1L, 20.0);
+		when(itemRepository.aggregateBySeller()).thenReturn(List.of(new Aggregate(1L, 1L, 20.0, 0L, 0.0)));
+		when(archivedItemRepository.aggregateBySeller()).thenAnswer(invocation -> {
+			stats.onCreated(late);
+			stats.onSold(sold);
+			return List.of();
+		});
+
+		stats.reconcile();
+
+		assertStats(stats.getSellerStats(1L), 2, 1, 1, 20.0, 17.5);
+
+		// And the log is dropped afterwards: a later rebuild starts from the database alone
+		when(archivedItemRepository.aggregateBySeller()).thenReturn(List.of());
+		stats.reconcile();
+		assertStats(stats.getSellerStats(1L), 1, 1, 0, 0.0, 20.0);
+	}
+
+	private static void assertStats(StatsDTO stats, long listings, long active, long sold, double revenue,
+			double averagePrice) {
+		assertEquals(listings, stats.getListingCount(), "listings");
+		assertEquals(active, stats.getActiveCount(), "active");
+		assertEquals(sold, stats.getSoldCount(), "sold");
+		assertEquals(revenue, stats.getRevenue(), 1e-9, "revenue");
+		assertEquals(averagePrice, stats.getAveragePrice(), 1e-9, "average price");
+	}
+
+	private static Item item(Long ownerId, double price) {
+		return Item.builder()
+				.title("Item")
+				.price(price)
+				.purchased(false)
+				.owner(User.builder().id(ownerId).build())
+				.build();
+	}
+
+	private record Aggregate(Long sellerId, Long listingCount, Double priceSum, Long soldCount, Double revenue)
+			implements ItemRepository.SellerAggregate {
+
+		@Override
+		public Long getSellerId() {
+			return sellerId;
+		}
+
+		@Override
+		public Long getListingCount() {
+			return listingCount;
+		}
+
+		@Override
+		public Double getPriceSum() {
+			return priceSum;
+		}
+
+		@Override
+		public Long getSoldCount() {
+			return soldCount;
+		}
+
+		@Override
+		public Double getRevenue() {
+			return revenue;
+		}
+	}
+}
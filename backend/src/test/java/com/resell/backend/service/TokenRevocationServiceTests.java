@@ -0,0 +1,97 @@
+package com.resell.backend.service;
+
+import com.resell.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revocations only reach the filter through the local add here; the relay is pushed out of the way
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:revocations;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"outbox.relay-interval-ms=3600000",
+		"outbox.cleanup-interval-ms=3600000" })
+class TokenRevocationServiceTests {
+
+	@Autowired
+	private TokenRevocationService tokenRevocationService;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		tokenRevocationService.rebuild();
+	}
+
+	@Test
+	void loggedOutTokenIsRevokedAndOthersAreNot() {
+		String email = email();
+		String loggedOut = jwtUtil.generateToken(email);
+		String other = jwtUtil.generateToken(email);
+		Claims claims = jwtUtil.extractAllClaims(loggedOut);
+
+		tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+
+		assertTrue(revoked(loggedOut));
+		assertFalse(revoked(other));
+	}
+
+	// A new login right after a role change must work, even within the same second
+	@Test
+	void userRevocationCoversTokensIssuedUpToIt() throws Exception {
+		String email = email();
+		String before = jwtUtil.generateToken(email);
+		Thread.sleep(2);
+		tokenRevocationService.revokeUser(email);
+		Thread.sleep(2);
+		String after = jwtUtil.generateToken(email);
+
+		assertTrue(revoked(before));
+		assertFalse(revoked(after));
+	}
+
+	@Test
+	void revokedUsersNewTokensAreCheckedWithoutQueries() throws Exception {
+		String email = email();
+		tokenRevocationService.revokeUser(email);
+		Thread.sleep(2);
+		String fresh = jwtUtil.generateToken(email);
+
+		assertFalse(revoked(fresh)); // reads the revocation time once
+		double lookups = lookups();
+		for (int i = 0; i < 10; i++) {
+			assertFalse(revoked(fresh));
+		}
+		assertEquals(lookups, lookups());
+
+		// Revoking the user again is seen at once
+		Thread.sleep(2);
+		tokenRevocationService.revokeUser(email);
+		assertTrue(revoked(fresh));
+	}
+
+	private boolean revoked(String token) {
+		Claims claims = jwtUtil.extractAllClaims(token);
+		String email = claims.getSubject();
+		return tokenRevocationService.mightBeRevoked(claims.getId(), email)
+				&& tokenRevocationService.isRevoked(claims.getId(), email, jwtUtil.issuedAt(claims));
+	}
+
+	private double lookups() {
+		return meterRegistry.counter("auth.revocation.store-lookups").count();
+	}
+
+	private static String email() {
+		return "revoked-" + System.nanoTime() + "@test.com";
+	}
+}
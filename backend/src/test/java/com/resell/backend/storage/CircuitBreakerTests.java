@@ -0,0 +1,41 @@
+package com.resell.backend.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTests {
+
+	@Test
+	void opensAfterConsecutiveFailuresAndLetsOneTrialThroughAfterTheOpenPeriod() {
+		AtomicLong now = new AtomicLong();
+		CircuitBreaker breaker = new CircuitBreaker(3, 1000, now::get);
+
+		breaker.onFailure();
+		breaker.onFailure();
+		breaker.onSuccess(); // resets the streak
+		breaker.onFailure();
+		breaker.onFailure();
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquire());
+
+		now.set(1000);
+		assertTrue(breaker.tryAcquire()); // the trial call
+		assertFalse(breaker.tryAcquire()); // only one at a time
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(1000, breaker.retryAfterMillis());
+
+		now.set(2000);
+		assertTrue(breaker.tryAcquire());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertTrue(breaker.tryAcquire());
+	}
+}
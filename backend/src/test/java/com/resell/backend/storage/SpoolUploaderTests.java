@@ -0,0 +1,240 @@
+package com.resell.backend.storage;
+
+import com.resell.backend.controller.UploadController;
+import com.resell.backend.model.Item;
+import com.resell.backend.model.StoredBlob;
+import com.resell.backend.model.User;
+import com.resell.backend.repository.StoredBlobRepository;
+import com.resell.backend.repository.UserRepository;
+import com.resell.backend.service.ItemService;
+import com.resell.backend.service.StorageService;
+import com.resell.backend.service.StoredBlobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// storage.type=spool (content addressed) against an in-memory object store that fails its first calls
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:spool;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"storage.type=spool",
+		"storage.spool.remote=fake",
+		"storage.spool.dir=target/test-spool",
+		"storage.spool.initial-backoff-ms=10",
+		"storage.spool.max-backoff-ms=50",
+		"storage.spool.keep-after-upload-ms=0",
+		"storage.spool.breaker.failure-threshold=2",
+		"storage.spool.breaker.open-ms=100",
+		"storage.blobs.grace-period-ms=0" })
+class SpoolUploaderTests {
+
+	@TestConfiguration
+	static class FakeRemote {
+		@Bean
+		FlakyObjectStore flakyObjectStore() {
+			return new FlakyObjectStore();
+		}
+	}
+
+	static class FlakyObjectStore implements ObjectStore {
+		final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		final AtomicInteger failuresLeft = new AtomicInteger(3);
+		final AtomicInteger errorsLeft = new AtomicInteger();
+		volatile String failDeleteOf;
+		final AtomicInteger puts = new AtomicInteger();
+
+		@Override
+		public void put(String key, Path file, String contentType) throws IOException {
+			if (failuresLeft.getAndDecrement() > 0) {
+				throw new IOException("remote unavailable");
+			}
+			if (errorsLeft.getAndDecrement() > 0) {
+				throw new AssertionError("client library blew up");
+			}
+			objects.put(key, Files.readAllBytes(file));
+			puts.incrementAndGet();
+		}
+
+		@Override
+		public void delete(String key) throws IOException {
+			if (key.equals(failDeleteOf)) {
+				failDeleteOf = null;
+				throw new IOException("remote unavailable");
+			}
+			objects.remove(key);
+		}
+
+		@Override
+		public String publicUrl(String key) {
+			return null;
+		}
+
+		@Override
+		public Resource open(String key) {
+			byte[] content = objects.get(key);
+			return content == null ? null : new ByteArrayResource(content);
+		}
+	}
+
+	@Autowired
+	private StorageService storageService;
+
+	@Autowired
+	private SpoolUploader spoolUploader;
+
+	@Autowired
+	private UploadController uploadController;
+
+	@Autowired
+	private FlakyObjectStore objectStore;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private StoredBlobService storedBlobService;
+
+	@Autowired
+	private StoredBlobRepository storedBlobRepository;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void returnsImmediatelyAndUploadsInTheBackgroundThroughFailures() throws Exception {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		objectStore.failuresLeft.set(3);
+		byte[] content = ("not really a jpeg " + System.nanoTime()).getBytes(StandardCharsets.UTF_8);
+
+		String url = storageService.uploadFile(new MockMultipartFile("file", "my photo.JPEG", "image/jpeg", content));
+
+		String key = url.substring(url.lastIndexOf('/') + 1);
+		assertTrue(url.contains("/uploads/") && ContentAddress.isKey(key) && key.endsWith(".jpg"), url);
+		assertEquals(200, uploadController.getUpload(key).getStatusCode().value());
+
+		awaitTrue(() -> objectStore.objects.containsKey(key));
+		assertArrayEquals(content, objectStore.objects.get(key));
+		assertTrue(meterRegistry.counter("storage.spool.uploads", "result", "failure").count() >= 3);
+
+		// Once confirmed, the spooled copy goes away and the remote one is served
+		awaitTrue(() -> spoolUploader.localFile(key) == null);
+		ResponseEntity<?> response = uploadController.getUpload(key);
+		assertEquals(200, response.getStatusCode().value());
+		assertNotNull(response.getBody());
+		assertEquals(404, uploadController.getUpload("missing.jpg").getStatusCode().value());
+
+		// The same bytes again: same URL, nothing spooled or sent
+		int puts = objectStore.puts.get();
+		assertEquals(url, storageService.uploadFile(new MockMultipartFile("file", "copy.jpg", "image/jpeg", content)));
+		assertNull(spoolUploader.localFile(key));
+		assertEquals(puts, objectStore.puts.get());
+	}
+
+	// Two failures open the breaker; the trial call then throws an Error, which must
+	// release the trial slot instead of leaving the breaker half-open for good
+	@Test
+	void errorInTrialCallDoesNotWedgeTheBreaker() throws Exception {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		objectStore.failuresLeft.set(2);
+		objectStore.errorsLeft.set(1);
+		String url = storageService.uploadFile(new MockMultipartFile("file", "b.png", "image/png",
+				("error " + System.nanoTime()).getBytes(StandardCharsets.UTF_8)));
+		String key = ContentAddress.keyOf(url);
+
+		awaitTrue(() -> objectStore.objects.containsKey(key));
+		assertTrue(objectStore.errorsLeft.get() <= 0); // the Error was thrown
+		awaitTrue(() -> !spoolUploader.isPending(key));
+	}
+
+	@Test
+	void reclaimsBlobsOnceNoItemReferencesThem() throws Exception {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		objectStore.failuresLeft.set(0);
+		String url = storageService.uploadFile(new MockMultipartFile("file", "a.png", "image/png",
+				("png " + System.nanoTime()).getBytes(StandardCharsets.UTF_8)));
+		String key = ContentAddress.keyOf(url);
+		awaitTrue(() -> objectStore.objects.containsKey(key));
+
+		User seller = userRepository.save(User.builder()
+				.email("blob-seller-" + System.nanoTime() + "@test.com")
+				.password("x")
+				.fullname("Seller")
+				.build());
+		Item first = itemService.createItem(seller, Item.builder().title("First").price(1.0).imageUrl(url).build());
+		Item second = itemService.createItem(seller, Item.builder().title("Second").price(2.0).imageUrl(url).build());
+		assertEquals(2, storedBlobRepository.findById(key).orElseThrow().getRefCount());
+
+		itemService.deleteItem(first.getId());
+		storedBlobService.sweep();
+		assertTrue(objectStore.objects.containsKey(key)); // still used by the second item
+
+		itemService.deleteItem(second.getId());
+		Thread.sleep(5); // past the (zero) grace period
+		storedBlobService.sweep();
+		assertFalse(objectStore.objects.containsKey(key));
+		assertTrue(storedBlobRepository.findById(key).isEmpty());
+	}
+
+	// A failed byte delete leaves the row, no longer marked stored, for the next sweep
+	@Test
+	void failedDeleteKeepsTheRowUnstored() throws Exception {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		objectStore.failuresLeft.set(0);
+		String url = storageService.uploadFile(new MockMultipartFile("file", "c.png", "image/png",
+				("unreferenced " + System.nanoTime()).getBytes(StandardCharsets.UTF_8)));
+		String key = ContentAddress.keyOf(url);
+		awaitTrue(() -> storedBlobRepository.findById(key).map(StoredBlob::isStored).orElse(false));
+
+		objectStore.failDeleteOf = key;
+		Thread.sleep(5); // past the (zero) grace period
+		storedBlobService.sweep();
+		assertTrue(objectStore.objects.containsKey(key));
+		assertFalse(storedBlobRepository.findById(key).orElseThrow().isStored());
+
+		storedBlobService.sweep();
+		assertFalse(objectStore.objects.containsKey(key));
+		assertTrue(storedBlobRepository.findById(key).isEmpty());
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out");
+			Thread.sleep(20);
+		}
+	}
+}
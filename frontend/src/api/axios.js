@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { decodeCbor } from './cbor';
 
 const api = axios.create({
     // Use relative path so Nginx can proxy /api/ to the backend service inside the cluster
@@ -22,33 +23,99 @@ api.interceptors.request.use(
     }
 );
 
+// Opt-in compact responses for the heaviest reads (catalog, cart, facets, similar items):
+// build with VITE_API_FORMAT=cbor. Other calls, and error bodies, stay JSON.
+const binaryReads = import.meta.env.VITE_API_FORMAT === 'cbor';
+
+const decodeBody = (data, headers, status) => {
+    if (!(data instanceof ArrayBuffer)) {
+        return data;
+    }
+    const type = String((typeof headers?.get === 'function' ? headers.get('content-type') : headers?.['content-type']) || '');
+    if (status < 300 && type.includes('application/cbor')) {
+        return decodeCbor(data);
+    }
+    const text = new TextDecoder().decode(data);
+    try {
+        return JSON.parse(text);
+    } catch {
+        return text;
+    }
+};
+
+const read = (config = {}) => (binaryReads
+    ? {
+        ...config,
+        responseType: 'arraybuffer',
+        headers: { ...config.headers, Accept: 'application/cbor, application/json;q=0.9' },
+        transformResponse: decodeBody
+    }
+    : config);
+
+// Fresh key per logical action; pass the same key again when retrying that action
+const idempotencyHeaders = (key = crypto.randomUUID()) => ({
+    headers: { 'Idempotency-Key': key }
+});
+
 // Cart API functions
 // These functions provide a clean interface to interact with the cart backend
 export const cartAPI = {
     // Get the current user's cart
     // Returns: { id, user, items: [{id, cart, item: {id, name, description, price, owner}}] }
-    getCart: () => api.get('/cart'),
+    getCart: () => api.get('/cart', read()),
 
     // Add an item to the cart
     // Params: itemId (Long) - the ID of the item to add
-    // Returns: { message: "Item added to cart" }
-    addToCart: (itemId) => api.post('/cart/add', { itemId }),
+    //         idempotencyKey (optional) - reuse when retrying the same add
+    // Returns: { message: "Item added to cart" } (adding an item twice is a no-op)
+    addToCart: (itemId, idempotencyKey) =>
+        api.post('/cart/add', { itemId }, idempotencyHeaders(idempotencyKey)),
+
+    // Add several items in one request
+    // Params: itemIds (Long[])
+    // Returns: [{ index, id, success, message }] in request order
+    addManyToCart: (itemIds) => api.post('/cart/batch/add', { itemIds }),
 
     // Remove an item from the cart
     // Params: cartItemId (Long) - the ID of the cart item (not the item itself)
     // Returns: { message: "Item removed from cart" }
     removeFromCart: (cartItemId) => api.delete(`/cart/remove/${cartItemId}`),
 
+    // Remove several cart items in one request
+    // Params: cartItemIds (Long[])
+    // Returns: [{ index, id, success, message }] in request order
+    removeManyFromCart: (cartItemIds) => api.post('/cart/batch/remove', { cartItemIds }),
+
     // Checkout - clears all items from cart
+    // Params: idempotencyKey (optional) - reuse when retrying the same checkout
     // Returns: { message: "Checkout successful!" }
-    checkout: () => api.post('/cart/checkout')
+    checkout: (idempotencyKey) =>
+        api.post('/cart/checkout', null, idempotencyHeaders(idempotencyKey))
 };
 
 export const itemAPI = {
+    // One page of listed items, newest first (the first pages are served pre-encoded)
+    // Returns: { content: [{ id, title, description, price, imageUrl, purchased, ownerId }], page, size, hasNext }
+    getCatalog: (page = 0) => api.get('/items/catalog', read({ params: { page } })),
+
     // Post a new item
     // Params: itemData { title, description, price, imageUrl }
     createItem: (itemData) => api.post('/items', itemData),
 
+    // Post several items in one request
+    // Params: items [{ title, description, price, imageUrl }]
+    // Returns: [{ index, id, success, message }] in request order
+    createItems: (items) => api.post('/items/batch', items),
+
+    // Price filter with count and histogram
+    // Params: { minPrice, maxPrice, sellerId, buckets, sort: 'price_asc' | 'price_desc', page, size } (all optional)
+    // Returns: { total, minPrice, maxPrice, histogram: [{ from, to, count }], items: { content, page, size, hasNext } }
+    getFacets: (params) => api.get('/items/facets', read({ params })),
+
+    // Listings similar to one item (title/description), most similar first
+    // Returns: [{ id, title, description, price, imageUrl, purchased, ownerId }]
+    getSimilar: (id, limit = 8) => api.get(`/items/${id}/similar`, read({ params: { limit } })),
+
     // Upload an image
     // Params: file (File object from input)
     // Returns: { url: "..." }
@@ -63,4 +130,43 @@ export const itemAPI = {
     }
 };
 
+export const searchAPI = {
+    // Saved searches of the current user, newest first
+    getSearches: () => api.get('/searches'),
+
+    // Get notified when a matching item is listed
+    // Params: { keywords: "canon camera", minPrice, maxPrice } (prices optional)
+    saveSearch: (search) => api.post('/searches', search),
+
+    deleteSearch: (id) => api.delete(`/searches/${id}`)
+};
+
+export const notificationAPI = {
+    // Returns: { content: [{ id, itemId, savedSearchId, itemTitle, itemPrice, createdAt, readAt }], page, size, hasNext }
+    getInbox: (page = 0, size = 20) => api.get('/notifications', { params: { page, size } }),
+
+    // Returns: { unread }
+    getUnreadCount: () => api.get('/notifications/unread-count'),
+
+    markAllRead: () => api.post('/notifications/read')
+};
+
+export const authAPI = {
+    // Revoke the current token on the server (call before clearing it locally)
+    logout: () => api.post('/auth/logout'),
+
+    // Revoke every token of the current user, on all devices
+    logoutAll: () => api.post('/auth/logout-all')
+};
+
+export const adminAPI = {
+    // Delete several items in one request
+    // Params: ids (Long[])
+    // Returns: [{ index, id, success, message }] in request order
+    deleteItems: (ids) => api.post('/admin/items/batch-delete', { ids }),
+
+    // Sign a user out everywhere (e.g. compromised account)
+    revokeTokens: (userId) => api.post(`/admin/users/${userId}/revoke-tokens`)
+};
+
 export default api;
@@ -0,0 +1,101 @@
+// Minimal CBOR (RFC 8949) decoder for API responses: everything Jackson's CBOR writer
+// emits for our DTOs (maps, arrays, strings, numbers, booleans, null), definite or
+// indefinite length. Tags are skipped and their content returned as-is.
+const textDecoder = new TextDecoder();
+
+export function decodeCbor(buffer) {
+    const bytes = buffer instanceof Uint8Array ? buffer : new Uint8Array(buffer);
+    const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+    let offset = 0;
+
+    const BREAK = Symbol('break');
+
+    const readLength = (info) => {
+        if (info < 24) return info;
+        if (info === 24) return view.getUint8(offset++);
+        if (info === 25) { const v = view.getUint16(offset); offset += 2; return v; }
+        if (info === 26) { const v = view.getUint32(offset); offset += 4; return v; }
+        if (info === 27) {
+            const high = view.getUint32(offset);
+            const low = view.getUint32(offset + 4);
+            offset += 8;
+            return high * 2 ** 32 + low; // exact up to 2^53, like JSON numbers
+        }
+        if (info === 31) return -1; // indefinite
+        throw new Error(`Invalid CBOR length ${info} at ${offset}`);
+    };
+
+    const readHalf = () => {
+        const half = view.getUint16(offset);
+        offset += 2;
+        const exponent = (half >> 10) & 0x1f;
+        const fraction = half & 0x3ff;
+        const sign = half & 0x8000 ? -1 : 1;
+        if (exponent === 0) return sign * 2 ** -14 * (fraction / 1024);
+        if (exponent === 31) return fraction ? NaN : sign * Infinity;
+        return sign * 2 ** (exponent - 15) * (1 + fraction / 1024);
+    };
+
+    const readChunks = (major, length) => {
+        if (length >= 0) {
+            const chunk = bytes.subarray(offset, offset + length);
+            offset += length;
+            return major === 3 ? textDecoder.decode(chunk) : chunk.slice();
+        }
+        const parts = [];
+        for (let part = read(); part !== BREAK; part = read()) {
+            parts.push(part);
+        }
+        if (major === 3) return parts.join('');
+        const joined = new Uint8Array(parts.reduce((sum, part) => sum + part.length, 0));
+        parts.reduce((at, part) => { joined.set(part, at); return at + part.length; }, 0);
+        return joined;
+    };
+
+    const read = () => {
+        const initial = view.getUint8(offset++);
+        const major = initial >> 5;
+        const info = initial & 0x1f;
+        switch (major) {
+            case 0: return readLength(info);
+            case 1: return -1 - readLength(info);
+            case 2:
+            case 3: return readChunks(major, readLength(info));
+            case 4: {
+                const length = readLength(info);
+                const array = [];
+                if (length >= 0) {
+                    for (let i = 0; i < length; i++) array.push(read());
+                } else {
+                    for (let item = read(); item !== BREAK; item = read()) array.push(item);
+                }
+                return array;
+            }
+            case 5: {
+                const length = readLength(info);
+                const map = {};
+                for (let i = 0; length < 0 || i < length; i++) {
+                    const key = read();
+                    if (key === BREAK) break;
+                    map[key] = read();
+                }
+                return map;
+            }
+            case 6:
+                readLength(info); // tag number (e.g. big numbers); the content stands for itself
+                return read();
+            default:
+                if (info === 20) return false;
+                if (info === 21) return true;
+                if (info === 22 || info === 23) return null;
+                if (info === 25) return readHalf();
+                if (info === 26) { const v = view.getFloat32(offset); offset += 4; return v; }
+                if (info === 27) { const v = view.getFloat64(offset); offset += 8; return v; }
+                if (info === 31) return BREAK;
+                if (info < 24) return info; // unassigned simple value
+                return view.getUint8(offset++);
+        }
+    };
+
+    return read();
+}
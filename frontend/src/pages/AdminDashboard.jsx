@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import api from '../api/axios';
+import api, { adminAPI } from '../api/axios';
 
 const AdminDashboard = () => {
     const navigate = useNavigate();
@@ -9,6 +9,8 @@ const AdminDashboard = () => {
     const [view, setView] = useState('items'); // 'items' or 'users'
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState('');
+    const [page, setPage] = useState(0);
+    const [hasNext, setHasNext] = useState(false);
 
     useEffect(() => {
         const role = localStorage.getItem('role');
@@ -19,16 +21,19 @@ const AdminDashboard = () => {
         fetchData();
     }, [view]);
 
-    const fetchData = async () => {
-        setLoading(true);
+    // Lists are paginated: { content, page, size, hasNext }
+    const fetchData = async (nextPage = 0) => {
+        setLoading(nextPage === 0);
         try {
+            const response = await api.get(`/admin/${view}`, { params: { page: nextPage, size: 50 } });
+            const { content, hasNext } = response.data;
             if (view === 'items') {
-                const response = await api.get('/admin/items');
-                setItems(response.data);
+                setItems(nextPage === 0 ? content : [...items, ...content]);
             } else {
-                const response = await api.get('/admin/users');
-                setUsers(response.data);
+                setUsers(nextPage === 0 ? content : [...users, ...content]);
             }
+            setPage(nextPage);
+            setHasNext(hasNext);
         } catch (err) {
             setError('Failed to fetch data');
             console.error(err);
@@ -58,6 +63,15 @@ const AdminDashboard = () => {
         }
     };
 
+    const handleRevokeTokens = async (userId) => {
+        try {
+            await adminAPI.revokeTokens(userId);
+            alert('User signed out on all devices');
+        } catch (err) {
+            alert('Failed to revoke tokens');
+        }
+    };
+
     return (
         <div className="min-h-screen bg-gray-950 text-gray-100 p-8">
             <div className="max-w-6xl mx-auto">
@@ -160,6 +174,12 @@ const AdminDashboard = () => {
                                                 >
                                                     Toggle Admin
                                                 </button>
+                                                <button
+                                                    onClick={() => handleRevokeTokens(user.id)}
+                                                    className="ml-4 text-red-400 hover:text-red-300 text-sm font-medium"
+                                                >
+                                                    Revoke Tokens
+                                                </button>
                                             </td>
                                         </tr>
                                     ))}
@@ -169,6 +189,16 @@ const AdminDashboard = () => {
                         {((view === 'items' && items.length === 0) || (view === 'users' && users.length === 0)) && (
                             <div className="text-center py-20 text-gray-500">No data found</div>
                         )}
+                        {hasNext && (
+                            <div className="text-center py-4 border-t border-gray-800">
+                                <button
+                                    onClick={() => fetchData(page + 1)}
+                                    className="text-blue-400 hover:text-blue-300 text-sm font-medium"
+                                >
+                                    Load more
+                                </button>
+                            </div>
+                        )}
                     </div>
                 )}
             </div>
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import api, { cartAPI } from '../api/axios';
+import { authAPI, cartAPI, itemAPI } from '../api/axios';
 
 const Dashboard = () => {
     const navigate = useNavigate();
@@ -10,16 +10,22 @@ const Dashboard = () => {
     const [cartCount, setCartCount] = useState(0);
     const [addingToCart, setAddingToCart] = useState(null);
     const [successMessage, setSuccessMessage] = useState('');
+    const [page, setPage] = useState(0);
+    const [hasNext, setHasNext] = useState(false);
 
     useEffect(() => {
         fetchItems();
         fetchCartCount();
     }, []);
 
-    const fetchItems = async () => {
+    // Catalog is paginated, newest first: { content, page, size, hasNext }
+    const fetchItems = async (nextPage = 0) => {
         try {
-            const response = await api.get('/items');
-            setItems(response.data);
+            const response = await itemAPI.getCatalog(nextPage);
+            const { content, hasNext } = response.data;
+            setItems(nextPage === 0 ? content : [...items, ...content]);
+            setPage(nextPage);
+            setHasNext(hasNext);
         } catch (err) {
             console.error("Failed to fetch items", err);
             setError('Failed to fetch items');
@@ -54,9 +60,16 @@ const Dashboard = () => {
         }
     };
 
-    const handleLogout = () => {
+    const handleLogout = async () => {
+        try {
+            await authAPI.logout();
+        } catch (err) {
+            // The token is dropped locally either way
+            console.error('Failed to revoke token:', err);
+        }
         localStorage.removeItem('token');
         localStorage.removeItem('username');
+        localStorage.removeItem('role');
         navigate('/login');
     };
 
@@ -107,12 +120,7 @@ const Dashboard = () => {
 
                             {/* Logout Button */}
                             <button
-                                onClick={() => {
-                                    localStorage.removeItem('token');
-                                    localStorage.removeItem('username');
-                                    localStorage.removeItem('role');
-                                    navigate('/login');
-                                }}
+                                onClick={handleLogout}
                                 className="px-4 py-2 text-sm text-gray-400 hover:text-white transition-colors"
                             >
                                 Logout
@@ -208,6 +216,16 @@ const Dashboard = () => {
                         ))}
                     </div>
                 )}
+                {hasNext && (
+                    <div className="text-center mt-10">
+                        <button
+                            onClick={() => fetchItems(page + 1)}
+                            className="px-6 py-3 bg-gray-800 text-white rounded-lg hover:bg-gray-700 transition-colors"
+                        >
+                            Load more
+                        </button>
+                    </div>
+                )}
             </main>
         </div>
     );
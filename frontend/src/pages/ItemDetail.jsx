@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import api, { cartAPI } from '../api/axios';
+import api, { cartAPI, itemAPI } from '../api/axios';
 
 const ItemDetail = () => {
     const { id } = useParams();
@@ -10,11 +10,24 @@ const ItemDetail = () => {
     const [error, setError] = useState('');
     const [addingToCart, setAddingToCart] = useState(false);
     const [successMessage, setSuccessMessage] = useState('');
+    const [similarItems, setSimilarItems] = useState([]);
 
     useEffect(() => {
         fetchItem();
+        fetchSimilar();
     }, [id]);
 
+    // Suggestions are optional; a failure just hides the section
+    const fetchSimilar = async () => {
+        try {
+            const response = await itemAPI.getSimilar(id);
+            setSimilarItems(response.data);
+        } catch (err) {
+            console.error('Failed to fetch similar items:', err);
+            setSimilarItems([]);
+        }
+    };
+
     const fetchItem = async () => {
         try {
             setLoading(true);
@@ -165,6 +178,36 @@ const ItemDetail = () => {
                         </button>
                     </div>
                 </div>
+
+                {/* Similar Items */}
+                {similarItems.length > 0 && (
+                    <section className="mt-16">
+                        <h2 className="text-2xl font-bold text-white mb-6">Similar items</h2>
+                        <div className="grid grid-cols-2 md:grid-cols-4 gap-6">
+                            {similarItems.map((similar) => (
+                                <button
+                                    key={similar.id}
+                                    onClick={() => navigate(`/items/${similar.id}`)}
+                                    className="text-left bg-gray-800/50 rounded-xl overflow-hidden border border-gray-700/50 hover:border-gray-500 transition-colors"
+                                >
+                                    <div className="aspect-square bg-gray-900">
+                                        {similar.imageUrl ? (
+                                            <img src={similar.imageUrl} alt={similar.title} className="w-full h-full object-cover" />
+                                        ) : (
+                                            <div className="w-full h-full flex items-center justify-center">
+                                                <span className="text-4xl opacity-20">📦</span>
+                                            </div>
+                                        )}
+                                    </div>
+                                    <div className="p-4">
+                                        <p className="text-white font-medium truncate">{similar.title}</p>
+                                        <p className="text-gray-400">${similar.price}</p>
+                                    </div>
+                                </button>
+                            ))}
+                        </div>
+                    </section>
+                )}
             </main>
         </div>
     );